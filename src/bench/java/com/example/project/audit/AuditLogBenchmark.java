@@ -0,0 +1,105 @@
+package com.example.project.audit;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the time an admin action spends on auditing through the {@link AuditLog} with writing and forcing each
+ * event to the file itself.
+ * <p>
+ * The benchmark records the given number of events from the given number of threads, reports the average time spent
+ * in {@link AuditLog#record} and the time until the flusher has written everything, then checks that the file has one
+ * line per event. It ends with a run of synchronous appends for comparison.
+ * </p>
+ * <p>
+ * Usage: {@code AuditLogBenchmark [threads] [events] [synchronous events]}, by default 8 threads, 200,000 events and
+ * 2,000 synchronous events.
+ * </p>
+ */
+public class AuditLogBenchmark {
+    private AuditLogBenchmark() {}
+
+    /**
+     * Runs the benchmark in a temporary directory.
+     *
+     * @param args the number of threads, events and synchronous events
+     * @throws Exception if the log cannot be written
+     */
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int events = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        int synchronousEvents = args.length > 2 ? Integer.parseInt(args[2]) : 2_000;
+        Path directory = Files.createTempDirectory("audit-log");
+        Map<String, Object> before = Map.of("id", 42, "place", "Penang", "price", 799);
+        Map<String, Object> after = Map.of("id", 42, "place", "Penang", "price", 899);
+
+        // The first round warms up the JIT and class loading; only the second one is reported
+        round(directory.resolve("warm-up.log"), threads, events, before, after, false);
+        round(directory.resolve("audit.log"), threads, events, before, after, true);
+
+        Path synchronousPath = directory.resolve("synchronous.log");
+        String line = "{\"time\":0,\"actor\":\"admin@admin.com\",\"action\":\"UPDATE\",\"table\":\"cruise_destination\",\"key\":\"Penang\"}\n";
+        try (FileChannel channel = FileChannel.open(synchronousPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            long start = System.nanoTime();
+            for (int i = 0; i < synchronousEvents; i++) {
+                channel.write(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)));
+                channel.force(false);
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("Synchronous: %.0f ns per event written and forced on the caller thread%n", (double) elapsed / synchronousEvents);
+        }
+    }
+
+    /**
+     * Records events from several threads into a new log and optionally reports the time spent recording and writing
+     * them.
+     */
+    private static void round(Path path, int threads, int events, Map<String, Object> before, Map<String, Object> after, boolean report)
+            throws Exception {
+        AuditLog log = new AuditLog(path);
+        long[] recordNanos = new long[threads];
+        List<Thread> workers = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int worker = t;
+            int share = events / threads + (t < events % threads ? 1 : 0);
+            String actor = "admin" + worker + "@admin.com";
+            workers.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < share; i++) {
+                    long begin = System.nanoTime();
+                    log.record(actor, AuditEvent.Action.UPDATE, "cruise_destination", "42", before, after);
+                    recordNanos[worker] += System.nanoTime() - begin;
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        while (log.getWrittenCount() < events) {
+            Thread.sleep(1);
+        }
+        long elapsed = System.nanoTime() - start;
+        log.close();
+
+        if (!report) {
+            return;
+        }
+        long totalRecordNanos = 0;
+        for (long nanos : recordNanos) {
+            totalRecordNanos += nanos;
+        }
+        long lines;
+        try (var stream = Files.lines(path)) {
+            lines = stream.count();
+        }
+        System.out.printf("AuditLog:    %.0f ns per record() with %d threads, %d events written in %.1f ms, %d lines in the file%n",
+                (double) totalRecordNanos / events, threads, events, elapsed / 1e6, lines);
+    }
+}
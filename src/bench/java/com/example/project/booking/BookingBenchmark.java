@@ -0,0 +1,111 @@
+package com.example.project.booking;
+
+import com.example.project.ConnectionPool;
+import com.example.project.DatabaseManager;
+import com.example.project.catalog.Sailing;
+import com.example.project.repository.SailingRepository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures booking throughput when many customers book the same popular sailing at once.
+ * <p>
+ * The benchmark adds a dedicated sailing, stocks it with a fixed number of cabins, starts the given number of booker threads
+ * that each keep booking one cabin until the sailing is sold out, and reports bookings per second. It then checks that
+ * exactly the stocked number of cabins was sold, so overselling under contention shows up as a failure.
+ * </p>
+ * <p>
+ * Usage: {@code BookingBenchmark [bookers] [cabins] [pool size]}, by default 200 bookers for 2000 cabins on 16 connections.
+ * Run with {@code -Dcruise.db=memory} to book on an embedded in-memory database instead of the MySQL server.
+ * </p>
+ */
+public class BookingBenchmark {
+    /** The place of the sailing the benchmark books, removed again afterwards. */
+    private static final String PLACE = "Booking Benchmark Sailing";
+
+    private BookingBenchmark() {}
+
+    /**
+     * Runs the benchmark against the configured database.
+     *
+     * @param args the number of bookers, the number of cabins and the pool size
+     * @throws Exception if the benchmark cannot set up or clean up its data
+     */
+    public static void main(String[] args) throws Exception {
+        int bookers = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int cabins = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int poolSize = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+
+        DatabaseManager database = DatabaseManager.getInstance();
+        try (ConnectionPool pool = new ConnectionPool(database, poolSize, 30_000)) {
+            BookingService service = new BookingService(pool);
+            SailingRepository sailings = new SailingRepository(pool, Runnable::run);
+            long sailingId = sailings.insert(new Sailing("Malaysia", "2 Nights", PLACE, "Benchmark", "Penang - Penang", 500,
+                    "15 Oct, 2024 - 17 Oct, 2024")).getId();
+            service.setInventory(sailingId, CabinType.INTERIOR, cabins);
+
+            AtomicInteger booked = new AtomicInteger();
+            AtomicInteger soldOut = new AtomicInteger();
+            AtomicInteger failed = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(bookers);
+            for (int i = 0; i < bookers; i++) {
+                String email = "booker" + i + "@benchmark.com";
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                        while (true) {
+                            try {
+                                service.book(email, sailingId, CabinType.INTERIOR, 1);
+                                booked.incrementAndGet();
+                            } catch (BookingException e) {
+                                if (e.getReason() == BookingException.Reason.SOLD_OUT) {
+                                    soldOut.incrementAndGet();
+                                    return;
+                                }
+                                failed.incrementAndGet();
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+
+            long started = System.nanoTime();
+            start.countDown();
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.MINUTES);
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            System.out.printf("%d bookers, %d cabins, %d connections%n", bookers, cabins, poolSize);
+            System.out.printf("Booked %d cabins in %.2f s: %.0f bookings/s (%d failed, %d turned away as sold out)%n",
+                    booked.get(), seconds, booked.get() / seconds, failed.get(), soldOut.get());
+            System.out.println(booked.get() == cabins && service.available(sailingId, CabinType.INTERIOR) == 0
+                    ? "Inventory consistent: every cabin sold exactly once."
+                    : "INCONSISTENT: expected " + cabins + " bookings.");
+
+            cleanUp(pool, sailingId);
+            sailings.delete(sailingId);
+        }
+    }
+
+    /**
+     * Removes the reservations of the benchmark sailing; its inventory goes with the sailing.
+     */
+    private static void cleanUp(ConnectionPool pool, long sailingId) throws Exception {
+        Connection connection = pool.acquire();
+        try (PreparedStatement preparedStatement = connection.prepareStatement("DELETE FROM reservation WHERE sailing_id = ?")) {
+            preparedStatement.setLong(1, sailingId);
+            preparedStatement.executeUpdate();
+        } finally {
+            pool.release(connection);
+        }
+    }
+}
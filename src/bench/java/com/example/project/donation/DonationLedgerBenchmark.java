@@ -0,0 +1,101 @@
+package com.example.project.donation;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many donations per second the {@link DonationLedger} records when many customers donate at once, and
+ * checks that reopening the ledger recovers the same totals.
+ * <p>
+ * The benchmark starts the given number of donor threads, each making its share of the donations to a small set of
+ * charities and waiting for every donation to be acknowledged, as checkout does. It then closes the ledger, reopens it
+ * from its files and compares every total and the last sequence number with those before closing.
+ * </p>
+ * <p>
+ * Usage: {@code DonationLedgerBenchmark [donors] [donations] [directory]}, by default 200 donors making 1,000,000
+ * donations in a new temporary directory.
+ * </p>
+ */
+public class DonationLedgerBenchmark {
+    private static final String[] CHARITIES = {
+            "Reef Check Malaysia", "Tengah Island Conservation", "Marine Stewardship Council Asia",
+            "WWF Malaysia", "Nature Society Singapore", "Green Volunteers Network"};
+
+    private DonationLedgerBenchmark() {}
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the number of donors, the number of donations and the ledger directory
+     * @throws Exception if the ledger cannot be opened or a donation fails
+     */
+    public static void main(String[] args) throws Exception {
+        int donors = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int donations = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        Path directory = args.length > 2 ? Paths.get(args[2]) : Files.createTempDirectory("donation-ledger");
+
+        DonationLedger ledger = new DonationLedger(directory, true);
+        long before = ledger.getLastSequence();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(donors);
+        List<CompletableFuture<Void>> done = new ArrayList<>();
+        for (int i = 0; i < donors; i++) {
+            String email = "donor" + i + "@benchmark.com";
+            int share = donations / donors + (i < donations % donors ? 1 : 0);
+            done.add(CompletableFuture.runAsync(() -> {
+                try {
+                    start.await();
+                    for (int j = 0; j < share; j++) {
+                        ledger.donate(CHARITIES[j % CHARITIES.length], email, 100 + j % 5000, null).join();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, executor));
+        }
+
+        long startTime = System.nanoTime();
+        start.countDown();
+        CompletableFuture.allOf(done.toArray(new CompletableFuture<?>[0])).join();
+        long elapsed = System.nanoTime() - startTime;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        System.out.printf("%d donations by %d donors in %.2f s: %.0f donations/s%n",
+                ledger.getLastSequence() - before, donors, elapsed / 1e9, (ledger.getLastSequence() - before) / (elapsed / 1e9));
+        for (Map.Entry<String, DonationTotal> entry : ledger.getTotals().entrySet()) {
+            System.out.println("  " + entry.getKey() + ": " + entry.getValue());
+        }
+
+        long lastSequence = ledger.getLastSequence();
+        List<String> totals = describe(ledger);
+        ledger.close();
+
+        long reopenStart = System.nanoTime();
+        try (DonationLedger reopened = new DonationLedger(directory, true)) {
+            boolean same = reopened.getLastSequence() == lastSequence && describe(reopened).equals(totals);
+            System.out.printf("Reopened in %.1f ms, totals %s%n", (System.nanoTime() - reopenStart) / 1e6,
+                    same ? "match" : "DO NOT match");
+        }
+        try (var files = Files.list(directory)) {
+            files.sorted().forEach(file -> System.out.println("  " + file.getFileName()));
+        }
+    }
+
+    private static List<String> describe(DonationLedger ledger) {
+        List<String> totals = new ArrayList<>();
+        for (String charity : CHARITIES) {
+            totals.add(charity + "=" + ledger.getTotal(charity));
+        }
+        return totals;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.project.filehandling;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Compares the throughput of writing an export through {@link PrintWriter}, as the exporters used to, with publishing
+ * it through an {@link AtomicFileOutputStream} under each {@link AtomicFileOutputStream.SyncPolicy}.
+ * <p>
+ * The benchmark builds an export of the given number of cruise records in the layout of {@code formatData()}, writes
+ * it a few times on each path and reports the best run in MB/s. The cost of the sync policies depends almost entirely
+ * on the disk, so run it on the machine that will do the exports.
+ * </p>
+ * <p>
+ * Usage: {@code ExportWriteBenchmark [records] [directory]}, by default 200 000 records in the temporary directory.
+ * </p>
+ */
+public class ExportWriteBenchmark {
+    private static final int RUNS = 3;
+
+    private ExportWriteBenchmark() {}
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the number of records and the directory to write in
+     * @throws IOException if a file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        int records = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        Path directory = Paths.get(args.length > 1 ? args[1] : System.getProperty("java.io.tmpdir"));
+
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < records; i++) {
+            text.append(CruiseData.HEADER).append("\n")
+                    .append(i % 2 == 0 ? "Malaysia" : "Singapore").append(" , ")
+                    .append(i % 4 + 1).append(" Nights , ")
+                    .append("Sailing ").append(i).append(" , ")
+                    .append("Ship ").append(i % 7).append(" , ")
+                    .append("Singapore - Penang - Port Klang - Singapore , ")
+                    .append(300 + i % 500).append(" , ")
+                    .append("15 Oct, 2024 - 17 Oct, 2024").append("\n\n");
+        }
+        String data = text.toString();
+        double megabytes = (data.length() + System.lineSeparator().length()) / 1e6;
+        Path target = directory.resolve("exportBenchmark.txt");
+        System.out.printf("%,d records, %.1f MB%n", records, megabytes);
+
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long began = System.nanoTime();
+            try (PrintWriter writer = new PrintWriter(target.toFile())) {
+                writer.println(data);
+            }
+            best = Math.min(best, System.nanoTime() - began);
+        }
+        report("PrintWriter", megabytes, best);
+
+        for (AtomicFileOutputStream.SyncPolicy syncPolicy : AtomicFileOutputStream.SyncPolicy.values()) {
+            best = Long.MAX_VALUE;
+            for (int run = 0; run < RUNS; run++) {
+                long began = System.nanoTime();
+                try (AtomicFileOutputStream out = new AtomicFileOutputStream(target, syncPolicy)) {
+                    Writer writer = new OutputStreamWriter(out, Charset.defaultCharset());
+                    writer.append(data).append(System.lineSeparator());
+                    writer.flush();
+                    out.commit();
+                }
+                best = Math.min(best, System.nanoTime() - began);
+            }
+            report("Atomic, sync " + syncPolicy.name().toLowerCase(), megabytes, best);
+        }
+        Files.deleteIfExists(target);
+    }
+
+    private static void report(String path, double megabytes, long nanos) {
+        System.out.printf("%-32s %8.1f MB/s%n", path, megabytes / (nanos / 1e9));
+    }
+}
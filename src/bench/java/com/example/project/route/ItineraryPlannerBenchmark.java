@@ -0,0 +1,98 @@
+package com.example.project.route;
+
+import com.example.project.catalog.Sailing;
+import com.example.project.catalog.SailingDates;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures how long a trip takes to plan on a large catalog, to show that an answer comes well within 100 ms.
+ * <p>
+ * The catalog is made of random sailings between a number of ports, each calling at one to four ports and lasting
+ * one to seven nights, over a year of departures. Trips are planned between random pairs of ports, alternately by
+ * price and by nights; the benchmark reports the mean, the 99th percentile and the slowest plan, how many trips were
+ * found, and the time to build the departures once after the index changes.
+ * </p>
+ * <p>
+ * Usage: {@code ItineraryPlannerBenchmark [sailings] [ports] [plans]}, by default 20 000 sailings between 60 ports, of
+ * which 2 000 trips are planned.
+ * </p>
+ */
+public class ItineraryPlannerBenchmark {
+    private static final LocalDate FIRST_DEPARTURE = LocalDate.of(2025, 1, 1);
+
+    private ItineraryPlannerBenchmark() {}
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the number of sailings, the number of ports and the number of trips planned
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int portCount = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        int plans = args.length > 2 ? Integer.parseInt(args[2]) : 2_000;
+        Random random = new Random(42);
+
+        String[] ports = new String[portCount];
+        for (int i = 0; i < portCount; i++) {
+            ports[i] = "Port " + i;
+        }
+        List<Sailing> sailings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sailings.add(sailing(i + 1, ports, random));
+        }
+
+        RouteIndex routeIndex = new RouteIndex();
+        routeIndex.load(sailings);
+        ItineraryPlanner planner = new ItineraryPlanner(routeIndex);
+        long began = System.nanoTime();
+        planner.plan(ports[0], ports[1], FIRST_DEPARTURE, ItineraryPlanner.Criterion.PRICE);
+        System.out.printf("indexed %,d sailings and built the departures in %,d ms%n", count,
+                (System.nanoTime() - began) / 1_000_000);
+
+        // Warm up so the timed runs measure compiled code
+        for (int i = 0; i < plans; i++) {
+            plan(planner, ports, random, i);
+        }
+
+        long[] times = new long[plans];
+        int found = 0;
+        for (int i = 0; i < plans; i++) {
+            long start = System.nanoTime();
+            if (plan(planner, ports, random, i)) {
+                found++;
+            }
+            times[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+        System.out.printf("%,d plans (%,d found): mean %.2f ms, p99 %.2f ms, max %.2f ms, target 100 ms%n",
+                plans, found, Arrays.stream(times).average().orElse(0) / 1_000_000,
+                times[(int) (plans * 0.99)] / 1_000_000.0, times[plans - 1] / 1_000_000.0);
+    }
+
+    private static boolean plan(ItineraryPlanner planner, String[] ports, Random random, int i) {
+        String from = ports[random.nextInt(ports.length)];
+        String to = ports[random.nextInt(ports.length)];
+        LocalDate earliest = FIRST_DEPARTURE.plusDays(random.nextInt(270));
+        ItineraryPlanner.Criterion criterion = i % 2 == 0 ? ItineraryPlanner.Criterion.PRICE : ItineraryPlanner.Criterion.NIGHTS;
+        return planner.plan(from, to, earliest, criterion).isPresent();
+    }
+
+    private static Sailing sailing(long id, String[] ports, Random random) {
+        int nights = 1 + random.nextInt(7);
+        int calls = 1 + random.nextInt(4);
+        StringBuilder route = new StringBuilder(ports[random.nextInt(ports.length)]);
+        for (int i = 0; i < calls; i++) {
+            route.append(" - ").append(ports[random.nextInt(ports.length)]);
+        }
+        LocalDate start = FIRST_DEPARTURE.plusDays(random.nextInt(365));
+        String date = SailingDates.FORMAT.format(start) + " - " + SailingDates.FORMAT.format(start.plusDays(nights));
+        return new Sailing(id, "Singapore", nights + (nights == 1 ? " Night" : " Nights"), ports[0], "Benchmark Star",
+                route.toString(), 200 + random.nextInt(2_000), date);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.project.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures how long a suggestion takes on a large vocabulary, to show that it fits in one frame (16 ms) many times
+ * over.
+ * <p>
+ * The vocabulary is made of random place-like names, with frequencies skewed like those of real ports. Every term is
+ * typed letter by letter as a user would, and each keystroke's suggestion is timed; the benchmark reports the mean, the
+ * 99th percentile and the slowest suggestion, and the time to build the trie and to remove a tenth of the terms.
+ * </p>
+ * <p>
+ * Usage: {@code SuggestionBenchmark [terms] [typed]}, by default 1 000 000 terms, of which 20 000 are typed.
+ * </p>
+ */
+public class SuggestionBenchmark {
+    private static final String[] SYLLABLES = {"ba", "ka", "la", "ma", "na", "pa", "ra", "sa", "ta", "ko", "lo", "mo",
+            "po", "ri", "si", "ti", "lu", "mu", "nu", "pu", "gar", "ban", "por", "sin", "kel", "dor", "ven", "mar"};
+
+    private SuggestionBenchmark() {}
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the number of terms and the number of terms typed
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int typed = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        Random random = new Random(42);
+
+        List<String> terms = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            terms.add(name(random) + " " + name(random));
+        }
+
+        PrefixTrie trie = new PrefixTrie();
+        long began = System.nanoTime();
+        for (String term : terms) {
+            // A few terms occur often and most rarely, as ports and ships do
+            int occurrences = 1 + (int) Math.min(50, -Math.log(1 - random.nextDouble()) * 2);
+            for (int j = 0; j < occurrences; j++) {
+                trie.add(term);
+            }
+        }
+        System.out.printf("built %,d terms in %,d ms%n", trie.size(), (System.nanoTime() - began) / 1_000_000);
+
+        // Warm up so the timed runs measure compiled code
+        for (int i = 0; i < typed; i++) {
+            trie.suggest(terms.get(random.nextInt(count)).substring(0, 3));
+        }
+
+        List<Long> times = new ArrayList<>();
+        for (int i = 0; i < typed; i++) {
+            String term = terms.get(random.nextInt(count));
+            for (int length = 1; length <= term.length(); length++) {
+                String prefix = term.substring(0, length);
+                long start = System.nanoTime();
+                trie.suggest(prefix);
+                times.add(System.nanoTime() - start);
+            }
+        }
+        long[] sorted = times.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        System.out.printf("%,d keystrokes: mean %.1f us, p99 %.1f us, max %.1f us, frame budget 16000 us%n",
+                sorted.length, Arrays.stream(sorted).average().orElse(0) / 1_000,
+                sorted[(int) (sorted.length * 0.99)] / 1_000.0, sorted[sorted.length - 1] / 1_000.0);
+
+        began = System.nanoTime();
+        for (int i = 0; i < count / 10; i++) {
+            trie.remove(terms.get(i));
+        }
+        System.out.printf("removed %,d occurrences in %,d ms%n", count / 10, (System.nanoTime() - began) / 1_000_000);
+    }
+
+    private static String name(Random random) {
+        StringBuilder name = new StringBuilder();
+        int syllables = 2 + random.nextInt(3);
+        for (int i = 0; i < syllables; i++) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        return name.toString();
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.project.server;
+
+import com.example.project.payment.LatencyHistogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load test for the {@link ApiServer}: keeps a number of clients requesting an endpoint back to back for a while and
+ * reports throughput, errors and latency percentiles.
+ * <p>
+ * Each client is a virtual thread, so thousands of concurrent connections can be simulated from one machine.
+ * Usage: {@code ApiLoadTest [url] [clients] [seconds]}, by default 2000 clients on
+ * {@code http://localhost:8080/api/cruises} for 30 seconds.
+ * </p>
+ */
+public class ApiLoadTest {
+
+    private ApiLoadTest() {}
+
+    /**
+     * Runs the load test against a running server.
+     *
+     * @param args the URL to request, the number of concurrent clients and the duration in seconds
+     * @throws InterruptedException if interrupted while waiting for the clients
+     */
+    public static void main(String[] args) throws InterruptedException {
+        URI uri = URI.create(args.length > 0 ? args[0] : "http://localhost:" + ApiServer.DEFAULT_PORT + "/api/cruises");
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+
+        LatencyHistogram latency = new LatencyHistogram();
+        AtomicLong errors = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        try (HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build()) {
+            ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+            HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+            for (int i = 0; i < clients; i++) {
+                executor.execute(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long started = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        latency.record(System.nanoTime() - started);
+                    }
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+        }
+
+        System.out.printf("%s with %d clients for %d s%n", uri, clients, seconds);
+        System.out.printf("%.0f requests/s, %d errors%n", latency.count() / (double) seconds, errors.get());
+        System.out.println(latency.summary());
+    }
+}
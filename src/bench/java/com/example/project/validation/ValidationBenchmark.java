@@ -0,0 +1,107 @@
+package com.example.project.validation;
+
+import com.example.project.catalog.Charity;
+import com.example.project.catalog.SailingDates;
+import com.example.project.catalog.Sailing;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures how long validating a large catalog takes, checked in parallel and on one thread.
+ * <p>
+ * The catalog is made of random sailings and charities like those of the sample files, with a few entries in a hundred
+ * broken the way the sample files are: a range ending before it starts, a duration not matching the dates, a misspelt
+ * port or an email address with spaces. Each pass runs a few times so the timed runs measure compiled code; the
+ * benchmark reports the fastest run of each and the violations found by rule.
+ * </p>
+ * <p>
+ * Usage: {@code ValidationBenchmark [sailings] [charities]}, by default 1 000 000 sailings and 100 000 charities.
+ * </p>
+ */
+public class ValidationBenchmark {
+    private static final String[][] ROUTES = {
+            {"Singapore", "Singapore - At Sea - Singapore"},
+            {"Singapore", "Singapore - Penang - Kuala Lumpur (Port Klang) - Singapore"},
+            {"Singapore", "Singapore - Phuket - Langkawi - Singapore"},
+            {"Malaysia", "Kuala Lumpur (Port Klang) - Penang - Phuket - Kuala Lumpur (Port Klang)"},
+            {"Malaysia", "Penang - Langkawi - Penang"},
+    };
+    private static final String[] SHIPS = {"Genting Dream", "Resorts World One", "Spectrum of the Seas", "Costa Serena"};
+    private static final int RUNS = 5;
+
+    private ValidationBenchmark() {}
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the number of sailings and the number of charities
+     */
+    public static void main(String[] args) {
+        int sailingCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int charityCount = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        Random random = new Random(42);
+
+        List<Sailing> sailings = new ArrayList<>(sailingCount);
+        for (int i = 0; i < sailingCount; i++) {
+            sailings.add(sailing(i + 1, random));
+        }
+        List<Charity> charities = new ArrayList<>(charityCount);
+        for (int i = 0; i < charityCount; i++) {
+            charities.add(charity(i + 1, random));
+        }
+
+        CatalogValidator validator = new CatalogValidator();
+        long parallel = Long.MAX_VALUE;
+        ValidationReport sailingReport = null;
+        ValidationReport charityReport = null;
+        for (int run = 0; run < RUNS; run++) {
+            long started = System.nanoTime();
+            sailingReport = validator.validateSailings(sailings);
+            charityReport = validator.validateCharities(charities);
+            parallel = Math.min(parallel, System.nanoTime() - started);
+        }
+
+        long sequential = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long started = System.nanoTime();
+            for (Sailing sailing : sailings) {
+                validator.validate(sailing);
+            }
+            for (Charity charity : charities) {
+                validator.validate(charity);
+            }
+            sequential = Math.min(sequential, System.nanoTime() - started);
+        }
+
+        System.out.println("Sailings: " + sailingReport);
+        System.out.println("Charities: " + charityReport);
+        System.out.printf("%,d entries: parallel %,d ms on %d threads, one thread %,d ms%n", sailingCount + charityCount,
+                parallel / 1_000_000, Runtime.getRuntime().availableProcessors(), sequential / 1_000_000);
+    }
+
+    private static Sailing sailing(long id, Random random) {
+        String[] route = ROUTES[random.nextInt(ROUTES.length)];
+        int nights = 2 + random.nextInt(6);
+        LocalDate start = LocalDate.of(2024, 1, 1).plusDays(random.nextInt(730));
+        LocalDate end = start.plusDays(nights);
+        String routeText = route[1];
+        switch (random.nextInt(200)) {
+            case 0 -> end = end.minusYears(1);
+            case 1 -> end = end.plusDays(20);
+            case 2 -> routeText = routeText.replace("Phuket", "Pkuket").replace("Penang", "Penangg");
+            default -> {}
+        }
+        return new Sailing(id, route[0], nights + " Nights", "Sailing " + id, SHIPS[random.nextInt(SHIPS.length)],
+                routeText, nights * (200 + random.nextInt(800)),
+                start.format(SailingDates.FORMAT) + " - " + end.format(SailingDates.FORMAT));
+    }
+
+    private static Charity charity(long id, Random random) {
+        String domain = "charity" + id + ".org.my";
+        String email = random.nextInt(50) == 0 ? "hello @ " + domain : "hello@" + domain;
+        return new Charity(id, "Charity " + id, "NGO", "Malaysia", "", "https://www." + domain + "/", email, "");
+    }
+}
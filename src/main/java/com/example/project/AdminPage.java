@@ -1,21 +1,40 @@
 package com.example.project;
 
+import com.example.project.analytics.CatalogAnalytics;
+import com.example.project.audit.AuditEvent;
+import com.example.project.audit.AuditLog;
+import com.example.project.catalog.CatalogVersion;
+import com.example.project.catalog.EditMerge;
+import com.example.project.catalog.Sailing;
+import com.example.project.catalog.SailingDates;
+import com.example.project.catalog.VersionedCatalog;
+import com.example.project.repository.Repositories;
+import com.example.project.repository.SailingRepository;
+import com.example.project.repository.Versioned;
+import com.example.project.route.Itinerary;
+import com.example.project.route.ItineraryPlanner;
+import com.example.project.route.RouteIndex;
+import com.example.project.validation.CatalogValidator;
+import com.example.project.validation.ValidationReport;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javax.swing.*;
 import java.awt.*;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Optional;
 
 /**
  * The AdminPage class represents the administrative interface for managing cruise destinations in the Cruise Booking System.
  * It provides methods for adding, updating, and deleting cruise details in the database.
  * <p>
  * This class also integrates with the user interface components through the {@link AdminPageUI} class and
- * interacts with the database using {@link DatabaseManager}.
+ * reads and saves the destinations through the {@link SailingRepository}.
  * </p>
  */
 public class AdminPage extends Component implements DatabaseOperations {
+    /** The labels of the fields of a cruise destination in the update dialog, in the order of its columns. */
+    private static final String[] DESTINATION_FIELDS = {"Country from", "Duration", "Place", "Cruise Ship", "Route", "Price", "Date"};
+
     /**
      * The user interface for the admin page.
      * <p>
@@ -26,13 +45,44 @@ public class AdminPage extends Component implements DatabaseOperations {
     private AdminPageUI adminPageUI;
 
     /**
-     * The database manager instance used for database operations.
+     * The repository the cruise destinations are read from and saved to.
+     * <p>
+     * This field holds the {@link SailingRepository} of the shared {@link Repositories}, which runs every statement on
+     * the connections of its pool.
+     * </p>
+     */
+    private SailingRepository sailings;
+
+    /**
+     * The index of sailings by the ports on their routes.
      * <p>
-     * This field holds an instance of {@link DatabaseManager}, which is responsible for managing connections
-     * to the database and performing CRUD (Create, Read, Update, Delete) operations on the database.
+     * This field holds the shared {@link RouteIndex}, which applies every change published to the
+     * {@link VersionedCatalog} so that route searches never have to re-read the table.
      * </p>
      */
-    private DatabaseManager database;
+    private RouteIndex routeIndex;
+
+    /**
+     * The planner used to chain sailings into multi-leg trips over the {@link RouteIndex}.
+     */
+    private ItineraryPlanner itineraryPlanner;
+
+    /**
+     * The aggregates over all sailings, following the changes of the catalog like the {@link RouteIndex}.
+     */
+    private CatalogAnalytics analytics;
+
+    /**
+     * The catalog versions the pages read, published anew after every successful add, update and delete. The indexes
+     * follow the changes published to it.
+     */
+    private VersionedCatalog versionedCatalog;
+
+    /** The log every successful add, update and delete is recorded in, with the values before and after. */
+    private AuditLog auditLog;
+
+    /** The logged-in admin, recorded as the author of each change. */
+    private Login login;
 
     /**
      * Constructs an AdminPage instance.
@@ -42,7 +92,13 @@ public class AdminPage extends Component implements DatabaseOperations {
      */
     protected AdminPage(CruiseBookingSystem cbs, Login login) {
         this.adminPageUI = new AdminPageUI(this, cbs, login);
-        this.database = DatabaseManager.getInstance();
+        this.sailings = Repositories.getInstance().sailings();
+        this.routeIndex = RouteIndex.getInstance();
+        this.itineraryPlanner = new ItineraryPlanner(routeIndex);
+        this.analytics = CatalogAnalytics.getInstance();
+        this.auditLog = AuditLog.getInstance();
+        this.login = login;
+        this.versionedCatalog = VersionedCatalog.getInstance();
     }
 
     /**
@@ -98,24 +154,20 @@ public class AdminPage extends Component implements DatabaseOperations {
         String date = txtDate.getText();
         int price = Integer.parseInt(txtPrice.getText());
 
-        try {
-
-            PreparedStatement preparedStatement = database.getConnection().prepareStatement("INSERT INTO cruise_destination (country_from,duration,place,cruise_ship,route,price,date) VALUES (?, ?, ?, ?, ?, ?, ?);");
-
-            preparedStatement.setString(1, country_from);
-            preparedStatement.setString(2, duration);
-            preparedStatement.setString(3, place);
-            preparedStatement.setString(4, cruise_ship);
-            preparedStatement.setString(5, route);
-            preparedStatement.setInt(6, price);
-            preparedStatement.setString(7, date);
-
-            preparedStatement.executeUpdate();
-        } catch (SQLException e) {
-            System.out.println(e.getMessage());
+        Sailing entered = new Sailing(country_from, duration, place, cruise_ship, route, price, date);
+        if (!confirmValid(entered, "Add New Destination")) {
+            return;
         }
 
-
+        // Insert the destination off the JavaFX thread; it comes back with the key the database generated for it
+        sailings.insertAsync(entered).whenComplete((sailing, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                System.out.println(error.getMessage());
+                return;
+            }
+            versionedCatalog.addSailing(sailing);
+            auditLog.recordSailing(login.getEmail(), AuditEvent.Action.ADD, sailing.getId(), null, sailing);
+        }));
     }
 
     /**
@@ -125,23 +177,33 @@ public class AdminPage extends Component implements DatabaseOperations {
      * and removes it from the database if confirmed.
      * </p>
      *
-     * @param deleteBtnDetail the place identifier of the cruise destination to be deleted
+     * @param id the surrogate key of the cruise destination to be deleted
      */
     @Override
-    public void delete(String deleteBtnDetail){
+    public void delete(long id){
         try {
+            Sailing deleted = versionedCatalog.current().sailing(id);
+            if (deleted == null) {
+                JOptionPane.showMessageDialog(this, "This destination no longer exists.", "Delete Place", JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            String place = deleted.getPlace();
+
             // Show Message
-            JOptionPane.showMessageDialog(this, deleteBtnDetail, "Choose place", JOptionPane.PLAIN_MESSAGE);
+            JOptionPane.showMessageDialog(this, place, "Choose place", JOptionPane.PLAIN_MESSAGE);
 
-            int result = JOptionPane.showConfirmDialog(this,"Are you confirm to delete "+deleteBtnDetail+"?", "Delete Place", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
+            int result = JOptionPane.showConfirmDialog(this,"Are you confirm to delete "+place+"?", "Delete Place", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
 
             if(result == JOptionPane.YES_OPTION) {
-                // Prepare an SQL statement to delete the cruise details from the table 'cruise_destination' in the database
-                PreparedStatement preparedStatement = database.getConnection().prepareStatement("DELETE FROM cruise_destination WHERE place = ?");
-
-                preparedStatement.setString(1, deleteBtnDetail);
-
-                preparedStatement.executeUpdate();
+                // Delete the cruise details from the table 'cruise_destination' in the database, off the JavaFX thread
+                sailings.deleteAsync(id).whenComplete((removed, error) -> Platform.runLater(() -> {
+                    if (error != null) {
+                        System.out.println(error.getMessage());
+                    } else if (removed) {
+                        versionedCatalog.removeSailing(id);
+                        auditLog.recordSailing(login.getEmail(), AuditEvent.Action.DELETE, id, deleted, null);
+                    }
+                }));
             }
         } catch (Exception e) {
             System.out.println(e.getMessage());
@@ -152,104 +214,244 @@ public class AdminPage extends Component implements DatabaseOperations {
      * Updates the details of an existing cruise destination in the database.
      * <p>
      * This method allows the user to modify the details of a selected destination
-     * and saves the changes to the database.
+     * and saves the changes to the database. The destination is not locked while the dialog is open; instead the
+     * changes are only saved if the destination still has the version it was read at. If another admin saved it
+     * first, their changes are merged with this admin's, who can review the result and save again or cancel.
+     * The destination is read and saved off the JavaFX thread, and each answer of the database is handled back on it.
      * </p>
      *
-     * @param updateBtnDetails the place identifier of the cruise destination to be updated
+     * @param id the surrogate key of the cruise destination to be updated
      */
     @Override
-    public void update(String updateBtnDetails){
-        try {
-            // Prepare the SELECT statement to fetch the details from the database based on the place
-            PreparedStatement preparedStatement = database.getConnection().prepareStatement(
-                    "SELECT country_from, duration, place, cruise_ship, route, price, date FROM cruise_destination WHERE place = ?");
-            preparedStatement.setString(1, updateBtnDetails);
-
-            // Execute the query and fetch the result
-            ResultSet resultSet = preparedStatement.executeQuery();
-
-            // Initialize variables to hold the fetched data
-            String country_from = "";
-            String duration = "";
-            String place = "";
-            String cruise_ship = "";
-            String route = "";
-            String date = "";
-            int price = 0;
-
-            // If the record is found, populate the variables
-            if (resultSet.next()) {
-                country_from = resultSet.getString("country_from");
-                duration = resultSet.getString("duration");
-                place = resultSet.getString("place");
-                cruise_ship = resultSet.getString("cruise_ship");
-                route = resultSet.getString("route");
-                price = resultSet.getInt("price");
-                date = resultSet.getString("date");
+    public void update(long id){
+        // Fetch the details and the version of the destination based on its key
+        sailings.findVersionedAsync(id).whenComplete((base, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                System.out.println(error.getMessage());
+                return;
             }
-
-            // Create the panel and set preferred size for layout
-            JPanel panel = new JPanel(new GridLayout(7, 2, 10, 10));
-            panel.setPreferredSize(new Dimension(500, 300));
-
-            // Pre-fill the text fields with the fetched data
-            JTextField txtCountry_from = new JTextField(country_from);
-            JTextField txtDuration = new JTextField(duration);
-            JTextField txtPlace = new JTextField(place);
-            JTextField txtCruise_ship = new JTextField(cruise_ship);
-            JTextField txtRoute = new JTextField(route);
-            JTextField txtPrice = new JTextField(String.valueOf(price)); // Convert price to String
-            JTextField txtDate = new JTextField(date);
-
-            // Add labels and text fields to the panel
-            panel.add(new JLabel("Country from: "));
-            panel.add(txtCountry_from);
-            panel.add(new JLabel("Duration: "));
-            panel.add(txtDuration);
-            panel.add(new JLabel("Place: "));
-            panel.add(txtPlace);
-            panel.add(new JLabel("Cruise Ship: "));
-            panel.add(txtCruise_ship);
-            panel.add(new JLabel("Route: "));
-            panel.add(txtRoute);
-            panel.add(new JLabel("Price: "));
-            panel.add(txtPrice);
-            panel.add(new JLabel("Date: "));
-            panel.add(txtDate);
-
-            // Show the input dialog with pre-filled data
-            int option = JOptionPane.showConfirmDialog(null, panel, "Update Cruise Destination", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
-
-            // If the user presses OK, update the record in the database with new values
-            if (option == JOptionPane.OK_OPTION) {
-                // Extract user input from text fields
-                country_from = txtCountry_from.getText();
-                duration = txtDuration.getText();
-                place = txtPlace.getText();
-                cruise_ship = txtCruise_ship.getText();
-                route = txtRoute.getText();
-                date = txtDate.getText();
-                String pricetext = txtPrice.getText();
-                price = Integer.parseInt(pricetext); // Parse the price as an integer
-
-                // Prepare an SQL statement to update the cruise destination in the database
-                preparedStatement = database.getConnection().prepareStatement(
-                        "UPDATE cruise_destination SET country_from = ?, duration = ?, place = ?, cruise_ship = ?, route = ?, price = ?, date = ? WHERE place = ?");
-                preparedStatement.setString(1, country_from);
-                preparedStatement.setString(2, duration);
-                preparedStatement.setString(3, place);
-                preparedStatement.setString(4, cruise_ship);
-                preparedStatement.setString(5, route);
-                preparedStatement.setInt(6, price);
-                preparedStatement.setString(7, date);
-                preparedStatement.setString(8, updateBtnDetails);
-
-                // Execute the update query
-                preparedStatement.executeUpdate();
+            if (base == null) {
+                JOptionPane.showMessageDialog(null, "This destination no longer exists.", "Update Cruise Destination", JOptionPane.WARNING_MESSAGE);
+                return;
             }
+            edit(id, base, fields(base.getValue()));
+        }));
+    }
 
+    /**
+     * Lets the admin edit a destination read at a version, starting from the given values, and saves the result.
+     *
+     * @param id     the surrogate key of the cruise destination
+     * @param base   the destination and the version it was read at
+     * @param values the values shown in the dialog
+     */
+    private void edit(long id, Versioned<Sailing> base, String[] values) {
+        Sailing sailing;
+        try {
+            values = showUpdateDialog(values);
+            while (true) {
+                if (values == null) {
+                    return;
+                }
+                sailing = new Sailing(id, values[0], values[1], values[2], values[3], values[4], Integer.parseInt(values[5]), values[6]);
+                if (confirmValid(sailing, "Update Cruise Destination")) {
+                    break;
+                }
+                values = showUpdateDialog(values);
+            }
         } catch (Exception e) {
             System.out.println(e.getMessage());
+            return;
+        }
+
+        // Save the destination only if nobody saved it since it was read, and publish it so that its route is re-indexed
+        Sailing saved = sailing;
+        String[] entered = values;
+        Sailing before = versionedCatalog.current().sailing(id);
+        sailings.updateAsync(saved, base.getVersion()).whenComplete((updated, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                System.out.println(error.getMessage());
+                return;
+            }
+            if (updated) {
+                versionedCatalog.updateSailing(saved);
+                auditLog.recordSailing(login.getEmail(), AuditEvent.Action.UPDATE, id, before, saved);
+                return;
+            }
+            merge(id, base, entered);
+        }));
+    }
+
+    /**
+     * Merges the values an admin entered with those another admin saved first, and lets the admin review them.
+     *
+     * @param id      the surrogate key of the cruise destination
+     * @param base    the destination and the version the admin's values were based on
+     * @param entered the values the admin entered
+     */
+    private void merge(long id, Versioned<Sailing> base, String[] entered) {
+        sailings.findVersionedAsync(id).whenComplete((current, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                System.out.println(error.getMessage());
+                return;
+            }
+            if (current == null) {
+                JOptionPane.showMessageDialog(null, "Another admin deleted this destination while you were editing it.", "Update Conflict", JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            EditMerge merge = new EditMerge(DESTINATION_FIELDS, fields(base.getValue()), entered, fields(current.getValue()));
+            JOptionPane.showMessageDialog(null, merge.describe(), "Update Conflict", JOptionPane.WARNING_MESSAGE);
+            edit(id, current, merge.getMerged());
+        }));
+    }
+
+    /**
+     * Checks a destination against the rules of the catalog before it is saved.
+     * <p>
+     * A destination breaking a rule that is an error is not saved. One that only draws warnings is saved if the admin
+     * confirms it.
+     * </p>
+     *
+     * @param sailing the destination to be saved
+     * @param title   the title of the dialogs
+     * @return {@code true} if the destination may be saved
+     */
+    private boolean confirmValid(Sailing sailing, String title) {
+        // Checked against the ports the current catalog starts from as well as the usual ports of the region
+        ValidationReport report = CatalogValidator.forCatalog(versionedCatalog.current()).validate(sailing);
+        if (report.hasErrors()) {
+            JOptionPane.showMessageDialog(null, report.describe(), title, JOptionPane.ERROR_MESSAGE);
+            return false;
+        }
+        if (!report.isClean()) {
+            int result = JOptionPane.showConfirmDialog(null, report.describe() + "\n\nSave anyway?", title, JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+            return result == JOptionPane.YES_OPTION;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the details of a cruise destination as shown in the update dialog.
+     *
+     * @param sailing the cruise destination
+     * @return the details in the order of {@link #DESTINATION_FIELDS}
+     */
+    private static String[] fields(Sailing sailing) {
+        return new String[] {
+                sailing.getCountryFrom(),
+                sailing.getDuration(),
+                sailing.getPlace(),
+                sailing.getCruiseShip(),
+                sailing.getRoute(),
+                String.valueOf(sailing.getPrice()),
+                sailing.getDate()
+        };
+    }
+
+    /**
+     * Shows the dialog for editing the details of a cruise destination.
+     *
+     * @param values the details to pre-fill, in the order of {@link #DESTINATION_FIELDS}
+     * @return the edited details, or {@code null} if the user cancelled
+     */
+    private String[] showUpdateDialog(String[] values) {
+        // Create the panel and set preferred size for layout
+        JPanel panel = new JPanel(new GridLayout(7, 2, 10, 10));
+        panel.setPreferredSize(new Dimension(500, 300));
+
+        // Add labels and text fields pre-filled with the details to the panel
+        JTextField[] fields = new JTextField[DESTINATION_FIELDS.length];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = new JTextField(values[i]);
+            panel.add(new JLabel(DESTINATION_FIELDS[i] + ": "));
+            panel.add(fields[i]);
+        }
+
+        // Show the input dialog with pre-filled data
+        int option = JOptionPane.showConfirmDialog(null, panel, "Update Cruise Destination", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (option != JOptionPane.OK_OPTION) {
+            return null;
         }
+
+        // Extract user input from text fields
+        String[] edited = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            edited[i] = fields[i].getText();
+        }
+        return edited;
+    }
+
+    /**
+     * Plans a multi-leg trip between two ports.
+     * <p>
+     * This method prompts the user for the ports, the earliest date and whether to optimise for price or nights,
+     * then shows the best combination of sailings found by the {@link ItineraryPlanner}.
+     * </p>
+     */
+    public void planItinerary() {
+        JPanel panel = new JPanel(new GridLayout(4, 2, 10, 10));
+
+        JComboBox<String> cmbFrom = new JComboBox<>(routeIndex.ports().toArray(new String[0]));
+        JComboBox<String> cmbTo = new JComboBox<>(routeIndex.ports().toArray(new String[0]));
+        JTextField txtEarliest = new JTextField(LocalDate.now().format(SailingDates.FORMAT));
+        JComboBox<ItineraryPlanner.Criterion> cmbCriterion = new JComboBox<>(ItineraryPlanner.Criterion.values());
+
+        panel.add(new JLabel("From: "));
+        panel.add(cmbFrom);
+        panel.add(new JLabel("To: "));
+        panel.add(cmbTo);
+        panel.add(new JLabel("Earliest date: "));
+        panel.add(txtEarliest);
+        panel.add(new JLabel("Optimise for: "));
+        panel.add(cmbCriterion);
+
+        int option = JOptionPane.showConfirmDialog(this, panel, "Plan Itinerary", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (option != JOptionPane.OK_OPTION || cmbFrom.getSelectedItem() == null || cmbTo.getSelectedItem() == null) {
+            return;
+        }
+
+        Optional<Itinerary> itinerary = itineraryPlanner.plan(
+                cmbFrom.getSelectedItem().toString(),
+                cmbTo.getSelectedItem().toString(),
+                SailingDates.parse(txtEarliest.getText()),
+                (ItineraryPlanner.Criterion) cmbCriterion.getSelectedItem());
+
+        JOptionPane.showMessageDialog(this, itinerary.map(Itinerary::toString).orElse("No itinerary found."), "Itinerary", JOptionPane.PLAIN_MESSAGE);
+    }
+
+    /**
+     * Shows the aggregates over all sailings.
+     * <p>
+     * This method shows the number of sailings per country and month of departure and the prices per route and
+     * cruise ship, read from the {@link CatalogAnalytics} without querying the database.
+     * </p>
+     */
+    public void showAnalytics() {
+        JTextArea txtReport = new JTextArea(analytics.report(), 20, 60);
+        txtReport.setEditable(false);
+        JOptionPane.showMessageDialog(this, new JScrollPane(txtReport), "Statistics", JOptionPane.PLAIN_MESSAGE);
+    }
+
+    /**
+     * Checks the whole catalog against its rules and shows the violations by rule.
+     * <p>
+     * The sailings and charities of the current {@link CatalogVersion} are checked in parallel by the
+     * {@link CatalogValidator}, without querying the database.
+     * </p>
+     */
+    public void showValidation() {
+        CatalogVersion catalog = versionedCatalog.current();
+        CatalogValidator validator = CatalogValidator.forCatalog(catalog);
+        ValidationReport sailingReport = validator.validateSailings(catalog.getSailings());
+        ValidationReport charityReport = validator.validateCharities(catalog.getCharities());
+
+        StringBuilder report = new StringBuilder("Destinations: ").append(sailingReport);
+        sailingReport.getViolations().forEach(violation -> report.append("\n    ").append(violation));
+        report.append("\n\nCharities: ").append(charityReport);
+        charityReport.getViolations().forEach(violation -> report.append("\n    ").append(violation));
+
+        JTextArea txtReport = new JTextArea(report.toString(), 20, 80);
+        txtReport.setEditable(false);
+        JOptionPane.showMessageDialog(this, new JScrollPane(txtReport), "Data Quality", JOptionPane.PLAIN_MESSAGE);
     }
 }
@@ -1,5 +1,6 @@
 package com.example.project;
 
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.ComboBox;
@@ -22,10 +23,18 @@ import javafx.geometry.Insets;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.effect.DropShadow;
-
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.Statement;
+import com.example.project.catalog.CatalogChange;
+import com.example.project.catalog.Charity;
+import com.example.project.catalog.Sailing;
+import com.example.project.catalog.VersionedCatalog;
+import com.example.project.route.CharityMatchIndex;
+import com.example.project.search.CatalogSuggestions;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
 
 /**
  * This class is responsible for constructing the user interface for the admin page of the cruise booking system.
@@ -35,6 +44,7 @@ import java.sql.Statement;
 public class AdminPageUI {
     private String selectedCountry = "All";
     private String selectedDuration = "All";
+    private String searchText = "";
     private ComboBox<String> category;
     private ComboBox<String> duration;
     private VBox mainVBox;
@@ -42,7 +52,18 @@ public class AdminPageUI {
     private CruiseBookingSystem cbs;
     private Login login;
     private AdminPage adminPage;
-    private ResultSet resultSet;
+
+    /** The card shown for every listed cruise, by id, to patch a single card when a cruise changes. */
+    private final Map<Long, BorderPane> cards = new HashMap<>();
+
+    /** The catalog versions the lists are read from, without waiting for admins saving changes. */
+    private final VersionedCatalog versionedCatalog = VersionedCatalog.getInstance();
+
+    /** The places, cruise ships and ports suggested while typing in the search box. */
+    private final CatalogSuggestions catalogSuggestions = CatalogSuggestions.getInstance();
+
+    /** The precomputed charities along the route of every sailing, shown on the cruise cards. */
+    private final CharityMatchIndex charityMatchIndex = CharityMatchIndex.getInstance();
 
     /**
      * Constructs an AdminPageUI instance.
@@ -59,6 +80,9 @@ public class AdminPageUI {
         this.mainVBox = new VBox();
         this.category = new ComboBox<>();
         this.duration = new ComboBox<>();
+
+        // Patch the card of every cruise added, updated or deleted, here or by another admin
+        versionedCatalog.onSailingChange(change -> Platform.runLater(() -> applyChange(change)));
     }
 
     /**
@@ -193,8 +217,6 @@ public class AdminPageUI {
         Button btnAdd = new Button("Add");
         btnAdd.setOnAction(event -> {
             adminPage.add();
-            mainVBox.getChildren().clear();
-            CruiseBorderPane();
             System.out.println("Destination added");
 
         });
@@ -203,6 +225,32 @@ public class AdminPageUI {
         btnAdd.setOnMouseEntered(e -> btnAdd.setStyle("-fx-background-color: transparent; -fx-border-color: #FFFFFF; -fx-border-width: 1;-fx-text-fill:#FFFFFF;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:18px;"));
         btnAdd.setOnMouseExited(e -> btnAdd.setStyle("-fx-background-color: #FFFFFF; -fx-border-color: #91C9FF; -fx-border-width: 1;-fx-text-fill:#4F95DA;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:18px;"));
 
+        //Plan Button to chain sailings into a multi-leg trip
+        Button btnPlan = new Button("Plan Trip");
+        btnPlan.setOnAction(event -> adminPage.planItinerary());
+        btnPlan.setPrefSize(140, 40);
+        btnPlan.setStyle("-fx-background-color: #FFFFFF; -fx-border-color: #91C9FF; -fx-border-width: 1;-fx-text-fill:#4F95DA;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:18px;");
+        btnPlan.setOnMouseEntered(e -> btnPlan.setStyle("-fx-background-color: transparent; -fx-border-color: #FFFFFF; -fx-border-width: 1;-fx-text-fill:#FFFFFF;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:18px;"));
+        btnPlan.setOnMouseExited(e -> btnPlan.setStyle("-fx-background-color: #FFFFFF; -fx-border-color: #91C9FF; -fx-border-width: 1;-fx-text-fill:#4F95DA;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:18px;"));
+
+        Button btnStatistics = new Button("Statistics");
+        btnStatistics.setOnAction(event -> adminPage.showAnalytics());
+        btnStatistics.setPrefSize(140, 40);
+        btnStatistics.setStyle("-fx-background-color: #FFFFFF; -fx-border-color: #91C9FF; -fx-border-width: 1;-fx-text-fill:#4F95DA;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:18px;");
+        btnStatistics.setOnMouseEntered(e -> btnStatistics.setStyle("-fx-background-color: transparent; -fx-border-color: #FFFFFF; -fx-border-width: 1;-fx-text-fill:#FFFFFF;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:18px;"));
+        btnStatistics.setOnMouseExited(e -> btnStatistics.setStyle("-fx-background-color: #FFFFFF; -fx-border-color: #91C9FF; -fx-border-width: 1;-fx-text-fill:#4F95DA;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:18px;"));
+
+        Button btnValidate = new Button("Check Data");
+        btnValidate.setOnAction(event -> adminPage.showValidation());
+        btnValidate.setPrefSize(140, 40);
+        btnValidate.setStyle("-fx-background-color: #FFFFFF; -fx-border-color: #91C9FF; -fx-border-width: 1;-fx-text-fill:#4F95DA;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:18px;");
+        btnValidate.setOnMouseEntered(e -> btnValidate.setStyle("-fx-background-color: transparent; -fx-border-color: #FFFFFF; -fx-border-width: 1;-fx-text-fill:#FFFFFF;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:18px;"));
+        btnValidate.setOnMouseExited(e -> btnValidate.setStyle("-fx-background-color: #FFFFFF; -fx-border-color: #91C9FF; -fx-border-width: 1;-fx-text-fill:#4F95DA;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:18px;"));
+
+        HBox buttonHBox = new HBox(btnAdd, btnPlan, btnStatistics, btnValidate);
+        buttonHBox.setSpacing(30);
+        buttonHBox.setAlignment(Pos.CENTER);
+
         //List of Country
         category = new ComboBox<>();
         category.getItems().addAll("All", "Malaysia", "Singapore");
@@ -227,12 +275,18 @@ public class AdminPageUI {
             CruiseBorderPane();
         });
 
+        //Search box suggesting places, cruise ships and ports as the admin types
+        SearchBox searchBox = new SearchBox(catalogSuggestions.destinations(), "Search place, ship or port", text -> {
+            searchText = text;
+            CruiseBorderPane();
+        });
+
         //Keep combo box
-        HBox filterHBox = new HBox(category, duration);
+        HBox filterHBox = new HBox(searchBox.getField(), category, duration);
         filterHBox.setSpacing(30);
         filterHBox.setAlignment(Pos.CENTER);
 
-        VBox titleVBox = new VBox(title, btnAdd, filterHBox);
+        VBox titleVBox = new VBox(title, buttonHBox, filterHBox);
         titleVBox.setSpacing(30);
         titleVBox.setAlignment(Pos.CENTER);
         titleVBox.setPadding(new Insets(30));
@@ -250,141 +304,186 @@ public class AdminPageUI {
         database = DatabaseManager.getInstance();
 
         mainVBox.getChildren().clear();
+        cards.clear();
+
+        // Read one catalog version, which an admin saving a change at the same time cannot alter or block
+        List<Sailing> sailings = versionedCatalog.current().sailings(selectedCountry, selectedDuration);
 
         try {
-            // Check different filter conditions and execute corresponding queries
-            if (selectedCountry.equals("All") && selectedDuration.equals("All")) {
-                Statement statement = database.getConnection().createStatement();
+            // Loop through the sailings and create a card for each cruise
+            for (Sailing sailing : sailings) {
+                if (!matchesSearch(sailing)) {
+                    continue;
+                }
+                BorderPane borderPane = cruiseCard(sailing);
+                cards.put(sailing.getId(), borderPane);
+                mainVBox.getChildren().add(borderPane);
+            }
+            mainVBox.setSpacing(20);
+            mainVBox.setAlignment(Pos.CENTER);
+            mainVBox.setStyle("-fx-background-color: #E3CAB8;");
+            mainVBox.setPadding(new Insets(30));
 
-                resultSet = statement.executeQuery("SELECT country_from, duration, place, cruise_ship, route, price, date FROM cruise_destination");
+            // Display message if no results found
+            if (mainVBox.getChildren().isEmpty()) {
+                mainVBox.getChildren().add(noResultBorderPane());
+            }
 
-            } else if ((selectedCountry.equals("Malaysia") || selectedCountry.equals("Singapore")) && selectedDuration.equals("All")) {
-                PreparedStatement preparedStatement = database.getConnection().prepareStatement("SELECT country_from, duration, place, cruise_ship, route, price, date FROM cruise_destination WHERE country_from = ?");
 
-                preparedStatement.setString(1, selectedCountry);
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+        }
 
-                resultSet = preparedStatement.executeQuery();
+        return mainVBox;
+    }
 
-            } else if (selectedCountry.equals("All") && (selectedDuration.equals("1 Night") || selectedDuration.equals("2 Nights") || selectedDuration.equals("3 Nights") || selectedDuration.equals("4 Nights"))) {
-                PreparedStatement preparedStatement = database.getConnection().prepareStatement("SELECT country_from, duration, place, cruise_ship, route, price, date FROM cruise_destination WHERE duration = ?");
+    /**
+     * Builds the card of one cruise, with its details and the buttons to update and delete it.
+     *
+     * @param sailing the cruise
+     * @return the card
+     */
+    private BorderPane cruiseCard(Sailing sailing) {
+        Label lblDuration = new Label("Duration: ");
+        Label lblDate = new Label("Date: ");
+        Label lblCountry = new Label("Departure From: ");
+        Label lblCruise_ship = new Label("Cruise Ship: ");
+        Label lblRoute = new Label("Route: ");
+        Label lblPrice = new Label("Price : ");
+        Label lblCharities = new Label("Charities Along Route: ");
+
+        // Retrieve data from the sailing
+        Text duration = new Text(sailing.getDuration());
+        Text place = new Text(sailing.getPlace());
+        place.setFont(Font.font("Eras Demi ITC", 15));
+        Text date = new Text(sailing.getDate());
+        Text country = new Text(sailing.getCountryFrom());
+        Text cruise_ship = new Text(sailing.getCruiseShip());
+        Text route = new Text(sailing.getRoute());
+        Text price = new Text("RM"+sailing.getPrice());
+
+        // Charities in the countries and ports of the route, looked up from the join index
+        StringJoiner charityNames = new StringJoiner(", ");
+        for (Charity charity : charityMatchIndex.charitiesAlong(sailing.getId())) {
+            charityNames.add(charity.getName());
+        }
+        Text charities = new Text(charityNames.length() == 0 ? "-" : charityNames.toString());
+
+
+        // Create "Update" for updating cruise's details
+        Button btnUpdate = new Button("Update");
+        btnUpdate.setUserData(sailing.getId());
+        Button btnDelete = new Button("Delete");
+        btnDelete.setUserData(sailing.getId());
+
+        // Create layout for displaying cruise details
+        GridPane gridPane = new GridPane();
+        gridPane.addColumn(0, lblDuration, lblDate, lblCountry, lblCruise_ship, lblRoute,lblPrice, lblCharities);
+        gridPane.addColumn(1, duration, date, country, cruise_ship, route,price, charities);
+        gridPane.setHgap(10);
+        gridPane.setVgap(5);
+
+        // Create left and right VBox for UI layout
+        VBox vBoxLeft = new VBox(place, gridPane);
+        VBox vBoxRight = new VBox(btnDelete,btnUpdate);
+
+        vBoxRight.setStyle("-fx-background-color: #3c362a;");
+        vBoxRight.setSpacing(30);
+        vBoxRight.setPadding(new Insets(0,60,0,60));
+        vBoxRight.setAlignment(Pos.CENTER);
+
+        btnUpdate.setStyle("-fx-background-color: transparent; -fx-border-color: #FFFFFF; -fx-border-width: 1;-fx-text-fill:#FFFFFF;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:13px;");
+        btnUpdate.setOnMouseEntered(e -> btnUpdate.setStyle("-fx-background-color: #FFFFFF; -fx-border-color: #91C9FF; -fx-border-width: 1;-fx-text-fill:#4F95DA;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:13px;"));
+        btnUpdate.setOnMouseExited(e -> btnUpdate.setStyle("-fx-background-color: transparent; -fx-border-color: #FFFFFF; -fx-border-width: 1;-fx-text-fill:#FFFFFF;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:13px;"));
+
+        // Handle button click to update
+        btnUpdate.setOnAction(event -> {
+            long id = (Long) btnUpdate.getUserData();
+            adminPage.update(id);
+            System.out.println("Destination updated");
+        });
 
-                preparedStatement.setString(1, selectedDuration);
+        btnDelete.setStyle("-fx-background-color: transparent; -fx-border-color: #FFFFFF; -fx-border-width: 1;-fx-text-fill:#FFFFFF;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:13px;");
+        btnDelete.setOnMouseEntered(e -> btnDelete.setStyle("-fx-background-color: #FFFFFF; -fx-border-color: #91C9FF; -fx-border-width: 1;-fx-text-fill:#4F95DA;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:13px;"));
+        btnDelete.setOnMouseExited(e -> btnDelete.setStyle("-fx-background-color: transparent; -fx-border-color: #FFFFFF; -fx-border-width: 1;-fx-text-fill:#FFFFFF;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:13px;"));
 
-                resultSet = preparedStatement.executeQuery();
+        // Handle button click to delete
+        btnDelete.setOnAction(event -> {
+            long id = (Long) btnDelete.getUserData();
+            adminPage.delete(id);
+            System.out.println("Destination deleted");
+        });
 
-            } else if ((selectedCountry.equals("Malaysia") || selectedCountry.equals("Singapore")) && (selectedDuration.equals("1 Night") || selectedDuration.equals("2 Nights") || selectedDuration.equals("3 Nights") || selectedDuration.equals("4 Nights"))) {
-                PreparedStatement preparedStatement = database.getConnection().prepareStatement("SELECT country_from, duration, place, cruise_ship, route, price, date FROM cruise_destination WHERE country_from = ? AND duration = ?");
+        vBoxRight.setAlignment(Pos.CENTER);
+        vBoxLeft.setSpacing(20);
+        BorderPane borderPane = new BorderPane();
+        borderPane.setLeft(vBoxLeft);
+        borderPane.setRight(vBoxRight);
+        BorderPane.setMargin(vBoxLeft, new Insets(30));
+        borderPane.setStyle("-fx-background-color: white; -fx-background-radius: 20; -fx-effect: dropshadow(three-pass-box, rgba(0,0,0,0.7), 10, 0, 0, 0);");
+        return borderPane;
+    }
 
-                preparedStatement.setString(1, selectedCountry);
-                preparedStatement.setString(2, selectedDuration);
+    /**
+     * Checks whether a cruise mentions the text searched for in its place, cruise ship or route, ignoring case.
+     *
+     * @param sailing the cruise
+     * @return {@code true} if it does, or nothing is searched for
+     */
+    private boolean matchesSearch(Sailing sailing) {
+        String text = searchText.toLowerCase(Locale.ROOT);
+        return text.isEmpty() || mentions(sailing.getPlace(), text) || mentions(sailing.getCruiseShip(), text)
+                || mentions(sailing.getRoute(), text);
+    }
 
-                resultSet = preparedStatement.executeQuery();
-            }
+    private static boolean mentions(String value, String text) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(text);
+    }
 
-            // Loop through the result set and create UI elements for each cruise
-            while (resultSet.next()){
-                Label lblDuration = new Label("Duration: ");
-                Label lblDate = new Label("Date: ");
-                Label lblCountry = new Label("Departure From: ");
-                Label lblCruise_ship = new Label("Cruise Ship: ");
-                Label lblRoute = new Label("Route: ");
-                Label lblPrice = new Label("Price : ");
-
-                // Retrieve data from result set
-                Text duration = new Text(resultSet.getString("duration"));
-                Text place = new Text(resultSet.getString("place"));
-                place.setFont(Font.font("Eras Demi ITC", 15));
-                Text date = new Text(resultSet.getString("date"));
-                Text country = new Text(resultSet.getString("country_from"));
-                Text cruise_ship = new Text(resultSet.getString("cruise_ship"));
-                Text route = new Text(resultSet.getString("route"));
-                Text price = new Text("RM"+resultSet.getString("price"));
-
-
-                // Create "Update" for updating cruise's details
-                Button btnUpdate = new Button("Update");
-                btnUpdate.setUserData(resultSet.getString("place"));
-                Button btnDelete = new Button("Delete");
-                btnDelete.setUserData(resultSet.getString("place"));
-
-                // Create layout for displaying cruise details
-                GridPane gridPane = new GridPane();
-                gridPane.addColumn(0, lblDuration, lblDate, lblCountry, lblCruise_ship, lblRoute,lblPrice);
-                gridPane.addColumn(1, duration, date, country, cruise_ship, route,price);
-                gridPane.setHgap(10);
-                gridPane.setVgap(5);
-
-                // Create left and right VBox for UI layout
-                VBox vBoxLeft = new VBox(place, gridPane);
-                VBox vBoxRight = new VBox(btnDelete,btnUpdate);
-
-                vBoxRight.setStyle("-fx-background-color: #3c362a;");
-                vBoxRight.setSpacing(30);
-                vBoxRight.setPadding(new Insets(0,60,0,60));
-                vBoxRight.setAlignment(Pos.CENTER);
-
-                btnUpdate.setStyle("-fx-background-color: transparent; -fx-border-color: #FFFFFF; -fx-border-width: 1;-fx-text-fill:#FFFFFF;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:13px;");
-                btnUpdate.setOnMouseEntered(e -> btnUpdate.setStyle("-fx-background-color: #FFFFFF; -fx-border-color: #91C9FF; -fx-border-width: 1;-fx-text-fill:#4F95DA;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:13px;"));
-                btnUpdate.setOnMouseExited(e -> btnUpdate.setStyle("-fx-background-color: transparent; -fx-border-color: #FFFFFF; -fx-border-width: 1;-fx-text-fill:#FFFFFF;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:13px;"));
-
-                // Handle button click to update
-                btnUpdate.setOnAction(event -> {
-                    String updateBtnDetails = btnUpdate.getUserData().toString();
-                    adminPage.update(updateBtnDetails);
-                    mainVBox.getChildren().clear();
-                    CruiseBorderPane();
-                    System.out.println("Destination updated");
-                });
-
-                btnDelete.setStyle("-fx-background-color: transparent; -fx-border-color: #FFFFFF; -fx-border-width: 1;-fx-text-fill:#FFFFFF;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:13px;");
-                btnDelete.setOnMouseEntered(e -> btnDelete.setStyle("-fx-background-color: #FFFFFF; -fx-border-color: #91C9FF; -fx-border-width: 1;-fx-text-fill:#4F95DA;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:13px;"));
-                btnDelete.setOnMouseExited(e -> btnDelete.setStyle("-fx-background-color: transparent; -fx-border-color: #FFFFFF; -fx-border-width: 1;-fx-text-fill:#FFFFFF;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:13px;"));
-
-                // Handle button click to delete
-                btnDelete.setOnAction(event -> {
-                    String deleteBtnDetails = btnDelete.getUserData().toString();
-                    adminPage.delete(deleteBtnDetails);
+    /**
+     * Builds the message shown in place of the cards when no cruise matches the filters.
+     *
+     * @return the message
+     */
+    private BorderPane noResultBorderPane() {
+        BorderPane noResultBorderPane = new BorderPane();
+        Text txtNoResult = new Text("No results found.");
+        txtNoResult.setFont(Font.font("Eras Demi ITC", 60));
+        txtNoResult.setFill(Color.RED);
+        txtNoResult.setTextAlignment(TextAlignment.CENTER);
+        noResultBorderPane.setCenter(txtNoResult);
+        noResultBorderPane.setStyle("-fx-background-color: transparent;");
+        return noResultBorderPane;
+    }
+
+    /**
+     * Patches the list with one change of the catalog: the card of the changed cruise is added, replaced in place or
+     * removed, and no other card is rebuilt, so saving a change takes the same time however many cruises are listed.
+     *
+     * @param change the change, applied on the JavaFX thread
+     */
+    private void applyChange(CatalogChange<Sailing> change) {
+        BorderPane old = cards.remove(change.getId());
+        Sailing sailing = change.getAfter();
+        if (sailing != null && sailing.matches(selectedCountry, selectedDuration) && matchesSearch(sailing)) {
+            BorderPane card = cruiseCard(sailing);
+            cards.put(sailing.getId(), card);
+            int index = old == null ? -1 : mainVBox.getChildren().indexOf(old);
+            if (index >= 0) {
+                mainVBox.getChildren().set(index, card);
+            } else {
+                if (cards.size() == 1) {
+                    // The first card replaces the message that no cruise matches
                     mainVBox.getChildren().clear();
-                    CruiseBorderPane();
-                    System.out.println("Destination deleted");
-                });
-
-                vBoxRight.setAlignment(Pos.CENTER);
-                vBoxLeft.setSpacing(20);
-                BorderPane borderPane = new BorderPane();
-                borderPane.setLeft(vBoxLeft);
-                borderPane.setRight(vBoxRight);
-                BorderPane.setMargin(vBoxLeft, new Insets(30));
-                borderPane.setStyle("-fx-background-color: white; -fx-background-radius: 20; -fx-effect: dropshadow(three-pass-box, rgba(0,0,0,0.7), 10, 0, 0, 0);");
-                mainVBox.getChildren().add(borderPane);
-                mainVBox.setSpacing(20);
-                mainVBox.setAlignment(Pos.CENTER);
-                mainVBox.setStyle("-fx-background-color: #E3CAB8;");
-                mainVBox.setPadding(new Insets(30));
+                }
+                mainVBox.getChildren().add(card);
             }
-
-            // Display message if no results found
-            if (mainVBox.getChildren().isEmpty()) {
-                BorderPane noResultBorderPane = new BorderPane();
-                Text txtNoResult = new Text("No results found.");
-                txtNoResult.setFont(Font.font("Eras Demi ITC", 60));
-                txtNoResult.setFill(Color.RED);
-                txtNoResult.setTextAlignment(TextAlignment.CENTER);
-                noResultBorderPane.setCenter(txtNoResult);
-                noResultBorderPane.setStyle("-fx-background-color: transparent;");
-
-                mainVBox.getChildren().add(noResultBorderPane);
-                mainVBox.setAlignment(Pos.CENTER);
-                mainVBox.setStyle("-fx-background-color: #E3CAB8;");
-                mainVBox.setPadding(new Insets(30));
+        } else if (old != null) {
+            mainVBox.getChildren().remove(old);
+            if (cards.isEmpty()) {
+                mainVBox.getChildren().add(noResultBorderPane());
             }
-
-
-        } catch (Exception e) {
-            System.out.println(e.getMessage());
         }
-
-        return mainVBox;
     }
 
     /**
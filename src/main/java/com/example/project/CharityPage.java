@@ -1,11 +1,19 @@
 package com.example.project;
 
+import com.example.project.audit.AuditEvent;
+import com.example.project.audit.AuditLog;
+import com.example.project.catalog.Charity;
+import com.example.project.catalog.EditMerge;
+import com.example.project.catalog.VersionedCatalog;
+import com.example.project.repository.CharityRepository;
+import com.example.project.repository.Repositories;
+import com.example.project.repository.Versioned;
+import com.example.project.validation.CatalogValidator;
+import com.example.project.validation.ValidationReport;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javax.swing.*;
 import java.awt.*;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 
 /**
  * The CharityPage class represents the functionality for managing charity organizations
@@ -13,6 +21,9 @@ import java.sql.SQLException;
  * interacting with the database and providing UI elements for the same.
  */
 public class CharityPage extends Component implements DatabaseOperations {
+    /** The labels of the fields of a charity in the update dialog, in the order of its columns. */
+    private static final String[] CHARITY_FIELDS = {"Name", "Type", "Country", "About", "Website", "Email", "Location"};
+
     /**
      * The user interface for the admin page.
      * <p>
@@ -23,13 +34,40 @@ public class CharityPage extends Component implements DatabaseOperations {
     private CharityPageUI charityPageUI;
 
     /**
-     * The database manager instance used for database operations.
+     * The repository the charity organisations are read from and saved to.
+     * <p>
+     * This field holds the {@link CharityRepository} of the shared {@link Repositories}, which runs every statement on
+     * the connections of its pool.
+     * </p>
+     */
+    private CharityRepository charities;
+
+    /**
+     * The versioned catalog read by the charity list.
+     * <p>
+     * This field holds the shared {@link VersionedCatalog}, which publishes a new version after every successful add,
+     * update and delete, so the list shows the change without waiting for the next cache refresh. The charity match
+     * index of the cruise cards follows the same changes.
+     * </p>
+     */
+    private VersionedCatalog versionedCatalog;
+
+    /**
+     * The log of changes to the catalog.
      * <p>
-     * This field holds an instance of {@link DatabaseManager}, which is responsible for managing connections
-     * to the database and performing CRUD (Create, Read, Update, Delete) operations on the database.
+     * This field holds the shared {@link AuditLog}, in which every successful add, update and delete is recorded with
+     * the logged-in admin and the values of the charity before and after the change.
      * </p>
      */
-    private DatabaseManager database;
+    private AuditLog auditLog;
+
+    /**
+     * The Login instance of the logged-in admin, recorded as the author of each change.
+     */
+    private Login login;
+
+    /** The rules every charity is checked against before it is saved. */
+    private CatalogValidator validator;
 
     /**
      * Constructs a CharityPage instance with the necessary references to other system components.
@@ -39,7 +77,11 @@ public class CharityPage extends Component implements DatabaseOperations {
      */
     protected CharityPage(CruiseBookingSystem cbs, Login login) {
         this.charityPageUI = new CharityPageUI(this, cbs, login);
-        this.database = DatabaseManager.getInstance();
+        this.charities = Repositories.getInstance().charities();
+        this.versionedCatalog = VersionedCatalog.getInstance();
+        this.auditLog = AuditLog.getInstance();
+        this.login = login;
+        this.validator = new CatalogValidator();
     }
 
     /**
@@ -92,47 +134,53 @@ public class CharityPage extends Component implements DatabaseOperations {
         String email = txtEmail.getText();
         String location = txtLocation.getText();
 
-        try {
-
-            PreparedStatement preparedStatement = database.getConnection().prepareStatement("INSERT INTO charity_organisation (name,type,country,about,website,email,location) VALUES (?, ?, ?, ?, ?, ?, ?);");
-
-            preparedStatement.setString(1, name);
-            preparedStatement.setString(2, type);
-            preparedStatement.setString(3, country);
-            preparedStatement.setString(4, about);
-            preparedStatement.setString(5, website);
-            preparedStatement.setString(6, email);
-            preparedStatement.setString(7, location);
-
-            preparedStatement.executeUpdate();
-        } catch (SQLException e) {
-            System.out.println(e.getMessage());
+        Charity entered = new Charity(name, type, country, about, website, email, location);
+        if (!confirmValid(entered, "Add New Charities")) {
+            return;
         }
 
-
+        // Insert the charity off the JavaFX thread; it comes back with the key the database generated for it
+        charities.insertAsync(entered).whenComplete((charity, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                System.out.println(error.getMessage());
+                return;
+            }
+            versionedCatalog.addCharity(charity);
+            auditLog.recordCharity(login.getEmail(), AuditEvent.Action.ADD, charity.getId(), null, charity);
+        }));
     }
 
     /**
-     * Deletes a charity organization from the database based on the name.
+     * Deletes a charity organization from the database based on its key.
      *
-     * @param deleteBtnDetail the name of the charity organization to be deleted.
+     * @param id the surrogate key of the charity organization to be deleted.
      */
     @Override
-    public void delete(String deleteBtnDetail){
+    public void delete(long id){
         try {
+            Charity deleted = versionedCatalog.current().charity(id);
+            if (deleted == null) {
+                JOptionPane.showMessageDialog(this, "This charity no longer exists.", "Delete Charity", JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            String name = deleted.getName();
+
             // Show Message
-            JOptionPane.showMessageDialog(this, deleteBtnDetail, "Choose charity", JOptionPane.PLAIN_MESSAGE);
+            JOptionPane.showMessageDialog(this, name, "Choose charity", JOptionPane.PLAIN_MESSAGE);
 
 
-            int result = JOptionPane.showConfirmDialog(this,"Are you confirm to delete "+deleteBtnDetail+"?", "Delete Charity", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
+            int result = JOptionPane.showConfirmDialog(this,"Are you confirm to delete "+name+"?", "Delete Charity", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
 
             if(result == JOptionPane.YES_OPTION) {
-                // Prepare an SQL statement to delete the charity details from the table 'charity_organisation' in the database
-                PreparedStatement preparedStatement = database.getConnection().prepareStatement("DELETE FROM charity_organisation WHERE name = ?");
-
-                preparedStatement.setString(1, deleteBtnDetail);
-
-                preparedStatement.executeUpdate();
+                // Delete the charity details from the table 'charity_organisation' in the database, off the JavaFX thread
+                charities.deleteAsync(id).whenComplete((removed, error) -> Platform.runLater(() -> {
+                    if (error != null) {
+                        System.out.println(error.getMessage());
+                    } else if (removed) {
+                        versionedCatalog.removeCharity(id);
+                        auditLog.recordCharity(login.getEmail(), AuditEvent.Action.DELETE, id, deleted, null);
+                    }
+                }));
             }
         } catch (Exception e) {
             System.out.println(e.getMessage());
@@ -142,99 +190,165 @@ public class CharityPage extends Component implements DatabaseOperations {
     /**
      * Updates an existing charity organization in the database by allowing the user to modify
      * fields like name, type, country, about, website, email, and location.
+     * <p>
+     * The charity is not locked while the dialog is open. The changes are only saved if the charity still has the
+     * version it was read at; if another admin saved it first, their changes are merged with these for the user to
+     * review and save again, or cancel. The charity is read and saved off the JavaFX thread, and each answer of the
+     * database is handled back on it.
+     * </p>
      *
-     * @param updateBtnDetails the name of the charity organization to be updated.
+     * @param id the surrogate key of the charity organization to be updated.
      */
     @Override
-    public void update(String updateBtnDetails) {
-        try {
-            // Fetch the record from the database based on the name
-            PreparedStatement preparedStatement = database.getConnection().prepareStatement(
-                    "SELECT name, type, country, about, website, email, location FROM charity_organisation WHERE name = ?");
-            preparedStatement.setString(1, updateBtnDetails);
-            ResultSet resultSet = preparedStatement.executeQuery();
-
-            // Initialize the variables to hold the fetched data
-            String name = "";
-            String type = "";
-            String country = "";
-            String about = "";
-            String website = "";
-            String email = "";
-            String location = "";
-
-            // Check if the result set contains the data, then set variables
-            if (resultSet.next()) {
-                name = resultSet.getString("name");
-                type = resultSet.getString("type");
-                country = resultSet.getString("country");
-                about = resultSet.getString("about");
-                website = resultSet.getString("website");
-                email = resultSet.getString("email");
-                location = resultSet.getString("location");
+    public void update(long id) {
+        // Fetch the record and its version from the database based on its key
+        charities.findVersionedAsync(id).whenComplete((base, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                System.out.println(error.getMessage());
+                return;
+            }
+            if (base == null) {
+                JOptionPane.showMessageDialog(null, "This charity no longer exists.", "Update Charity", JOptionPane.WARNING_MESSAGE);
+                return;
             }
+            edit(id, base, fields(base.getValue()));
+        }));
+    }
 
-            // Now that data is fetched, pre-fill the input fields
-            JPanel panel = new JPanel(new GridLayout(7, 2, 10, 10));
-            panel.setPreferredSize(new Dimension(500, 300));
-
-            // Text Fields (Pre-filled with the fetched data)
-            JTextField txtName = new JTextField(name);
-            JTextField txtType = new JTextField(type);
-            JTextField txtCountry = new JTextField(country);
-            JTextField txtAbout = new JTextField(about);
-            JTextField txtWebsite = new JTextField(website);
-            JTextField txtEmail = new JTextField(email);
-            JTextField txtLocation = new JTextField(location);
-
-            // Label and text fields added to the panel
-            panel.add(new JLabel("Name: "));
-            panel.add(txtName);
-            panel.add(new JLabel("Type: "));
-            panel.add(txtType);
-            panel.add(new JLabel("Country: "));
-            panel.add(txtCountry);
-            panel.add(new JLabel("About: "));
-            panel.add(txtAbout);
-            panel.add(new JLabel("Website: "));
-            panel.add(txtWebsite);
-            panel.add(new JLabel("Email: "));
-            panel.add(txtEmail);
-            panel.add(new JLabel("Location: "));
-            panel.add(txtLocation);
-
-            // Show the input dialog with pre-filled information
-            int option = JOptionPane.showConfirmDialog(null, panel, "Update Charity", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
-
-            if (option == JOptionPane.OK_OPTION) {
-                // Extract user input from the text fields
-                name = txtName.getText();
-                type = txtType.getText();
-                country = txtCountry.getText();
-                about = txtAbout.getText();
-                website = txtWebsite.getText();
-                email = txtEmail.getText();
-                location = txtLocation.getText();
-
-                // Prepare an SQL statement to update the charity details in the database
-                preparedStatement = database.getConnection().prepareStatement(
-                        "UPDATE charity_organisation SET name = ?, type = ?, country = ?, about = ?, website = ?, email = ?, location = ? WHERE name = ?");
-                preparedStatement.setString(1, name);
-                preparedStatement.setString(2, type);
-                preparedStatement.setString(3, country);
-                preparedStatement.setString(4, about);
-                preparedStatement.setString(5, website);
-                preparedStatement.setString(6, email);
-                preparedStatement.setString(7, location);
-                preparedStatement.setString(8, updateBtnDetails);
-
-                // Execute the update
-                preparedStatement.executeUpdate();
+    /**
+     * Lets the user edit a charity read at a version, starting from the given values, and saves the result.
+     *
+     * @param id     the surrogate key of the charity organization
+     * @param base   the charity and the version it was read at
+     * @param values the values shown in the dialog
+     */
+    private void edit(long id, Versioned<Charity> base, String[] values) {
+        Charity charity;
+        values = showUpdateDialog(values);
+        while (true) {
+            if (values == null) {
+                return;
             }
+            charity = new Charity(id, values[0], values[1], values[2], values[3], values[4], values[5], values[6]);
+            if (confirmValid(charity, "Update Charity")) {
+                break;
+            }
+            values = showUpdateDialog(values);
+        }
 
-        } catch (Exception e) {
-            System.out.println(e.getMessage());
+        // Save the charity only if nobody saved it since it was read, and publish it so that it is re-matched with the sailings
+        Charity saved = charity;
+        String[] entered = values;
+        Charity before = versionedCatalog.current().charity(id);
+        charities.updateAsync(saved, base.getVersion()).whenComplete((updated, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                System.out.println(error.getMessage());
+                return;
+            }
+            if (updated) {
+                versionedCatalog.updateCharity(saved);
+                auditLog.recordCharity(login.getEmail(), AuditEvent.Action.UPDATE, id, before, saved);
+                return;
+            }
+            merge(id, base, entered);
+        }));
+    }
+
+    /**
+     * Merges the values a user entered with those another admin saved first, and lets the user review them.
+     *
+     * @param id      the surrogate key of the charity organization
+     * @param base    the charity and the version the user's values were based on
+     * @param entered the values the user entered
+     */
+    private void merge(long id, Versioned<Charity> base, String[] entered) {
+        charities.findVersionedAsync(id).whenComplete((current, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                System.out.println(error.getMessage());
+                return;
+            }
+            if (current == null) {
+                JOptionPane.showMessageDialog(null, "Another admin deleted this charity while you were editing it.", "Update Conflict", JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            EditMerge merge = new EditMerge(CHARITY_FIELDS, fields(base.getValue()), entered, fields(current.getValue()));
+            JOptionPane.showMessageDialog(null, merge.describe(), "Update Conflict", JOptionPane.WARNING_MESSAGE);
+            edit(id, current, merge.getMerged());
+        }));
+    }
+
+    /**
+     * Checks a charity against the rules of the catalog before it is saved.
+     * <p>
+     * A charity breaking a rule that is an error is not saved. One that only draws warnings is saved if the admin
+     * confirms it.
+     * </p>
+     *
+     * @param charity the charity to be saved
+     * @param title   the title of the dialogs
+     * @return {@code true} if the charity may be saved
+     */
+    private boolean confirmValid(Charity charity, String title) {
+        ValidationReport report = validator.validate(charity);
+        if (report.hasErrors()) {
+            JOptionPane.showMessageDialog(null, report.describe(), title, JOptionPane.ERROR_MESSAGE);
+            return false;
+        }
+        if (!report.isClean()) {
+            int result = JOptionPane.showConfirmDialog(null, report.describe() + "\n\nSave anyway?", title, JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+            return result == JOptionPane.YES_OPTION;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the details of a charity organization as shown in the update dialog.
+     *
+     * @param charity the charity organization
+     * @return the details in the order of {@link #CHARITY_FIELDS}
+     */
+    private static String[] fields(Charity charity) {
+        return new String[] {
+                charity.getName(),
+                charity.getType(),
+                charity.getCountry(),
+                charity.getAbout(),
+                charity.getWebsite(),
+                charity.getEmail(),
+                charity.getLocation()
+        };
+    }
+
+    /**
+     * Shows the dialog for editing the details of a charity organization.
+     *
+     * @param values the details to pre-fill, in the order of {@link #CHARITY_FIELDS}
+     * @return the edited details, or {@code null} if the user cancelled
+     */
+    private String[] showUpdateDialog(String[] values) {
+        JPanel panel = new JPanel(new GridLayout(7, 2, 10, 10));
+        panel.setPreferredSize(new Dimension(500, 300));
+
+        // Label and text fields (pre-filled with the details) added to the panel
+        JTextField[] fields = new JTextField[CHARITY_FIELDS.length];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = new JTextField(values[i]);
+            panel.add(new JLabel(CHARITY_FIELDS[i] + ": "));
+            panel.add(fields[i]);
+        }
+
+        // Show the input dialog with pre-filled information
+        int option = JOptionPane.showConfirmDialog(null, panel, "Update Charity", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (option != JOptionPane.OK_OPTION) {
+            return null;
+        }
+
+        // Extract user input from the text fields
+        String[] edited = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            edited[i] = fields[i].getText();
         }
+        return edited;
     }
 
 }
@@ -1,5 +1,6 @@
 package com.example.project;
 
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -14,10 +15,17 @@ import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.Text;
 import javafx.scene.text.TextAlignment;
-
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.Statement;
+import com.example.project.catalog.CatalogChange;
+import com.example.project.catalog.Charity;
+import com.example.project.catalog.VersionedCatalog;
+import com.example.project.donation.DonationLedger;
+import com.example.project.search.CatalogSuggestions;
+
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * CharityPageUI class handles the user interface for managing charity organizations.
@@ -27,13 +35,25 @@ import java.sql.Statement;
  */
 public class CharityPageUI {
     private String selectedCountry = "All";
+    private String searchText = "";
     private ComboBox<String> category;
     private VBox mainVBox;
     private DatabaseManager database;
     private CruiseBookingSystem cbs;
     private Login login;
     private CharityPage charityPage;
-    private ResultSet resultSet;
+
+    /** The card shown for every listed charity, by id, to patch a single card when a charity changes. */
+    private final Map<Long, BorderPane> cards = new HashMap<>();
+
+    /** The catalog versions the lists are read from, without waiting for admins saving changes. */
+    private final VersionedCatalog versionedCatalog = VersionedCatalog.getInstance();
+
+    /** The charity names suggested while typing in the search box. */
+    private final CatalogSuggestions catalogSuggestions = CatalogSuggestions.getInstance();
+
+    /** The ledger whose running totals are shown on the charity cards, or {@code null} if it could not be opened. */
+    private final DonationLedger donationLedger = openDonationLedger();
 
     /**
      * Constructor for CharityPageUI.
@@ -51,6 +71,9 @@ public class CharityPageUI {
         this.database = DatabaseManager.getInstance();
         this.mainVBox = new VBox();
         this.category = new ComboBox<>();
+
+        // Patch the card of every charity added, updated or deleted, here or by another admin
+        versionedCatalog.onCharityChange(change -> Platform.runLater(() -> applyChange(change)));
     }
 
     /**
@@ -187,8 +210,6 @@ public class CharityPageUI {
         Button btnAdd = new Button("Add");
         btnAdd.setOnAction(event -> {
             charityPage.add();
-            mainVBox.getChildren().clear();
-            CruiseBorderPane();
             System.out.println("Charity added");
 
         });
@@ -209,8 +230,14 @@ public class CharityPageUI {
             CruiseBorderPane();
         });
 
+        //Search box suggesting charity names as the admin types
+        SearchBox searchBox = new SearchBox(catalogSuggestions.charities(), "Search charity name", text -> {
+            searchText = text;
+            CruiseBorderPane();
+        });
+
         //Keep combo box
-        HBox filterHBox = new HBox(category);
+        HBox filterHBox = new HBox(searchBox.getField(), category);
         filterHBox.setSpacing(30);
         filterHBox.setAlignment(Pos.CENTER);
 
@@ -234,122 +261,29 @@ public class CharityPageUI {
         database = DatabaseManager.getInstance();
 
         mainVBox.getChildren().clear();
+        cards.clear();
 
-        try {
-            // Check different filter conditions and execute corresponding queries
-            if (selectedCountry.equals("All")) {
-                Statement statement = database.getConnection().createStatement();
-
-                resultSet = statement.executeQuery("SELECT name, type, country, about, website, email, location FROM charity_organisation");
-
-            } else if ((selectedCountry.equals("Malaysia") || selectedCountry.equals("Singapore"))) {
-                PreparedStatement preparedStatement = database.getConnection().prepareStatement("SELECT name, type, country, about, website, email, location FROM charity_organisation WHERE country = ?");
-
-                preparedStatement.setString(1, selectedCountry);
+        // Read one catalog version, which an admin saving a change at the same time cannot alter or block
+        List<Charity> charities = versionedCatalog.current().charities(selectedCountry);
 
-                resultSet = preparedStatement.executeQuery();
-
-            }
-
-            // Loop through the result set and create UI elements for each cruise
-            while (resultSet.next()){
-
-                Label lblType = new Label("Type: ");
-                Label lblCountry = new Label("Country: ");
-                Label lblAbout = new Label("About: ");
-                Label lblWebsite = new Label("Website: ");
-                Label lblEmail = new Label("Email : ");
-                Label lblLocation = new Label("Location: ");
-
-                // Retrieve data from result set
-                Text type = new Text(resultSet.getString("type"));
-                Text name = new Text(resultSet.getString("name"));
-                name.setFont(Font.font("Eras Demi ITC", 15));
-                Text country = new Text(resultSet.getString("country"));
-                Text about = new Text(resultSet.getString("about"));
-                about.setWrappingWidth(650);
-                about.setTextAlignment(TextAlignment.JUSTIFY);
-                Text website = new Text(resultSet.getString("website"));
-                Text email = new Text(resultSet.getString("email"));
-                Text location = new Text(resultSet.getString("location"));
-
-
-                // Create "Update" for updating cruise's details
-                Button btnUpdate = new Button("Update");
-                btnUpdate.setUserData(resultSet.getString("name"));
-                Button btnDelete = new Button("Delete");
-                btnDelete.setUserData(resultSet.getString("name"));
-
-                // Create layout for displaying cruise details
-                GridPane gridPane = new GridPane();
-                gridPane.addColumn(0, lblType, lblCountry, lblAbout, lblWebsite, lblEmail,lblLocation);
-                gridPane.addColumn(1, type, country, about, website, email,location);
-                gridPane.setHgap(10);
-                gridPane.setVgap(5);
-
-                // Create left and right VBox for UI layout
-                VBox vBoxLeft = new VBox(name, gridPane);
-                VBox vBoxRight = new VBox(btnDelete,btnUpdate);
-
-                vBoxRight.setStyle("-fx-background-color: #3c362a;");
-                vBoxRight.setSpacing(30);
-                vBoxRight.setPadding(new Insets(0,60,0,60));
-                vBoxRight.setAlignment(Pos.CENTER);
-
-                btnUpdate.setStyle("-fx-background-color: transparent; -fx-border-color: #FFFFFF; -fx-border-width: 1;-fx-text-fill:#FFFFFF;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:13px;");
-                btnUpdate.setOnMouseEntered(e -> btnUpdate.setStyle("-fx-background-color: #FFFFFF; -fx-border-color: #91C9FF; -fx-border-width: 1;-fx-text-fill:#4F95DA;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:13px;"));
-                btnUpdate.setOnMouseExited(e -> btnUpdate.setStyle("-fx-background-color: transparent; -fx-border-color: #FFFFFF; -fx-border-width: 1;-fx-text-fill:#FFFFFF;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:13px;"));
-
-                // Handle button click to update
-                btnUpdate.setOnAction(event -> {
-                    String updateBtnDetails = btnUpdate.getUserData().toString();
-                    charityPage.update(updateBtnDetails);
-                    mainVBox.getChildren().clear();
-                    CruiseBorderPane();
-                    System.out.println("Charity updated");
-                });
-
-                btnDelete.setStyle("-fx-background-color: transparent; -fx-border-color: #FFFFFF; -fx-border-width: 1;-fx-text-fill:#FFFFFF;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:13px;");
-                btnDelete.setOnMouseEntered(e -> btnDelete.setStyle("-fx-background-color: #FFFFFF; -fx-border-color: #91C9FF; -fx-border-width: 1;-fx-text-fill:#4F95DA;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:13px;"));
-                btnDelete.setOnMouseExited(e -> btnDelete.setStyle("-fx-background-color: transparent; -fx-border-color: #FFFFFF; -fx-border-width: 1;-fx-text-fill:#FFFFFF;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:13px;"));
-
-                // Handle button click to delete
-                btnDelete.setOnAction(event -> {
-                    String deleteBtnDetails = btnDelete.getUserData().toString();
-                    charityPage.delete(deleteBtnDetails);
-                    mainVBox.getChildren().clear();
-                    CruiseBorderPane();
-                    System.out.println("Charity deleted");
-                });
-
-                vBoxRight.setAlignment(Pos.CENTER);
-                vBoxLeft.setSpacing(20);
-                BorderPane borderPane = new BorderPane();
-                borderPane.setLeft(vBoxLeft);
-                borderPane.setRight(vBoxRight);
-                BorderPane.setMargin(vBoxLeft, new Insets(30));
-                borderPane.setStyle("-fx-background-color: white; -fx-background-radius: 20; -fx-effect: dropshadow(three-pass-box, rgba(0,0,0,0.7), 10, 0, 0, 0);");
+        try {
+            // Loop through the charities and create a card for each charity
+            for (Charity charity : charities) {
+                if (!matchesSearch(charity)) {
+                    continue;
+                }
+                BorderPane borderPane = charityCard(charity);
+                cards.put(charity.getId(), borderPane);
                 mainVBox.getChildren().add(borderPane);
-                mainVBox.setSpacing(20);
-                mainVBox.setAlignment(Pos.CENTER);
-                mainVBox.setStyle("-fx-background-color: #E3CAB8;");
-                mainVBox.setPadding(new Insets(30));
             }
+            mainVBox.setSpacing(20);
+            mainVBox.setAlignment(Pos.CENTER);
+            mainVBox.setStyle("-fx-background-color: #E3CAB8;");
+            mainVBox.setPadding(new Insets(30));
 
             // Display message if no results found
             if (mainVBox.getChildren().isEmpty()) {
-                BorderPane noResultBorderPane = new BorderPane();
-                Text txtNoResult = new Text("No results found.");
-                txtNoResult.setFont(Font.font("Eras Demi ITC", 60));
-                txtNoResult.setFill(Color.RED);
-                txtNoResult.setTextAlignment(TextAlignment.CENTER);
-                noResultBorderPane.setCenter(txtNoResult);
-                noResultBorderPane.setStyle("-fx-background-color: transparent;");
-
-                mainVBox.getChildren().add(noResultBorderPane);
-                mainVBox.setAlignment(Pos.CENTER);
-                mainVBox.setStyle("-fx-background-color: #E3CAB8;");
-                mainVBox.setPadding(new Insets(30));
+                mainVBox.getChildren().add(noResultBorderPane());
             }
 
 
@@ -360,6 +294,161 @@ public class CharityPageUI {
         return mainVBox;
     }
 
+    /**
+     * Opens the donation ledger, or prints why it cannot be opened, e.g. because its directory is not writable, in
+     * which case the cards show no totals.
+     *
+     * @return the ledger, or {@code null}
+     */
+    private static DonationLedger openDonationLedger() {
+        try {
+            return DonationLedger.getInstance();
+        } catch (UncheckedIOException e) {
+            System.out.println(e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Builds the card of one charity, with its details and the buttons to update and delete it.
+     *
+     * @param charity the charity
+     * @return the card
+     */
+    private BorderPane charityCard(Charity charity) {
+        Label lblType = new Label("Type: ");
+        Label lblCountry = new Label("Country: ");
+        Label lblAbout = new Label("About: ");
+        Label lblWebsite = new Label("Website: ");
+        Label lblEmail = new Label("Email : ");
+        Label lblLocation = new Label("Location: ");
+        Label lblDonations = new Label("Donations: ");
+
+        // Retrieve data from the charity
+        Text type = new Text(charity.getType());
+        Text name = new Text(charity.getName());
+        name.setFont(Font.font("Eras Demi ITC", 15));
+        Text country = new Text(charity.getCountry());
+        Text about = new Text(charity.getAbout());
+        about.setWrappingWidth(650);
+        about.setTextAlignment(TextAlignment.JUSTIFY);
+        Text website = new Text(charity.getWebsite());
+        Text email = new Text(charity.getEmail());
+        Text location = new Text(charity.getLocation());
+        Text donations = new Text(donationLedger == null ? "Unavailable" : donationLedger.getTotal(charity.getName()).toString());
+
+
+        // Create "Update" for updating cruise's details
+        Button btnUpdate = new Button("Update");
+        btnUpdate.setUserData(charity.getId());
+        Button btnDelete = new Button("Delete");
+        btnDelete.setUserData(charity.getId());
+
+        // Create layout for displaying cruise details
+        GridPane gridPane = new GridPane();
+        gridPane.addColumn(0, lblType, lblCountry, lblAbout, lblWebsite, lblEmail,lblLocation, lblDonations);
+        gridPane.addColumn(1, type, country, about, website, email,location, donations);
+        gridPane.setHgap(10);
+        gridPane.setVgap(5);
+
+        // Create left and right VBox for UI layout
+        VBox vBoxLeft = new VBox(name, gridPane);
+        VBox vBoxRight = new VBox(btnDelete,btnUpdate);
+
+        vBoxRight.setStyle("-fx-background-color: #3c362a;");
+        vBoxRight.setSpacing(30);
+        vBoxRight.setPadding(new Insets(0,60,0,60));
+        vBoxRight.setAlignment(Pos.CENTER);
+
+        btnUpdate.setStyle("-fx-background-color: transparent; -fx-border-color: #FFFFFF; -fx-border-width: 1;-fx-text-fill:#FFFFFF;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:13px;");
+        btnUpdate.setOnMouseEntered(e -> btnUpdate.setStyle("-fx-background-color: #FFFFFF; -fx-border-color: #91C9FF; -fx-border-width: 1;-fx-text-fill:#4F95DA;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:13px;"));
+        btnUpdate.setOnMouseExited(e -> btnUpdate.setStyle("-fx-background-color: transparent; -fx-border-color: #FFFFFF; -fx-border-width: 1;-fx-text-fill:#FFFFFF;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:13px;"));
+
+        // Handle button click to update
+        btnUpdate.setOnAction(event -> {
+            long id = (Long) btnUpdate.getUserData();
+            charityPage.update(id);
+            System.out.println("Charity updated");
+        });
+
+        btnDelete.setStyle("-fx-background-color: transparent; -fx-border-color: #FFFFFF; -fx-border-width: 1;-fx-text-fill:#FFFFFF;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:13px;");
+        btnDelete.setOnMouseEntered(e -> btnDelete.setStyle("-fx-background-color: #FFFFFF; -fx-border-color: #91C9FF; -fx-border-width: 1;-fx-text-fill:#4F95DA;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:13px;"));
+        btnDelete.setOnMouseExited(e -> btnDelete.setStyle("-fx-background-color: transparent; -fx-border-color: #FFFFFF; -fx-border-width: 1;-fx-text-fill:#FFFFFF;-fx-font-family: Lato; -fx-font-weight:bold;-fx-font-size:13px;"));
+
+        // Handle button click to delete
+        btnDelete.setOnAction(event -> {
+            long id = (Long) btnDelete.getUserData();
+            charityPage.delete(id);
+            System.out.println("Charity deleted");
+        });
+
+        vBoxRight.setAlignment(Pos.CENTER);
+        vBoxLeft.setSpacing(20);
+        BorderPane borderPane = new BorderPane();
+        borderPane.setLeft(vBoxLeft);
+        borderPane.setRight(vBoxRight);
+        BorderPane.setMargin(vBoxLeft, new Insets(30));
+        borderPane.setStyle("-fx-background-color: white; -fx-background-radius: 20; -fx-effect: dropshadow(three-pass-box, rgba(0,0,0,0.7), 10, 0, 0, 0);");
+        return borderPane;
+    }
+
+    /**
+     * Checks whether the name of a charity contains the text searched for, ignoring case.
+     *
+     * @param charity the charity
+     * @return {@code true} if it does, or nothing is searched for
+     */
+    private boolean matchesSearch(Charity charity) {
+        String text = searchText.toLowerCase(Locale.ROOT);
+        return text.isEmpty() || (charity.getName() != null && charity.getName().toLowerCase(Locale.ROOT).contains(text));
+    }
+
+    /**
+     * Builds the message shown in place of the cards when no charity matches the filter.
+     *
+     * @return the message
+     */
+    private BorderPane noResultBorderPane() {
+        BorderPane noResultBorderPane = new BorderPane();
+        Text txtNoResult = new Text("No results found.");
+        txtNoResult.setFont(Font.font("Eras Demi ITC", 60));
+        txtNoResult.setFill(Color.RED);
+        txtNoResult.setTextAlignment(TextAlignment.CENTER);
+        noResultBorderPane.setCenter(txtNoResult);
+        noResultBorderPane.setStyle("-fx-background-color: transparent;");
+        return noResultBorderPane;
+    }
+
+    /**
+     * Patches the list with one change of the catalog: the card of the changed charity is added, replaced in place
+     * or removed, and no other card is rebuilt, so saving a change takes the same time however many charities are listed.
+     *
+     * @param change the change, applied on the JavaFX thread
+     */
+    private void applyChange(CatalogChange<Charity> change) {
+        BorderPane old = cards.remove(change.getId());
+        Charity charity = change.getAfter();
+        if (charity != null && charity.matches(selectedCountry) && matchesSearch(charity)) {
+            BorderPane card = charityCard(charity);
+            cards.put(charity.getId(), card);
+            int index = old == null ? -1 : mainVBox.getChildren().indexOf(old);
+            if (index >= 0) {
+                mainVBox.getChildren().set(index, card);
+            } else {
+                if (cards.size() == 1) {
+                    // The first card replaces the message that no charity matches
+                    mainVBox.getChildren().clear();
+                }
+                mainVBox.getChildren().add(card);
+            }
+        } else if (old != null) {
+            mainVBox.getChildren().remove(old);
+            if (cards.isEmpty()) {
+                mainVBox.getChildren().add(noResultBorderPane());
+            }
+        }
+    }
+
     /**
      * Gets the selected country filter.
      *
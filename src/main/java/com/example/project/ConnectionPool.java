@@ -0,0 +1,102 @@
+package com.example.project;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A small fixed-size pool of database connections for components that run concurrent transactions.
+ * <p>
+ * Connections are opened lazily through {@link DatabaseManager#openConnection()} up to the pool size and are then
+ * handed out and returned through a blocking queue, so at most {@code size} transactions run at once and callers
+ * beyond that wait instead of opening more connections.
+ * </p>
+ */
+public class ConnectionPool implements AutoCloseable {
+    private final DatabaseManager database;
+    private final BlockingQueue<Connection> idle;
+    private final List<Connection> all = new ArrayList<>();
+    private final int size;
+    private final long timeoutMillis;
+
+    /**
+     * Constructs a ConnectionPool.
+     *
+     * @param database      the database to open connections to
+     * @param size          the maximum number of connections
+     * @param timeoutMillis how long {@link #acquire()} waits for a free connection before failing
+     */
+    public ConnectionPool(DatabaseManager database, int size, long timeoutMillis) {
+        this.database = database;
+        this.size = size;
+        this.timeoutMillis = timeoutMillis;
+        this.idle = new ArrayBlockingQueue<>(size);
+    }
+
+    /**
+     * Takes a connection from the pool, opening a new one if the pool is not yet full.
+     *
+     * @return a connection in auto-commit mode, to be given back with {@link #release(Connection)}
+     * @throws SQLException if no connection becomes free in time or a new one cannot be opened
+     */
+    public Connection acquire() throws SQLException {
+        Connection connection = idle.poll();
+        if (connection == null) {
+            synchronized (all) {
+                if (all.size() < size) {
+                    connection = database.openConnection();
+                    all.add(connection);
+                    return connection;
+                }
+            }
+            try {
+                connection = idle.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (connection == null) {
+                throw new SQLException("Timed out waiting for a database connection");
+            }
+        }
+        return connection;
+    }
+
+    /**
+     * Gives a connection back to the pool, rolling back anything left uncommitted.
+     *
+     * @param connection the connection taken with {@link #acquire()}
+     */
+    public void release(Connection connection) {
+        try {
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.out.println(e.getMessage());
+        }
+        idle.offer(connection);
+    }
+
+    /**
+     * Closes every connection opened by the pool.
+     */
+    @Override
+    public void close() {
+        synchronized (all) {
+            for (Connection connection : all) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    System.out.println(e.getMessage());
+                }
+            }
+            all.clear();
+            idle.clear();
+        }
+    }
+}
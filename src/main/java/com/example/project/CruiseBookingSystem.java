@@ -1,5 +1,6 @@
 package com.example.project;
 
+import com.example.project.sync.ChangeFeed;
 import javafx.application.Application;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
@@ -50,6 +51,9 @@ public class CruiseBookingSystem extends Application {
         register = new Register(this);
         adminPage = new AdminPage(this, loginHandler.getLogin());
         charityPage = new CharityPage(this, loginHandler.getLogin());
+
+        // Apply the catalog changes other kiosks and admin desks save, as they are saved
+        ChangeFeed.getInstance();
         stage.setTitle("CruiseBooker");
         switchToMainScene();
         stage.setResizable(false);
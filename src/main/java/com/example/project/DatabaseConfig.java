@@ -0,0 +1,186 @@
+package com.example.project;
+
+import java.nio.file.Path;
+
+/**
+ * Where the {@link DatabaseManager} connects to: a MySQL server, or an H2 database embedded in the application.
+ * <p>
+ * The embedded database runs in MySQL compatibility mode, so the schema migrations and every query of the application
+ * run on it unchanged. Stored in a file it suits a single kiosk that needs no database server; in memory it starts in
+ * milliseconds and leaves nothing behind, for benchmarks and trying things out.
+ * </p>
+ * <p>
+ * {@link #fromSystemProperties()} picks the database from {@code -Dcruise.db=mysql|file|memory}, MySQL by default. The
+ * URL, user and password are read from the system properties {@code cruise.db.url}, {@code cruise.db.user} and
+ * {@code cruise.db.password}, or else from the environment variables {@code CRUISE_DB_URL}, {@code CRUISE_DB_USER} and
+ * {@code CRUISE_DB_PASSWORD}, and the file of the embedded database from {@code cruise.db.file}. No credentials are
+ * kept in the source: the MySQL server needs at least a user to be given this way.
+ * </p>
+ */
+public class DatabaseConfig {
+    /**
+     * The kinds of database the application can run on.
+     */
+    public enum Backend {
+        /** A MySQL server. */
+        MYSQL("com.mysql.cj.jdbc.Driver"),
+        /** An H2 database in a file, opened by this process only. */
+        H2_FILE("org.h2.Driver"),
+        /** An H2 database in memory, gone when the application exits. */
+        H2_MEMORY("org.h2.Driver");
+
+        private final String driver;
+
+        Backend(String driver) {
+            this.driver = driver;
+        }
+
+        /**
+         * Gets the class name of the JDBC driver of the backend.
+         *
+         * @return the driver class name
+         */
+        public String getDriver() {
+            return driver;
+        }
+    }
+
+    /** The MySQL server when no URL is given. */
+    private static final String DEFAULT_MYSQL_URL = "jdbc:mysql://localhost:3306/cruise_booking";
+
+    /** The file of the embedded database when none is given, without the {@code .mv.db} extension H2 adds. */
+    private static final String DEFAULT_FILE = "cruise_booking";
+
+    /** Settings that make H2 accept the MySQL dialect and store unquoted names in lower case like MySQL on Linux. */
+    private static final String H2_MYSQL_MODE = ";MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+
+    private final Backend backend;
+    private final String url;
+    private final String user;
+    private final String password;
+
+    /**
+     * Constructs a DatabaseConfig.
+     *
+     * @param backend  the kind of database
+     * @param url      the JDBC URL
+     * @param user     the user to connect as
+     * @param password the password of the user
+     */
+    public DatabaseConfig(Backend backend, String url, String user, String password) {
+        this.backend = backend;
+        this.url = url;
+        this.user = user;
+        this.password = password;
+    }
+
+    /**
+     * Gets the configuration of the MySQL server of the application, from the system properties or the environment.
+     *
+     * @return the MySQL configuration; its user is {@code null} and the connection fails if none is given
+     */
+    public static DatabaseConfig mysql() {
+        return new DatabaseConfig(Backend.MYSQL, setting("url", DEFAULT_MYSQL_URL), setting("user", null), setting("password", ""));
+    }
+
+    /**
+     * Gets the configuration of an embedded database stored in a file.
+     *
+     * @param file the file, without the {@code .mv.db} extension; created with the schema on first use
+     * @return the embedded configuration
+     */
+    public static DatabaseConfig file(Path file) {
+        return new DatabaseConfig(Backend.H2_FILE, "jdbc:h2:" + file.toAbsolutePath() + H2_MYSQL_MODE, "sa", "");
+    }
+
+    /**
+     * Gets the configuration of an embedded database in memory. Databases of the same name in one process are the
+     * same database, kept until the process exits.
+     *
+     * @param name the name of the database
+     * @return the in-memory configuration
+     */
+    public static DatabaseConfig memory(String name) {
+        return new DatabaseConfig(Backend.H2_MEMORY, "jdbc:h2:mem:" + name + H2_MYSQL_MODE + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    /**
+     * Gets the configuration chosen with the {@code cruise.db} system properties.
+     *
+     * @return the configuration, MySQL if none is chosen
+     * @throws IllegalArgumentException if {@code cruise.db} names no known backend
+     */
+    public static DatabaseConfig fromSystemProperties() {
+        String kind = System.getProperty("cruise.db", "mysql");
+        DatabaseConfig config = switch (kind) {
+            case "mysql" -> mysql();
+            case "file" -> file(Path.of(System.getProperty("cruise.db.file", DEFAULT_FILE)));
+            case "memory" -> memory(DEFAULT_FILE);
+            default -> throw new IllegalArgumentException("Unknown database " + kind + ", expected mysql, file or memory");
+        };
+        return new DatabaseConfig(config.backend, setting("url", config.url), setting("user", config.user),
+                setting("password", config.password));
+    }
+
+    /**
+     * Reads a connection setting from the system property {@code cruise.db.<name>}, or else from the environment
+     * variable {@code CRUISE_DB_<NAME>}.
+     */
+    private static String setting(String name, String defaultValue) {
+        String value = System.getProperty("cruise.db." + name);
+        if (value == null) {
+            value = System.getenv("CRUISE_DB_" + name.toUpperCase());
+        }
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Gets the kind of database.
+     *
+     * @return the backend
+     */
+    public Backend getBackend() {
+        return backend;
+    }
+
+    /**
+     * Gets the JDBC URL of the database.
+     *
+     * @return the URL
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Gets the user to connect as.
+     *
+     * @return the user
+     */
+    public String getUser() {
+        return user;
+    }
+
+    /**
+     * Gets the password of the user.
+     *
+     * @return the password
+     */
+    public String getPassword() {
+        return password;
+    }
+
+    /**
+     * Gets the class name of the JDBC driver to load.
+     *
+     * @return the driver class name
+     */
+    public String getDriver() {
+        return backend.getDriver();
+    }
+
+    @Override
+    public String toString() {
+        return backend + " " + url;
+    }
+}
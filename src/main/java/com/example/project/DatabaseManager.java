@@ -1,30 +1,57 @@
 package com.example.project;
 
+import com.example.project.schema.CatalogMigrations;
+import com.example.project.schema.Migration;
+import com.example.project.schema.SchemaMigrator;
+
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.SQLException;
 
 /**
  * Manages the database connection for the application.
  * This class uses the Singleton pattern to ensure only one instance is created and provides access to the database connection.
+ * The database is chosen by a {@link DatabaseConfig}: the MySQL server by default, or an embedded database selected with
+ * the {@code cruise.db} system property or {@link #configure(DatabaseConfig)}.
  */
 public class DatabaseManager {
     private static DatabaseManager instance;
+    private static DatabaseConfig config;
+    private final DatabaseConfig databaseConfig;
     private Connection connection;
 
     /**
      * Private constructor to prevent direct instantiation.
      * Initializes the JDBC driver and establishes a connection to the database.
      * The connection details should be securely managed and not hardcoded in production code.
+     * <p>
+     * If the database cannot be reached, the application starts without it and the catalog is read from its cache.
+     * If it is reached but the schema cannot be migrated, the application does not start at all: every statement
+     * after the failed migration would fail on the half-migrated schema.
+     * </p>
+     *
+     * @throws IllegalStateException if a schema migration fails
      */
-    private DatabaseManager() {
+    private DatabaseManager(DatabaseConfig databaseConfig) {
+        this.databaseConfig = databaseConfig;
         try {
             // Loading JDBC Driver
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            //TODO: Step 1 Provide the URL to the database with your own username and password
-            connection = DriverManager.getConnection("jdbc:mysql://localhost:3306/cruise_booking", "root", "Jka83788#");
+            Class.forName(databaseConfig.getDriver());
+            connection = openConnection();
         } catch (Exception exception) {
             System.out.println(exception.getMessage());
 //            exception.printStackTrace();
+            return;
+        }
+        try {
+            migrate();
+        } catch (SQLException exception) {
+            try {
+                connection.close();
+            } catch (SQLException closeException) {
+                exception.addSuppressed(closeException);
+            }
+            throw new IllegalStateException("Schema migration failed, not starting: " + exception.getMessage(), exception);
         }
     }
 
@@ -37,11 +64,34 @@ public class DatabaseManager {
      */
     public static synchronized DatabaseManager getInstance() {
         if (instance == null) {
-            instance = new DatabaseManager();
+            instance = new DatabaseManager(config != null ? config : DatabaseConfig.fromSystemProperties());
         }
         return instance;
     }
 
+    /**
+     * Chooses the database the instance connects to, instead of the one chosen by the system properties. Benchmarks
+     * call this first, e.g. with {@link DatabaseConfig#memory(String)} to run without a database server.
+     *
+     * @param databaseConfig the database to connect to
+     * @throws IllegalStateException if the instance is already connected
+     */
+    public static synchronized void configure(DatabaseConfig databaseConfig) {
+        if (instance != null) {
+            throw new IllegalStateException("Database already connected to " + instance.databaseConfig);
+        }
+        config = databaseConfig;
+    }
+
+    /**
+     * Gets the database this instance connects to.
+     *
+     * @return the configuration of the database
+     */
+    public DatabaseConfig getConfig() {
+        return databaseConfig;
+    }
+
     /**
      * Retrieves the database connection.
      *
@@ -50,4 +100,30 @@ public class DatabaseManager {
     public Connection getConnection() {
         return connection;
     }
+
+    /**
+     * Opens a new, separate connection to the database.
+     * <p>
+     * The shared connection from {@link #getConnection()} is enough for the UI, but components that run their own
+     * transactions concurrently (such as bookings) need a connection each. The caller is responsible for closing it.
+     * </p>
+     *
+     * @return a new connection to the database
+     * @throws SQLException if the connection cannot be established
+     */
+    public Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(databaseConfig.getUrl(), databaseConfig.getUser(), databaseConfig.getPassword());
+    }
+
+    /**
+     * Brings the schema up to date with the {@link CatalogMigrations}, so the tables have the surrogate keys, row
+     * versions and indexes the rest of the application relies on.
+     *
+     * @throws SQLException if a migration fails
+     */
+    private void migrate() throws SQLException {
+        for (Migration migration : new SchemaMigrator(connection, CatalogMigrations.ALL).migrate()) {
+            System.out.println("Applied schema migration " + migration);
+        }
+    }
 }
@@ -12,14 +12,14 @@ public interface DatabaseOperations {
     /**
      * Deletes an existing destination/ charity from the database.
      *
-     * @param deleteBtnDetail A string representing the details of the destination to delete.
+     * @param id The surrogate key of the destination/ charity to delete.
      */
-    void delete(String deleteBtnDetail);
+    void delete(long id);
 
     /**
      * Updates an existing destination/ charity in the database.
      *
-     * @param updateBtnDetails A string representing the details of the destination to update.
+     * @param id The surrogate key of the destination/ charity to update.
      */
-    void update(String updateBtnDetails);
+    void update(long id);
 }
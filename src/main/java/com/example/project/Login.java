@@ -1,5 +1,6 @@
 package com.example.project;
 
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -9,10 +10,10 @@ import javafx.scene.image.Image;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
-
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import com.example.project.repository.Repositories;
+import com.example.project.repository.User;
+import com.example.project.repository.UserRepository;
+import com.example.project.security.LoginRateLimiter;
 
 /**
  * The {@code Login} class is responsible for managing the login functionality in the cruise booking system.
@@ -26,19 +27,22 @@ public class Login extends UserInterface{
     /** The email of the currently logged-in user. */
     private String email;
 
-    /** The database manager to interact with the database for authentication. */
-    private DatabaseManager database;
+    /** The repository of registered users the credentials are checked against. */
+    private UserRepository users;
+
+    /** The limiter that turns away repeated attempts before they reach the database. */
+    private final LoginRateLimiter loginRateLimiter = LoginRateLimiter.getInstance();
 
     /**
      * Constructs a {@code Login} object with the given cruise booking system reference.
-     * It also initializes the {@link DatabaseManager} to handle database operations.
+     * It also gets the {@link UserRepository} to check credentials with.
      *
      * @param cbs the cruise booking system reference to manage scene transitions.
      */
     protected Login(CruiseBookingSystem cbs) {
         super(cbs);
-        // Initialize database instance
-        this.database = DatabaseManager.getInstance();
+        // Initialize the repository of users
+        this.users = Repositories.getInstance().users();
     }
 
     /**
@@ -167,29 +171,45 @@ public class Login extends UserInterface{
 
         //When login button clicked
         signInButton.setOnAction(event -> {
-
-            //Construct database
-            database = DatabaseManager.getInstance();
             email = emailField.getText();
             String password = passwordField.getText();
 
-            //Authentication
-            //Successful login
-            if (validate(email, password, database)) {
-                System.out.println(getUsername());
-                System.out.println(getEmail());
-                if (getEmail().endsWith("@admin.com")) {
-                    emailField.clear();
-                    passwordField.clear();
-                    // Admin login, switch to admin page
-                    Alert alert = new Alert(Alert.AlertType.INFORMATION);
-                    alert.setTitle("Login Successful");
-                    alert.setHeaderText(null);
-                    alert.setContentText("Redirect to Admin Page.");
-                    alert.showAndWait();
-                    cbs.switchToHomeScene();
-                } else {
-                    // Regular user login, switch to home page
+            //Throttle repeated attempts before querying the database
+            if (!loginRateLimiter.tryAttempt(email, LoginRateLimiter.LOCAL_SOURCE)) {
+                passwordField.clear();
+                Alert alert = new Alert(Alert.AlertType.ERROR);
+                alert.setTitle("Login Error");
+                alert.setHeaderText(null);
+                alert.setContentText("Too many login attempts. Please wait a minute and try again.");
+                alert.showAndWait();
+                return;
+            }
+
+            //Authentication, looked up off the JavaFX thread so the page stays responsive
+            signInButton.setDisable(true);
+            users.findByEmailAsync(email).whenComplete((user, error) -> Platform.runLater(() -> {
+                signInButton.setDisable(false);
+                if (error != null) {
+                    System.out.println(error.getMessage());
+                }
+
+                //Successful login
+                if (validate(user, password)) {
+                    loginRateLimiter.succeeded(email);
+                    System.out.println(getUsername());
+                    System.out.println(getEmail());
+                    if (getEmail().endsWith("@admin.com")) {
+                        emailField.clear();
+                        passwordField.clear();
+                        // Admin login, switch to admin page
+                        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                        alert.setTitle("Login Successful");
+                        alert.setHeaderText(null);
+                        alert.setContentText("Redirect to Admin Page.");
+                        alert.showAndWait();
+                        cbs.switchToHomeScene();
+                    } else {
+                        // Regular user login, switch to home page
 //                    emailField.clear();
 //                    passwordField.clear();
 //                    Alert alert = new Alert(Alert.AlertType.INFORMATION);
@@ -198,17 +218,18 @@ public class Login extends UserInterface{
 //                    alert.setContentText("Redirect to Home Page.");
 //                    alert.showAndWait();
 //                    cbs.switchToHomeScene();
+                    }
+                } else {
+                    // Show an error message for unsuccessful login
+                    emailField.clear();
+                    passwordField.clear();
+                    Alert alert = new Alert(Alert.AlertType.ERROR);
+                    alert.setTitle("Login Error");
+                    alert.setHeaderText(null);
+                    alert.setContentText("Invalid credentials. Please try again.");
+                    alert.showAndWait();
                 }
-            } else {
-                // Show an error message for unsuccessful login
-                emailField.clear();
-                passwordField.clear();
-                Alert alert = new Alert(Alert.AlertType.ERROR);
-                alert.setTitle("Login Error");
-                alert.setHeaderText(null);
-                alert.setContentText("Invalid credentials. Please try again.");
-                alert.showAndWait();
-            }
+            }));
         });
 
         // Sign Up text button
@@ -242,39 +263,18 @@ public class Login extends UserInterface{
     }
 
     /**
-     * Validates the email and password by checking them against the stored credentials in the database.
+     * Validates the password by checking it against the stored credentials of the user with the email entered.
      *
-     * @param email    the user's email address.
+     * @param user     the user registered with the email entered, or {@code null} if there is none.
      * @param password the user's password.
-     * @param database the database manager for querying stored credentials.
-     * @return {@code true} if the email and password match the stored credentials, {@code false} otherwise.
+     * @return {@code true} if the password matches the stored credentials, {@code false} otherwise.
      */
-    private boolean validate(String email, String password, DatabaseManager database) {
-        try {
-
-            //Prepared Statement
-            PreparedStatement preparedStatement = database.getConnection().prepareStatement("SELECT username, password, email FROM REGISTRATION WHERE email = ?");
-            preparedStatement.setString(1, email);
-
-            //Get result from database
-            ResultSet resultSet = preparedStatement.executeQuery();
-
-            if (resultSet.next()) {
-                String storePassword = resultSet.getString("password");
-                // You should use a proper password hashing library to compare hashes
-                if (password.equals(storePassword)) {
-                    username = resultSet.getString("username");
-                    email = resultSet.getString("email");
-                    return true; // Authentication successful
-                }
-            }
-            resultSet.close();
-            preparedStatement.close();
-
-        } catch (SQLException ex) {
-            System.out.println(ex.getMessage());
+    private boolean validate(User user, String password) {
+        if (user != null && user.hasPassword(password)) {
+            username = user.getUsername();
+            email = user.getEmail();
+            return true; // Authentication successful
         }
-
         return false; // Authentication failed
     }
 
@@ -1,5 +1,6 @@
 package com.example.project;
 
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -10,8 +11,11 @@ import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
+import com.example.project.repository.Repositories;
+import com.example.project.repository.User;
+import com.example.project.repository.UserRepository;
+
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The Register class represents the registration system for users to create a new account
@@ -20,7 +24,7 @@ import java.sql.ResultSet;
  */
 public class Register {
     private CruiseBookingSystem cbs;
-    private DatabaseManager database;
+    private UserRepository users;
 
     /**
      * Constructs a Register instance with a reference to the CruiseBookingSystem.
@@ -29,6 +33,7 @@ public class Register {
      */
     public Register(CruiseBookingSystem cbs) {
         this.cbs = cbs;
+        this.users = Repositories.getInstance().users();
     }
 
     /**
@@ -161,7 +166,7 @@ public class Register {
         signUpButton.setOnMouseExited(event -> {
             signUpButton.setStyle("-fx-background-color: #cfd7d9; -fx-border-color: transparent; -fx-background-radius: 25px;-fx-text-fill: #0e3641; -fx-padding: 5px 10px; -fx-font-size: 15px;-fx-font-family: '" + customFont1.getName() + "';-fx-font-weight: bold;");
         });
-        signUpButton.setOnAction(event -> RegisterAccount(usernameField, emailField, passwordField, database));
+        signUpButton.setOnAction(event -> RegisterAccount(usernameField, emailField, passwordField));
 
         // Sign In text button
         Hyperlink signInLink = new Hyperlink("Have Account? Sign In");
@@ -196,54 +201,59 @@ public class Register {
     /**
      * Handles the registration process by validating the input fields and registering
      * the user in the database if valid.
+     * <p>
+     * The email is looked up and the user is registered off the JavaFX thread, so the page stays responsive; the
+     * outcome is shown once the database has answered.
+     * </p>
      *
      * @param usernameField The TextField for the username input.
      * @param emailField    The TextField for the email input.
      * @param passwordField The PasswordField for the password input.
-     * @param database      The DatabaseManager instance for managing database connections.
      */
-    public void RegisterAccount(TextField usernameField, TextField emailField, PasswordField passwordField, DatabaseManager database){
-
-
-        try {
-            //get all information
-            String username = usernameField.getText();
-            String email = emailField.getText();
-            String userpass = passwordField.getText();
-
-            //create database
-            database = DatabaseManager.getInstance();
-
-            if (!username.isEmpty() && !email.isEmpty() && !userpass.isEmpty() && !validateEmailRegistered(email,database) && !containsNumbers(username) && validEmailFormat(email) && userpass.length() >= 5) {
-
-                int success = registerUser(username,email, userpass);
-
-                // ... Registration successful handling ...
-                if (success>0) {
-                    System.out.println("Successful");
-                    usernameField.clear();
-                    emailField.clear();
-                    passwordField.clear();
-                    usernameField.setStyle(" ");
-                    emailField.setStyle(" ");
-                    passwordField.setStyle(" ");
-                    System.out.println("Registration failed.");
-                    Alert alert = new Alert(Alert.AlertType.INFORMATION);
-                    alert.setTitle("Registration successful.");
-                    alert.setHeaderText(null);
-                    alert.setContentText("Redirect to login page");
-                    alert.showAndWait();
-                    cbs.switchToLoginScene();
-
-                } else {
-                    // Handle registration failure
-                    System.out.println("Registration failed.");
-                    Alert alert = new Alert(Alert.AlertType.ERROR);
-                    alert.setTitle("Registration failed.");
-                    alert.setHeaderText(null);
-                    alert.setContentText("Something went wrong. Please try again later.");
-                    alert.showAndWait();
-                }
+    public void RegisterAccount(TextField usernameField, TextField emailField, PasswordField passwordField){
+        //get all information
+        String username = usernameField.getText();
+        String email = emailField.getText();
+        String userpass = passwordField.getText();
+
+        validateEmailRegistered(email).whenComplete((registered, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                System.out.println(error.getMessage());
+            }
+            boolean emailRegistered = Boolean.TRUE.equals(registered);
+
+            if (!username.isEmpty() && !email.isEmpty() && !userpass.isEmpty() && !emailRegistered && !containsNumbers(username) && validEmailFormat(email) && userpass.length() >= 5) {
+                registerUser(username, email, userpass).whenComplete((success, failure) -> Platform.runLater(() -> {
+                    if (failure != null) {
+                        System.out.println(failure.getMessage());
+                    }
+
+                    // ... Registration successful handling ...
+                    if (Boolean.TRUE.equals(success)) {
+                        System.out.println("Successful");
+                        usernameField.clear();
+                        emailField.clear();
+                        passwordField.clear();
+                        usernameField.setStyle(" ");
+                        emailField.setStyle(" ");
+                        passwordField.setStyle(" ");
+                        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                        alert.setTitle("Registration successful.");
+                        alert.setHeaderText(null);
+                        alert.setContentText("Redirect to login page");
+                        alert.showAndWait();
+                        cbs.switchToLoginScene();
+
+                    } else {
+                        // Handle registration failure
+                        System.out.println("Registration failed.");
+                        Alert alert = new Alert(Alert.AlertType.ERROR);
+                        alert.setTitle("Registration failed.");
+                        alert.setHeaderText(null);
+                        alert.setContentText("Something went wrong. Please try again later.");
+                        alert.showAndWait();
+                    }
+                }));
             } else {
 
                 if (containsNumbers(username)) {
@@ -261,7 +271,7 @@ public class Register {
                     usernameField.setStyle(" ");
                 }
 
-                if (validateEmailRegistered(email,database)) {
+                if (emailRegistered) {
                     // ... Email already registered handling ...
                     emailField.clear();
                     emailField.setPromptText("Email is already registered");
@@ -295,65 +305,29 @@ public class Register {
                     passwordField.setStyle(" ");
                 }
             }
-
-        }catch(Exception e){
-            System.out.println(e.getMessage());
-        }
+        }));
     }
 
     /**
-     * Registers a new user by inserting their details into the database.
+     * Registers a new user by inserting their details into the database, off the JavaFX thread.
      *
      * @param username The username input by the user.
      * @param email    The email input by the user.
      * @param password The password input by the user.
-     * @return An integer representing the success status of the registration (greater than 0 if successful).
+     * @return A future completed with whether the user was registered.
      */
-    public int registerUser(String username, String email, String password) {
-        database = DatabaseManager.getInstance();
-        int successful=0;
-
-        try {
-            PreparedStatement preparedStatement = database.getConnection().prepareStatement("INSERT INTO REGISTRATION (username, email, password) VALUES (?,?,?)");
-
-            preparedStatement.setString(1, username);
-            preparedStatement.setString(2, email);
-            preparedStatement.setString(3, password);
-
-            successful = preparedStatement.executeUpdate();
-
-            preparedStatement.close();
-
-
-        } catch (Exception ex) {
-            System.out.println(ex.getMessage());
-        }
-
-        return successful;
+    public CompletableFuture<Boolean> registerUser(String username, String email, String password) {
+        return users.registerAsync(new User(username, email, password));
     }
 
     /**
-     * Checks if the email is already registered in the database.
+     * Checks if the email is already registered in the database, off the JavaFX thread.
      *
-     * @param email    The email to validate.
-     * @param database The DatabaseManager instance for managing database connections.
-     * @return true if the email is already registered, false otherwise.
+     * @param email The email to validate.
+     * @return A future completed with true if the email is already registered, false otherwise.
      */
-    public boolean validateEmailRegistered(String email, DatabaseManager database) {
-        boolean validateRegistered = false;
-
-        try {
-            PreparedStatement statement = database.getConnection().prepareStatement("SELECT email FROM REGISTRATION WHERE email = ?");
-            statement.setString(1, email);
-            ResultSet resultSet = statement.executeQuery();
-            if(resultSet.next()){
-                validateRegistered = true;
-            }
-            statement.close();
-        } catch (Exception ex) {
-            System.out.println(ex.getMessage());
-        }
-        return validateRegistered;
+    public CompletableFuture<Boolean> validateEmailRegistered(String email) {
+        return users.findByEmailAsync(email).thenApply(user -> user != null);
     }
 
     /**
@@ -0,0 +1,99 @@
+package com.example.project;
+
+import com.example.project.search.PrefixTrie;
+import javafx.animation.PauseTransition;
+import javafx.geometry.Side;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.MenuItem;
+import javafx.scene.control.TextField;
+import javafx.util.Duration;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A search box suggesting terms as the user types, used by the admin and charity pages.
+ * <p>
+ * Suggestions come from a {@link PrefixTrie} in memory, never from the database. They are looked up once typing pauses
+ * for {@value #DEBOUNCE_MILLIS} milliseconds rather than on every keystroke, and shown in a menu under the box.
+ * Choosing a suggestion or pressing Enter searches for the text, and a chosen suggestion ranks higher from then on.
+ * </p>
+ */
+public class SearchBox {
+    /** How long typing must pause before suggestions are looked up. */
+    public static final int DEBOUNCE_MILLIS = 120;
+
+    private final TextField field = new TextField();
+    private final ContextMenu menu = new ContextMenu();
+    private final PauseTransition debounce = new PauseTransition(Duration.millis(DEBOUNCE_MILLIS));
+    private final PrefixTrie trie;
+    private final Consumer<String> onSearch;
+
+    /**
+     * Constructs a SearchBox.
+     *
+     * @param trie     the terms to suggest
+     * @param prompt   the prompt shown while the box is empty
+     * @param onSearch called on the JavaFX thread with the text searched for, empty to show everything
+     */
+    public SearchBox(PrefixTrie trie, String prompt, Consumer<String> onSearch) {
+        this.trie = trie;
+        this.onSearch = onSearch;
+        field.setPromptText(prompt);
+        field.setPrefWidth(300);
+
+        debounce.setOnFinished(event -> suggest());
+        field.textProperty().addListener((observable, oldText, newText) -> {
+            if (newText.isBlank()) {
+                debounce.stop();
+                menu.hide();
+                onSearch.accept("");
+            } else {
+                debounce.playFromStart();
+            }
+        });
+        field.setOnAction(event -> {
+            debounce.stop();
+            menu.hide();
+            onSearch.accept(field.getText().strip());
+        });
+    }
+
+    /**
+     * Gets the text field of the box, to place on a page.
+     *
+     * @return the text field
+     */
+    public TextField getField() {
+        return field;
+    }
+
+    /**
+     * Shows the suggestions for the text typed so far.
+     */
+    private void suggest() {
+        List<String> suggestions = trie.suggest(field.getText());
+        if (suggestions.isEmpty() || !field.isFocused()) {
+            menu.hide();
+            return;
+        }
+        menu.getItems().clear();
+        for (String suggestion : suggestions) {
+            MenuItem item = new MenuItem(suggestion);
+            item.setOnAction(event -> choose(suggestion));
+            menu.getItems().add(item);
+        }
+        if (!menu.isShowing()) {
+            menu.show(field, Side.BOTTOM, 0, 0);
+        }
+    }
+
+    private void choose(String suggestion) {
+        trie.pick(suggestion);
+        field.setText(suggestion);
+        field.positionCaret(suggestion.length());
+        debounce.stop();
+        menu.hide();
+        onSearch.accept(suggestion);
+    }
+}
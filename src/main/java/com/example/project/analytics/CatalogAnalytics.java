@@ -0,0 +1,284 @@
+package com.example.project.analytics;
+
+import com.example.project.catalog.CatalogChange;
+import com.example.project.catalog.Sailing;
+import com.example.project.catalog.SailingDates;
+import com.example.project.catalog.VersionedCatalog;
+import com.example.project.route.RouteIndex;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Aggregates over the sailings in {@code cruise_destination}, kept as materialised views in memory.
+ * <p>
+ * The views are the number of sailings per country of departure and per month of departure, and the minimum, average
+ * and maximum price per route and per cruise ship. Instead of running GROUP BY queries, every view is adjusted
+ * incrementally by {@link #add(Sailing)}, {@link #update(Sailing)} and {@link #remove(long)}, which
+ * {@link #apply(CatalogChange)} calls for every change the {@link VersionedCatalog} publishes. Reading one group is a
+ * hash lookup and a volatile read, so the views can be shown on every page load.
+ * </p>
+ * <p>
+ * Changes are serialised on this object; reads take no lock. Like {@link RouteIndex}, this class is a singleton,
+ * built from the current version of the catalog on first use.
+ * </p>
+ */
+public class CatalogAnalytics {
+    private static CatalogAnalytics instance;
+
+    /** Sailings by id, so that updates and removals know what to subtract. */
+    private final Map<Long, Sailing> byId = new HashMap<>();
+
+    private final Map<String, AtomicInteger> countByCountry = new ConcurrentHashMap<>();
+    private final Map<YearMonth, AtomicInteger> countByMonth = new ConcurrentHashMap<>();
+    private final Map<String, PriceStats> priceByRoute = new ConcurrentHashMap<>();
+    private final Map<String, PriceStats> priceByShip = new ConcurrentHashMap<>();
+    private final AtomicInteger sailingCount = new AtomicInteger();
+
+    /**
+     * Constructs empty analytics. Use {@link #getInstance()} for the analytics shared by the application.
+     */
+    public CatalogAnalytics() {}
+
+    /**
+     * Gets the singleton instance of CatalogAnalytics, building it from the catalog on first use.
+     *
+     * @return the shared analytics
+     */
+    public static synchronized CatalogAnalytics getInstance() {
+        if (instance == null) {
+            CatalogAnalytics analytics = new CatalogAnalytics();
+            VersionedCatalog.getInstance().subscribe(version -> analytics.load(version.getSailings()), analytics::apply, null);
+            instance = analytics;
+        }
+        return instance;
+    }
+
+    /**
+     * Rebuilds every view from the given sailings.
+     *
+     * @param sailings all of the sailings
+     */
+    public synchronized void load(List<Sailing> sailings) {
+        byId.clear();
+        countByCountry.clear();
+        countByMonth.clear();
+        priceByRoute.clear();
+        priceByShip.clear();
+        sailingCount.set(0);
+        for (Sailing sailing : sailings) {
+            update(sailing);
+        }
+    }
+
+    /**
+     * Applies a change of the catalog to the views.
+     *
+     * @param change the change of a sailing
+     */
+    public synchronized void apply(CatalogChange<Sailing> change) {
+        if (change.getKind() == CatalogChange.Kind.REMOVED) {
+            remove(change.getId());
+        } else {
+            update(change.getAfter());
+        }
+    }
+
+    /**
+     * Adds a newly inserted sailing to the views.
+     *
+     * @param sailing the sailing that was added
+     */
+    public synchronized void add(Sailing sailing) {
+        update(sailing);
+    }
+
+    /**
+     * Replaces the sailing with the id of an updated sailing, or adds it if it is not counted yet.
+     *
+     * @param sailing the new values
+     */
+    public synchronized void update(Sailing sailing) {
+        remove(sailing.getId());
+        include(sailing);
+    }
+
+    /**
+     * Removes a sailing from the views.
+     *
+     * @param id the id of the deleted sailing
+     */
+    public synchronized void remove(long id) {
+        Sailing sailing = byId.remove(id);
+        if (sailing == null) {
+            return;
+        }
+        decrement(countByCountry, String.valueOf(sailing.getCountryFrom()));
+        YearMonth month = monthOf(sailing);
+        if (month != null) {
+            decrement(countByMonth, month);
+        }
+        removePrice(priceByRoute, String.valueOf(sailing.getRoute()), sailing.getPrice());
+        removePrice(priceByShip, String.valueOf(sailing.getCruiseShip()), sailing.getPrice());
+        sailingCount.decrementAndGet();
+    }
+
+    /**
+     * Gets the total number of sailings.
+     *
+     * @return the number of sailings
+     */
+    public int sailingCount() {
+        return sailingCount.get();
+    }
+
+    /**
+     * Gets the number of sailings departing from a country.
+     *
+     * @param country the country of departure
+     * @return the number of sailings
+     */
+    public int countByCountry(String country) {
+        AtomicInteger count = countByCountry.get(String.valueOf(country));
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * Gets the number of sailings departing in a month. Sailings whose date cannot be read are not counted.
+     *
+     * @param month the month of departure
+     * @return the number of sailings
+     */
+    public int countByMonth(YearMonth month) {
+        AtomicInteger count = month == null ? null : countByMonth.get(month);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * Gets the price summary of the sailings on a route.
+     *
+     * @param route the route, as written in the table
+     * @return the summary, empty if there is no sailing on the route
+     */
+    public PriceSummary priceByRoute(String route) {
+        PriceStats stats = priceByRoute.get(String.valueOf(route));
+        return stats == null ? PriceSummary.EMPTY : stats.summary();
+    }
+
+    /**
+     * Gets the price summary of the sailings of a cruise ship.
+     *
+     * @param ship the name of the cruise ship
+     * @return the summary, empty if the ship has no sailing
+     */
+    public PriceSummary priceByShip(String ship) {
+        PriceStats stats = priceByShip.get(String.valueOf(ship));
+        return stats == null ? PriceSummary.EMPTY : stats.summary();
+    }
+
+    /**
+     * Gets the number of sailings per country of departure.
+     *
+     * @return a sorted copy of the view
+     */
+    public Map<String, Integer> countsByCountry() {
+        return copyCounts(countByCountry);
+    }
+
+    /**
+     * Gets the number of sailings per month of departure.
+     *
+     * @return a sorted copy of the view
+     */
+    public Map<YearMonth, Integer> countsByMonth() {
+        return copyCounts(countByMonth);
+    }
+
+    /**
+     * Gets the price summary per route.
+     *
+     * @return a sorted copy of the view
+     */
+    public Map<String, PriceSummary> pricesByRoute() {
+        return copySummaries(priceByRoute);
+    }
+
+    /**
+     * Gets the price summary per cruise ship.
+     *
+     * @return a sorted copy of the view
+     */
+    public Map<String, PriceSummary> pricesByShip() {
+        return copySummaries(priceByShip);
+    }
+
+    /**
+     * Describes every view, one group per line, for display on the admin page.
+     *
+     * @return the report
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder("Sailings: ").append(sailingCount()).append("\n\nBy country of departure\n");
+        countsByCountry().forEach((country, count) -> report.append("  ").append(country).append(": ").append(count).append("\n"));
+        report.append("\nBy month of departure\n");
+        countsByMonth().forEach((month, count) -> report.append("  ").append(month).append(": ").append(count).append("\n"));
+        report.append("\nPrice by route\n");
+        pricesByRoute().forEach((route, summary) -> report.append("  ").append(route).append(": ").append(summary).append("\n"));
+        report.append("\nPrice by cruise ship\n");
+        pricesByShip().forEach((ship, summary) -> report.append("  ").append(ship).append(": ").append(summary).append("\n"));
+        return report.toString();
+    }
+
+    private void include(Sailing sailing) {
+        byId.put(sailing.getId(), sailing);
+        countByCountry.computeIfAbsent(String.valueOf(sailing.getCountryFrom()), key -> new AtomicInteger()).incrementAndGet();
+        YearMonth month = monthOf(sailing);
+        if (month != null) {
+            countByMonth.computeIfAbsent(month, key -> new AtomicInteger()).incrementAndGet();
+        }
+        priceByRoute.computeIfAbsent(String.valueOf(sailing.getRoute()), key -> new PriceStats()).add(sailing.getPrice());
+        priceByShip.computeIfAbsent(String.valueOf(sailing.getCruiseShip()), key -> new PriceStats()).add(sailing.getPrice());
+        sailingCount.incrementAndGet();
+    }
+
+    private static <K> void decrement(Map<K, AtomicInteger> counts, K key) {
+        AtomicInteger count = counts.get(key);
+        if (count != null && count.decrementAndGet() == 0) {
+            counts.remove(key);
+        }
+    }
+
+    private static void removePrice(Map<String, PriceStats> stats, String key, int price) {
+        PriceStats group = stats.get(key);
+        if (group != null) {
+            group.remove(price);
+            if (group.isEmpty()) {
+                stats.remove(key);
+            }
+        }
+    }
+
+    private static YearMonth monthOf(Sailing sailing) {
+        LocalDate start = SailingDates.startDate(sailing);
+        return start == null ? null : YearMonth.from(start);
+    }
+
+    private static <K extends Comparable<K>> Map<K, Integer> copyCounts(Map<K, AtomicInteger> counts) {
+        Map<K, Integer> copy = new TreeMap<>();
+        counts.forEach((key, count) -> copy.put(key, count.get()));
+        return Collections.unmodifiableMap(copy);
+    }
+
+    private static Map<String, PriceSummary> copySummaries(Map<String, PriceStats> stats) {
+        Map<String, PriceSummary> copy = new TreeMap<>();
+        stats.forEach((key, group) -> copy.put(key, group.summary()));
+        return Collections.unmodifiableMap(copy);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.project.analytics;
+
+import java.util.TreeMap;
+
+/**
+ * The running price statistics of one group of sailings, kept up to date as sailings join and leave the group.
+ * <p>
+ * Count and sum make the average trivial. The minimum and maximum need to survive removals, so every price is counted
+ * in a sorted multiset, which costs O(log n) per change. After every change a new {@link PriceSummary} is published,
+ * so readers get all four values in one volatile read without locking. Changes must be made by one thread at a time.
+ * </p>
+ */
+class PriceStats {
+    private final TreeMap<Integer, Integer> prices = new TreeMap<>();
+    private int count;
+    private long sum;
+    private volatile PriceSummary summary = PriceSummary.EMPTY;
+
+    void add(int price) {
+        prices.merge(price, 1, Integer::sum);
+        count++;
+        sum += price;
+        publish();
+    }
+
+    void remove(int price) {
+        Integer n = prices.get(price);
+        if (n == null) {
+            return;
+        }
+        if (n == 1) {
+            prices.remove(price);
+        } else {
+            prices.put(price, n - 1);
+        }
+        count--;
+        sum -= price;
+        publish();
+    }
+
+    boolean isEmpty() {
+        return count == 0;
+    }
+
+    PriceSummary summary() {
+        return summary;
+    }
+
+    private void publish() {
+        summary = count == 0 ? PriceSummary.EMPTY : new PriceSummary(count, prices.firstKey(), prices.lastKey(), sum);
+    }
+}
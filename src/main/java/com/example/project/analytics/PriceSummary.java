@@ -0,0 +1,70 @@
+package com.example.project.analytics;
+
+/**
+ * Immutable summary of the prices of a group of sailings, such as all sailings on one route.
+ */
+public class PriceSummary {
+    /** The summary of an empty group. */
+    public static final PriceSummary EMPTY = new PriceSummary(0, 0, 0, 0);
+
+    private final int count;
+    private final int min;
+    private final int max;
+    private final long sum;
+
+    /**
+     * Constructs a PriceSummary.
+     *
+     * @param count the number of sailings
+     * @param min   the lowest price
+     * @param max   the highest price
+     * @param sum   the sum of the prices
+     */
+    public PriceSummary(int count, int min, int max, long sum) {
+        this.count = count;
+        this.min = min;
+        this.max = max;
+        this.sum = sum;
+    }
+
+    /**
+     * Gets the number of sailings in the group.
+     *
+     * @return the number of sailings
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the lowest price in the group.
+     *
+     * @return the lowest price, or 0 if the group is empty
+     */
+    public int getMin() {
+        return min;
+    }
+
+    /**
+     * Gets the highest price in the group.
+     *
+     * @return the highest price, or 0 if the group is empty
+     */
+    public int getMax() {
+        return max;
+    }
+
+    /**
+     * Gets the average price in the group.
+     *
+     * @return the average price, or 0 if the group is empty
+     */
+    public double getAverage() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d sailings, RM%d - RM%d, average RM%.2f", count, min, max, getAverage());
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.project.audit;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable record of one change to the catalog: who changed which row of which table, and its values before and
+ * after the change.
+ */
+public class AuditEvent {
+    /**
+     * The kinds of change recorded.
+     */
+    public enum Action {
+        ADD, UPDATE, DELETE
+    }
+
+    private final long time;
+    private final String actor;
+    private final Action action;
+    private final String table;
+    private final String key;
+    private final Map<String, Object> before;
+    private final Map<String, Object> after;
+
+    /**
+     * Constructs an AuditEvent.
+     *
+     * @param time   the time of the change, in epoch milliseconds
+     * @param actor  the email of the user who made the change
+     * @param action the kind of change
+     * @param table  the table changed, e.g. {@code "cruise_destination"}
+     * @param key    the identifier of the row, its surrogate key
+     * @param before the column values before the change, or {@code null} for an addition
+     * @param after  the column values after the change, or {@code null} for a deletion
+     */
+    public AuditEvent(long time, String actor, Action action, String table, String key, Map<String, Object> before, Map<String, Object> after) {
+        this.time = time;
+        this.actor = actor;
+        this.action = action;
+        this.table = table;
+        this.key = key;
+        this.before = before == null ? null : Collections.unmodifiableMap(new LinkedHashMap<>(before));
+        this.after = after == null ? null : Collections.unmodifiableMap(new LinkedHashMap<>(after));
+    }
+
+    /**
+     * Gets the time of the change.
+     *
+     * @return the time in epoch milliseconds
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Gets the user who made the change.
+     *
+     * @return the email of the user
+     */
+    public String getActor() {
+        return actor;
+    }
+
+    /**
+     * Gets the kind of change.
+     *
+     * @return the action
+     */
+    public Action getAction() {
+        return action;
+    }
+
+    /**
+     * Gets the table changed.
+     *
+     * @return the name of the table
+     */
+    public String getTable() {
+        return table;
+    }
+
+    /**
+     * Gets the identifier of the changed row.
+     *
+     * @return the key of the row
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Gets the column values before the change.
+     *
+     * @return the values by column, or {@code null} for an addition
+     */
+    public Map<String, Object> getBefore() {
+        return before;
+    }
+
+    /**
+     * Gets the column values after the change.
+     *
+     * @return the values by column, or {@code null} for a deletion
+     */
+    public Map<String, Object> getAfter() {
+        return after;
+    }
+
+    /**
+     * Converts the event into the map written as one line of the audit log.
+     *
+     * @return the fields of the event, in a fixed order
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("time", time);
+        map.put("actor", actor);
+        map.put("action", action.name());
+        map.put("table", table);
+        map.put("key", key);
+        map.put("before", before);
+        map.put("after", after);
+        return map;
+    }
+}
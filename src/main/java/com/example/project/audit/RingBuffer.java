@@ -0,0 +1,104 @@
+package com.example.project.audit;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded lock-free queue for many producers and one consumer.
+ * <p>
+ * Every slot carries a sequence number telling whose turn it is. A producer claims the next position with one
+ * compare-and-set on the tail, stores its element and then publishes the slot by advancing its sequence; the consumer
+ * takes a slot only once it is published and hands it back to the producers a lap later by advancing the sequence
+ * again. Producers never wait for each other or for the consumer, and no locks are taken on either side.
+ * </p>
+ *
+ * @param <T> the type of the elements
+ */
+class RingBuffer<T> {
+    private final int mask;
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+
+    /** The next position to consume. Only read and written by the consumer thread. */
+    private long head;
+
+    /**
+     * Constructs an empty RingBuffer.
+     *
+     * @param capacity the number of slots, a power of two
+     * @throws IllegalArgumentException if the capacity is not a power of two
+     */
+    RingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element unless the buffer is full. May be called from any thread.
+     *
+     * @param element the element, not {@code null}
+     * @return {@code true} if the element was added, {@code false} if the buffer is full
+     */
+    boolean offer(T element) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                // The slot still holds the element of the previous lap
+                return false;
+            }
+            // Otherwise another producer claimed the position first; try the next one
+        }
+    }
+
+    /**
+     * Moves up to the given number of published elements to a list. Must only be called by the consumer thread.
+     *
+     * @param target the list to add to
+     * @param max    the most elements to move
+     * @return the number of elements moved
+     */
+    int drainTo(List<? super T> target, int max) {
+        int count = 0;
+        while (count < max) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                // Empty, or the producer of the next position has not published yet
+                break;
+            }
+            target.add(slots.get(index));
+            slots.lazySet(index, null);
+            sequences.set(index, head + mask + 1);
+            head++;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Checks whether every position claimed by a producer was consumed, including those claimed but not yet
+     * published. Only meaningful on the consumer thread.
+     *
+     * @return {@code true} if the consumer caught up with every producer
+     */
+    boolean isDrained() {
+        return head == tail.get();
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.project.booking;
+
+/**
+ * Thrown when a booking or cancellation cannot be completed.
+ */
+public class BookingException extends Exception {
+
+    /**
+     * Why a booking failed.
+     */
+    public enum Reason {
+        /** Not enough cabins of the requested type are left. */
+        SOLD_OUT,
+        /** The reservation does not exist or was already cancelled. */
+        NOT_FOUND,
+        /** The database could not complete the transaction. */
+        DATABASE
+    }
+
+    private final Reason reason;
+
+    /**
+     * Constructs a BookingException.
+     *
+     * @param reason  why the booking failed
+     * @param message the detail message
+     */
+    public BookingException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    /**
+     * Constructs a BookingException caused by another exception.
+     *
+     * @param reason  why the booking failed
+     * @param message the detail message
+     * @param cause   the underlying exception
+     */
+    public BookingException(Reason reason, String message, Throwable cause) {
+        super(message, cause);
+        this.reason = reason;
+    }
+
+    /**
+     * Gets why the booking failed.
+     *
+     * @return the reason
+     */
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,573 @@
+package com.example.project.booking;
+
+import com.example.project.ConnectionPool;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Books cabins on sailings against the {@code cabin_inventory} and {@code reservation} tables.
+ * <p>
+ * Every booking is one short transaction on its own pooled connection: a conditional decrement
+ * ({@code UPDATE cabin_inventory SET available = available - ? ... WHERE ... AND available >= ?}) followed by the
+ * insert of the reservation. The decrement locks only the inventory row of that sailing and cabin type, and only until
+ * commit; there is no read-then-write window, so concurrent bookers can never oversell and never lock the table.
+ * </p>
+ * <p>
+ * To keep a popular sailing fast under hundreds of concurrent bookers, each inventory row also has an in-memory
+ * counter of cabins left. A booker first claims cabins from the counter with a compare-and-set; once a sailing is sold
+ * out, further attempts are turned away without touching the database. The database stays authoritative: the counter
+ * is reloaded from it whenever the two disagree or the counter has been empty for a while.
+ * </p>
+ * <p>
+ * Inventory and reservations are keyed by the surrogate id of the sailing in {@code cruise_destination}, since several
+ * sailings may go to the same place. Cabins held during checkout are recorded in {@code cabin_hold} with their expiry,
+ * so that a restart does not lose them. The tables are created by {@link com.example.project.schema.CatalogMigrations}.
+ * </p>
+ */
+public class BookingService {
+    /** How many times a transaction is retried after a deadlock or serialization failure. */
+    public static final int MAX_RETRIES = 3;
+
+    /** How long a sold-out counter is trusted before the database is consulted again, in milliseconds. */
+    private static final long SOLD_OUT_RECHECK_MILLIS = 1000;
+
+    /**
+     * The in-memory count of cabins left for one sailing and cabin type.
+     */
+    private static class Counter {
+        private final AtomicInteger remaining;
+        private volatile long loadedAt;
+
+        private Counter(int remaining) {
+            this.remaining = new AtomicInteger(remaining);
+            this.loadedAt = System.currentTimeMillis();
+        }
+    }
+
+    private final ConnectionPool pool;
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a BookingService.
+     *
+     * @param pool the connections to run booking transactions on
+     */
+    public BookingService(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Sets the number of cabins of a type on a sailing, keeping cabins that are already booked.
+     *
+     * @param sailingId the id of the sailing
+     * @param cabinType the type of the cabins
+     * @param total     the total number of cabins of that type
+     * @throws SQLException if the inventory cannot be written
+     */
+    public void setInventory(long sailingId, CabinType cabinType, int total) throws SQLException {
+        Connection connection = pool.acquire();
+        try {
+            int updated;
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE cabin_inventory SET available = available + (? - total), total = ? WHERE sailing_id = ? AND cabin_type = ?")) {
+                update.setInt(1, total);
+                update.setInt(2, total);
+                update.setLong(3, sailingId);
+                update.setString(4, cabinType.name());
+                updated = update.executeUpdate();
+            }
+            if (updated == 0) {
+                try (PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO cabin_inventory (sailing_id, cabin_type, total, available) VALUES (?, ?, ?, ?)")) {
+                    insert.setLong(1, sailingId);
+                    insert.setString(2, cabinType.name());
+                    insert.setInt(3, total);
+                    insert.setInt(4, total);
+                    insert.executeUpdate();
+                }
+            }
+        } finally {
+            pool.release(connection);
+        }
+        counters.remove(key(sailingId, cabinType));
+    }
+
+    /**
+     * Gets the number of cabins of a type still available on a sailing.
+     *
+     * @param sailingId the id of the sailing
+     * @param cabinType the type of the cabins
+     * @return the number of cabins left, as last known to this service
+     * @throws SQLException if the inventory has to be read and cannot be
+     */
+    public int available(long sailingId, CabinType cabinType) throws SQLException {
+        return Math.max(0, counter(sailingId, cabinType).remaining.get());
+    }
+
+    /**
+     * Books cabins on a sailing.
+     *
+     * @param email     the email of the customer
+     * @param sailingId the id of the sailing
+     * @param cabinType the type of the cabins
+     * @param cabins    the number of cabins, at least 1
+     * @return the confirmed reservation
+     * @throws BookingException if not enough cabins are left or the database fails
+     */
+    public Reservation book(String email, long sailingId, CabinType cabinType, int cabins) throws BookingException {
+        return claimAndRun(sailingId, cabinType, cabins,
+                connection -> insertReservation(connection, email, sailingId, cabinType, cabins));
+    }
+
+    /**
+     * Takes cabins out of the inventory for a customer who is checking out, and records the hold in the
+     * {@code cabin_hold} table in the same transaction, so that it outlives a restart of the application. The cabins
+     * must later be recorded with {@link #recordReservation} or returned with {@link #returnCabins}.
+     *
+     * @param email     the email of the customer
+     * @param sailingId the id of the sailing
+     * @param cabinType the type of the cabins
+     * @param cabins    the number of cabins, at least 1
+     * @param expiresAt when the hold expires, in milliseconds since the epoch
+     * @return the hold, with the id generated for it
+     * @throws BookingException if not enough cabins are left or the database fails
+     */
+    Hold takeCabins(String email, long sailingId, CabinType cabinType, int cabins, long expiresAt) throws BookingException {
+        return claimAndRun(sailingId, cabinType, cabins, connection -> {
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO cabin_hold (email, sailing_id, cabin_type, cabins, expires_at) VALUES (?, ?, ?, ?, ?)",
+                    Statement.RETURN_GENERATED_KEYS)) {
+                insert.setString(1, email);
+                insert.setLong(2, sailingId);
+                insert.setString(3, cabinType.name());
+                insert.setInt(4, cabins);
+                insert.setTimestamp(5, new Timestamp(expiresAt));
+                insert.executeUpdate();
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    if (!keys.next()) {
+                        throw new SQLException("No id was generated for the hold");
+                    }
+                    return new Hold(keys.getLong(1), email, sailingId, cabinType, cabins, expiresAt);
+                }
+            }
+        });
+    }
+
+    /**
+     * Turns a hold placed with {@link #takeCabins} into a confirmed reservation, in one transaction that also removes
+     * the hold, so a hold is either confirmed or returned, never both.
+     *
+     * @param hold the hold
+     * @return the confirmed reservation
+     * @throws BookingException with {@link BookingException.Reason#NOT_FOUND} if the hold was already returned, for
+     *                          example by another instance after it expired, or if the database fails
+     */
+    Reservation recordReservation(Hold hold) throws BookingException {
+        Connection connection = null;
+        try {
+            connection = pool.acquire();
+            connection.setAutoCommit(false);
+            try (PreparedStatement delete = connection.prepareStatement("DELETE FROM cabin_hold WHERE id = ?")) {
+                delete.setLong(1, hold.getId());
+                if (delete.executeUpdate() == 0) {
+                    connection.rollback();
+                    throw new BookingException(BookingException.Reason.NOT_FOUND, "Hold #" + hold.getId() + " has expired or was released");
+                }
+            }
+            Reservation reservation = insertReservation(connection, hold.getEmail(), hold.getSailingId(), hold.getCabinType(), hold.getCabins());
+            connection.commit();
+            return reservation;
+        } catch (SQLException e) {
+            rollback(connection);
+            throw new BookingException(BookingException.Reason.DATABASE, e.getMessage(), e);
+        } finally {
+            if (connection != null) {
+                pool.release(connection);
+            }
+        }
+    }
+
+    /**
+     * Returns the cabins of holds placed with {@link #takeCabins} to the inventory and removes the holds, in one
+     * transaction, adding up the cabins of every hold on the same sailing and cabin type into a single row update.
+     * A hold already confirmed or returned, for example by another instance, gives back nothing, so returning the
+     * same holds again is harmless.
+     *
+     * @param holds the holds whose cabins are given back
+     * @throws BookingException if the database fails
+     */
+    void returnCabins(Collection<Hold> holds) throws BookingException {
+        if (holds.isEmpty()) {
+            return;
+        }
+        List<Hold> ordered = new ArrayList<>(holds);
+        for (int attempt = 1; ; attempt++) {
+            Map<String, Integer> cabinsByKey = new HashMap<>();
+            Map<String, Hold> sample = new HashMap<>();
+            Connection connection = null;
+            try {
+                connection = pool.acquire();
+                connection.setAutoCommit(false);
+                try (PreparedStatement delete = connection.prepareStatement("DELETE FROM cabin_hold WHERE id = ?")) {
+                    for (Hold hold : ordered) {
+                        delete.setLong(1, hold.getId());
+                        delete.addBatch();
+                    }
+                    int[] counts = delete.executeBatch();
+                    for (int i = 0; i < counts.length; i++) {
+                        // Only holds still on record give their cabins back
+                        if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                            Hold hold = ordered.get(i);
+                            String key = key(hold.getSailingId(), hold.getCabinType());
+                            cabinsByKey.merge(key, hold.getCabins(), Integer::sum);
+                            sample.putIfAbsent(key, hold);
+                        }
+                    }
+                }
+                if (!cabinsByKey.isEmpty()) {
+                    try (PreparedStatement increment = connection.prepareStatement(
+                            "UPDATE cabin_inventory SET available = available + ? WHERE sailing_id = ? AND cabin_type = ?")) {
+                        for (Map.Entry<String, Integer> entry : cabinsByKey.entrySet()) {
+                            Hold hold = sample.get(entry.getKey());
+                            increment.setInt(1, entry.getValue());
+                            increment.setLong(2, hold.getSailingId());
+                            increment.setString(3, hold.getCabinType().name());
+                            increment.addBatch();
+                        }
+                        increment.executeBatch();
+                    }
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                rollback(connection);
+                if (attempt >= MAX_RETRIES || !isTransient(e)) {
+                    throw new BookingException(BookingException.Reason.DATABASE, e.getMessage(), e);
+                }
+                continue;
+            } finally {
+                if (connection != null) {
+                    pool.release(connection);
+                }
+            }
+            for (Map.Entry<String, Integer> entry : cabinsByKey.entrySet()) {
+                Counter counter = counters.get(entry.getKey());
+                if (counter != null) {
+                    counter.remaining.addAndGet(entry.getValue());
+                }
+            }
+            return;
+        }
+    }
+
+    /**
+     * Lists the holds on record, for example to expire them again after a restart.
+     *
+     * @return the holds that were neither confirmed nor returned
+     * @throws SQLException if the holds cannot be read
+     */
+    List<Hold> pendingHolds() throws SQLException {
+        List<Hold> holds = new ArrayList<>();
+        Connection connection = pool.acquire();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT id, email, sailing_id, cabin_type, cabins, expires_at FROM cabin_hold")) {
+            while (resultSet.next()) {
+                holds.add(Hold.from(resultSet));
+            }
+        } finally {
+            pool.release(connection);
+        }
+        return holds;
+    }
+
+    /**
+     * Work done in the booking transaction after the cabins were taken out of the inventory.
+     *
+     * @param <T> the type of the result
+     */
+    private interface Step<T> {
+        T run(Connection connection) throws SQLException;
+    }
+
+    /**
+     * Claims cabins from the in-memory counter, then decrements the inventory row and runs a step in one transaction,
+     * retrying on transient failures.
+     */
+    private <T> T claimAndRun(long sailingId, CabinType cabinType, int cabins, Step<T> step) throws BookingException {
+        if (cabins < 1) {
+            throw new IllegalArgumentException("At least one cabin must be booked");
+        }
+        Counter counter;
+        try {
+            counter = counter(sailingId, cabinType);
+        } catch (SQLException e) {
+            throw new BookingException(BookingException.Reason.DATABASE, e.getMessage(), e);
+        }
+        claim(counter, sailingId, cabinType, cabins);
+
+        for (int attempt = 1; ; attempt++) {
+            Connection connection = null;
+            try {
+                connection = pool.acquire();
+                connection.setAutoCommit(false);
+
+                int updated;
+                try (PreparedStatement decrement = connection.prepareStatement(
+                        "UPDATE cabin_inventory SET available = available - ? WHERE sailing_id = ? AND cabin_type = ? AND available >= ?")) {
+                    decrement.setInt(1, cabins);
+                    decrement.setLong(2, sailingId);
+                    decrement.setString(3, cabinType.name());
+                    decrement.setInt(4, cabins);
+                    updated = decrement.executeUpdate();
+                }
+
+                if (updated == 0) {
+                    // Another process booked the cabins this counter still believed to be free
+                    connection.rollback();
+                    counter.remaining.set(readAvailable(connection, sailingId, cabinType));
+                    counter.loadedAt = System.currentTimeMillis();
+                    throw new BookingException(BookingException.Reason.SOLD_OUT, "Not enough " + cabinType + " cabins left on sailing #" + sailingId);
+                }
+
+                T result = step.run(connection);
+                connection.commit();
+                return result;
+            } catch (SQLException e) {
+                rollback(connection);
+                if (attempt >= MAX_RETRIES || !isTransient(e)) {
+                    counter.remaining.addAndGet(cabins);
+                    throw new BookingException(BookingException.Reason.DATABASE, e.getMessage(), e);
+                }
+            } finally {
+                if (connection != null) {
+                    pool.release(connection);
+                }
+            }
+        }
+    }
+
+    /**
+     * Inserts a confirmed reservation.
+     */
+    private static Reservation insertReservation(Connection connection, String email, long sailingId, CabinType cabinType, int cabins) throws SQLException {
+        Timestamp createdAt = new Timestamp(System.currentTimeMillis());
+        long id;
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO reservation (email, sailing_id, cabin_type, cabins, status, created_at) VALUES (?, ?, ?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            insert.setString(1, email);
+            insert.setLong(2, sailingId);
+            insert.setString(3, cabinType.name());
+            insert.setInt(4, cabins);
+            insert.setString(5, Reservation.CONFIRMED);
+            insert.setTimestamp(6, createdAt);
+            insert.executeUpdate();
+            try (ResultSet keys = insert.getGeneratedKeys()) {
+                id = keys.next() ? keys.getLong(1) : 0;
+            }
+        }
+        return new Reservation(id, email, sailingId, cabinType, cabins, Reservation.CONFIRMED, createdAt);
+    }
+
+    /**
+     * Cancels a reservation and returns its cabins to the inventory.
+     *
+     * @param reservationId the id of the reservation
+     * @throws BookingException if the reservation does not exist, is already cancelled, or the database fails
+     */
+    public void cancel(long reservationId) throws BookingException {
+        for (int attempt = 1; ; attempt++) {
+            Connection connection = null;
+            try {
+                connection = pool.acquire();
+                connection.setAutoCommit(false);
+
+                Reservation reservation;
+                try (PreparedStatement select = connection.prepareStatement(
+                        "SELECT id, email, sailing_id, cabin_type, cabins, status, created_at FROM reservation WHERE id = ? FOR UPDATE")) {
+                    select.setLong(1, reservationId);
+                    try (ResultSet resultSet = select.executeQuery()) {
+                        reservation = resultSet.next() ? Reservation.from(resultSet) : null;
+                    }
+                }
+                if (reservation == null || !Reservation.CONFIRMED.equals(reservation.getStatus())) {
+                    throw new BookingException(BookingException.Reason.NOT_FOUND, "No confirmed reservation #" + reservationId);
+                }
+
+                try (PreparedStatement cancel = connection.prepareStatement("UPDATE reservation SET status = ? WHERE id = ?")) {
+                    cancel.setString(1, Reservation.CANCELLED);
+                    cancel.setLong(2, reservationId);
+                    cancel.executeUpdate();
+                }
+
+                try (PreparedStatement increment = connection.prepareStatement(
+                        "UPDATE cabin_inventory SET available = available + ? WHERE sailing_id = ? AND cabin_type = ?")) {
+                    increment.setInt(1, reservation.getCabins());
+                    increment.setLong(2, reservation.getSailingId());
+                    increment.setString(3, reservation.getCabinType().name());
+                    increment.executeUpdate();
+                }
+
+                connection.commit();
+                Counter counter = counters.get(key(reservation.getSailingId(), reservation.getCabinType()));
+                if (counter != null) {
+                    counter.remaining.addAndGet(reservation.getCabins());
+                }
+                return;
+            } catch (SQLException e) {
+                rollback(connection);
+                if (attempt >= MAX_RETRIES || !isTransient(e)) {
+                    throw new BookingException(BookingException.Reason.DATABASE, e.getMessage(), e);
+                }
+            } finally {
+                if (connection != null) {
+                    pool.release(connection);
+                }
+            }
+        }
+    }
+
+    /**
+     * Lists the reservations of a customer, newest first.
+     *
+     * @param email the email of the customer
+     * @return the reservations of the customer
+     * @throws SQLException if the reservations cannot be read
+     */
+    public List<Reservation> reservationsFor(String email) throws SQLException {
+        List<Reservation> reservations = new ArrayList<>();
+        Connection connection = pool.acquire();
+        try {
+            try (PreparedStatement preparedStatement = connection.prepareStatement(
+                    "SELECT id, email, sailing_id, cabin_type, cabins, status, created_at FROM reservation WHERE email = ? ORDER BY id DESC")) {
+                preparedStatement.setString(1, email);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    while (resultSet.next()) {
+                        reservations.add(Reservation.from(resultSet));
+                    }
+                }
+            }
+        } finally {
+            pool.release(connection);
+        }
+        return reservations;
+    }
+
+    /**
+     * Claims cabins from the in-memory counter, or fails fast if the sailing is sold out.
+     */
+    private void claim(Counter counter, long sailingId, CabinType cabinType, int cabins) throws BookingException {
+        while (true) {
+            int remaining = counter.remaining.get();
+            if (remaining < cabins) {
+                if (System.currentTimeMillis() - counter.loadedAt > SOLD_OUT_RECHECK_MILLIS && reload(counter, sailingId, cabinType)) {
+                    continue;
+                }
+                throw new BookingException(BookingException.Reason.SOLD_OUT, "Not enough " + cabinType + " cabins left on sailing #" + sailingId);
+            }
+            if (counter.remaining.compareAndSet(remaining, remaining - cabins)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reloads a counter from the database, in case cabins were cancelled by another process.
+     *
+     * @return whether the database has more cabins than the counter
+     */
+    private boolean reload(Counter counter, long sailingId, CabinType cabinType) {
+        counter.loadedAt = System.currentTimeMillis();
+        try {
+            Connection connection = pool.acquire();
+            try {
+                int available = readAvailable(connection, sailingId, cabinType);
+                int remaining = counter.remaining.get();
+                return available > remaining && counter.remaining.compareAndSet(remaining, available);
+            } finally {
+                pool.release(connection);
+            }
+        } catch (SQLException e) {
+            System.out.println(e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Gets the counter of a sailing and cabin type, loading it from the database on first use.
+     */
+    private Counter counter(long sailingId, CabinType cabinType) throws SQLException {
+        String key = key(sailingId, cabinType);
+        Counter counter = counters.get(key);
+        if (counter == null) {
+            Connection connection = pool.acquire();
+            try {
+                counter = new Counter(readAvailable(connection, sailingId, cabinType));
+            } finally {
+                pool.release(connection);
+            }
+            Counter existing = counters.putIfAbsent(key, counter);
+            if (existing != null) {
+                counter = existing;
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * Reads the cabins left from the database.
+     */
+    private static int readAvailable(Connection connection, long sailingId, CabinType cabinType) throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement(
+                "SELECT available FROM cabin_inventory WHERE sailing_id = ? AND cabin_type = ?")) {
+            preparedStatement.setLong(1, sailingId);
+            preparedStatement.setString(2, cabinType.name());
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSet.next() ? resultSet.getInt("available") : 0;
+            }
+        }
+    }
+
+    /**
+     * Checks whether a failed transaction may succeed if retried: deadlocks, lock wait timeouts and
+     * serialization failures all use SQL states of class 40.
+     */
+    private static boolean isTransient(SQLException e) {
+        return e.getSQLState() != null && e.getSQLState().startsWith("40")
+                || e.getErrorCode() == 1205 || e.getErrorCode() == 1213;
+    }
+
+    /**
+     * Rolls back a connection, ignoring failures because the original error matters more.
+     */
+    private static void rollback(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Builds the key of the counter of a sailing and cabin type.
+     */
+    private static String key(long sailingId, CabinType cabinType) {
+        return sailingId + ":" + cabinType.name();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.project.booking;
+
+/**
+ * The kinds of cabin that can be booked on a sailing, each shown with one of the ship images.
+ */
+public enum CabinType {
+    /** An inside cabin without a window. */
+    INTERIOR("Interior", "interior.png"),
+    /** A cabin with a window facing the sea. */
+    OCEAN_VIEW("Ocean View", "ocean.png"),
+    /** A cabin with a private balcony on the deck. */
+    BALCONY("Balcony", "deck.png"),
+    /** A suite at the front of the ship. */
+    SUITE("Suite", "forward.png");
+
+    private final String displayName;
+    private final String image;
+
+    CabinType(String displayName, String image) {
+        this.displayName = displayName;
+        this.image = image;
+    }
+
+    /**
+     * Gets the name of the cabin type as shown to customers.
+     *
+     * @return the display name
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Gets the resource name of the image shown for the cabin type.
+     *
+     * @return the image file name, relative to the {@code com.example.project} resources
+     */
+    public String getImage() {
+        return image;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.project.booking;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Cabins taken out of the inventory for a customer who is checking out, until the hold is confirmed,
+ * released or expires. A row of the {@code cabin_hold} table; holds are managed by {@link HoldManager}.
+ */
+public class Hold {
+    private final long id;
+    private final String email;
+    private final long sailingId;
+    private final CabinType cabinType;
+    private final int cabins;
+    private final long expiresAt;
+
+    /**
+     * Constructs a Hold.
+     *
+     * @param id        the id of the hold
+     * @param email     the email of the customer
+     * @param sailingId the id of the sailing
+     * @param cabinType the type of the cabins
+     * @param cabins    the number of cabins held
+     * @param expiresAt when the hold expires, in milliseconds since the epoch
+     */
+    public Hold(long id, String email, long sailingId, CabinType cabinType, int cabins, long expiresAt) {
+        this.id = id;
+        this.email = email;
+        this.sailingId = sailingId;
+        this.cabinType = cabinType;
+        this.cabins = cabins;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Creates a Hold from the current row of a result set selecting the {@code cabin_hold} columns.
+     *
+     * @param resultSet the result set positioned on the row to read
+     * @return the hold for the current row
+     * @throws SQLException if a column cannot be read
+     */
+    public static Hold from(ResultSet resultSet) throws SQLException {
+        return new Hold(
+                resultSet.getLong("id"),
+                resultSet.getString("email"),
+                resultSet.getLong("sailing_id"),
+                CabinType.valueOf(resultSet.getString("cabin_type")),
+                resultSet.getInt("cabins"),
+                resultSet.getTimestamp("expires_at").getTime());
+    }
+
+    /**
+     * Gets the id of the hold.
+     *
+     * @return the id
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Gets the email of the customer.
+     *
+     * @return the email
+     */
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * Gets the id of the sailing.
+     *
+     * @return the id of the sailing in {@code cruise_destination}
+     */
+    public long getSailingId() {
+        return sailingId;
+    }
+
+    /**
+     * Gets the type of the cabins.
+     *
+     * @return the cabin type
+     */
+    public CabinType getCabinType() {
+        return cabinType;
+    }
+
+    /**
+     * Gets the number of cabins held.
+     *
+     * @return the number of cabins
+     */
+    public int getCabins() {
+        return cabins;
+    }
+
+    /**
+     * Gets when the hold expires.
+     *
+     * @return the expiry time in milliseconds since the epoch
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    @Override
+    public String toString() {
+        return "hold #" + id + " " + cabins + " x " + cabinType + " on sailing #" + sailingId + " for " + email;
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.project.booking;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds cabins for customers while they check out and releases them automatically when the hold runs out.
+ * <p>
+ * Placing a hold takes the cabins out of the inventory straight away through {@link BookingService}, so nobody else
+ * can book them. The expiry of every pending hold is kept on a {@link TimingWheel}, which makes placing, confirming
+ * and cancelling a hold O(1) no matter how many tens of thousands are pending, without a thread per hold or polling
+ * the database. A single background thread advances the wheel every tick and returns the cabins of all holds that
+ * expired in that tick to the inventory in one batched transaction.
+ * </p>
+ * <p>
+ * Every hold is also recorded with its expiry in the {@code cabin_hold} table, in the same transaction that takes its
+ * cabins. When the manager starts it puts the holds on record back on the wheel, so holds pending when the application
+ * stopped or crashed still expire, at once if their time ran out meanwhile. Confirming or returning a hold removes its
+ * row, and only the instance that removes it confirms or returns the cabins, so several instances may recover the same
+ * holds without returning any cabins twice.
+ * </p>
+ */
+public class HoldManager implements AutoCloseable {
+    /** The default time a cabin is held for. */
+    public static final Duration DEFAULT_HOLD_TIME = Duration.ofMinutes(15);
+
+    /** The default precision of hold expiry. */
+    public static final long DEFAULT_TICK_MILLIS = 100;
+
+    /**
+     * A pending hold together with its place on the timing wheel.
+     */
+    private static class Pending {
+        private final Hold hold;
+        private TimingWheel.Timeout<Pending> timeout;
+
+        private Pending(Hold hold) {
+            this.hold = hold;
+        }
+    }
+
+    private final BookingService bookingService;
+    private final Duration holdTime;
+    private final TimingWheel<Pending> wheel;
+    private final Map<Long, Pending> pending = new HashMap<>();
+    private final ScheduledExecutorService ticker;
+
+    /** Holds whose cabins could not be returned yet, retried on the next tick. */
+    private final Queue<Hold> unreturned = new ConcurrentLinkedQueue<>();
+
+    /** Whether the holds on record have been put on the wheel. Only used by the expiry thread. */
+    private boolean recovered;
+
+    /**
+     * Constructs a HoldManager with the default hold time and tick, and starts its expiry thread.
+     *
+     * @param bookingService the service that owns the inventory
+     */
+    public HoldManager(BookingService bookingService) {
+        this(bookingService, DEFAULT_HOLD_TIME, DEFAULT_TICK_MILLIS);
+    }
+
+    /**
+     * Constructs a HoldManager and starts its expiry thread, which first puts the holds on record back on the wheel.
+     *
+     * @param bookingService the service that owns the inventory
+     * @param holdTime       how long a cabin is held for
+     * @param tickMillis     the precision of hold expiry in milliseconds
+     */
+    public HoldManager(BookingService bookingService, Duration holdTime, long tickMillis) {
+        this.bookingService = bookingService;
+        this.holdTime = holdTime;
+        this.wheel = new TimingWheel<>(tickMillis, System.currentTimeMillis());
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cabin-hold-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::expire, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Holds cabins for a customer.
+     *
+     * @param email     the email of the customer
+     * @param sailingId the id of the sailing
+     * @param cabinType the type of the cabins
+     * @param cabins    the number of cabins
+     * @return the hold, which expires after the hold time unless confirmed or released first
+     * @throws BookingException if not enough cabins are left or the database fails
+     */
+    public Hold hold(String email, long sailingId, CabinType cabinType, int cabins) throws BookingException {
+        long expiresAt = System.currentTimeMillis() + holdTime.toMillis();
+        Hold hold = bookingService.takeCabins(email, sailingId, cabinType, cabins, expiresAt);
+        schedule(hold);
+        return hold;
+    }
+
+    /**
+     * Turns a hold into a confirmed reservation, for example once payment succeeded.
+     *
+     * @param holdId the id of the hold
+     * @return the confirmed reservation
+     * @throws BookingException if the hold has expired or was released, or the database fails
+     */
+    public Reservation confirm(long holdId) throws BookingException {
+        Pending entry = take(holdId);
+        if (entry == null) {
+            throw new BookingException(BookingException.Reason.NOT_FOUND, "Hold #" + holdId + " has expired or was released");
+        }
+        try {
+            return bookingService.recordReservation(entry.hold);
+        } catch (BookingException e) {
+            if (e.getReason() != BookingException.Reason.NOT_FOUND) {
+                giveBack(entry.hold);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Releases a hold before it expires and returns its cabins to the inventory. If the database fails, the cabins are
+     * returned on a later tick.
+     *
+     * @param holdId the id of the hold
+     * @return {@code true} if the hold was still pending
+     */
+    public boolean release(long holdId) {
+        Pending entry = take(holdId);
+        if (entry == null) {
+            return false;
+        }
+        giveBack(entry.hold);
+        return true;
+    }
+
+    /**
+     * Gets the number of pending holds.
+     *
+     * @return the number of holds that have not been confirmed, released or expired
+     */
+    public synchronized int pendingHolds() {
+        return pending.size();
+    }
+
+    /**
+     * Stops the expiry thread. Pending holds are left on record and expire once a manager is started again.
+     */
+    @Override
+    public void close() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * Puts a hold on the wheel to expire at its time.
+     */
+    private synchronized void schedule(Hold hold) {
+        if (pending.containsKey(hold.getId())) {
+            return;
+        }
+        Pending entry = new Pending(hold);
+        entry.timeout = wheel.schedule(entry, hold.getExpiresAt());
+        pending.put(hold.getId(), entry);
+    }
+
+    /**
+     * Returns the cabins of a hold taken off the wheel, or queues them for the next tick if the database fails.
+     */
+    private void giveBack(Hold hold) {
+        try {
+            bookingService.returnCabins(List.of(hold));
+        } catch (BookingException e) {
+            System.out.println(e.getMessage());
+            unreturned.add(hold);
+        }
+    }
+
+    /**
+     * Puts the holds on record back on the wheel, unless they are already on it. Retried on every tick until the
+     * holds could be read.
+     */
+    private void recover() {
+        List<Hold> holds;
+        try {
+            holds = bookingService.pendingHolds();
+        } catch (SQLException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+        for (Hold hold : holds) {
+            schedule(hold);
+        }
+        recovered = true;
+    }
+
+    /**
+     * Removes a pending hold and cancels its expiry.
+     */
+    private synchronized Pending take(long holdId) {
+        Pending entry = pending.remove(holdId);
+        if (entry != null) {
+            wheel.cancel(entry.timeout);
+        }
+        return entry;
+    }
+
+    /**
+     * Advances the wheel and returns the cabins of every expired hold to the inventory in one batch.
+     * If the database fails, the holds are kept and their cabins are returned on a later tick.
+     */
+    private void expire() {
+        if (!recovered) {
+            recover();
+        }
+        List<Pending> expired;
+        synchronized (this) {
+            expired = wheel.advance(System.currentTimeMillis());
+            for (Pending entry : expired) {
+                pending.remove(entry.hold.getId());
+            }
+        }
+        for (Pending entry : expired) {
+            unreturned.add(entry.hold);
+        }
+        if (unreturned.isEmpty()) {
+            return;
+        }
+        List<Hold> returning = new ArrayList<>(unreturned);
+        try {
+            bookingService.returnCabins(returning);
+            unreturned.removeAll(returning);
+        } catch (BookingException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+}
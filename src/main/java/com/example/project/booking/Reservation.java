@@ -0,0 +1,131 @@
+package com.example.project.booking;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * A row of the {@code reservation} table: cabins of one type booked on one sailing by one customer.
+ */
+public class Reservation {
+    /** The status of a reservation that holds its cabins. */
+    public static final String CONFIRMED = "CONFIRMED";
+
+    /** The status of a reservation whose cabins were given back. */
+    public static final String CANCELLED = "CANCELLED";
+
+    private final long id;
+    private final String email;
+    private final long sailingId;
+    private final CabinType cabinType;
+    private final int cabins;
+    private final String status;
+    private final Timestamp createdAt;
+
+    /**
+     * Constructs a Reservation.
+     *
+     * @param id        the generated id of the reservation
+     * @param email     the email of the customer, as registered in {@code REGISTRATION}
+     * @param sailingId the id of the sailing
+     * @param cabinType the type of the cabins
+     * @param cabins    the number of cabins
+     * @param status    {@link #CONFIRMED} or {@link #CANCELLED}
+     * @param createdAt when the reservation was made
+     */
+    public Reservation(long id, String email, long sailingId, CabinType cabinType, int cabins, String status, Timestamp createdAt) {
+        this.id = id;
+        this.email = email;
+        this.sailingId = sailingId;
+        this.cabinType = cabinType;
+        this.cabins = cabins;
+        this.status = status;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Creates a Reservation from the current row of a result set selecting the {@code reservation} columns.
+     *
+     * @param resultSet the result set positioned on the row to read
+     * @return the reservation for the current row
+     * @throws SQLException if a column cannot be read
+     */
+    public static Reservation from(ResultSet resultSet) throws SQLException {
+        return new Reservation(
+                resultSet.getLong("id"),
+                resultSet.getString("email"),
+                resultSet.getLong("sailing_id"),
+                CabinType.valueOf(resultSet.getString("cabin_type")),
+                resultSet.getInt("cabins"),
+                resultSet.getString("status"),
+                resultSet.getTimestamp("created_at"));
+    }
+
+    /**
+     * Gets the id of the reservation.
+     *
+     * @return the id
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Gets the email of the customer.
+     *
+     * @return the email
+     */
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * Gets the id of the sailing.
+     *
+     * @return the id of the sailing in {@code cruise_destination}
+     */
+    public long getSailingId() {
+        return sailingId;
+    }
+
+    /**
+     * Gets the type of the cabins.
+     *
+     * @return the cabin type
+     */
+    public CabinType getCabinType() {
+        return cabinType;
+    }
+
+    /**
+     * Gets the number of cabins.
+     *
+     * @return the number of cabins
+     */
+    public int getCabins() {
+        return cabins;
+    }
+
+    /**
+     * Gets the status of the reservation.
+     *
+     * @return {@link #CONFIRMED} or {@link #CANCELLED}
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Gets when the reservation was made.
+     *
+     * @return the creation time
+     */
+    public Timestamp getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + id + " " + cabins + " x " + cabinType + " on sailing #" + sailingId + " for " + email + " (" + status + ")";
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.project.booking;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A hierarchical timing wheel: a timer for very many pending deadlines with O(1) schedule, cancel and expiry.
+ * <p>
+ * Time is divided into ticks. The wheel has {@value #LEVELS} levels of {@value #SLOTS} slots; level 0 holds timeouts
+ * due within the current revolution of 64 ticks, level 1 those due within the current revolution of 64 x 64 ticks, and
+ * so on. A timeout is put in the slot of the lowest level whose revolution it falls into. When the clock reaches a
+ * higher-level slot, that slot is emptied and its timeouts are re-inserted into the lower levels (cascading), so every
+ * timeout moves at most {@value #LEVELS} times during its life. Each slot is an intrusive doubly-linked list, so a
+ * timeout is cancelled by unlinking it.
+ * </p>
+ * <p>
+ * This class is not thread-safe; callers synchronize around it.
+ * </p>
+ *
+ * @param <T> the type of the values scheduled on the wheel
+ */
+public class TimingWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 6;
+
+    /** The furthest tick that can be scheduled from the current one; later deadlines are clamped to it. */
+    private static final long MAX_DELTA = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    /**
+     * A scheduled value, linked into the slot it is waiting in.
+     *
+     * @param <T> the type of the value
+     */
+    public static final class Timeout<T> {
+        private final T value;
+        private final long deadlineTick;
+        private Timeout<T> previous;
+        private Timeout<T> next;
+        private boolean scheduled;
+
+        private Timeout(T value, long deadlineTick) {
+            this.value = value;
+            this.deadlineTick = deadlineTick;
+        }
+
+        /**
+         * Gets the scheduled value.
+         *
+         * @return the value
+         */
+        public T getValue() {
+            return value;
+        }
+
+        /**
+         * Checks whether the timeout is still waiting, i.e. has neither expired nor been cancelled.
+         *
+         * @return whether the timeout is scheduled
+         */
+        public boolean isScheduled() {
+            return scheduled;
+        }
+    }
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final Timeout<T>[][] slots;
+    private long currentTick;
+    private int size;
+
+    /**
+     * Constructs a TimingWheel starting now.
+     *
+     * @param tickMillis the length of a tick in milliseconds, i.e. the precision of the deadlines
+     * @param nowMillis  the current time in milliseconds
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TimingWheel(long tickMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.startMillis = nowMillis;
+        this.slots = new Timeout[LEVELS][SLOTS];
+        for (Timeout<T>[] level : slots) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                // Each slot is a circular list with a sentinel head
+                Timeout<T> head = new Timeout<>(null, -1);
+                head.previous = head;
+                head.next = head;
+                level[slot] = head;
+            }
+        }
+    }
+
+    /**
+     * Schedules a value to expire at a deadline.
+     *
+     * @param value          the value
+     * @param deadlineMillis when the value expires, in milliseconds
+     * @return the handle used to cancel the timeout
+     */
+    public Timeout<T> schedule(T value, long deadlineMillis) {
+        long deadlineTick = Math.max(currentTick + 1, ceilDiv(deadlineMillis - startMillis, tickMillis));
+        Timeout<T> timeout = new Timeout<>(value, Math.min(deadlineTick, currentTick + MAX_DELTA));
+        insert(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Cancels a timeout so that it never expires.
+     *
+     * @param timeout the handle returned by {@link #schedule(Object, long)}
+     * @return {@code true} if the timeout was still scheduled
+     */
+    public boolean cancel(Timeout<T> timeout) {
+        if (!timeout.scheduled) {
+            return false;
+        }
+        unlink(timeout);
+        size--;
+        return true;
+    }
+
+    /**
+     * Moves the clock forward and collects every value whose deadline has passed.
+     *
+     * @param nowMillis the current time in milliseconds
+     * @return the expired values, in no particular order
+     */
+    public List<T> advance(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        long nowTick = (nowMillis - startMillis) / tickMillis;
+        while (currentTick < nowTick) {
+            currentTick++;
+            cascade();
+            Timeout<T> head = slots[0][(int) (currentTick & SLOT_MASK)];
+            while (head.next != head) {
+                Timeout<T> timeout = head.next;
+                unlink(timeout);
+                size--;
+                expired.add(timeout.value);
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Gets the number of scheduled timeouts.
+     *
+     * @return the number of timeouts that have neither expired nor been cancelled
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Re-inserts the timeouts of every higher-level slot the clock has just reached into the lower levels.
+     */
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                return;
+            }
+            Timeout<T> head = slots[level][(int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK)];
+            while (head.next != head) {
+                Timeout<T> timeout = head.next;
+                unlink(timeout);
+                insert(timeout);
+            }
+        }
+    }
+
+    /**
+     * Links a timeout into the slot of the lowest level whose current revolution contains its deadline.
+     */
+    private void insert(Timeout<T> timeout) {
+        int level = 0;
+        while (level < LEVELS - 1 && (timeout.deadlineTick >>> (SLOT_BITS * (level + 1))) != (currentTick >>> (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        Timeout<T> head = slots[level][(int) ((timeout.deadlineTick >>> (SLOT_BITS * level)) & SLOT_MASK)];
+        timeout.previous = head.previous;
+        timeout.next = head;
+        head.previous.next = timeout;
+        head.previous = timeout;
+        timeout.scheduled = true;
+    }
+
+    /**
+     * Unlinks a timeout from its slot.
+     */
+    private void unlink(Timeout<T> timeout) {
+        timeout.previous.next = timeout.next;
+        timeout.next.previous = timeout.previous;
+        timeout.previous = null;
+        timeout.next = null;
+        timeout.scheduled = false;
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return -Math.floorDiv(-dividend, divisor);
+    }
+}
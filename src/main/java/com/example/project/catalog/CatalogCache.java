@@ -0,0 +1,253 @@
+package com.example.project.catalog;
+
+import com.example.project.DatabaseManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the catalog browsable when the database is not.
+ * <p>
+ * On first use the cache loads the last {@link CatalogSnapshot} from {@value #SNAPSHOT_FILE} in the working directory,
+ * which takes milliseconds, and then refreshes it from the database on a background thread every
+ * {@value #REFRESH_SECONDS} seconds. A refresh first reads the last sequence number of the change log every write
+ * appends to, and reads the tables again only if it moved since the last refresh; the changes themselves reach the
+ * running pages sooner through {@link com.example.project.sync.ChangeFeed}. Each refresh that reads the tables writes
+ * a new snapshot if they changed. While the
+ * database is unreachable the pages and the API server browse the last snapshot instead, and once it comes back the
+ * next refresh brings the cache up to date and notifies the listeners registered with {@link #onReconnect(Runnable)}.
+ * Listeners registered with {@link #onChange(Consumer)} receive every refresh that found the tables changed, e.g. by
+ * another instance of the application.
+ * </p>
+ * <p>
+ * Like {@link DatabaseManager}, this class is a singleton. The shared instance only connects to the database on the
+ * refresh thread, so the snapshot is available before the database is reached, or even if it never is.
+ * </p>
+ */
+public class CatalogCache implements AutoCloseable {
+    /** The file the snapshot is kept in, in the working directory like the export files. */
+    public static final String SNAPSHOT_FILE = "catalog.snapshot";
+
+    /** How often the cache is refreshed from the database. */
+    public static final int REFRESH_SECONDS = 60;
+
+    private static CatalogCache instance;
+
+    private final Supplier<DatabaseManager> database;
+    private final Path path;
+    private final List<Runnable> reconnectListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<CatalogSnapshot>> changeListeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** The current contents, replaced as a whole on every refresh. */
+    private volatile CatalogSnapshot snapshot = new CatalogSnapshot(0, List.of(), List.of());
+    private volatile boolean online;
+
+    /** The last sequence number of the change log when the tables were last read. Only used on the refresh thread. */
+    private long changeSeq = -1;
+
+    /**
+     * Constructs a CatalogCache backed by the given database and snapshot file, loading the snapshot if there is one.
+     * Use {@link #getInstance()} for the cache shared by the application.
+     *
+     * @param database the database to refresh from
+     * @param path     the snapshot file
+     */
+    public CatalogCache(DatabaseManager database, Path path) {
+        this(() -> database, path);
+    }
+
+    /**
+     * Constructs a CatalogCache that gets its database only when it first refreshes.
+     */
+    private CatalogCache(Supplier<DatabaseManager> database, Path path) {
+        this.database = database;
+        this.path = path;
+        if (Files.exists(path)) {
+            try {
+                snapshot = CatalogSnapshot.read(path);
+            } catch (IOException e) {
+                System.out.println("Ignoring catalog snapshot: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Gets the singleton instance of CatalogCache, loading the snapshot and starting the background refresh on first use.
+     *
+     * @return the shared catalog cache
+     */
+    public static synchronized CatalogCache getInstance() {
+        if (instance == null) {
+            instance = new CatalogCache(DatabaseManager::getInstance, Paths.get(SNAPSHOT_FILE));
+            instance.start();
+        }
+        return instance;
+    }
+
+    /**
+     * Starts refreshing the cache in the background, first immediately and then every {@value #REFRESH_SECONDS} seconds.
+     */
+    public void start() {
+        refresher.scheduleWithFixedDelay(this::refresh, 0, REFRESH_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Reads both tables from the database and replaces the cached contents, writing a new snapshot if they changed.
+     * The tables are not read again while the change log shows no change since they were last read.
+     *
+     * @return {@code true} if the database could be read, {@code false} if the cache stays on the last snapshot
+     */
+    public boolean refresh() {
+        long started = System.currentTimeMillis();
+        List<Sailing> sailings = new ArrayList<>();
+        List<Charity> charities = new ArrayList<>();
+        long seq;
+        try (Connection connection = database.get().openConnection(); Statement statement = connection.createStatement()) {
+            ResultSet resultSet = statement.executeQuery("SELECT MAX(seq) FROM catalog_change");
+            seq = resultSet.next() ? resultSet.getLong(1) : 0;
+            resultSet.close();
+            if (online && seq == changeSeq) {
+                return true;
+            }
+            resultSet = statement.executeQuery("SELECT id, country_from, duration, place, cruise_ship, route, price, date FROM cruise_destination");
+            while (resultSet.next()) {
+                sailings.add(Sailing.from(resultSet));
+            }
+            resultSet.close();
+            resultSet = statement.executeQuery("SELECT id, name, type, country, about, website, email, location FROM charity_organisation");
+            while (resultSet.next()) {
+                charities.add(Charity.from(resultSet));
+            }
+            resultSet.close();
+        } catch (SQLException e) {
+            if (online) {
+                System.out.println("Database unreachable, browsing the catalog snapshot: " + e.getMessage());
+            }
+            online = false;
+            return false;
+        }
+
+        // Stamped with the time the reads started, so listeners can tell it from changes they made meanwhile
+        CatalogSnapshot fresh = new CatalogSnapshot(started, seq, sailings, charities);
+        changeSeq = seq;
+        boolean changed = !fresh.hasSameRows(snapshot);
+        snapshot = fresh;
+        if (changed) {
+            try {
+                fresh.write(path);
+            } catch (IOException e) {
+                System.out.println("Could not write catalog snapshot: " + e.getMessage());
+            }
+            for (Consumer<CatalogSnapshot> listener : changeListeners) {
+                listener.accept(fresh);
+            }
+        }
+        if (!online) {
+            online = true;
+            for (Runnable listener : reconnectListeners) {
+                listener.run();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Registers a listener to run on the refresh thread whenever the database becomes reachable again.
+     *
+     * @param listener the listener to run
+     */
+    public void onReconnect(Runnable listener) {
+        reconnectListeners.add(listener);
+    }
+
+    /**
+     * Registers a listener to run on the refresh thread with every refreshed snapshot whose rows changed.
+     *
+     * @param listener the listener to run
+     */
+    public void onChange(Consumer<CatalogSnapshot> listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Checks whether the last refresh reached the database.
+     *
+     * @return {@code true} if the cache is current, {@code false} if it is serving the last snapshot
+     */
+    public boolean isOnline() {
+        return online;
+    }
+
+    /**
+     * Gets the time the cached rows were read from the database.
+     *
+     * @return the time in epoch milliseconds, or 0 if there is no snapshot yet
+     */
+    public long getSnapshotTime() {
+        return snapshot.getCreatedAt();
+    }
+
+    /**
+     * Gets the cached sailings, optionally filtered as on the admin page.
+     *
+     * @param country  the country of departure, or {@code null} or "All" for any
+     * @param duration the duration, or {@code null} or "All" for any
+     * @return the matching sailings
+     */
+    public List<Sailing> sailings(String country, String duration) {
+        List<Sailing> result = new ArrayList<>();
+        for (Sailing sailing : snapshot.getSailings()) {
+            if (matches(country, sailing.getCountryFrom()) && matches(duration, sailing.getDuration())) {
+                result.add(sailing);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the cached charities, optionally filtered as on the charity page.
+     *
+     * @param country the country, or {@code null} or "All" for any
+     * @return the matching charities
+     */
+    public List<Charity> charities(String country) {
+        List<Charity> result = new ArrayList<>();
+        for (Charity charity : snapshot.getCharities()) {
+            if (matches(country, charity.getCountry())) {
+                result.add(charity);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Stops the background refresh.
+     */
+    @Override
+    public void close() {
+        refresher.shutdownNow();
+    }
+
+    private static boolean matches(String filter, String value) {
+        return filter == null || filter.equals("All") || filter.equals(value);
+    }
+}
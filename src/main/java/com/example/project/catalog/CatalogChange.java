@@ -0,0 +1,123 @@
+package com.example.project.catalog;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.ToLongFunction;
+
+/**
+ * Immutable event describing the change of one entry of the catalog between two {@link CatalogVersion}s: an entry
+ * added, an entry updated, or an entry removed, identified by its surrogate key.
+ * <p>
+ * The {@link VersionedCatalog} publishes one event per changed entry, so a page showing the catalog can patch the
+ * card of that entry instead of rebuilding every card. Single edits create their event directly; {@link #diff} is
+ * for loads and refreshes that replace every row at once.
+ * </p>
+ *
+ * @param <T> the type of the entry, {@link Sailing} or {@link Charity}
+ */
+public class CatalogChange<T> {
+    /**
+     * The kinds of change.
+     */
+    public enum Kind {
+        ADDED, UPDATED, REMOVED
+    }
+
+    private final Kind kind;
+    private final long id;
+    private final T before;
+    private final T after;
+
+    /**
+     * Constructs a CatalogChange.
+     *
+     * @param kind   the kind of change
+     * @param id     the id of the entry
+     * @param before the entry before the change, or {@code null} if it was added
+     * @param after  the entry after the change, or {@code null} if it was removed
+     */
+    public CatalogChange(Kind kind, long id, T before, T after) {
+        this.kind = kind;
+        this.id = id;
+        this.before = before;
+        this.after = after;
+    }
+
+    /**
+     * Compares two lists of entries by id.
+     * <p>
+     * Entries only in {@code after} are added, entries only in {@code before} are removed, and entries in both that are
+     * not equal are updated; equal entries produce no event. The comparison takes time linear in the entries.
+     * </p>
+     *
+     * @param before the entries before
+     * @param after  the entries after
+     * @param id     gets the id of an entry
+     * @param <T>    the type of the entries
+     * @return the changes, additions and updates in the order of {@code after}, then removals
+     */
+    public static <T> List<CatalogChange<T>> diff(List<T> before, List<T> after, ToLongFunction<T> id) {
+        Map<Long, T> remaining = new LinkedHashMap<>();
+        for (T entry : before) {
+            remaining.put(id.applyAsLong(entry), entry);
+        }
+        List<CatalogChange<T>> changes = new ArrayList<>();
+        for (T entry : after) {
+            long key = id.applyAsLong(entry);
+            T old = remaining.remove(key);
+            if (old == null) {
+                changes.add(new CatalogChange<>(Kind.ADDED, key, null, entry));
+            } else if (!old.equals(entry)) {
+                changes.add(new CatalogChange<>(Kind.UPDATED, key, old, entry));
+            }
+        }
+        for (Map.Entry<Long, T> removed : remaining.entrySet()) {
+            changes.add(new CatalogChange<>(Kind.REMOVED, removed.getKey(), removed.getValue(), null));
+        }
+        return changes;
+    }
+
+    /**
+     * Gets the kind of change.
+     *
+     * @return the kind
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Gets the id of the changed entry.
+     *
+     * @return the surrogate key of the entry
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Gets the entry before the change.
+     *
+     * @return the entry, or {@code null} if it was added
+     */
+    public T getBefore() {
+        return before;
+    }
+
+    /**
+     * Gets the entry after the change.
+     *
+     * @return the entry, or {@code null} if it was removed
+     */
+    public T getAfter() {
+        return after;
+    }
+
+    @Override
+    public String toString() {
+        return kind + " " + id + ": " + Objects.requireNonNullElse(after, before);
+    }
+}
@@ -0,0 +1,356 @@
+package com.example.project.catalog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * A copy of the {@code cruise_destination} and {@code charity_organisation} tables in a compact binary file.
+ * <p>
+ * The file starts with a fixed header, followed by a table of the distinct strings of both tables and then the rows,
+ * which refer to strings by their index. Columns such as the country, the duration or the ship repeat on almost every
+ * row, so each distinct value is stored and decoded only once. All numbers after the header are unsigned variable-length
+ * integers of 7 bits per byte.
+ * </p>
+ * <pre>
+ *  offset  size  field
+ *       0     4  magic "CBSS"
+ *       4     2  format version
+ *       6     2  reserved, 0
+ *       8     8  creation time, epoch milliseconds
+ *      16     4  number of sailings
+ *      20     4  number of charities
+ *      24     4  length of the body in bytes
+ *      28     4  CRC-32C of bytes 0 to 27 and of the body
+ *      32        body: string count, strings (length, UTF-8), sailings (id, 6 string refs and price), charities (id and
+ *                7 string refs)
+ * </pre>
+ * <p>
+ * String references are 1-based, with 0 standing for a {@code null} column. A file is read by memory-mapping it, so the
+ * checksum is computed and the rows are decoded straight from the page cache. Files are written to a temporary file
+ * and renamed over the old one, so a crash never leaves a torn snapshot behind.
+ * </p>
+ */
+public class CatalogSnapshot {
+    /** The version of the format written by this class. Files of other versions are rejected. */
+    public static final int FORMAT_VERSION = 2;
+
+    private static final int MAGIC = 0x43425353;
+    private static final int HEADER_SIZE = 32;
+    private static final int CHECKSUM_OFFSET = 28;
+
+    private final long createdAt;
+    private final long seq;
+    private final List<Sailing> sailings;
+    private final List<Charity> charities;
+
+    /**
+     * Constructs a CatalogSnapshot of the given rows.
+     *
+     * @param createdAt the time the rows were read from the database, in epoch milliseconds
+     * @param sailings  the rows of {@code cruise_destination}
+     * @param charities the rows of {@code charity_organisation}
+     */
+    public CatalogSnapshot(long createdAt, List<Sailing> sailings, List<Charity> charities) {
+        this(createdAt, 0, sailings, charities);
+    }
+
+    /**
+     * Constructs a CatalogSnapshot of rows read after the last sequence number of the change log.
+     *
+     * @param createdAt the time the rows were read from the database, in epoch milliseconds
+     * @param seq       the last sequence number of {@code catalog_change}, read before the rows
+     * @param sailings  the rows of {@code cruise_destination}
+     * @param charities the rows of {@code charity_organisation}
+     */
+    public CatalogSnapshot(long createdAt, long seq, List<Sailing> sailings, List<Charity> charities) {
+        this.createdAt = createdAt;
+        this.seq = seq;
+        this.sailings = Collections.unmodifiableList(new ArrayList<>(sailings));
+        this.charities = Collections.unmodifiableList(new ArrayList<>(charities));
+    }
+
+    /**
+     * Gets the time the rows were read from the database.
+     *
+     * @return the creation time in epoch milliseconds
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Gets the last sequence number of the change log when the rows were read. The rows include every change up to
+     * it; snapshots read from a file, which does not store it, answer 0.
+     *
+     * @return the sequence number
+     */
+    public long getSeq() {
+        return seq;
+    }
+
+    /**
+     * Gets the sailings in the snapshot.
+     *
+     * @return an unmodifiable list of the sailings
+     */
+    public List<Sailing> getSailings() {
+        return sailings;
+    }
+
+    /**
+     * Gets the charities in the snapshot.
+     *
+     * @return an unmodifiable list of the charities
+     */
+    public List<Charity> getCharities() {
+        return charities;
+    }
+
+    /**
+     * Checks whether another snapshot holds the same rows in the same order, whenever it was taken.
+     *
+     * @param other the snapshot to compare with
+     * @return {@code true} if both snapshots would encode to the same rows
+     */
+    public boolean hasSameRows(CatalogSnapshot other) {
+        ByteBuffer mine = encode();
+        ByteBuffer theirs = other.encode();
+        return mine.getInt(16) == theirs.getInt(16) && mine.getInt(20) == theirs.getInt(20)
+                && mine.slice(HEADER_SIZE, mine.limit() - HEADER_SIZE).equals(theirs.slice(HEADER_SIZE, theirs.limit() - HEADER_SIZE));
+    }
+
+    /**
+     * Encodes the snapshot in the binary format.
+     *
+     * @return a buffer holding the whole file, positioned at 0
+     */
+    public ByteBuffer encode() {
+        Map<String, Integer> refs = new HashMap<>();
+        List<byte[]> strings = new ArrayList<>();
+        for (Sailing sailing : sailings) {
+            intern(refs, strings, sailing.getCountryFrom(), sailing.getDuration(), sailing.getPlace(),
+                    sailing.getCruiseShip(), sailing.getRoute(), sailing.getDate());
+        }
+        for (Charity charity : charities) {
+            intern(refs, strings, charity.getName(), charity.getType(), charity.getCountry(), charity.getAbout(),
+                    charity.getWebsite(), charity.getEmail(), charity.getLocation());
+        }
+
+        int bodySize = 5;
+        for (byte[] string : strings) {
+            bodySize += 5 + string.length;
+        }
+        bodySize += sailings.size() * (10 + 7 * 5) + charities.size() * (10 + 7 * 5);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + bodySize);
+
+        buffer.position(HEADER_SIZE);
+        writeVarInt(buffer, strings.size());
+        for (byte[] string : strings) {
+            writeVarInt(buffer, string.length);
+            buffer.put(string);
+        }
+        for (Sailing sailing : sailings) {
+            writeVarLong(buffer, sailing.getId());
+            writeRefs(buffer, refs, sailing.getCountryFrom(), sailing.getDuration(), sailing.getPlace(),
+                    sailing.getCruiseShip(), sailing.getRoute(), sailing.getDate());
+            writeVarInt(buffer, sailing.getPrice());
+        }
+        for (Charity charity : charities) {
+            writeVarLong(buffer, charity.getId());
+            writeRefs(buffer, refs, charity.getName(), charity.getType(), charity.getCountry(), charity.getAbout(),
+                    charity.getWebsite(), charity.getEmail(), charity.getLocation());
+        }
+        int end = buffer.position();
+
+        buffer.putInt(0, MAGIC);
+        buffer.putShort(4, (short) FORMAT_VERSION);
+        buffer.putShort(6, (short) 0);
+        buffer.putLong(8, createdAt);
+        buffer.putInt(16, sailings.size());
+        buffer.putInt(20, charities.size());
+        buffer.putInt(24, end - HEADER_SIZE);
+        buffer.putInt(CHECKSUM_OFFSET, checksum(buffer, end));
+        return buffer.position(0).limit(end);
+    }
+
+    /**
+     * Decodes a snapshot, checking its magic, version and checksum.
+     *
+     * @param buffer a buffer holding the whole file from its current position
+     * @return the decoded snapshot
+     * @throws IOException if the buffer does not hold a valid snapshot of this format version
+     */
+    public static CatalogSnapshot decode(ByteBuffer buffer) throws IOException {
+        ByteBuffer file = buffer.slice();
+        if (file.remaining() < HEADER_SIZE || file.getInt(0) != MAGIC) {
+            throw new IOException("Not a catalog snapshot");
+        }
+        int version = file.getShort(4);
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported catalog snapshot version " + version);
+        }
+        int bodyLength = file.getInt(24);
+        if (bodyLength < 0 || bodyLength > file.remaining() - HEADER_SIZE) {
+            throw new IOException("Truncated catalog snapshot");
+        }
+        int end = HEADER_SIZE + bodyLength;
+        if (checksum(file, end) != file.getInt(CHECKSUM_OFFSET)) {
+            throw new IOException("Catalog snapshot checksum mismatch");
+        }
+
+        try {
+            file.position(HEADER_SIZE).limit(end);
+            String[] strings = new String[readVarInt(file) + 1];
+            for (int i = 1; i < strings.length; i++) {
+                int length = readVarInt(file);
+                strings[i] = new String(bytes(file, length), StandardCharsets.UTF_8);
+            }
+            int sailingCount = file.getInt(16);
+            int charityCount = file.getInt(20);
+            List<Sailing> sailings = new ArrayList<>(Math.min(sailingCount, bodyLength));
+            for (int i = 0; i < sailingCount; i++) {
+                long id = readVarLong(file);
+                String countryFrom = strings[readVarInt(file)];
+                String duration = strings[readVarInt(file)];
+                String place = strings[readVarInt(file)];
+                String cruiseShip = strings[readVarInt(file)];
+                String route = strings[readVarInt(file)];
+                String date = strings[readVarInt(file)];
+                int price = readVarInt(file);
+                sailings.add(new Sailing(id, countryFrom, duration, place, cruiseShip, route, price, date));
+            }
+            List<Charity> charities = new ArrayList<>(Math.min(charityCount, bodyLength));
+            for (int i = 0; i < charityCount; i++) {
+                charities.add(new Charity(readVarLong(file), strings[readVarInt(file)], strings[readVarInt(file)], strings[readVarInt(file)],
+                        strings[readVarInt(file)], strings[readVarInt(file)], strings[readVarInt(file)],
+                        strings[readVarInt(file)]));
+            }
+            return new CatalogSnapshot(file.getLong(8), sailings, charities);
+        } catch (RuntimeException e) {
+            throw new IOException("Malformed catalog snapshot", e);
+        }
+    }
+
+    /**
+     * Writes the snapshot to a file, replacing it atomically.
+     *
+     * @param path the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path path) throws IOException {
+        Path absolute = path.toAbsolutePath();
+        Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        ByteBuffer buffer = encode();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        try {
+            Files.move(temp, absolute, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads a snapshot by memory-mapping the file.
+     *
+     * @param path the file to read
+     * @return the snapshot in the file
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static CatalogSnapshot read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return decode(mapped);
+        }
+    }
+
+    private static void intern(Map<String, Integer> refs, List<byte[]> strings, String... values) {
+        for (String value : values) {
+            if (value != null && !refs.containsKey(value)) {
+                strings.add(value.getBytes(StandardCharsets.UTF_8));
+                refs.put(value, strings.size());
+            }
+        }
+    }
+
+    private static void writeRefs(ByteBuffer buffer, Map<String, Integer> refs, String... values) {
+        for (String value : values) {
+            writeVarInt(buffer, value == null ? 0 : refs.get(value));
+        }
+    }
+
+    private static void writeVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static void writeVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Variable-length integer too long");
+    }
+
+    private static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Variable-length integer too long");
+    }
+
+    private static byte[] bytes(ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Computes the CRC-32C of the header up to the checksum field and of the body up to {@code end}.
+     */
+    private static int checksum(ByteBuffer file, int end) {
+        CRC32C crc = new CRC32C();
+        crc.update(file.slice(0, CHECKSUM_OFFSET));
+        crc.update(file.slice(HEADER_SIZE, end - HEADER_SIZE));
+        return (int) crc.getValue();
+    }
+}
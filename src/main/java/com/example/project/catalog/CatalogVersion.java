@@ -0,0 +1,181 @@
+package com.example.project.catalog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One immutable version of the catalog published by the {@link VersionedCatalog}.
+ * <p>
+ * A version is never changed after it is published, so a reader holding one sees the same rows of both tables however
+ * long it keeps it and whatever is written meanwhile. Versions do not refer to each other, so an old version is
+ * reclaimed by the garbage collector as soon as the last reader drops it.
+ * </p>
+ */
+public class CatalogVersion {
+    private final long version;
+    private final long publishedAt;
+    private final List<Sailing> sailings;
+    private final List<Charity> charities;
+
+    /**
+     * Constructs a CatalogVersion of the given rows.
+     *
+     * @param version     the number of the version, increasing with every change
+     * @param publishedAt the time the version was published, in epoch milliseconds
+     * @param sailings    the rows of {@code cruise_destination}
+     * @param charities   the rows of {@code charity_organisation}
+     */
+    public CatalogVersion(long version, long publishedAt, List<Sailing> sailings, List<Charity> charities) {
+        this(version, publishedAt, Collections.unmodifiableList(new ArrayList<>(sailings)),
+                Collections.unmodifiableList(new ArrayList<>(charities)), true);
+    }
+
+    /**
+     * Constructs a CatalogVersion of lists nobody else changes, without copying them, so that a version changing one
+     * table shares the list of the other with the version before.
+     *
+     * @param owned distinguishes this constructor from the public one; the lists must already be unmodifiable
+     */
+    CatalogVersion(long version, long publishedAt, List<Sailing> sailings, List<Charity> charities, boolean owned) {
+        this.version = version;
+        this.publishedAt = publishedAt;
+        this.sailings = sailings;
+        this.charities = charities;
+    }
+
+    /**
+     * Gets the number of this version.
+     *
+     * @return the version number, 0 for the empty catalog before the first load
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the time this version was published.
+     *
+     * @return the time in epoch milliseconds
+     */
+    public long getPublishedAt() {
+        return publishedAt;
+    }
+
+    /**
+     * Gets every sailing of this version.
+     *
+     * @return the sailings, unmodifiable
+     */
+    public List<Sailing> getSailings() {
+        return sailings;
+    }
+
+    /**
+     * Gets every charity of this version.
+     *
+     * @return the charities, unmodifiable
+     */
+    public List<Charity> getCharities() {
+        return charities;
+    }
+
+    /**
+     * Gets the sailings, optionally filtered as on the admin page.
+     *
+     * @param country  the country of departure, or {@code null} or "All" for any
+     * @param duration the duration, or {@code null} or "All" for any
+     * @return the matching sailings
+     */
+    public List<Sailing> sailings(String country, String duration) {
+        List<Sailing> result = new ArrayList<>();
+        for (Sailing sailing : sailings) {
+            if (sailing.matches(country, duration)) {
+                result.add(sailing);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the charities, optionally filtered as on the charity page.
+     *
+     * @param country the country, or {@code null} or "All" for any
+     * @return the matching charities
+     */
+    public List<Charity> charities(String country) {
+        List<Charity> result = new ArrayList<>();
+        for (Charity charity : charities) {
+            if (charity.matches(country)) {
+                result.add(charity);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets a sailing by its id.
+     *
+     * @param id the id of the sailing
+     * @return the sailing, or {@code null} if this version has no sailing with the id
+     */
+    public Sailing sailing(long id) {
+        for (Sailing sailing : sailings) {
+            if (sailing.getId() == id) {
+                return sailing;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets a charity by its id.
+     *
+     * @param id the id of the charity
+     * @return the charity, or {@code null} if this version has no charity with the id
+     */
+    public Charity charity(long id) {
+        for (Charity charity : charities) {
+            if (charity.getId() == id) {
+                return charity;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the sailings with a place, as shown on the cruise cards.
+     *
+     * @param place the place of the sailings
+     * @return the sailings with the place, possibly empty
+     */
+    public List<Sailing> sailingsAt(String place) {
+        List<Sailing> result = new ArrayList<>();
+        for (Sailing sailing : sailings) {
+            if (sailing.getPlace() != null && sailing.getPlace().equals(place)) {
+                result.add(sailing);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the charities with a name, as shown on the charity cards.
+     *
+     * @param name the name of the charities
+     * @return the charities with the name, possibly empty
+     */
+    public List<Charity> charitiesNamed(String name) {
+        List<Charity> result = new ArrayList<>();
+        for (Charity charity : charities) {
+            if (charity.getName() != null && charity.getName().equals(name)) {
+                result.add(charity);
+            }
+        }
+        return result;
+    }
+
+    static boolean matches(String filter, String value) {
+        return filter == null || filter.equals("All") || filter.equals(value);
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.project.catalog;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Objects;
+
+/**
+ * Immutable value object representing a single row of the {@code charity_organisation} table.
+ */
+public class Charity {
+    private final long id;
+    private final String name;
+    private final String type;
+    private final String country;
+    private final String about;
+    private final String website;
+    private final String email;
+    private final String location;
+
+    /**
+     * Constructs a Charity that is not stored yet, so it has no id.
+     *
+     * @param name     the name of the charity
+     * @param type     the type of the charity, e.g. "NGO"
+     * @param country  the country the charity operates in
+     * @param about    a description of the charity
+     * @param website  the website of the charity
+     * @param email    the contact email of the charity
+     * @param location the address of the charity
+     */
+    public Charity(String name, String type, String country, String about, String website, String email, String location) {
+        this(0, name, type, country, about, website, email, location);
+    }
+
+    /**
+     * Constructs a Charity with the given column values.
+     *
+     * @param id       the surrogate key of the row, or 0 if it is not stored yet
+     * @param name     the name of the charity
+     * @param type     the type of the charity, e.g. "NGO"
+     * @param country  the country the charity operates in
+     * @param about    a description of the charity
+     * @param website  the website of the charity
+     * @param email    the contact email of the charity
+     * @param location the address of the charity
+     */
+    public Charity(long id, String name, String type, String country, String about, String website, String email, String location) {
+        this.id = id;
+        this.name = name;
+        this.type = type;
+        this.country = country;
+        this.about = about;
+        this.website = website;
+        this.email = email;
+        this.location = location;
+    }
+
+    /**
+     * Creates a Charity from the current row of a result set selecting the {@code charity_organisation} columns.
+     *
+     * @param resultSet the result set positioned on the row to read
+     * @return the charity for the current row
+     * @throws SQLException if a column cannot be read
+     */
+    public static Charity from(ResultSet resultSet) throws SQLException {
+        return new Charity(
+                resultSet.getLong("id"),
+                resultSet.getString("name"),
+                resultSet.getString("type"),
+                resultSet.getString("country"),
+                resultSet.getString("about"),
+                resultSet.getString("website"),
+                resultSet.getString("email"),
+                resultSet.getString("location"));
+    }
+
+    /**
+     * Creates a copy of this charity with the key it was stored under.
+     *
+     * @param id the surrogate key of the row
+     * @return the charity with the id
+     */
+    public Charity withId(long id) {
+        return new Charity(id, name, type, country, about, website, email, location);
+    }
+
+    /**
+     * Gets the surrogate key of the row, the identifier used by the charity page.
+     *
+     * @return the id, or 0 if the charity is not stored yet
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Gets the name of the charity.
+     *
+     * @return the name of the charity
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the type of the charity.
+     *
+     * @return the type of the charity
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Gets the country where the charity operates.
+     *
+     * @return the country of the charity
+     */
+    public String getCountry() {
+        return country;
+    }
+
+    /**
+     * Gets the description of the charity.
+     *
+     * @return the description of the charity
+     */
+    public String getAbout() {
+        return about;
+    }
+
+    /**
+     * Gets the website of the charity.
+     *
+     * @return the website URL of the charity
+     */
+    public String getWebsite() {
+        return website;
+    }
+
+    /**
+     * Gets the contact email of the charity.
+     *
+     * @return the contact email of the charity
+     */
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * Gets the location of the charity.
+     *
+     * @return the location of the charity
+     */
+    public String getLocation() {
+        return location;
+    }
+
+    /**
+     * Checks whether the charity passes the filter of the charity page.
+     *
+     * @param country the country, or {@code null} or "All" for any
+     * @return {@code true} if the charity matches the filter
+     */
+    public boolean matches(String country) {
+        return CatalogVersion.matches(country, this.country);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Charity)) {
+            return false;
+        }
+        Charity other = (Charity) o;
+        return id == other.id && Objects.equals(name, other.name) && Objects.equals(type, other.type)
+                && Objects.equals(country, other.country) && Objects.equals(about, other.about)
+                && Objects.equals(website, other.website) && Objects.equals(email, other.email)
+                && Objects.equals(location, other.location);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name, type, country, about, website, email, location);
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + country + ")";
+    }
+}
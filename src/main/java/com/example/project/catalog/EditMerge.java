@@ -0,0 +1,93 @@
+package com.example.project.catalog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A three-way merge of an edit with a change someone else saved to the same row first.
+ * <p>
+ * Every field is compared with the values both edits started from. A field changed by only one side takes that
+ * side's value, so non-overlapping edits combine without losing either. A field both sides changed to different values
+ * is a conflict; it keeps the value of this edit, and the other value is reported so the user can choose before saving
+ * again.
+ * </p>
+ */
+public class EditMerge {
+    private final String[] fields;
+    private final String[] theirs;
+    private final String[] merged;
+    private final List<Integer> conflicts = new ArrayList<>();
+
+    /**
+     * Merges an edit with a newer saved version of the row.
+     *
+     * @param fields the names of the fields, as shown to the user
+     * @param base   the values both edits started from
+     * @param mine   the values of this edit
+     * @param theirs the values saved meanwhile
+     */
+    public EditMerge(String[] fields, String[] base, String[] mine, String[] theirs) {
+        this.fields = fields.clone();
+        this.theirs = theirs.clone();
+        this.merged = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            boolean mineChanged = !Objects.equals(base[i], mine[i]);
+            boolean theirsChanged = !Objects.equals(base[i], theirs[i]);
+            merged[i] = mineChanged ? mine[i] : theirs[i];
+            if (mineChanged && theirsChanged && !Objects.equals(mine[i], theirs[i])) {
+                conflicts.add(i);
+            }
+        }
+    }
+
+    /**
+     * Gets the merged values.
+     *
+     * @return a copy of the values, with this edit's value for every conflicting field
+     */
+    public String[] getMerged() {
+        return merged.clone();
+    }
+
+    /**
+     * Gets the names of the fields both sides changed to different values.
+     *
+     * @return the conflicting fields, empty if the merge is clean
+     */
+    public List<String> getConflicts() {
+        List<String> names = new ArrayList<>();
+        for (int i : conflicts) {
+            names.add(fields[i]);
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Checks whether the edits combined without any conflicting field.
+     *
+     * @return {@code true} if no field was changed differently by both sides
+     */
+    public boolean isClean() {
+        return conflicts.isEmpty();
+    }
+
+    /**
+     * Describes the merge for the user who saved second.
+     *
+     * @return a message listing the conflicting fields and the values saved by the other user
+     */
+    public String describe() {
+        StringBuilder message = new StringBuilder("Someone else saved this entry while you were editing it.\n");
+        if (isClean()) {
+            message.append("Their changes have been combined with yours.");
+        } else {
+            message.append("These fields were changed by both of you and keep your value:");
+            for (int i : conflicts) {
+                message.append("\n  ").append(fields[i]).append(" (theirs: ").append(theirs[i]).append(')');
+            }
+        }
+        return message.append("\nReview the result and save again, or cancel to keep their version.").toString();
+    }
+}
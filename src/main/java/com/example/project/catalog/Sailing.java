@@ -0,0 +1,198 @@
+package com.example.project.catalog;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Objects;
+
+/**
+ * Immutable value object representing a single row of the {@code cruise_destination} table.
+ * <p>
+ * Unlike {@link com.example.project.filehandling.CruiseData}, which is a mutable cursor used while exporting,
+ * a {@code Sailing} can be safely shared between indexes, caches and threads.
+ * </p>
+ */
+public class Sailing {
+    private final long id;
+    private final String countryFrom;
+    private final String duration;
+    private final String place;
+    private final String cruiseShip;
+    private final String route;
+    private final int price;
+    private final String date;
+
+    /**
+     * Constructs a Sailing that is not stored yet, so it has no id.
+     *
+     * @param countryFrom the country the cruise departs from
+     * @param duration    the duration of the cruise, e.g. "2 Nights"
+     * @param place       the name of the sailing, as shown on its cruise card
+     * @param cruiseShip  the name of the cruise ship
+     * @param route       the itinerary, e.g. "Singapore - Penang - Singapore"
+     * @param price       the price of the cruise
+     * @param date        the date range of the cruise, e.g. "15 Oct, 2024 - 17 Oct, 2024"
+     */
+    public Sailing(String countryFrom, String duration, String place, String cruiseShip, String route, int price, String date) {
+        this(0, countryFrom, duration, place, cruiseShip, route, price, date);
+    }
+
+    /**
+     * Constructs a Sailing with the given column values.
+     *
+     * @param id          the surrogate key of the row, or 0 if it is not stored yet
+     * @param countryFrom the country the cruise departs from
+     * @param duration    the duration of the cruise, e.g. "2 Nights"
+     * @param place       the name of the sailing, as shown on its cruise card
+     * @param cruiseShip  the name of the cruise ship
+     * @param route       the itinerary, e.g. "Singapore - Penang - Singapore"
+     * @param price       the price of the cruise
+     * @param date        the date range of the cruise, e.g. "15 Oct, 2024 - 17 Oct, 2024"
+     */
+    public Sailing(long id, String countryFrom, String duration, String place, String cruiseShip, String route, int price, String date) {
+        this.id = id;
+        this.countryFrom = countryFrom;
+        this.duration = duration;
+        this.place = place;
+        this.cruiseShip = cruiseShip;
+        this.route = route;
+        this.price = price;
+        this.date = date;
+    }
+
+    /**
+     * Creates a Sailing from the current row of a result set selecting the {@code cruise_destination} columns.
+     *
+     * @param resultSet the result set positioned on the row to read
+     * @return the sailing for the current row
+     * @throws SQLException if a column cannot be read
+     */
+    public static Sailing from(ResultSet resultSet) throws SQLException {
+        return new Sailing(
+                resultSet.getLong("id"),
+                resultSet.getString("country_from"),
+                resultSet.getString("duration"),
+                resultSet.getString("place"),
+                resultSet.getString("cruise_ship"),
+                resultSet.getString("route"),
+                resultSet.getInt("price"),
+                resultSet.getString("date"));
+    }
+
+    /**
+     * Creates a copy of this sailing with the key it was stored under.
+     *
+     * @param id the surrogate key of the row
+     * @return the sailing with the id
+     */
+    public Sailing withId(long id) {
+        return new Sailing(id, countryFrom, duration, place, cruiseShip, route, price, date);
+    }
+
+    /**
+     * Gets the surrogate key of the row, the identifier used by the admin page.
+     *
+     * @return the id, or 0 if the sailing is not stored yet
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Gets the country from which the cruise originates.
+     *
+     * @return the country from which the cruise originates
+     */
+    public String getCountryFrom() {
+        return countryFrom;
+    }
+
+    /**
+     * Gets the duration of the cruise.
+     *
+     * @return the duration of the cruise
+     */
+    public String getDuration() {
+        return duration;
+    }
+
+    /**
+     * Gets the place (name) of the cruise.
+     *
+     * @return the place of the cruise
+     */
+    public String getPlace() {
+        return place;
+    }
+
+    /**
+     * Gets the name of the cruise ship.
+     *
+     * @return the name of the cruise ship
+     */
+    public String getCruiseShip() {
+        return cruiseShip;
+    }
+
+    /**
+     * Gets the route of the cruise.
+     *
+     * @return the route of the cruise
+     */
+    public String getRoute() {
+        return route;
+    }
+
+    /**
+     * Gets the price of the cruise.
+     *
+     * @return the price of the cruise
+     */
+    public int getPrice() {
+        return price;
+    }
+
+    /**
+     * Gets the date of the cruise.
+     *
+     * @return the date of the cruise
+     */
+    public String getDate() {
+        return date;
+    }
+
+    /**
+     * Checks whether the sailing passes the filters of the admin page.
+     *
+     * @param country  the country of departure, or {@code null} or "All" for any
+     * @param duration the duration, or {@code null} or "All" for any
+     * @return {@code true} if the sailing matches both filters
+     */
+    public boolean matches(String country, String duration) {
+        return CatalogVersion.matches(country, countryFrom) && CatalogVersion.matches(duration, this.duration);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Sailing)) {
+            return false;
+        }
+        Sailing other = (Sailing) o;
+        return id == other.id && price == other.price && Objects.equals(countryFrom, other.countryFrom)
+                && Objects.equals(duration, other.duration) && Objects.equals(place, other.place)
+                && Objects.equals(cruiseShip, other.cruiseShip) && Objects.equals(route, other.route)
+                && Objects.equals(date, other.date);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, countryFrom, duration, place, cruiseShip, route, price, date);
+    }
+
+    @Override
+    public String toString() {
+        return place + " (" + route + ")";
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.project.catalog;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Helper methods for reading the free-text {@code duration} and {@code date} columns of a {@link Sailing}.
+ * <p>
+ * Dates are stored as "15 Oct, 2024 - 17 Oct, 2024" for a range, or as a single "26 Sep, 2024" for
+ * one-night sailings. Durations are stored as "1 Night", "2 Nights" and so on.
+ * </p>
+ */
+public final class SailingDates {
+    /** The format of a single date in the {@code date} column. */
+    public static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("d MMM, yyyy", Locale.ENGLISH);
+
+    /** The separator between the first and last date of a range. */
+    private static final String RANGE_SEPARATOR = " - ";
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private SailingDates() {}
+
+    /**
+     * Gets the date the sailing departs.
+     *
+     * @param sailing the sailing
+     * @return the first date of the sailing, or {@code null} if the date cannot be parsed
+     */
+    public static LocalDate startDate(Sailing sailing) {
+        String date = sailing.getDate();
+        if (date == null) {
+            return null;
+        }
+        int separator = date.indexOf(RANGE_SEPARATOR);
+        return parse(separator < 0 ? date : date.substring(0, separator));
+    }
+
+    /**
+     * Gets the date the sailing returns as written in the {@code date} column.
+     *
+     * @param sailing the sailing
+     * @return the last date of the range, the only date for single dates, or {@code null} if it cannot be parsed
+     */
+    public static LocalDate writtenEndDate(Sailing sailing) {
+        String date = sailing.getDate();
+        if (date == null) {
+            return null;
+        }
+        int separator = date.indexOf(RANGE_SEPARATOR);
+        return parse(separator < 0 ? date : date.substring(separator + RANGE_SEPARATOR.length()));
+    }
+
+    /**
+     * Gets the date the sailing arrives at its final port.
+     * Single dates and ranges that end before they start are completed from the number of nights.
+     *
+     * @param sailing the sailing
+     * @return the arrival date, or {@code null} if the start date cannot be parsed
+     */
+    public static LocalDate endDate(Sailing sailing) {
+        LocalDate start = startDate(sailing);
+        if (start == null) {
+            return null;
+        }
+        LocalDate end = writtenEndDate(sailing);
+        if (end == null || !end.isAfter(start)) {
+            return start.plusDays(nights(sailing));
+        }
+        return end;
+    }
+
+    /**
+     * Gets the number of nights of the sailing from its duration.
+     *
+     * @param sailing the sailing
+     * @return the number of nights, or {@code 0} if the duration has no leading number
+     */
+    public static int nights(Sailing sailing) {
+        String duration = sailing.getDuration();
+        if (duration == null) {
+            return 0;
+        }
+        String trimmed = duration.trim();
+        int end = 0;
+        while (end < trimmed.length() && Character.isDigit(trimmed.charAt(end))) {
+            end++;
+        }
+        try {
+            return end == 0 ? 0 : Integer.parseInt(trimmed.substring(0, end));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Parses a single date in the format of the {@code date} column.
+     *
+     * @param text the date, e.g. "15 Oct, 2024"
+     * @return the date, or {@code null} if the text is not a valid date
+     */
+    public static LocalDate parse(String text) {
+        try {
+            return LocalDate.parse(WHITESPACE.matcher(text.trim()).replaceAll(" "), FORMAT);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
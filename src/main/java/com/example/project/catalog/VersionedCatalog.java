@@ -0,0 +1,336 @@
+package com.example.project.catalog;
+
+import com.example.project.repository.Repositories;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * The catalog as a sequence of immutable {@link CatalogVersion}s, so that readers never see a half-applied change and
+ * never wait for a writer.
+ * <p>
+ * A reader calls {@link #current()} once and works on the version it gets: listing a page, exporting the files or
+ * answering an API request sees every row as of that version, even while an admin is in the middle of an update.
+ * Reading is a single volatile read, without locks. Writers are serialised with each other; each one copies the rows
+ * of the changed table, applies its change and publishes the result as the next version with one volatile write,
+ * sharing the rows of the other table with the version before.
+ * </p>
+ * <p>
+ * Listeners registered with {@link #onSailingChange(Consumer)} and {@link #onCharityChange(Consumer)} receive one
+ * {@link CatalogChange} per entry added, updated or removed, in the order the versions were published. A single
+ * add, update or remove publishes its one change as it is; only loads and cache refreshes, which replace every row,
+ * are compared by id with the version before to find what changed, and publish nothing if nothing did. Pages use them
+ * to patch the cards of the changed entries only, whether the change was made on the page itself or arrived through a
+ * cache refresh.
+ * </p>
+ * <p>
+ * This is the one place a change of the catalog is published to. The route index, the analytics and the charity
+ * index are built with {@link #subscribe(Consumer, Consumer, Consumer)} from the current version and follow its changes, so a
+ * writer publishes a change here once and every index applies it.
+ * </p>
+ * <p>
+ * Like {@link CatalogCache}, this class is a singleton. On first use it publishes the cache snapshot at once, without
+ * waiting for the database; {@link com.example.project.sync.ChangeFeed} then reads the rows from the database in the
+ * background and publishes those that differ. Command-line tools that start no change feed call
+ * {@link #load(Repositories)} themselves. The pages and the API server publish their own changes after each
+ * successful statement; changes other instances make arrive within a second through the change feed, which also
+ * publishes the cache refreshes that are not older than the changes already published.
+ * </p>
+ */
+public class VersionedCatalog {
+    private static VersionedCatalog instance;
+
+    /** The latest published version. Only replaced while holding the monitor of this object. */
+    private volatile CatalogVersion current = new CatalogVersion(0, 0, List.of(), List.of());
+
+    /** The last sequence number of the change log when the rows were last read from the database, -1 if never. */
+    private volatile long loadedSeq = -1;
+
+    private final List<Consumer<CatalogChange<Sailing>>> sailingListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<CatalogChange<Charity>>> charityListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructs an empty catalog. Use {@link #getInstance()} for the catalog shared by the application.
+     */
+    public VersionedCatalog() {}
+
+    /**
+     * Gets the singleton instance of VersionedCatalog, publishing the cache snapshot on first use.
+     *
+     * @return the shared versioned catalog
+     */
+    public static synchronized VersionedCatalog getInstance() {
+        if (instance == null) {
+            // The rows are read from the database later, while loadedSeq() is still -1, so a cold start never waits
+            // for the database to connect
+            VersionedCatalog catalog = new VersionedCatalog();
+            CatalogCache catalogCache = CatalogCache.getInstance();
+            catalog.load(catalogCache.sailings(null, null), catalogCache.charities(null));
+            instance = catalog;
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the latest version of the catalog. The version never changes; call again to see later changes.
+     *
+     * @return the current version
+     */
+    public CatalogVersion current() {
+        return current;
+    }
+
+    /**
+     * Registers a listener to the changes of sailings. It is called on the thread publishing the change, while other
+     * changes wait, so it should only hand the change on, e.g. to the JavaFX thread.
+     *
+     * @param listener the listener, receiving one change per sailing added, updated or removed
+     */
+    public void onSailingChange(Consumer<CatalogChange<Sailing>> listener) {
+        sailingListeners.add(listener);
+    }
+
+    /**
+     * Registers a listener to the changes of charities, called like those of {@link #onSailingChange(Consumer)}.
+     *
+     * @param listener the listener, receiving one change per charity added, updated or removed
+     */
+    public void onCharityChange(Consumer<CatalogChange<Charity>> listener) {
+        charityListeners.add(listener);
+    }
+
+    /**
+     * Builds something from the current version and registers it to the changes that follow, while no other version
+     * can be published, so that it misses no change and applies none twice.
+     *
+     * @param loader          builds from the current version
+     * @param sailingListener the listener to the changes of sailings, or {@code null}
+     * @param charityListener the listener to the changes of charities, or {@code null}
+     */
+    public synchronized void subscribe(Consumer<CatalogVersion> loader, Consumer<CatalogChange<Sailing>> sailingListener,
+                                       Consumer<CatalogChange<Charity>> charityListener) {
+        loader.accept(current);
+        if (sailingListener != null) {
+            sailingListeners.add(sailingListener);
+        }
+        if (charityListener != null) {
+            charityListeners.add(charityListener);
+        }
+    }
+
+    /**
+     * Publishes every row of both tables as the next version. The last sequence number of the change log is read
+     * first, so the rows include every change up to it; see {@link #loadedSeq()}.
+     *
+     * @param repositories the repositories to read the change log and the rows through, on connections of their pool
+     * @return {@code true} if the rows were read, {@code false} if the database could not be read and nothing was
+     *         published
+     */
+    public boolean load(Repositories repositories) {
+        long seq;
+        List<Sailing> sailings;
+        List<Charity> charities;
+        try {
+            seq = repositories.changeLog().latest();
+            sailings = repositories.sailings().findAll();
+            charities = repositories.charities().findAll();
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+            return false;
+        }
+        synchronized (this) {
+            load(sailings, charities);
+            loadedSeq = seq;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the last sequence number of the change log when the rows were last read from the database, so that changes
+     * after them can be read from there on.
+     *
+     * @return the sequence number, or -1 if the rows were never read from the database, e.g. when the catalog was
+     *         loaded from the cache snapshot
+     */
+    public long loadedSeq() {
+        return loadedSeq;
+    }
+
+    /**
+     * Publishes the given rows as the next version, unless they are those of the current one.
+     *
+     * @param sailings  all of the sailings
+     * @param charities all of the charities
+     * @return the published version, or the current one if no row changed
+     */
+    public synchronized CatalogVersion load(List<Sailing> sailings, List<Charity> charities) {
+        return publish(sailings, charities);
+    }
+
+    /**
+     * Publishes a version with a newly inserted sailing.
+     *
+     * @param sailing the sailing that was added
+     * @return the published version
+     */
+    public synchronized CatalogVersion addSailing(Sailing sailing) {
+        List<Sailing> sailings = new ArrayList<>(current.getSailings().size() + 1);
+        sailings.addAll(current.getSailings());
+        sailings.add(sailing);
+        return publishSailings(sailings, new CatalogChange<>(CatalogChange.Kind.ADDED, sailing.getId(), null, sailing));
+    }
+
+    /**
+     * Publishes a version in which the sailing with the id of an updated sailing has its new values.
+     *
+     * @param sailing the new values of the sailing, with its id
+     * @return the published version, or the current one if it has no such sailing or the values are unchanged
+     */
+    public synchronized CatalogVersion updateSailing(Sailing sailing) {
+        List<Sailing> sailings = current.getSailings();
+        int index = indexOf(sailings, sailing.getId(), Sailing::getId);
+        if (index < 0 || sailings.get(index).equals(sailing)) {
+            return current;
+        }
+        Sailing before = sailings.get(index);
+        sailings = new ArrayList<>(sailings);
+        sailings.set(index, sailing);
+        return publishSailings(sailings, new CatalogChange<>(CatalogChange.Kind.UPDATED, sailing.getId(), before, sailing));
+    }
+
+    /**
+     * Publishes a version without a sailing.
+     *
+     * @param id the id of the deleted sailing
+     * @return the published version, or the current one if it has no such sailing
+     */
+    public synchronized CatalogVersion removeSailing(long id) {
+        List<Sailing> sailings = current.getSailings();
+        int index = indexOf(sailings, id, Sailing::getId);
+        if (index < 0) {
+            return current;
+        }
+        Sailing before = sailings.get(index);
+        sailings = new ArrayList<>(sailings);
+        sailings.remove(index);
+        return publishSailings(sailings, new CatalogChange<>(CatalogChange.Kind.REMOVED, id, before, null));
+    }
+
+    /**
+     * Publishes a version with a newly inserted charity.
+     *
+     * @param charity the charity that was added
+     * @return the published version
+     */
+    public synchronized CatalogVersion addCharity(Charity charity) {
+        List<Charity> charities = new ArrayList<>(current.getCharities().size() + 1);
+        charities.addAll(current.getCharities());
+        charities.add(charity);
+        return publishCharities(charities, new CatalogChange<>(CatalogChange.Kind.ADDED, charity.getId(), null, charity));
+    }
+
+    /**
+     * Publishes a version in which the charity with the id of an updated charity has its new values.
+     *
+     * @param charity the new values of the charity, with its id
+     * @return the published version, or the current one if it has no such charity or the values are unchanged
+     */
+    public synchronized CatalogVersion updateCharity(Charity charity) {
+        List<Charity> charities = current.getCharities();
+        int index = indexOf(charities, charity.getId(), Charity::getId);
+        if (index < 0 || charities.get(index).equals(charity)) {
+            return current;
+        }
+        Charity before = charities.get(index);
+        charities = new ArrayList<>(charities);
+        charities.set(index, charity);
+        return publishCharities(charities, new CatalogChange<>(CatalogChange.Kind.UPDATED, charity.getId(), before, charity));
+    }
+
+    /**
+     * Publishes a version without a charity.
+     *
+     * @param id the id of the deleted charity
+     * @return the published version, or the current one if it has no such charity
+     */
+    public synchronized CatalogVersion removeCharity(long id) {
+        List<Charity> charities = current.getCharities();
+        int index = indexOf(charities, id, Charity::getId);
+        if (index < 0) {
+            return current;
+        }
+        Charity before = charities.get(index);
+        charities = new ArrayList<>(charities);
+        charities.remove(index);
+        return publishCharities(charities, new CatalogChange<>(CatalogChange.Kind.REMOVED, id, before, null));
+    }
+
+    /**
+     * Publishes a version with new sailings and the charities of the current one, and the single change made.
+     */
+    private CatalogVersion publishSailings(List<Sailing> sailings, CatalogChange<Sailing> change) {
+        CatalogVersion version = next(Collections.unmodifiableList(sailings), current.getCharities());
+        notify(sailingListeners, change);
+        return version;
+    }
+
+    /**
+     * Publishes a version with new charities and the sailings of the current one, and the single change made.
+     */
+    private CatalogVersion publishCharities(List<Charity> charities, CatalogChange<Charity> change) {
+        CatalogVersion version = next(current.getSailings(), Collections.unmodifiableList(charities));
+        notify(charityListeners, change);
+        return version;
+    }
+
+    /**
+     * Publishes every row anew, finding the changes by comparing them by id with the current version. Nothing is
+     * published if there are none.
+     */
+    private CatalogVersion publish(List<Sailing> sailings, List<Charity> charities) {
+        List<CatalogChange<Sailing>> sailingChanges = CatalogChange.diff(current.getSailings(), sailings, Sailing::getId);
+        List<CatalogChange<Charity>> charityChanges = CatalogChange.diff(current.getCharities(), charities, Charity::getId);
+        if (sailingChanges.isEmpty() && charityChanges.isEmpty()) {
+            return current;
+        }
+        CatalogVersion version = next(Collections.unmodifiableList(new ArrayList<>(sailings)),
+                Collections.unmodifiableList(new ArrayList<>(charities)));
+        for (CatalogChange<Sailing> change : sailingChanges) {
+            notify(sailingListeners, change);
+        }
+        for (CatalogChange<Charity> change : charityChanges) {
+            notify(charityListeners, change);
+        }
+        return version;
+    }
+
+    private CatalogVersion next(List<Sailing> sailings, List<Charity> charities) {
+        CatalogVersion version = new CatalogVersion(current.getVersion() + 1, System.currentTimeMillis(), sailings, charities, true);
+        current = version;
+        return version;
+    }
+
+    private static <T> int indexOf(List<T> entries, long id, ToLongFunction<T> idOf) {
+        for (int i = 0; i < entries.size(); i++) {
+            if (idOf.applyAsLong(entries.get(i)) == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static <T> void notify(List<Consumer<CatalogChange<T>>> listeners, CatalogChange<T> change) {
+        for (Consumer<CatalogChange<T>> listener : listeners) {
+            try {
+                listener.accept(change);
+            } catch (RuntimeException e) {
+                System.err.println(e.getMessage());
+            }
+        }
+    }
+}
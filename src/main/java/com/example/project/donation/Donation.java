@@ -0,0 +1,91 @@
+package com.example.project.donation;
+
+/**
+ * Immutable record of one donation to a charity, as stored in the {@link DonationLedger}.
+ */
+public class Donation {
+    private final long sequence;
+    private final long time;
+    private final String charity;
+    private final String email;
+    private final long amountSen;
+    private final String reference;
+
+    /**
+     * Constructs a Donation.
+     *
+     * @param sequence  the position of the donation in the ledger, starting at 1
+     * @param time      the time the donation was accepted, in epoch milliseconds
+     * @param charity   the name of the charity, as in {@code charity_organisation.name}
+     * @param email     the email of the donor
+     * @param amountSen the amount donated in sen (1/100 RM)
+     * @param reference what the donation was made with, e.g. a reservation, or {@code null}
+     */
+    public Donation(long sequence, long time, String charity, String email, long amountSen, String reference) {
+        this.sequence = sequence;
+        this.time = time;
+        this.charity = charity;
+        this.email = email;
+        this.amountSen = amountSen;
+        this.reference = reference;
+    }
+
+    /**
+     * Gets the position of the donation in the ledger.
+     *
+     * @return the sequence number, starting at 1
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Gets the time the donation was accepted.
+     *
+     * @return the time in epoch milliseconds
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Gets the name of the charity the donation was made to.
+     *
+     * @return the name of the charity
+     */
+    public String getCharity() {
+        return charity;
+    }
+
+    /**
+     * Gets the email of the donor.
+     *
+     * @return the email of the donor
+     */
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * Gets the amount donated.
+     *
+     * @return the amount in sen
+     */
+    public long getAmountSen() {
+        return amountSen;
+    }
+
+    /**
+     * Gets what the donation was made with, e.g. {@code "reservation-42"}.
+     *
+     * @return the reference, or {@code null} for a donation on its own
+     */
+    public String getReference() {
+        return reference;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("#%d RM%d.%02d to %s by %s", sequence, amountSen / 100, amountSen % 100, charity, email);
+    }
+}
@@ -0,0 +1,617 @@
+package com.example.project.donation;
+
+import com.example.project.catalog.VersionedCatalog;
+import com.example.project.filehandling.AtomicFileOutputStream;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An append-only ledger of the donations made to the charities in {@code charity_organisation}.
+ * <p>
+ * Donations are never updated or deleted. They are appended as checksummed {@link LedgerRecord}s to segment files in
+ * one directory, each named after the sequence number of its first donation, and a new segment is started once the
+ * current one reaches {@link #SEGMENT_SIZE}. All appends are made by a single writer thread: {@link #donate} only puts
+ * the donation on a queue, and the writer takes everything queued so far, writes it with one call and forces it to
+ * disk once (group commit) before completing the futures of the whole batch. Thousands of concurrent donations thus
+ * cost a handful of disk flushes per second instead of one each.
+ * </p>
+ * <p>
+ * The running total of every charity is kept in a {@link DonationTotal}, which is read without locking. Every
+ * {@link #SNAPSHOT_INTERVAL} donations, the totals are written to a snapshot file, so that opening the ledger only
+ * replays the segments written since. Once {@link #COMPACT_SEGMENTS} full segments are covered by the snapshot, they are
+ * compacted on a background thread into one gzip archive, which keeps the history but not the file count. Opening the
+ * ledger truncates a record torn by a crash at the end of the last segment and finishes an interrupted compaction.
+ * </p>
+ * <pre>
+ *  donations/
+ *      archive-{first}-{last}.log.gz   compacted segments, donations first to last
+ *      segment-{first}.log             donations from first on
+ *      totals.snapshot                 totals up to a sequence number
+ * </pre>
+ * <p>
+ * Sequence numbers in file names are written with 20 digits, so the files sort in ledger order.
+ * </p>
+ * <p>
+ * Donations are only accepted for the charities the ledger is told about; the ledger of the application accepts the
+ * names of the charities in the current version of the {@link VersionedCatalog}.
+ * </p>
+ */
+public class DonationLedger implements AutoCloseable {
+    /** The directory of the ledger used by the application. */
+    public static final String DIRECTORY = "donations";
+
+    /** The size in bytes after which a segment is sealed and a new one started. */
+    public static final long SEGMENT_SIZE = 16L * 1024 * 1024;
+
+    /** The number of donations between two snapshots of the totals. */
+    public static final int SNAPSHOT_INTERVAL = 50_000;
+
+    /** The number of sealed segments covered by the snapshot after which they are compacted into an archive. */
+    public static final int COMPACT_SEGMENTS = 4;
+
+    /** The most donations written by one group commit. */
+    private static final int MAX_BATCH = 4096;
+
+    /** The most donations waiting for the writer before {@link #donate} blocks. */
+    private static final int QUEUE_CAPACITY = 65536;
+
+    private static final String SNAPSHOT_FILE = "totals.snapshot";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String ARCHIVE_PREFIX = "archive-";
+    private static final String ARCHIVE_SUFFIX = ".log.gz";
+
+    private static DonationLedger instance;
+
+    private final Path directory;
+    private final boolean sync;
+    private final Predicate<String> charities;
+    private final BlockingQueue<Pending> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Map<String, DonationTotal> totals = new ConcurrentHashMap<>();
+    private final Thread writer;
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "donation-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private volatile boolean closed;
+
+    /** The sequence of the last donation written and applied to the totals. */
+    private volatile long lastSequence;
+
+    /** Segments no longer written to, oldest first. Guarded by itself, as the compactor removes from it. */
+    private final List<Segment> sealed = new ArrayList<>();
+
+    // State of the writer thread
+    private FileChannel active;
+    private Path activePath;
+    private long activeSize;
+    private long snapshotSequence;
+    private long sinceSnapshot;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(256 * 1024);
+
+    /**
+     * Opens a ledger, recovering its totals from the snapshot and the segments written after it.
+     *
+     * @param directory the directory of the ledger, created if missing
+     * @param sync      whether every group commit is forced to disk before the donations are acknowledged
+     * @throws IOException if the ledger cannot be read or the directory cannot be written
+     */
+    public DonationLedger(Path directory, boolean sync) throws IOException {
+        this(directory, sync, charity -> true);
+    }
+
+    /**
+     * Opens a ledger accepting donations to some charities only, recovering its totals like
+     * {@link #DonationLedger(Path, boolean)}.
+     *
+     * @param directory the directory of the ledger, created if missing
+     * @param sync      whether every group commit is forced to disk before the donations are acknowledged
+     * @param charities tells whether a charity name is one donations are accepted for
+     * @throws IOException if the ledger cannot be read or the directory cannot be written
+     */
+    public DonationLedger(Path directory, boolean sync, Predicate<String> charities) throws IOException {
+        this.directory = directory;
+        this.sync = sync;
+        this.charities = charities;
+        Files.createDirectories(directory);
+        recover();
+        this.writer = new Thread(this::run, "donation-ledger");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Gets the ledger of the application, opening it on first use. The ledger is closed when the JVM exits.
+     *
+     * @return the shared donation ledger
+     * @throws UncheckedIOException if the ledger cannot be opened
+     */
+    public static synchronized DonationLedger getInstance() {
+        if (instance == null) {
+            try {
+                DonationLedger ledger = new DonationLedger(Paths.get(DIRECTORY), true,
+                        charity -> !VersionedCatalog.getInstance().current().charitiesNamed(charity).isEmpty());
+                Runtime.getRuntime().addShutdownHook(new Thread(ledger::close, "donation-ledger-close"));
+                instance = ledger;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Records a donation. The donation is acknowledged once it is written to the ledger together with the other
+     * donations of its group commit.
+     *
+     * @param charity   the name of the charity
+     * @param email     the email of the donor
+     * @param amountSen the amount in sen, more than 0
+     * @param reference what the donation was made with, e.g. {@code "reservation-42"}, or {@code null}
+     * @return a future completed with the recorded donation, or failed if it could not be written, with a
+     * {@link NoSuchElementException} if the charity is not one the ledger accepts
+     */
+    public CompletableFuture<Donation> donate(String charity, String email, long amountSen, String reference) {
+        CompletableFuture<Donation> future = new CompletableFuture<>();
+        if (charity == null || charity.isBlank() || email == null || amountSen <= 0
+                || !LedgerRecord.fits(charity) || !LedgerRecord.fits(email) || !LedgerRecord.fits(reference)) {
+            future.completeExceptionally(new IllegalArgumentException("Invalid donation of " + amountSen + " sen to " + charity));
+            return future;
+        }
+        if (!accepts(charity)) {
+            future.completeExceptionally(new NoSuchElementException("No charity named " + charity));
+            return future;
+        }
+        if (closed) {
+            future.completeExceptionally(new IllegalStateException("The donation ledger is closed"));
+            return future;
+        }
+        try {
+            queue.put(new Pending(System.currentTimeMillis(), charity, email, amountSen, reference, future));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Checks whether donations to a charity are accepted.
+     *
+     * @param charity the name of the charity
+     * @return {@code true} if the charity is one the ledger accepts donations for
+     */
+    public boolean accepts(String charity) {
+        return charity != null && charities.test(charity);
+    }
+
+    /**
+     * Gets the running total of a charity.
+     *
+     * @param charity the name of the charity
+     * @return the total, which keeps changing as donations are made; empty if the charity has no donations
+     */
+    public DonationTotal getTotal(String charity) {
+        DonationTotal total = totals.get(charity);
+        return total == null ? new DonationTotal() : total;
+    }
+
+    /**
+     * Gets the running totals of every charity with donations.
+     *
+     * @return an unmodifiable live view of the totals by charity name
+     */
+    public Map<String, DonationTotal> getTotals() {
+        return Collections.unmodifiableMap(totals);
+    }
+
+    /**
+     * Gets the sequence number of the last donation recorded.
+     *
+     * @return the last sequence number, 0 if the ledger is empty
+     */
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Stops accepting donations, writes the ones already queued, takes a final snapshot and closes the files.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Donations queued after the writer saw the ledger empty and closed
+        for (Pending pending = queue.poll(); pending != null; pending = queue.poll()) {
+            pending.future.completeExceptionally(new IllegalStateException("The donation ledger is closed"));
+        }
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The loop of the writer thread: group commits until the ledger is closed and the queue is empty.
+     */
+    private void run() {
+        List<Pending> batch = new ArrayList<>(MAX_BATCH);
+        while (true) {
+            Pending first;
+            try {
+                first = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                first = null;
+            }
+            if (first == null) {
+                if (closed && queue.isEmpty()) {
+                    break;
+                }
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, MAX_BATCH - 1);
+            try {
+                commit(batch);
+            } catch (RuntimeException e) {
+                for (Pending pending : batch) {
+                    pending.future.completeExceptionally(e);
+                }
+            }
+            batch.clear();
+        }
+
+        try {
+            if (sinceSnapshot > 0) {
+                LedgerSnapshot.write(directory.resolve(SNAPSHOT_FILE), lastSequence, totals);
+            }
+            active.force(false);
+            active.close();
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Writes a batch of donations with one write and one force, then applies them to the totals and acknowledges them.
+     */
+    private void commit(List<Pending> batch) {
+        List<Donation> donations = new ArrayList<>(batch.size());
+        long sequence = lastSequence;
+        int size = 0;
+        for (Pending pending : batch) {
+            Donation donation = new Donation(++sequence, pending.time, pending.charity, pending.email, pending.amountSen, pending.reference);
+            donations.add(donation);
+            size += LedgerRecord.size(donation);
+        }
+        if (buffer.capacity() < size) {
+            buffer = ByteBuffer.allocateDirect(Integer.highestOneBit(size) << 1);
+        }
+        buffer.clear();
+        for (Donation donation : donations) {
+            LedgerRecord.encode(donation, buffer);
+        }
+        buffer.flip();
+
+        try {
+            while (buffer.hasRemaining()) {
+                active.write(buffer);
+            }
+            if (sync) {
+                active.force(false);
+            }
+        } catch (IOException e) {
+            // Drop whatever part of the batch made it, so the next batch reuses its sequence numbers
+            try {
+                active.truncate(activeSize);
+                active.position(activeSize);
+            } catch (IOException truncateFailure) {
+                e.addSuppressed(truncateFailure);
+            }
+            for (Pending pending : batch) {
+                pending.future.completeExceptionally(e);
+            }
+            return;
+        }
+        activeSize += size;
+
+        for (Donation donation : donations) {
+            apply(donation);
+        }
+        lastSequence = sequence;
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).future.complete(donations.get(i));
+        }
+
+        sinceSnapshot += donations.size();
+        try {
+            if (activeSize >= SEGMENT_SIZE) {
+                roll();
+            }
+            if (sinceSnapshot >= SNAPSHOT_INTERVAL) {
+                snapshot();
+            }
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    private void apply(Donation donation) {
+        totals.computeIfAbsent(donation.getCharity(), charity -> new DonationTotal()).add(donation.getAmountSen());
+    }
+
+    /**
+     * Seals the active segment and starts a new one after the last donation.
+     */
+    private void roll() throws IOException {
+        active.force(false);
+        active.close();
+        synchronized (sealed) {
+            sealed.add(new Segment(activePath, firstSequence(activePath), lastSequence));
+        }
+        openSegment(lastSequence + 1);
+    }
+
+    /**
+     * Writes the totals to the snapshot file and compacts the segments it covers if there are enough of them.
+     */
+    private void snapshot() throws IOException {
+        active.force(false);
+        LedgerSnapshot.write(directory.resolve(SNAPSHOT_FILE), lastSequence, totals);
+        snapshotSequence = lastSequence;
+        sinceSnapshot = 0;
+
+        List<Segment> covered = new ArrayList<>();
+        synchronized (sealed) {
+            for (Segment segment : sealed) {
+                if (segment.last <= snapshotSequence) {
+                    covered.add(segment);
+                }
+            }
+        }
+        if (covered.size() >= COMPACT_SEGMENTS && compacting.compareAndSet(false, true)) {
+            compactor.execute(() -> {
+                try {
+                    compact(covered);
+                } catch (IOException e) {
+                    System.err.println(e.getMessage());
+                } finally {
+                    compacting.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Copies sealed segments into one gzip archive, then deletes them. Runs on the compactor thread; segments are
+     * never written once sealed, so the writer carries on meanwhile.
+     */
+    private void compact(List<Segment> segments) throws IOException {
+        long first = segments.get(0).first;
+        long last = segments.get(segments.size() - 1).last;
+        Path archive = directory.resolve(String.format("%s%020d-%020d%s", ARCHIVE_PREFIX, first, last, ARCHIVE_SUFFIX));
+        try (AtomicFileOutputStream file = new AtomicFileOutputStream(archive, AtomicFileOutputStream.SyncPolicy.FILE_AND_DIRECTORY)) {
+            GZIPOutputStream gzip = new GZIPOutputStream(file, 64 * 1024);
+            for (Segment segment : segments) {
+                Files.copy(segment.path, gzip);
+            }
+            gzip.finish();
+            file.commit();
+        }
+        for (Segment segment : segments) {
+            Files.deleteIfExists(segment.path);
+        }
+        synchronized (sealed) {
+            sealed.removeAll(segments);
+        }
+    }
+
+    /**
+     * Rebuilds the totals from the snapshot and the files written after it, then opens the segment to append to.
+     */
+    private void recover() throws IOException {
+        LedgerSnapshot snapshot = LedgerSnapshot.read(directory.resolve(SNAPSHOT_FILE));
+        long applied = 0;
+        if (snapshot != null) {
+            for (Map.Entry<String, long[]> entry : snapshot.totals.entrySet()) {
+                totals.computeIfAbsent(entry.getKey(), charity -> new DonationTotal()).restore(entry.getValue()[0], entry.getValue()[1]);
+            }
+            applied = snapshot.lastSequence;
+        }
+        snapshotSequence = applied;
+
+        List<Path> archives = new ArrayList<>();
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(ARCHIVE_PREFIX) && name.endsWith(ARCHIVE_SUFFIX)) {
+                    archives.add(file);
+                } else if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    segments.add(file);
+                }
+            }
+        }
+        archives.sort(Comparator.comparingLong(DonationLedger::firstSequence));
+        segments.sort(Comparator.comparingLong(DonationLedger::firstSequence));
+
+        // Segments already copied into an archive by a compaction that was interrupted before deleting them
+        long archived = 0;
+        for (Path archive : archives) {
+            archived = Math.max(archived, lastSequence(archive));
+        }
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            if (firstSequence(segments.get(i)) <= archived) {
+                Files.delete(segments.remove(i));
+            }
+        }
+
+        for (Path archive : archives) {
+            if (lastSequence(archive) > applied) {
+                try (InputStream in = new GZIPInputStream(Files.newInputStream(archive), 64 * 1024)) {
+                    applied = replay(in, applied, null);
+                }
+            }
+        }
+
+        for (int i = 0; i < segments.size(); i++) {
+            Path segment = segments.get(i);
+            boolean isLast = i == segments.size() - 1;
+            if (!isLast && firstSequence(segments.get(i + 1)) - 1 <= applied) {
+                // Entirely covered by the snapshot
+                sealed.add(new Segment(segment, firstSequence(segment), firstSequence(segments.get(i + 1)) - 1));
+                continue;
+            }
+            long[] valid = new long[1];
+            try (InputStream in = Files.newInputStream(segment)) {
+                applied = replay(in, applied, valid);
+            }
+            long size = Files.size(segment);
+            if (!isLast) {
+                if (valid[0] < size) {
+                    System.err.println("Donation ledger segment " + segment + " is corrupt after byte " + valid[0]);
+                }
+                sealed.add(new Segment(segment, firstSequence(segment), applied));
+            } else if (size < SEGMENT_SIZE) {
+                lastSequence = applied;
+                active = FileChannel.open(segment, StandardOpenOption.WRITE);
+                if (valid[0] < size) {
+                    System.err.println("Donation ledger: dropping " + (size - valid[0]) + " bytes of a torn write at the end of " + segment);
+                    active.truncate(valid[0]);
+                    active.force(true);
+                }
+                active.position(valid[0]);
+                activePath = segment;
+                activeSize = valid[0];
+                return;
+            } else {
+                sealed.add(new Segment(segment, firstSequence(segment), applied));
+            }
+        }
+        lastSequence = applied;
+        openSegment(applied + 1);
+    }
+
+    /**
+     * Applies the records of a file that come after the given sequence number.
+     *
+     * @param in      the records
+     * @param applied the sequence of the last donation already applied
+     * @param valid   receives the number of bytes up to the end of the last complete record, may be {@code null}
+     * @return the sequence of the last donation applied
+     */
+    private long replay(InputStream in, long applied, long[] valid) throws IOException {
+        DataInputStream records = new DataInputStream(new BufferedInputStream(in, 64 * 1024));
+        long position = 0;
+        for (Donation donation = LedgerRecord.read(records); donation != null; donation = LedgerRecord.read(records)) {
+            position += LedgerRecord.size(donation);
+            if (donation.getSequence() > applied) {
+                apply(donation);
+                applied = donation.getSequence();
+            }
+        }
+        if (valid != null) {
+            valid[0] = position;
+        }
+        return applied;
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        activePath = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        active = FileChannel.open(activePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        activeSize = 0;
+    }
+
+    /**
+     * Gets the sequence of the first donation in a segment or archive from its file name.
+     */
+    private static long firstSequence(Path file) {
+        String name = file.getFileName().toString();
+        int start = name.indexOf('-') + 1;
+        return Long.parseLong(name.substring(start, start + 20));
+    }
+
+    /**
+     * Gets the sequence of the last donation in an archive from its file name.
+     */
+    private static long lastSequence(Path archive) {
+        String name = archive.getFileName().toString();
+        int start = ARCHIVE_PREFIX.length() + 21;
+        return Long.parseLong(name.substring(start, start + 20));
+    }
+
+    /**
+     * A segment no longer written to.
+     */
+    private static class Segment {
+        final Path path;
+        final long first;
+        final long last;
+
+        Segment(Path path, long first, long last) {
+            this.path = path;
+            this.first = first;
+            this.last = last;
+        }
+    }
+
+    /**
+     * A donation waiting for the writer.
+     */
+    private static class Pending {
+        final long time;
+        final String charity;
+        final String email;
+        final long amountSen;
+        final String reference;
+        final CompletableFuture<Donation> future;
+
+        Pending(long time, String charity, String email, long amountSen, String reference, CompletableFuture<Donation> future) {
+            this.time = time;
+            this.charity = charity;
+            this.email = email;
+            this.amountSen = amountSen;
+            this.reference = reference;
+            this.future = future;
+        }
+    }
+}
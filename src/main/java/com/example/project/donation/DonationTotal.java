@@ -0,0 +1,60 @@
+package com.example.project.donation;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The running total of the donations to one charity.
+ * <p>
+ * Both figures are {@link LongAdder}s, which spread updates over striped cells instead of one contended word, so
+ * adding never locks and reading is a plain sum of the cells. A total read while donations are being applied may
+ * include the amount of a donation but not yet its count; once the ledger is idle both are exact.
+ * </p>
+ */
+public class DonationTotal {
+    private final LongAdder amountSen = new LongAdder();
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * Adds one donation to the total.
+     *
+     * @param amount the amount of the donation in sen
+     */
+    void add(long amount) {
+        amountSen.add(amount);
+        count.increment();
+    }
+
+    /**
+     * Sets the total to the values read from a snapshot. Only used while the ledger is being opened.
+     */
+    void restore(long amount, long donations) {
+        amountSen.reset();
+        count.reset();
+        amountSen.add(amount);
+        count.add(donations);
+    }
+
+    /**
+     * Gets the total amount donated.
+     *
+     * @return the amount in sen
+     */
+    public long getAmountSen() {
+        return amountSen.sum();
+    }
+
+    /**
+     * Gets the number of donations.
+     *
+     * @return the number of donations
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public String toString() {
+        long amount = getAmountSen();
+        return String.format("RM%d.%02d from %d donations", amount / 100, amount % 100, getCount());
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.project.donation;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * The binary form of a {@link Donation} in the segment and archive files of the ledger.
+ * <pre>
+ *  size  field
+ *     4  length of the payload in bytes
+ *     4  CRC-32C of the payload
+ *        payload: sequence (8), time (8), amount in sen (8), charity, email and reference
+ * </pre>
+ * <p>
+ * Strings are a 2-byte length followed by UTF-8, with a length of -1 standing for {@code null}. The checksum lets the
+ * ledger tell a record torn by a crash from a complete one, so recovery can stop at the last complete record.
+ * </p>
+ */
+final class LedgerRecord {
+    /** The size of the length and checksum before the payload. */
+    static final int HEADER_SIZE = 8;
+
+    /** The longest string a record can hold, in UTF-8 bytes; the length 0xFFFF stands for {@code null}. */
+    static final int MAX_STRING = 65534;
+
+    /** The largest payload accepted when reading, so a corrupt length is not mistaken for a huge record. */
+    static final int MAX_PAYLOAD = 24 + 3 * (2 + MAX_STRING);
+
+    private LedgerRecord() {}
+
+    /**
+     * Gets the number of bytes a donation takes in a file.
+     *
+     * @param donation the donation
+     * @return the size of the encoded record
+     */
+    static int size(Donation donation) {
+        return HEADER_SIZE + 24 + stringSize(donation.getCharity()) + stringSize(donation.getEmail()) + stringSize(donation.getReference());
+    }
+
+    /**
+     * Appends a donation to a buffer, which must have at least {@link #size(Donation)} bytes remaining.
+     *
+     * @param donation the donation
+     * @param buffer   the buffer to write to
+     */
+    static void encode(Donation donation, ByteBuffer buffer) {
+        int start = buffer.position();
+        buffer.position(start + HEADER_SIZE);
+        buffer.putLong(donation.getSequence());
+        buffer.putLong(donation.getTime());
+        buffer.putLong(donation.getAmountSen());
+        putString(buffer, donation.getCharity());
+        putString(buffer, donation.getEmail());
+        putString(buffer, donation.getReference());
+        int end = buffer.position();
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().position(start + HEADER_SIZE).limit(end));
+        buffer.putInt(start, end - start - HEADER_SIZE);
+        buffer.putInt(start + 4, (int) crc.getValue());
+    }
+
+    /**
+     * Reads the next record of a stream.
+     *
+     * @param in the stream, positioned at the start of a record
+     * @return the donation, or {@code null} at the end of the stream or at a torn or corrupt record
+     * @throws IOException if the stream cannot be read
+     */
+    static Donation read(DataInputStream in) throws IOException {
+        byte[] payload;
+        int checksum;
+        try {
+            int length = in.readInt();
+            checksum = in.readInt();
+            if (length < 24 || length > MAX_PAYLOAD) {
+                return null;
+            }
+            payload = new byte[length];
+            in.readFully(payload);
+        } catch (EOFException e) {
+            return null;
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        if ((int) crc.getValue() != checksum) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        try {
+            long sequence = buffer.getLong();
+            long time = buffer.getLong();
+            long amountSen = buffer.getLong();
+            String charity = getString(buffer);
+            String email = getString(buffer);
+            String reference = getString(buffer);
+            return new Donation(sequence, time, charity, email, amountSen, reference);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks that a string fits into a record.
+     *
+     * @param value the string, may be {@code null}
+     * @return {@code true} if the string can be stored
+     */
+    static boolean fits(String value) {
+        return stringSize(value) - 2 <= MAX_STRING;
+    }
+
+    private static int stringSize(String value) {
+        return 2 + (value == null ? 0 : value.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length == -1) {
+            return null;
+        }
+        length &= 0xFFFF;
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.project.donation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * The per-charity totals of the ledger up to a sequence number, so that opening the ledger only replays the
+ * donations made after the snapshot.
+ * <pre>
+ *  size  field
+ *     4  magic "CBDL"
+ *     2  format version
+ *     2  reserved, 0
+ *     8  sequence of the last donation included
+ *     4  number of charities
+ *        per charity: name (2-byte length, UTF-8), amount in sen (8), number of donations (8)
+ *     4  CRC-32C of everything before
+ * </pre>
+ * <p>
+ * Like the catalog snapshot, the file is written to a temporary file and renamed over the old one. A snapshot is only
+ * a shortcut: every donation it covers is still in the segment or archive files, so a missing or corrupt snapshot
+ * just means replaying the whole ledger.
+ * </p>
+ */
+final class LedgerSnapshot {
+    /** The version of the format written by this class. Files of other versions are ignored. */
+    static final int FORMAT_VERSION = 1;
+
+    private static final int MAGIC = 0x4342444C;
+
+    /** The sequence of the last donation included in the totals. */
+    final long lastSequence;
+
+    /** Charity name to its amount in sen and number of donations. */
+    final Map<String, long[]> totals;
+
+    LedgerSnapshot(long lastSequence, Map<String, long[]> totals) {
+        this.lastSequence = lastSequence;
+        this.totals = totals;
+    }
+
+    /**
+     * Writes the current totals of a ledger. Must be called while no donation is being applied.
+     *
+     * @param path         the file to write
+     * @param lastSequence the sequence of the last donation applied to the totals
+     * @param totals       the running totals by charity
+     * @throws IOException if the file cannot be written
+     */
+    static void write(Path path, long lastSequence, Map<String, DonationTotal> totals) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + totals.size() * 64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeShort(FORMAT_VERSION);
+        out.writeShort(0);
+        out.writeLong(lastSequence);
+        out.writeInt(totals.size());
+        for (Map.Entry<String, DonationTotal> entry : totals.entrySet()) {
+            byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            out.writeShort(name.length);
+            out.write(name);
+            out.writeLong(entry.getValue().getAmountSen());
+            out.writeLong(entry.getValue().getCount());
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(bytes.toByteArray());
+        out.writeInt((int) crc.getValue());
+        out.flush();
+
+        Path absolute = path.toAbsolutePath();
+        Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        try {
+            Files.move(temp, absolute, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads a snapshot.
+     *
+     * @param path the file to read
+     * @return the snapshot, or {@code null} if there is no file or it is not a valid snapshot
+     */
+    static LedgerSnapshot read(Path path) {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+            if (buffer.remaining() < 24) {
+                return null;
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.array(), 0, buffer.limit() - 4);
+            if (buffer.getInt(buffer.limit() - 4) != (int) crc.getValue()
+                    || buffer.getInt() != MAGIC || buffer.getShort() != FORMAT_VERSION) {
+                return null;
+            }
+            buffer.getShort();
+            long lastSequence = buffer.getLong();
+            int count = buffer.getInt();
+            Map<String, long[]> totals = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                byte[] name = new byte[buffer.getShort() & 0xFFFF];
+                buffer.get(name);
+                totals.put(new String(name, StandardCharsets.UTF_8), new long[] {buffer.getLong(), buffer.getLong()});
+            }
+            return new LedgerSnapshot(lastSequence, totals);
+        } catch (IOException | RuntimeException e) {
+            System.err.println(e.getMessage());
+            return null;
+        }
+    }
+}
@@ -1,10 +1,10 @@
 package com.example.project.filehandling;
 
 import com.example.project.DatabaseManager;
+import com.example.project.catalog.Charity;
+import com.example.project.repository.Repositories;
 
-import java.io.PrintWriter;
-import java.sql.ResultSet;
-import java.sql.Statement;
+import java.sql.SQLException;
 
 /**
  * The AllCharitiesOrganisationData class extends the CharityData class
@@ -22,8 +22,13 @@ public class AllCharitiesOrganisationData extends CharityData{
         super(db);
     }
 
+    @Override
+    protected String getFileName() {
+        return "allCharities";
+    }
+
     /**
-     * Fetches charity data from the database and formats it.
+     * Fetches charity data from the selected catalog version, or otherwise from the database, and formats it.
      * The data is extracted from the "charity_organisation" table and includes
      * fields such as name, type, country, about, website, email, and location.
      * <p>
@@ -31,36 +36,32 @@ public class AllCharitiesOrganisationData extends CharityData{
      */
     @Override
     public void fetchData() {
+        if (getCatalogVersion() != null) {
+            for (Charity charity : getCatalogVersion().getCharities()) {
+                formatCharity(charity);
+            }
+            return;
+        }
         try {
-            Statement statement = getDatabase().getConnection().createStatement();
-            ResultSet resultSet = statement.executeQuery("SELECT name, type, country, about, website, email, location FROM charity_organisation");
-
-            while (resultSet.next()) {
-                setName(resultSet.getString("name"));
-                setType(resultSet.getString("type"));
-                setCountry(resultSet.getString("country"));
-                setAbout(resultSet.getString("about"));
-                setWebsite(resultSet.getString("website"));
-                setEmail(resultSet.getString("email"));
-                setLocation(resultSet.getString("location"));
-
-                formatData();
+            for (Charity charity : Repositories.getInstance().charities().findAll()) {
+                formatCharity(charity);
             }
-        } catch (Exception e) {
+        } catch (SQLException e) {
             System.err.println(e.getMessage());
         }
     }
 
     /**
      * Writes the formatted charity data to a file named "allCharities.txt".
-     * The data is written from the StringBuilder containing formatted data.
+     * The data is written from the StringBuilder containing formatted data, or in the selected export
+     * format to "allCharities" with the extension of the format, compressed to a ".gz" file if selected.
      * <p>
      * This method overrides the abstract writeDataToFile method from CharityData.
      */
     @Override
     public void writeDataToFile() {
-        try (PrintWriter writer = new PrintWriter("allCharities.txt")) {
-            writer.println(getDataList().toString());
+        try {
+            writeExport();
             System.out.println("All Charity data separated and written to file.");
         } catch (Exception e) {
             System.err.println("An error occurred: " + e.getMessage());
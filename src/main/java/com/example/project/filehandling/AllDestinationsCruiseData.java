@@ -1,10 +1,10 @@
 package com.example.project.filehandling;
 
 import com.example.project.DatabaseManager;
+import com.example.project.catalog.Sailing;
+import com.example.project.repository.Repositories;
 
-import java.io.PrintWriter;
-import java.sql.ResultSet;
-import java.sql.Statement;
+import java.sql.SQLException;
 
 /**
  * Concrete implementation of CruiseData for handling all destinations cruise data.
@@ -25,32 +25,32 @@ public class AllDestinationsCruiseData extends CruiseData {
         return "All Destinations"; // Not used in this implementation
     }
 
+    @Override
+    protected String getFileName() {
+        return "allDestination";
+    }
+
     @Override
     public void fetchData() {
+        if (getCatalogVersion() != null) {
+            for (Sailing sailing : getCatalogVersion().getSailings()) {
+                formatSailing(sailing);
+            }
+            return;
+        }
         try {
-            Statement statement = getDatabase().getConnection().createStatement();
-            ResultSet resultSet = statement.executeQuery("SELECT country_from, duration, place, cruise_ship, route, price, date FROM cruise_destination");
-
-            while (resultSet.next()) {
-                setCountryFrom(resultSet.getString("country_from"));
-                setDuration(resultSet.getString("duration"));
-                setPlace(resultSet.getString("place"));
-                setCruiseShip(resultSet.getString("cruise_ship"));
-                setRoute(resultSet.getString("route"));
-                setPrice(resultSet.getInt("price"));
-                setDate(resultSet.getString("date"));
-
-                formatData();
+            for (Sailing sailing : Repositories.getInstance().sailings().findAll()) {
+                formatSailing(sailing);
             }
-        } catch (Exception e) {
+        } catch (SQLException e) {
             System.err.println(e.getMessage());
         }
     }
 
     @Override
     public void writeDataToFile() {
-        try (PrintWriter writer = new PrintWriter("allDestination.txt")) {
-            writer.println(getDataList().toString());
+        try {
+            writeExport();
             System.out.println("All Destination data separated and written to file.");
         } catch (Exception e) {
             System.err.println("An error occurred: " + e.getMessage());
@@ -0,0 +1,225 @@
+package com.example.project.filehandling;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An output stream that publishes a file atomically: readers see either the old file or the complete new one, never a
+ * partial file.
+ * <p>
+ * The data is streamed through a large direct buffer into a temporary file next to the target with a
+ * {@link FileChannel}. {@link #commit()} forces it to disk as the {@link SyncPolicy} requires and renames it over the
+ * target in one step. The published file keeps the permissions of the file it replaces, or gets the usual permissions
+ * of a new file (those allowed by the umask) if there was none. Closing the stream without committing, for example because writing failed, deletes the
+ * temporary file and leaves the target untouched, so the usual pattern is:
+ * </p>
+ * <pre>
+ * try (AtomicFileOutputStream out = new AtomicFileOutputStream(path, SyncPolicy.FILE)) {
+ *     // write
+ *     out.commit();
+ * }
+ * </pre>
+ */
+public class AtomicFileOutputStream extends OutputStream {
+    /**
+     * How much durability {@link #commit()} guarantees, at the cost of waiting for the disk.
+     */
+    public enum SyncPolicy {
+        /** Rename without forcing anything to disk. The file is complete if the application crashes, but a power
+         *  failure soon after may leave it empty or old. */
+        NONE,
+        /** Force the data to disk before the rename, so the published file is never empty or partial. */
+        FILE,
+        /** Also force the directory after the rename, so the rename itself survives a power failure. Directories
+         *  cannot be forced on every platform; there this behaves like {@link #FILE}. */
+        FILE_AND_DIRECTORY
+    }
+
+    /** The default size of the direct buffer. */
+    public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+    private final Path target;
+    private final Path temp;
+    private final SyncPolicy syncPolicy;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private boolean committed;
+    private boolean closed;
+
+    /**
+     * Constructs an AtomicFileOutputStream with a buffer of {@value #DEFAULT_BUFFER_SIZE} bytes.
+     *
+     * @param target     the file to publish
+     * @param syncPolicy how much to force to disk when committing
+     * @throws IOException if the temporary file cannot be created
+     */
+    public AtomicFileOutputStream(Path target, SyncPolicy syncPolicy) throws IOException {
+        this(target, syncPolicy, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructs an AtomicFileOutputStream.
+     *
+     * @param target     the file to publish
+     * @param syncPolicy how much to force to disk when committing
+     * @param bufferSize the size of the direct buffer
+     * @throws IOException if the temporary file cannot be created
+     */
+    public AtomicFileOutputStream(Path target, SyncPolicy syncPolicy, int bufferSize) throws IOException {
+        this.target = target.toAbsolutePath();
+        this.syncPolicy = syncPolicy;
+        this.temp = createTemp(this.target);
+        this.channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        checkOpen();
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        checkOpen();
+        while (len > 0) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.put(b, off, n);
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Writes the buffered data to the temporary file. It is not visible under the target name until committed.
+     *
+     * @throws IOException if the data cannot be written
+     */
+    @Override
+    public void flush() throws IOException {
+        checkOpen();
+        drain();
+    }
+
+    /**
+     * Writes the remaining data, forces it to disk as the sync policy requires and renames the temporary file over
+     * the target.
+     *
+     * @throws IOException if the file cannot be written or renamed, in which case the target is left untouched
+     */
+    public void commit() throws IOException {
+        checkOpen();
+        drain();
+        if (syncPolicy != SyncPolicy.NONE) {
+            channel.force(true);
+        }
+        channel.close();
+        closed = true;
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        committed = true;
+        if (syncPolicy == SyncPolicy.FILE_AND_DIRECTORY) {
+            forceDirectory();
+        }
+    }
+
+    /**
+     * Closes the stream. If it was not committed, the temporary file is deleted and the target left untouched.
+     *
+     * @throws IOException if the temporary file cannot be deleted
+     */
+    @Override
+    public void close() throws IOException {
+        if (committed) {
+            return;
+        }
+        try {
+            if (!closed) {
+                channel.close();
+                closed = true;
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Gets the file the stream publishes.
+     *
+     * @return the absolute path of the target
+     */
+    public Path getTarget() {
+        return target;
+    }
+
+    /**
+     * Creates an empty file next to the target. Unlike {@link Files#createTempFile}, which makes the file readable by
+     * its owner only, the file is created like any new file and then given the permissions of the target, so that
+     * publishing an export does not change who may read it.
+     */
+    private static Path createTemp(Path target) throws IOException {
+        Path temp;
+        while (true) {
+            temp = target.resolveSibling(target.getFileName() + "." + Long.toUnsignedString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+            try {
+                Files.createFile(temp);
+                break;
+            } catch (FileAlreadyExistsException e) {
+                // Another writer picked the same name; try another
+            }
+        }
+        try {
+            Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(target));
+        } catch (NoSuchFileException | UnsupportedOperationException e) {
+            // A new target keeps the default permissions; on Windows there are no POSIX permissions to copy
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return temp;
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void forceDirectory() {
+        try (FileChannel directory = FileChannel.open(target.getParent(), StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException | UnsupportedOperationException e) {
+            // Directories cannot be opened or forced on some platforms, e.g. Windows; the file itself is on disk
+        }
+    }
+
+    private void checkOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.project.filehandling;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Base class of the text encoders. Output is collected in a reusable byte buffer, with strings encoded to UTF-8 a
+ * character at a time, so encoding a record allocates nothing.
+ */
+abstract class BufferedEncoder implements RecordEncoder {
+    private final OutputStream out;
+    private final byte[] buffer = new byte[64 * 1024];
+    private int count;
+
+    BufferedEncoder(OutputStream out) {
+        this.out = out;
+    }
+
+    final void put(int b) throws IOException {
+        if (count == buffer.length) {
+            flushBuffer();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    final void putAscii(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            put(text.charAt(i));
+        }
+    }
+
+    /**
+     * Writes a character of a string as UTF-8, returning the index of the last character consumed.
+     */
+    final int putUtf8(String text, int index) throws IOException {
+        char c = text.charAt(index);
+        if (c < 0x80) {
+            put(c);
+        } else if (c < 0x800) {
+            put(0xC0 | (c >> 6));
+            put(0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c) && index + 1 < text.length() && Character.isLowSurrogate(text.charAt(index + 1))) {
+            int codePoint = Character.toCodePoint(c, text.charAt(index + 1));
+            put(0xF0 | (codePoint >> 18));
+            put(0x80 | ((codePoint >> 12) & 0x3F));
+            put(0x80 | ((codePoint >> 6) & 0x3F));
+            put(0x80 | (codePoint & 0x3F));
+            return index + 1;
+        } else if (Character.isSurrogate(c)) {
+            put('?');
+        } else {
+            put(0xE0 | (c >> 12));
+            put(0x80 | ((c >> 6) & 0x3F));
+            put(0x80 | (c & 0x3F));
+        }
+        return index;
+    }
+
+    final void putInt(int value) throws IOException {
+        if (value == Integer.MIN_VALUE) {
+            putAscii("-2147483648");
+            return;
+        }
+        if (value < 0) {
+            put('-');
+            value = -value;
+        }
+        int divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            put('0' + value / divisor % 10);
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        out.write(buffer, 0, count);
+        count = 0;
+    }
+
+    @Override
+    public void finish() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+}
@@ -1,6 +1,11 @@
 package com.example.project.filehandling;
 
 import com.example.project.DatabaseManager;
+import com.example.project.catalog.CatalogVersion;
+import com.example.project.catalog.Charity;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 /**
  * The abstract class CharityData serves as a blueprint for handling charity-related data
@@ -12,6 +17,12 @@ import com.example.project.DatabaseManager;
  * method to format the charity data into a readable format.
  */
 public abstract class CharityData implements CruiseDataHandler{
+    /** The header line written before every charity record by {@link #formatData()}. */
+    public static final String HEADER = "Name , Type , Country , About , Website , Email , Location";
+
+    /** The database columns of a charity record, in the order {@link #formatData()} writes them. */
+    private static final String[] COLUMNS = {"name", "type", "country", "about", "website", "email", "location"};
+
     private DatabaseManager database;
     private String name;
     private String type;
@@ -21,6 +32,8 @@ public abstract class CharityData implements CruiseDataHandler{
     private String email;
     private String location;
     private StringBuilder dataList = new StringBuilder();
+    private final ExportOutput export = new ExportOutput(COLUMNS);
+    private CatalogVersion catalogVersion;
 
     /**
      * Constructor to initialize CharityData with a DatabaseManager.
@@ -189,7 +202,11 @@ public abstract class CharityData implements CruiseDataHandler{
      * The data is structured as: "Name, Type, Country, About, Website, Email, Location".
      */
     protected void formatData() {
-        dataList.append("Name , Type , Country , About , Website , Email , Location\n")
+        if (export.getFormat() != null) {
+            encodeData();
+            return;
+        }
+        dataList.append(HEADER).append("\n")
                 .append(name).append(" , ")
                 .append(type).append(" , ")
                 .append(country).append(" , ")
@@ -198,4 +215,127 @@ public abstract class CharityData implements CruiseDataHandler{
                 .append(email).append(" , ")
                 .append(location).append("\n\n");
     }
+
+    /**
+     * Selects the format the charity data is encoded in as it is fetched. Must be called before fetching.
+     *
+     * @param exportFormat the format, or {@code null} for the text layout of {@link #formatData()}
+     */
+    @Override
+    public void setExportFormat(ExportFormat exportFormat) {
+        export.setFormat(exportFormat);
+    }
+
+    /**
+     * Gets the selected export format.
+     *
+     * @return the format, or {@code null} for the text layout of {@link #formatData()}
+     */
+    public ExportFormat getExportFormat() {
+        return export.getFormat();
+    }
+
+    /**
+     * Encodes the current charity data in the selected export format.
+     */
+    private void encodeData() {
+        try {
+            RecordEncoder encoder = export.encoder(getFileName());
+            encoder.writeString(name);
+            encoder.writeString(type);
+            encoder.writeString(country);
+            encoder.writeString(about);
+            encoder.writeString(website);
+            encoder.writeString(email);
+            encoder.writeString(location);
+            encoder.endRecord();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Sets the charity data to the values of a charity and formats it.
+     *
+     * @param charity the charity to format
+     */
+    protected void formatCharity(Charity charity) {
+        setName(charity.getName());
+        setType(charity.getType());
+        setCountry(charity.getCountry());
+        setAbout(charity.getAbout());
+        setWebsite(charity.getWebsite());
+        setEmail(charity.getEmail());
+        setLocation(charity.getLocation());
+
+        formatData();
+    }
+
+    /**
+     * Selects a catalog version to export instead of querying the database. Must be called before fetching.
+     *
+     * @param catalogVersion the version to export, or {@code null} to query the database
+     */
+    @Override
+    public void setCatalogVersion(CatalogVersion catalogVersion) {
+        this.catalogVersion = catalogVersion;
+    }
+
+    /**
+     * Gets the selected catalog version.
+     *
+     * @return the version to export, or {@code null} if the database is queried
+     */
+    public CatalogVersion getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    /**
+     * Selects whether the export is compressed with gzip, using all processors.
+     *
+     * @param compressed {@code true} to write a {@code .gz} file
+     */
+    @Override
+    public void setCompressed(boolean compressed) {
+        export.setCompressed(compressed);
+    }
+
+    /**
+     * Checks whether the export is compressed with gzip.
+     *
+     * @return {@code true} if a {@code .gz} file is written
+     */
+    public boolean isCompressed() {
+        return export.isCompressed();
+    }
+
+    /**
+     * Selects how much the export is forced to disk before it is published. By default the data is forced, so a
+     * published export is never partial even after a power failure.
+     *
+     * @param syncPolicy the sync policy
+     */
+    @Override
+    public void setSyncPolicy(AtomicFileOutputStream.SyncPolicy syncPolicy) {
+        export.setSyncPolicy(syncPolicy);
+    }
+
+    /**
+     * Writes the charity data to the file named by {@link #getFileName()}, e.g. "allCharities.txt", or with the
+     * extension of the selected export format, and with ".gz" appended if compressed. Records encoded in a format are
+     * already in the file, which is only finished and published here.
+     *
+     * @return the name of the file written
+     * @throws IOException if the file cannot be written
+     */
+    protected String writeExport() throws IOException {
+        return export.write(getFileName(), dataList);
+    }
+
+    /**
+     * Gets the name of the file the data is exported to, without its extension.
+     *
+     * @return the name of the file, e.g. "allCharities"
+     */
+    protected abstract String getFileName();
 }
@@ -0,0 +1,201 @@
+package com.example.project.filehandling;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Reads a file written in the {@link ColumnarFormat} for analytics scans.
+ * <p>
+ * The file is memory-mapped and only the column directory and dictionaries are decoded when it is opened. Codes and
+ * numbers are read straight from the mapped file by row, so a scan touches nothing but the columns it uses.
+ * </p>
+ */
+public class ColumnarFileReader {
+    private final int rows;
+    private final Map<String, Column> columns = new LinkedHashMap<>();
+
+    /**
+     * Constructs a ColumnarFileReader over the contents of a file.
+     *
+     * @param file the contents, from position 0
+     * @throws IOException if the contents are not a columnar file of a supported version
+     */
+    public ColumnarFileReader(ByteBuffer file) throws IOException {
+        try {
+            if (file.getInt() != ColumnarFormat.MAGIC) {
+                throw new IOException("Not a columnar export");
+            }
+            int version = file.getShort();
+            if (version != ColumnarFormat.FORMAT_VERSION) {
+                throw new IOException("Unsupported columnar export version " + version);
+            }
+            int count = file.getShort();
+            rows = file.getInt();
+            for (int i = 0; i < count; i++) {
+                byte[] name = new byte[file.getShort()];
+                file.get(name);
+                Column column = new Column(file.get());
+                if (column.type == ColumnarFormat.NUMBER) {
+                    column.width = 4;
+                } else {
+                    column.dictionary = new String[file.getInt()];
+                    for (int code = 0; code < column.dictionary.length; code++) {
+                        int length = file.getInt();
+                        if (length >= 0) {
+                            byte[] bytes = new byte[length];
+                            file.get(bytes);
+                            column.dictionary[code] = new String(bytes, StandardCharsets.UTF_8);
+                        }
+                    }
+                    column.width = file.get();
+                }
+                column.offset = file.position();
+                column.file = file;
+                file.position(column.offset + rows * column.width);
+                columns.put(new String(name, StandardCharsets.UTF_8), column);
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Malformed columnar export", e);
+        }
+    }
+
+    /**
+     * Opens a columnar file by memory-mapping it.
+     *
+     * @param path the file to read
+     * @return a reader over the file
+     * @throws IOException if the file cannot be mapped or is not a columnar file
+     */
+    public static ColumnarFileReader open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new ColumnarFileReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Gets the number of rows.
+     *
+     * @return the number of rows
+     */
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * Gets the names of the columns, in file order.
+     *
+     * @return the column names
+     */
+    public String[] columnNames() {
+        return columns.keySet().toArray(new String[0]);
+    }
+
+    /**
+     * Gets the dictionary of a text column, indexed by code.
+     *
+     * @param name the column
+     * @return the distinct values of the column; the caller must not modify it
+     */
+    public String[] dictionary(String name) {
+        Column column = column(name);
+        if (column.dictionary == null) {
+            throw new IllegalArgumentException("Column " + name + " is not text");
+        }
+        return column.dictionary;
+    }
+
+    /**
+     * Gets the dictionary code of a text column, or the value of a number column, in a row.
+     *
+     * @param name the column
+     * @param row  the row
+     * @return the code or number
+     */
+    public int get(String name, int row) {
+        Objects.checkIndex(row, rows);
+        return column(name).get(row);
+    }
+
+    /**
+     * Gets a text value.
+     *
+     * @param name the column
+     * @param row  the row
+     * @return the value, or {@code null}
+     */
+    public String getString(String name, int row) {
+        return dictionary(name)[get(name, row)];
+    }
+
+    private Column column(String name) {
+        Column column = columns.get(name);
+        if (column == null) {
+            throw new IllegalArgumentException("No column " + name);
+        }
+        return column;
+    }
+
+    /**
+     * Prints the number of rows and the average of every number column per value of every text column.
+     *
+     * @param args the file to read, by default {@code allDestination.col}
+     * @throws IOException if the file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        ColumnarFileReader reader = open(Paths.get(args.length > 0 ? args[0] : "allDestination.col"));
+        System.out.println(reader.rows() + " rows");
+        for (String group : reader.columnNames()) {
+            if (reader.column(group).dictionary == null || reader.dictionary(group).length > 20) {
+                continue;
+            }
+            for (String measure : reader.columnNames()) {
+                if (reader.column(measure).dictionary != null) {
+                    continue;
+                }
+                long[] sums = new long[reader.dictionary(group).length];
+                int[] counts = new int[sums.length];
+                for (int row = 0; row < reader.rows(); row++) {
+                    int code = reader.get(group, row);
+                    sums[code] += reader.get(measure, row);
+                    counts[code]++;
+                }
+                for (int code = 0; code < sums.length; code++) {
+                    System.out.printf("average %s for %s = %s: %.2f%n", measure, group, reader.dictionary(group)[code],
+                            (double) sums[code] / counts[code]);
+                }
+            }
+        }
+    }
+
+    private static class Column {
+        private final int type;
+        private String[] dictionary;
+        private int width;
+        private int offset;
+        private ByteBuffer file;
+
+        private Column(int type) {
+            this.type = type;
+        }
+
+        private int get(int row) {
+            int position = offset + row * width;
+            switch (width) {
+                case 1:
+                    return file.get(position) & 0xFF;
+                case 2:
+                    return file.getShort(position) & 0xFFFF;
+                default:
+                    return file.getInt(position);
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.project.filehandling;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A columnar binary format for analytics, read back by {@link ColumnarFileReader}.
+ * <p>
+ * Values are stored column by column rather than record by record. Text columns are dictionary-encoded: each distinct
+ * value is stored once and the rows hold fixed-width codes into the dictionary, 1, 2 or 4 bytes wide depending on the
+ * number of distinct values. Number columns are stored as 4-byte integers. A scan such as "average price per country"
+ * therefore reads two small, densely packed arrays instead of parsing every record. All numbers are big-endian.
+ * </p>
+ * <pre>
+ *  magic "CBSC", format version (2 bytes), column count (2 bytes), row count (4 bytes)
+ *  per column: name (2-byte length, UTF-8), type (1 byte: 0 text, 1 number), then
+ *    text:   dictionary size (4 bytes), values (4-byte length or -1 for null, UTF-8), code width (1 byte), codes
+ *    number: one 4-byte value per row
+ * </pre>
+ * <p>
+ * As the whole file depends on the final dictionaries, the encoder keeps the codes in memory and writes the file in
+ * {@link RecordEncoder#finish()}. The codes take at most 4 bytes per field, and each distinct value is kept only once.
+ * </p>
+ */
+public class ColumnarFormat implements ExportFormat {
+    /** The version of the format written by this class. */
+    public static final int FORMAT_VERSION = 1;
+
+    static final int MAGIC = 0x43425343;
+    static final int TEXT = 0;
+    static final int NUMBER = 1;
+
+    /**
+     * Constructs a ColumnarFormat.
+     */
+    public ColumnarFormat() {}
+
+    @Override
+    public String getExtension() {
+        return "col";
+    }
+
+    @Override
+    public RecordEncoder newEncoder(OutputStream out, String[] columns) {
+        return new Encoder(out, columns);
+    }
+
+    private static class Encoder implements RecordEncoder {
+        private final OutputStream out;
+        private final String[] names;
+        private final Column[] columns;
+        private int column;
+        private int rows;
+
+        private Encoder(OutputStream out, String[] names) {
+            this.out = out;
+            this.names = names.clone();
+            this.columns = new Column[names.length];
+        }
+
+        @Override
+        public void writeString(String value) {
+            Column current = next(TEXT);
+            Integer code = current.dictionary.get(value);
+            if (code == null) {
+                code = current.values.size();
+                current.values.add(value);
+                current.dictionary.put(value, code);
+            }
+            current.add(code);
+        }
+
+        @Override
+        public void writeInt(int value) {
+            next(NUMBER).add(value);
+        }
+
+        @Override
+        public void endRecord() {
+            if (column != columns.length) {
+                throw new IllegalStateException("Record has " + column + " of " + columns.length + " fields");
+            }
+            column = 0;
+            rows++;
+        }
+
+        private Column next(int type) {
+            if (column == columns.length) {
+                throw new IllegalStateException("Record has more than " + columns.length + " fields");
+            }
+            Column current = columns[column];
+            if (current == null) {
+                current = new Column(type);
+                columns[column] = current;
+            } else if (current.type != type) {
+                throw new IllegalStateException("Column " + names[column] + " mixes text and numbers");
+            }
+            column++;
+            return current;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+            data.writeInt(MAGIC);
+            data.writeShort(FORMAT_VERSION);
+            data.writeShort(columns.length);
+            data.writeInt(rows);
+            for (int i = 0; i < columns.length; i++) {
+                Column current = columns[i] == null ? new Column(TEXT) : columns[i];
+                byte[] name = names[i].getBytes(StandardCharsets.UTF_8);
+                data.writeShort(name.length);
+                data.write(name);
+                data.writeByte(current.type);
+                if (current.type == NUMBER) {
+                    for (int row = 0; row < rows; row++) {
+                        data.writeInt(current.data[row]);
+                    }
+                    continue;
+                }
+                data.writeInt(current.values.size());
+                for (String value : current.values) {
+                    if (value == null) {
+                        data.writeInt(-1);
+                    } else {
+                        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                        data.writeInt(bytes.length);
+                        data.write(bytes);
+                    }
+                }
+                int width = current.values.size() <= 0x100 ? 1 : current.values.size() <= 0x10000 ? 2 : 4;
+                data.writeByte(width);
+                for (int row = 0; row < rows; row++) {
+                    int code = current.data[row];
+                    if (width == 1) {
+                        data.writeByte(code);
+                    } else if (width == 2) {
+                        data.writeShort(code);
+                    } else {
+                        data.writeInt(code);
+                    }
+                }
+            }
+            data.flush();
+        }
+    }
+
+    /**
+     * The values of one column: dictionary codes for text, the numbers themselves otherwise.
+     */
+    private static class Column {
+        private final int type;
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private int[] data = new int[1024];
+        private int size;
+
+        private Column(int type) {
+            this.type = type;
+        }
+
+        private void add(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package com.example.project.filehandling;
 
 import com.example.project.DatabaseManager;
+import com.example.project.catalog.CatalogVersion;
+import com.example.project.catalog.Sailing;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 /**
  * Abstract class that represents cruise data.
@@ -8,6 +13,12 @@ import com.example.project.DatabaseManager;
  * and formatting it for output.
  */
 public abstract class CruiseData implements CruiseDataHandler {
+    /** The header line written before every cruise record by {@link #formatData()}. */
+    public static final String HEADER = "Country from , Duration , Place , Cruise ship , Route , Price , Date";
+
+    /** The database columns of a cruise record, in the order {@link #formatData()} writes them. */
+    private static final String[] COLUMNS = {"country_from", "duration", "place", "cruise_ship", "route", "price", "date"};
+
     private DatabaseManager database;
     private String countryFrom;
     private String duration;
@@ -17,6 +28,8 @@ public abstract class CruiseData implements CruiseDataHandler {
     private int price;
     private String date;
     private StringBuilder dataList = new StringBuilder();
+    private final ExportOutput export = new ExportOutput(COLUMNS);
+    private CatalogVersion catalogVersion;
 
     /**
      * Constructor for initializing CruiseData with a DatabaseManager.
@@ -184,7 +197,11 @@ public abstract class CruiseData implements CruiseDataHandler {
      * Formats the cruise data and appends it to the data list.
      */
     protected void formatData() {
-        dataList.append("Country from , Duration , Place , Cruise ship , Route , Price , Date\n")
+        if (export.getFormat() != null) {
+            encodeData();
+            return;
+        }
+        dataList.append(HEADER).append("\n")
                 .append(countryFrom).append(" , ")
                 .append(duration).append(" , ")
                 .append(place).append(" , ")
@@ -194,6 +211,129 @@ public abstract class CruiseData implements CruiseDataHandler {
                 .append(date).append("\n\n");
     }
 
+    /**
+     * Selects the format the cruise data is encoded in as it is fetched. Must be called before fetching.
+     *
+     * @param exportFormat the format, or {@code null} for the text layout of {@link #formatData()}
+     */
+    @Override
+    public void setExportFormat(ExportFormat exportFormat) {
+        export.setFormat(exportFormat);
+    }
+
+    /**
+     * Gets the selected export format.
+     *
+     * @return the format, or {@code null} for the text layout of {@link #formatData()}
+     */
+    public ExportFormat getExportFormat() {
+        return export.getFormat();
+    }
+
+    /**
+     * Encodes the current cruise data in the selected export format.
+     */
+    private void encodeData() {
+        try {
+            RecordEncoder encoder = export.encoder(getFileName());
+            encoder.writeString(countryFrom);
+            encoder.writeString(duration);
+            encoder.writeString(place);
+            encoder.writeString(cruiseShip);
+            encoder.writeString(route);
+            encoder.writeInt(price);
+            encoder.writeString(date);
+            encoder.endRecord();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Sets the cruise data to the values of a sailing and formats it.
+     *
+     * @param sailing the sailing to format
+     */
+    protected void formatSailing(Sailing sailing) {
+        setCountryFrom(sailing.getCountryFrom());
+        setDuration(sailing.getDuration());
+        setPlace(sailing.getPlace());
+        setCruiseShip(sailing.getCruiseShip());
+        setRoute(sailing.getRoute());
+        setPrice(sailing.getPrice());
+        setDate(sailing.getDate());
+
+        formatData();
+    }
+
+    /**
+     * Selects a catalog version to export instead of querying the database. Must be called before fetching.
+     *
+     * @param catalogVersion the version to export, or {@code null} to query the database
+     */
+    @Override
+    public void setCatalogVersion(CatalogVersion catalogVersion) {
+        this.catalogVersion = catalogVersion;
+    }
+
+    /**
+     * Gets the selected catalog version.
+     *
+     * @return the version to export, or {@code null} if the database is queried
+     */
+    public CatalogVersion getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    /**
+     * Selects whether the export is compressed with gzip, using all processors.
+     *
+     * @param compressed {@code true} to write a {@code .gz} file
+     */
+    @Override
+    public void setCompressed(boolean compressed) {
+        export.setCompressed(compressed);
+    }
+
+    /**
+     * Checks whether the export is compressed with gzip.
+     *
+     * @return {@code true} if a {@code .gz} file is written
+     */
+    public boolean isCompressed() {
+        return export.isCompressed();
+    }
+
+    /**
+     * Selects how much the export is forced to disk before it is published. By default the data is forced, so a
+     * published export is never partial even after a power failure.
+     *
+     * @param syncPolicy the sync policy
+     */
+    @Override
+    public void setSyncPolicy(AtomicFileOutputStream.SyncPolicy syncPolicy) {
+        export.setSyncPolicy(syncPolicy);
+    }
+
+    /**
+     * Writes the cruise data to the file named by {@link #getFileName()}, e.g. "allDestination.txt", or with the
+     * extension of the selected export format, and with ".gz" appended if compressed. Records encoded in a format are
+     * already in the file, which is only finished and published here.
+     *
+     * @return the name of the file written
+     * @throws IOException if the file cannot be written
+     */
+    protected String writeExport() throws IOException {
+        return export.write(getFileName(), dataList);
+    }
+
+    /**
+     * Gets the name of the file the data is exported to, without its extension.
+     *
+     * @return the name of the file, e.g. "allDestination"
+     */
+    protected abstract String getFileName();
+
     /**
      * Abstract method to get the destination for the cruise data.
      * This method must be implemented by subclasses.
@@ -1,5 +1,7 @@
 package com.example.project.filehandling;
 
+import com.example.project.catalog.CatalogVersion;
+
 /**
  * Interface defining the behavior for handling cruise data.
  * Implementing classes are expected to fetch cruise data from a database
@@ -20,4 +22,38 @@ public interface CruiseDataHandler {
      * for the type of cruise data being processed.
      */
     void writeDataToFile();
+
+    /**
+     * Selects the format the data is written in, such as {@link CsvFormat}, {@link JsonLinesFormat} or
+     * {@link ColumnarFormat}. Must be called before {@link #fetchData()}.
+     *
+     * @param exportFormat the format, or {@code null} for the default text layout
+     */
+    void setExportFormat(ExportFormat exportFormat);
+
+    /**
+     * Selects whether the file is compressed with gzip, with the compression spread over all processors by a
+     * {@link ParallelGzipOutputStream}. The compression ratio and speed are reported when the file is written. Must be
+     * called before {@link #fetchData()}.
+     *
+     * @param compressed {@code true} to write a {@code .gz} file
+     */
+    void setCompressed(boolean compressed);
+
+    /**
+     * Selects how much the file is forced to disk before it is published. Files are always written to a temporary
+     * file and renamed into place, so readers never see a partial file. Must be called before {@link #fetchData()}.
+     *
+     * @param syncPolicy the sync policy, {@link AtomicFileOutputStream.SyncPolicy#FILE} by default
+     */
+    void setSyncPolicy(AtomicFileOutputStream.SyncPolicy syncPolicy);
+
+    /**
+     * Selects a catalog version to export instead of querying the database. Handlers given the same version write
+     * files that agree with each other, even if the catalog is changed while they are written. Must be called before
+     * {@link #fetchData()}.
+     *
+     * @param catalogVersion the version to export, or {@code null} to query the database
+     */
+    void setCatalogVersion(CatalogVersion catalogVersion);
 }
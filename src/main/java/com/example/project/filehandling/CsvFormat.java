@@ -0,0 +1,90 @@
+package com.example.project.filehandling;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Comma-separated values as specified by RFC 4180: a header row of the column names, records ending with CRLF, and
+ * fields containing a comma, a double quote or a line break enclosed in double quotes with inner quotes doubled.
+ * {@code null} values are written as empty fields.
+ */
+public class CsvFormat implements ExportFormat {
+    /**
+     * Constructs a CsvFormat.
+     */
+    public CsvFormat() {}
+
+    @Override
+    public String getExtension() {
+        return "csv";
+    }
+
+    @Override
+    public RecordEncoder newEncoder(OutputStream out, String[] columns) throws IOException {
+        Encoder encoder = new Encoder(out);
+        for (String column : columns) {
+            encoder.writeString(column);
+        }
+        encoder.endRecord();
+        return encoder;
+    }
+
+    private static class Encoder extends BufferedEncoder {
+        private boolean firstField = true;
+
+        private Encoder(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void writeString(String value) throws IOException {
+            separate();
+            if (value == null) {
+                return;
+            }
+            boolean quoted = needsQuotes(value);
+            if (quoted) {
+                put('"');
+            }
+            for (int i = 0; i < value.length(); i++) {
+                if (value.charAt(i) == '"') {
+                    put('"');
+                }
+                i = putUtf8(value, i);
+            }
+            if (quoted) {
+                put('"');
+            }
+        }
+
+        @Override
+        public void writeInt(int value) throws IOException {
+            separate();
+            putInt(value);
+        }
+
+        @Override
+        public void endRecord() throws IOException {
+            put('\r');
+            put('\n');
+            firstField = true;
+        }
+
+        private void separate() throws IOException {
+            if (!firstField) {
+                put(',');
+            }
+            firstField = false;
+        }
+
+        private static boolean needsQuotes(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.project.filehandling;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the files written by the export classes, such as {@code allDestination.txt} and {@code allCharities.txt}.
+ * <p>
+ * The file is memory-mapped and parsed lazily as it is iterated: finding a record only scans its bytes for line breaks
+ * and field separators, and the resulting {@link ExportRecord} decodes a field only when it is asked for. Ingesting a
+ * large export therefore runs at close to the speed the operating system pages the file in.
+ * </p>
+ * <p>
+ * Every record is a header line identifying its {@link ExportRecord.Layout}, a line of fields separated by
+ * {@code " , "} and a blank line. Reading is lossless: {@link ExportRecord#appendTo(StringBuilder)} reproduces the
+ * text {@code formatData()} wrote, as long as no field contains a line break and only the free-text column of its
+ * layout contains the separator. Both {@code "\n"} and {@code "\r\n"} line breaks are accepted. Files must be smaller
+ * than 2 GB, the limit of a single mapping.
+ * </p>
+ */
+public class ExportFileReader implements Iterable<ExportRecord> {
+    private static final byte[] SEPARATOR = " , ".getBytes(StandardCharsets.US_ASCII);
+
+    private final ByteBuffer file;
+
+    /**
+     * Constructs an ExportFileReader over the contents of a file.
+     *
+     * @param file the contents, from position 0 to the limit
+     */
+    public ExportFileReader(ByteBuffer file) {
+        this.file = file;
+    }
+
+    /**
+     * Opens an export file by memory-mapping it.
+     *
+     * @param path the file to read
+     * @return a reader over the file
+     * @throws IOException if the file cannot be mapped
+     */
+    public static ExportFileReader open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Export file too large to map: " + path);
+            }
+            return new ExportFileReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Iterates over the records of the file, parsing each one as it is reached.
+     *
+     * @return an iterator over the records
+     * @throws IllegalStateException from the iterator if a record is malformed
+     */
+    @Override
+    public Iterator<ExportRecord> iterator() {
+        return new Iterator<>() {
+            private int position = skipBlankLines(0);
+
+            @Override
+            public boolean hasNext() {
+                return position < file.limit();
+            }
+
+            @Override
+            public ExportRecord next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int headerEnd = lineEnd(position);
+                ExportRecord.Layout layout = layoutOf(position, trimCarriageReturn(position, headerEnd));
+                int start = headerEnd + 1;
+                if (start > file.limit()) {
+                    throw new IllegalStateException("Record without fields at byte " + position);
+                }
+                int end = lineEnd(start);
+                int[] bounds = split(start, trimCarriageReturn(start, end), layout);
+                position = skipBlankLines(Math.min(end + 1, file.limit()));
+                return new ExportRecord(file, layout, bounds);
+            }
+        };
+    }
+
+    /**
+     * Identifies the layout of a record from its header line.
+     */
+    private ExportRecord.Layout layoutOf(int start, int end) {
+        for (ExportRecord.Layout layout : ExportRecord.Layout.values()) {
+            if (matches(start, end, layout.headerBytes())) {
+                return layout;
+            }
+        }
+        throw new IllegalStateException("Unknown header at byte " + start);
+    }
+
+    /**
+     * Finds the field bounds of a line. The columns before the free-text column take the first separators, the columns
+     * after it the last ones, and the free-text column everything in between.
+     */
+    private int[] split(int start, int end, ExportRecord.Layout layout) {
+        int columns = layout.getColumns().length;
+        int freeText = layout.getFreeTextColumn();
+        int[] bounds = new int[2 * columns];
+
+        int position = start;
+        for (int column = 0; column < freeText; column++) {
+            int separator = indexOfSeparator(position, end);
+            if (separator < 0) {
+                throw new IllegalStateException("Too few fields at byte " + start);
+            }
+            bounds[2 * column] = position;
+            bounds[2 * column + 1] = separator;
+            position = separator + SEPARATOR.length;
+        }
+        int tail = end;
+        for (int column = columns - 1; column > freeText; column--) {
+            int separator = lastIndexOfSeparator(position, tail);
+            if (separator < 0) {
+                throw new IllegalStateException("Too few fields at byte " + start);
+            }
+            bounds[2 * column] = separator + SEPARATOR.length;
+            bounds[2 * column + 1] = tail;
+            tail = separator;
+        }
+        bounds[2 * freeText] = position;
+        bounds[2 * freeText + 1] = tail;
+        return bounds;
+    }
+
+    private int indexOfSeparator(int from, int end) {
+        for (int i = from; i + SEPARATOR.length <= end; i++) {
+            if (file.get(i) == ' ' && file.get(i + 1) == ',' && file.get(i + 2) == ' ') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int lastIndexOfSeparator(int from, int end) {
+        for (int i = end - SEPARATOR.length; i >= from; i--) {
+            if (file.get(i) == ' ' && file.get(i + 1) == ',' && file.get(i + 2) == ' ') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean matches(int start, int end, byte[] bytes) {
+        if (end - start != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (file.get(start + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the position of the line feed ending the line that starts at {@code start}, or the end of the file.
+     */
+    private int lineEnd(int start) {
+        int limit = file.limit();
+        for (int i = start; i < limit; i++) {
+            if (file.get(i) == '\n') {
+                return i;
+            }
+        }
+        return limit;
+    }
+
+    private int trimCarriageReturn(int start, int end) {
+        return end > start && file.get(end - 1) == '\r' ? end - 1 : end;
+    }
+
+    private int skipBlankLines(int position) {
+        int limit = file.limit();
+        while (position < limit && (file.get(position) == '\n' || file.get(position) == '\r')) {
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * Reads export files and checks that every record round-trips to the text that was written, reporting the
+     * records read and the speed.
+     *
+     * @param args the files to read, by default the four files written by {@link FileHandling}
+     * @throws IOException if a file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            args = new String[]{"singaporeDestination.txt", "malaysiaDestination.txt", "allDestination.txt", "allCharities.txt"};
+        }
+        for (String name : args) {
+            Path path = Paths.get(name);
+            if (!Files.exists(path)) {
+                System.out.println(name + ": not found");
+                continue;
+            }
+            long began = System.nanoTime();
+            ExportFileReader reader = open(path);
+            StringBuilder written = new StringBuilder();
+            int records = 0;
+            for (ExportRecord record : reader) {
+                record.appendTo(written);
+                records++;
+            }
+            double seconds = (System.nanoTime() - began) / 1e9;
+
+            String text = Files.readString(path, StandardCharsets.UTF_8).replace("\r\n", "\n");
+            boolean lossless = text.equals(written + "\n");
+            System.out.printf("%s: %,d records, %.1f MB/s, round trip %s%n", name, records,
+                    Files.size(path) / 1e6 / seconds, lossless ? "lossless" : "DIFFERS");
+        }
+    }
+}
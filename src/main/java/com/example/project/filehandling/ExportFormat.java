@@ -0,0 +1,51 @@
+package com.example.project.filehandling;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+
+/**
+ * A file format the export classes can write their data in, selected per handler with
+ * {@link CruiseDataHandler#setExportFormat(ExportFormat)}. Handlers without a format keep writing the text layout of
+ * {@code formatData()}.
+ */
+public interface ExportFormat {
+    /**
+     * Gets the file extension of the format, without the dot.
+     *
+     * @return the file extension, e.g. "csv"
+     */
+    String getExtension();
+
+    /**
+     * Starts encoding records of the given columns into a stream.
+     *
+     * @param out     the stream to write to, which the encoder does not close
+     * @param columns the names of the columns, in the order their values are written
+     * @return an encoder for the records
+     * @throws IOException if the stream cannot be written to
+     */
+    RecordEncoder newEncoder(OutputStream out, String[] columns) throws IOException;
+
+    /**
+     * Gets a format by its name or extension.
+     *
+     * @param name "csv", "jsonl" (or "json") or "columnar" (or "col")
+     * @return the format
+     * @throws IllegalArgumentException if there is no format of that name
+     */
+    static ExportFormat of(String name) {
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "csv":
+                return new CsvFormat();
+            case "json":
+            case "jsonl":
+                return new JsonLinesFormat();
+            case "col":
+            case "columnar":
+                return new ColumnarFormat();
+            default:
+                throw new IllegalArgumentException("Unknown export format: " + name);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.project.filehandling;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+
+/**
+ * The output settings and file of an export, shared by {@link CruiseData} and {@link CharityData}.
+ * <p>
+ * Without an {@link ExportFormat}, the export is the text of {@code formatData()}, written to a {@code .txt} file as
+ * {@link java.io.PrintWriter#println(String)} would. With one, the file is opened when the first record is encoded and
+ * records are encoded straight into it as they are fetched, so an export of any size takes no more memory than the
+ * buffers of the streams. Either can be compressed with a {@link ParallelGzipOutputStream} into a {@code .gz} file.
+ * Files are published with an {@link AtomicFileOutputStream}, so readers never see a partial export and a failed
+ * export leaves the previous file.
+ * </p>
+ */
+class ExportOutput {
+    private final String[] columns;
+    private ExportFormat format;
+    private boolean compressed;
+    private AtomicFileOutputStream.SyncPolicy syncPolicy = AtomicFileOutputStream.SyncPolicy.FILE;
+
+    /** The file being written, from the first record encoded until it is published. */
+    private AtomicFileOutputStream file;
+    private ParallelGzipOutputStream gzip;
+    private String fileName;
+    private RecordEncoder encoder;
+
+    /**
+     * Constructs an ExportOutput for records of the given columns.
+     *
+     * @param columns the names of the columns, in the order their values are encoded
+     */
+    ExportOutput(String[] columns) {
+        this.columns = columns;
+    }
+
+    void setFormat(ExportFormat format) {
+        this.format = format;
+    }
+
+    ExportFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Gets the encoder of the selected format, opening the file of the export for it on the first call. The format,
+     * the compression and the sync policy must be selected before.
+     *
+     * @param name the name of the file without extension, e.g. "allDestination"
+     * @return the encoder writing to the file
+     * @throws IOException if the file cannot be opened
+     */
+    RecordEncoder encoder(String name) throws IOException {
+        if (encoder == null) {
+            encoder = format.newEncoder(open(name), columns);
+        }
+        return encoder;
+    }
+
+    void setCompressed(boolean compressed) {
+        this.compressed = compressed;
+    }
+
+    boolean isCompressed() {
+        return compressed;
+    }
+
+    void setSyncPolicy(AtomicFileOutputStream.SyncPolicy syncPolicy) {
+        this.syncPolicy = syncPolicy;
+    }
+
+    AtomicFileOutputStream.SyncPolicy getSyncPolicy() {
+        return syncPolicy;
+    }
+
+    /**
+     * Opens the file of the export, with the extension of the format and {@code .gz} if compressed.
+     */
+    private OutputStream open(String name) throws IOException {
+        fileName = name + "." + (format == null ? "txt" : format.getExtension()) + (compressed ? ".gz" : "");
+        file = new AtomicFileOutputStream(Paths.get(fileName), syncPolicy);
+        if (!compressed) {
+            return file;
+        }
+        gzip = new ParallelGzipOutputStream(file);
+        return gzip;
+    }
+
+    /**
+     * Finishes the export and publishes its file, named after it with the extension of the format and {@code .gz} if
+     * compressed. Records encoded before are already in the file; the file is opened now if there were none.
+     *
+     * @param name the name of the file without extension, e.g. "allDestination"
+     * @param text the text layout, written if no format is selected
+     * @return the name of the file written
+     * @throws IOException if the file cannot be written
+     */
+    String write(String name, CharSequence text) throws IOException {
+        ParallelGzipOutputStream written;
+        try {
+            if (format == null) {
+                Writer writer = new OutputStreamWriter(open(name), Charset.defaultCharset());
+                writer.append(text).append(System.lineSeparator());
+                writer.flush();
+            } else {
+                encoder(name).finish();
+            }
+            if (gzip != null) {
+                gzip.finish();
+            }
+            file.commit();
+            written = gzip;
+        } finally {
+            // Deletes the temporary file if the export was not published
+            if (file != null) {
+                file.close();
+            }
+            file = null;
+            gzip = null;
+            encoder = null;
+        }
+        if (written != null) {
+            System.out.println(fileName + ": " + written.summary());
+        }
+        return fileName;
+    }
+}
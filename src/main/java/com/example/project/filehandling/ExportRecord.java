@@ -0,0 +1,231 @@
+package com.example.project.filehandling;
+
+import com.example.project.catalog.Charity;
+import com.example.project.catalog.Sailing;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A single record of an export file, read by {@link ExportFileReader}.
+ * <p>
+ * A record only remembers where its fields start and end in the mapped file. A field is decoded into a String the
+ * first time it is asked for with {@link #get(int)}; {@link #getInt(int)} and {@link #fieldEquals(int, String)} work on
+ * the bytes directly and create no String at all.
+ * </p>
+ */
+public class ExportRecord {
+    /**
+     * The kinds of records written by the export classes, recognised by their header line.
+     */
+    public enum Layout {
+        /** A record written by {@link CruiseData#formatData()}. */
+        CRUISE(CruiseData.HEADER, 4),
+        /** A record written by {@link CharityData#formatData()}. */
+        CHARITY(CharityData.HEADER, 3);
+
+        private final String header;
+        private final byte[] headerBytes;
+        private final String[] columns;
+        private final int freeTextColumn;
+
+        Layout(String header, int freeTextColumn) {
+            this.header = header;
+            this.headerBytes = header.getBytes(StandardCharsets.UTF_8);
+            this.columns = header.split(" , ");
+            this.freeTextColumn = freeTextColumn;
+        }
+
+        /**
+         * Gets the header line written before every record of this layout.
+         *
+         * @return the header line, without its line break
+         */
+        public String getHeader() {
+            return header;
+        }
+
+        /**
+         * Gets the names of the columns, as written in the header line.
+         *
+         * @return a copy of the column names
+         */
+        public String[] getColumns() {
+            return columns.clone();
+        }
+
+        /**
+         * Gets the column whose values may themselves contain the separator {@code " , "}, such as the description of
+         * a charity. Separators beyond the expected number are taken to belong to this column.
+         *
+         * @return the index of the free-text column
+         */
+        public int getFreeTextColumn() {
+            return freeTextColumn;
+        }
+
+        byte[] headerBytes() {
+            return headerBytes;
+        }
+    }
+
+    private final ByteBuffer file;
+    private final Layout layout;
+
+    /** The start of each field followed by its end, as absolute positions in {@link #file}. */
+    private final int[] bounds;
+
+    private final String[] decoded;
+
+    ExportRecord(ByteBuffer file, Layout layout, int[] bounds) {
+        this.file = file;
+        this.layout = layout;
+        this.bounds = bounds;
+        this.decoded = new String[bounds.length / 2];
+    }
+
+    /**
+     * Gets the layout of the record.
+     *
+     * @return the layout
+     */
+    public Layout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Gets the number of fields of the record.
+     *
+     * @return the number of fields
+     */
+    public int size() {
+        return decoded.length;
+    }
+
+    /**
+     * Gets a field as written, decoding it on first access. Columns that were {@code null} in the database were written,
+     * and are read back, as the text {@code "null"}.
+     *
+     * @param column the index of the column
+     * @return the text of the field
+     */
+    public String get(int column) {
+        String value = decoded[column];
+        if (value == null) {
+            byte[] bytes = new byte[length(column)];
+            file.get(bounds[2 * column], bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            decoded[column] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Parses a field as a decimal integer without decoding it into a String.
+     *
+     * @param column the index of the column
+     * @return the value of the field
+     * @throws NumberFormatException if the field is not a decimal integer
+     */
+    public int getInt(int column) {
+        int position = bounds[2 * column];
+        int end = bounds[2 * column + 1];
+        boolean negative = position < end && file.get(position) == '-';
+        if (negative) {
+            position++;
+        }
+        if (position == end) {
+            throw new NumberFormatException("Empty number in column " + column);
+        }
+        long value = 0;
+        for (; position < end; position++) {
+            int digit = file.get(position) - '0';
+            if (digit < 0 || digit > 9 || value > Integer.MAX_VALUE) {
+                throw new NumberFormatException("Not a number: " + get(column));
+            }
+            value = value * 10 + digit;
+        }
+        value = negative ? -value : value;
+        if (value != (int) value) {
+            throw new NumberFormatException("Number out of range: " + get(column));
+        }
+        return (int) value;
+    }
+
+    /**
+     * Checks whether a field equals a given text by comparing bytes, without decoding the field.
+     *
+     * @param column the index of the column
+     * @param text   the text to compare with
+     * @return {@code true} if the field is exactly the given text
+     */
+    public boolean fieldEquals(int column, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length != length(column)) {
+            return false;
+        }
+        int start = bounds[2 * column];
+        for (int i = 0; i < bytes.length; i++) {
+            if (file.get(start + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Converts a cruise record into a {@link Sailing}.
+     *
+     * @return the sailing
+     * @throws IllegalStateException if this is not a cruise record
+     */
+    public Sailing toSailing() {
+        if (layout != Layout.CRUISE) {
+            throw new IllegalStateException("Not a cruise record");
+        }
+        return new Sailing(nullable(0), nullable(1), nullable(2), nullable(3), nullable(4), getInt(5), nullable(6));
+    }
+
+    /**
+     * Converts a charity record into a {@link Charity}.
+     *
+     * @return the charity
+     * @throws IllegalStateException if this is not a charity record
+     */
+    public Charity toCharity() {
+        if (layout != Layout.CHARITY) {
+            throw new IllegalStateException("Not a charity record");
+        }
+        return new Charity(nullable(0), nullable(1), nullable(2), nullable(3), nullable(4), nullable(5), nullable(6));
+    }
+
+    /**
+     * Appends the record exactly as {@code formatData()} wrote it: the header line, the fields and a blank line.
+     *
+     * @param builder the builder to append to
+     * @return the builder
+     */
+    public StringBuilder appendTo(StringBuilder builder) {
+        builder.append(layout.getHeader()).append("\n");
+        for (int column = 0; column < size(); column++) {
+            if (column > 0) {
+                builder.append(" , ");
+            }
+            builder.append(get(column));
+        }
+        return builder.append("\n\n");
+    }
+
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder()).toString();
+    }
+
+    private int length(int column) {
+        return bounds[2 * column + 1] - bounds[2 * column];
+    }
+
+    private String nullable(int column) {
+        return fieldEquals(column, "null") ? null : get(column);
+    }
+}
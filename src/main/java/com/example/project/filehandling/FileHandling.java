@@ -1,6 +1,12 @@
 package com.example.project.filehandling;
 
 import com.example.project.*;
+import com.example.project.catalog.CatalogVersion;
+import com.example.project.catalog.VersionedCatalog;
+import com.example.project.repository.Repositories;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
 
 /**
  * Main class to handle the processing of cruise data and payment data.
@@ -23,6 +29,15 @@ public class FileHandling {
      * for different regions by creating instances of {@link CruiseDataHandler} subclasses. It fetches and writes
      * the data to files for Singapore, Malaysia, and all destinations.
      * </p>
+     * <p>
+     * Every file is written from the same {@link CatalogVersion}, so the files agree with each other even if an admin
+     * changes the catalog while they are written.
+     * </p>
+     * <p>
+     * The arguments optionally select an {@link ExportFormat} for every file ("csv", "jsonl" or "columnar") and
+     * gzip compression ("gzip") and the sync policy of the files ("sync=none", "sync=file" or
+     * "sync=file_and_directory").
+     * </p>
      *
      * @param args command-line arguments for the application
      */
@@ -30,23 +45,74 @@ public class FileHandling {
         // Get the singleton instance of DatabaseManager
         DatabaseManager database = DatabaseManager.getInstance();
 
+        // Select the export format, or keep the text layout, the compression and the sync policy
+        ExportFormat exportFormat = null;
+        boolean compressed = false;
+        AtomicFileOutputStream.SyncPolicy syncPolicy = AtomicFileOutputStream.SyncPolicy.FILE;
+        for (String arg : args) {
+            if (arg.equalsIgnoreCase("gzip")) {
+                compressed = true;
+            } else if (arg.toLowerCase().startsWith("sync=")) {
+                try {
+                    syncPolicy = AtomicFileOutputStream.SyncPolicy.valueOf(arg.substring(5).toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    System.out.println("Unknown sync policy: " + arg.substring(5) + ". Valid values: "
+                            + Arrays.stream(AtomicFileOutputStream.SyncPolicy.values())
+                                    .map(policy -> policy.name().toLowerCase())
+                                    .collect(Collectors.joining(", ")));
+                    return;
+                }
+            } else {
+                try {
+                    exportFormat = ExportFormat.of(arg);
+                } catch (IllegalArgumentException e) {
+                    System.out.println(e.getMessage() + ". Valid values: csv, jsonl, columnar, gzip");
+                    return;
+                }
+            }
+        }
+
+        // Export one version of the catalog, so that all of the files show the same point in time, read from the
+        // database unless it is unreachable and the catalog stays on the cache snapshot
+        VersionedCatalog versionedCatalog = VersionedCatalog.getInstance();
+        if (!versionedCatalog.load(Repositories.getInstance())) {
+            System.out.println("Database unreachable, exporting the catalog snapshot.");
+        }
+        CatalogVersion catalogVersion = versionedCatalog.current();
+
         // Handle Singapore cruise data
         CruiseDataHandler singaporeData = new SingaporeCruiseData(database);
+        singaporeData.setExportFormat(exportFormat);
+        singaporeData.setCompressed(compressed);
+        singaporeData.setSyncPolicy(syncPolicy);
+        singaporeData.setCatalogVersion(catalogVersion);
         singaporeData.fetchData();
         singaporeData.writeDataToFile();
 
         // Handle Malaysia cruise data
         CruiseDataHandler malaysiaData = new MalaysiaCruiseData(database);
+        malaysiaData.setExportFormat(exportFormat);
+        malaysiaData.setCompressed(compressed);
+        malaysiaData.setSyncPolicy(syncPolicy);
+        malaysiaData.setCatalogVersion(catalogVersion);
         malaysiaData.fetchData();
         malaysiaData.writeDataToFile();
 
         // Handle all destinations cruise data
         CruiseDataHandler allDestinationsData = new AllDestinationsCruiseData(database);
+        allDestinationsData.setExportFormat(exportFormat);
+        allDestinationsData.setCompressed(compressed);
+        allDestinationsData.setSyncPolicy(syncPolicy);
+        allDestinationsData.setCatalogVersion(catalogVersion);
         allDestinationsData.fetchData();
         allDestinationsData.writeDataToFile();
 
         // Handle all charity organisations data
         CruiseDataHandler allCharitiesData = new AllCharitiesOrganisationData(database);
+        allCharitiesData.setExportFormat(exportFormat);
+        allCharitiesData.setCompressed(compressed);
+        allCharitiesData.setSyncPolicy(syncPolicy);
+        allCharitiesData.setCatalogVersion(catalogVersion);
         allCharitiesData.fetchData();
         allCharitiesData.writeDataToFile();
     }
@@ -0,0 +1,93 @@
+package com.example.project.filehandling;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * JSON Lines: one JSON object per line, keyed by column name, with numbers written as JSON numbers and {@code null}
+ * values as {@code null}.
+ */
+public class JsonLinesFormat implements ExportFormat {
+    /**
+     * Constructs a JsonLinesFormat.
+     */
+    public JsonLinesFormat() {}
+
+    @Override
+    public String getExtension() {
+        return "jsonl";
+    }
+
+    @Override
+    public RecordEncoder newEncoder(OutputStream out, String[] columns) {
+        return new Encoder(out, columns);
+    }
+
+    private static class Encoder extends BufferedEncoder {
+        private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+        private final String[] columns;
+        private int column;
+
+        private Encoder(OutputStream out, String[] columns) {
+            super(out);
+            this.columns = columns.clone();
+        }
+
+        @Override
+        public void writeString(String value) throws IOException {
+            key();
+            if (value == null) {
+                putAscii("null");
+            } else {
+                quote(value);
+            }
+        }
+
+        @Override
+        public void writeInt(int value) throws IOException {
+            key();
+            putInt(value);
+        }
+
+        @Override
+        public void endRecord() throws IOException {
+            if (column == 0) {
+                put('{');
+            }
+            put('}');
+            put('\n');
+            column = 0;
+        }
+
+        private void key() throws IOException {
+            put(column == 0 ? '{' : ',');
+            quote(columns[column++]);
+            put(':');
+        }
+
+        private void quote(String text) throws IOException {
+            put('"');
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '"' || c == '\\') {
+                    put('\\');
+                    put(c);
+                } else if (c == '\n') {
+                    putAscii("\\n");
+                } else if (c == '\r') {
+                    putAscii("\\r");
+                } else if (c == '\t') {
+                    putAscii("\\t");
+                } else if (c < 0x20) {
+                    putAscii("\\u00");
+                    put(HEX[c >> 4]);
+                    put(HEX[c & 0xF]);
+                } else {
+                    i = putUtf8(text, i);
+                }
+            }
+            put('"');
+        }
+    }
+}
@@ -1,10 +1,10 @@
 package com.example.project.filehandling;
 
 import com.example.project.DatabaseManager;
+import com.example.project.catalog.Sailing;
+import com.example.project.repository.Repositories;
 
-import java.io.PrintWriter;
-import java.sql.ResultSet;
-import java.sql.Statement;
+import java.sql.SQLException;
 
 /**
  * Concrete implementation of CruiseData for handling Malaysia cruise data.
@@ -25,32 +25,34 @@ public class MalaysiaCruiseData extends CruiseData {
         return "Malaysia";
     }
 
+    @Override
+    protected String getFileName() {
+        return "malaysiaDestination";
+    }
+
     @Override
     public void fetchData() {
+        if (getCatalogVersion() != null) {
+            for (Sailing sailing : getCatalogVersion().sailings(getDestination(), null)) {
+                formatSailing(sailing);
+            }
+            return;
+        }
         try {
-            Statement malaysiaStatement = getDatabase().getConnection().createStatement();
-            ResultSet malaysiaSet = malaysiaStatement.executeQuery("SELECT country_from, duration, place, cruise_ship, route, price, date FROM cruise_destination WHERE country_from = 'Malaysia';");
-
-            while (malaysiaSet.next()) {
-                setCountryFrom(malaysiaSet.getString("country_from"));
-                setDuration(malaysiaSet.getString("duration"));
-                setPlace(malaysiaSet.getString("place"));
-                setCruiseShip(malaysiaSet.getString("cruise_ship"));
-                setRoute(malaysiaSet.getString("route"));
-                setPrice(malaysiaSet.getInt("price"));
-                setDate(malaysiaSet.getString("date"));
-
-                formatData();
+            for (Sailing sailing : Repositories.getInstance().sailings().findAll()) {
+                if (sailing.matches(getDestination(), null)) {
+                    formatSailing(sailing);
+                }
             }
-        } catch (Exception e) {
+        } catch (SQLException e) {
             System.err.println(e.getMessage());
         }
     }
 
     @Override
     public void writeDataToFile() {
-        try (PrintWriter writer = new PrintWriter("malaysiaDestination.txt")) {
-            writer.println(getDataList().toString());
+        try {
+            writeExport();
             System.out.println("Malaysia data separated and written to file.");
         } catch (Exception e) {
             System.err.println("An error occurred: " + e.getMessage());
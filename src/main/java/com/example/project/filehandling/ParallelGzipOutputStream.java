@@ -0,0 +1,295 @@
+package com.example.project.filehandling;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * An output stream writing a standard gzip stream whose compression runs on a pool of worker threads.
+ * <p>
+ * The data is cut into independent blocks of {@value #DEFAULT_BLOCK_SIZE} bytes, which are deflated in parallel and
+ * written in order. Every block but the last ends with a sync flush, which aligns it to a byte boundary, so the
+ * compressed blocks concatenate into a single deflate stream that any gzip reader accepts. Each block is primed with the
+ * last 32 KB of the block before it as a preset dictionary, so matches across block boundaries are not lost and the
+ * ratio stays close to that of a single-threaded {@link java.util.zip.GZIPOutputStream}. The CRC-32 of the trailer is
+ * computed by the writing thread, which is far cheaper than the compression.
+ * </p>
+ * <p>
+ * At most two blocks per processor are in flight; the writer waits for the oldest one when that limit is reached.
+ * </p>
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+    /** The default size of the blocks compressed independently. */
+    public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+    /** The size of the deflate window, and so of the useful dictionary. */
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    private static final ThreadLocal<Deflater> DEFLATERS = ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+
+    private static ExecutorService sharedPool;
+
+    private final OutputStream out;
+    private final ExecutorService pool;
+    private final int blockSize;
+    private final int level;
+    private final int maxPending = 2 * Runtime.getRuntime().availableProcessors();
+    private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+    private final CRC32 crc = new CRC32();
+    private final long started = System.nanoTime();
+
+    private byte[] block;
+    private int count;
+    private byte[] previous;
+    private int previousLength;
+    private long bytesIn;
+    private long bytesOut;
+    private long elapsed;
+    private boolean finished;
+
+    /**
+     * Constructs a ParallelGzipOutputStream compressing on a shared pool of one thread per processor.
+     *
+     * @param out the stream to write the gzip stream to
+     * @throws IOException if the gzip header cannot be written
+     */
+    public ParallelGzipOutputStream(OutputStream out) throws IOException {
+        this(out, sharedPool(), DEFAULT_BLOCK_SIZE, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Constructs a ParallelGzipOutputStream.
+     *
+     * @param out       the stream to write the gzip stream to
+     * @param pool      the pool the blocks are compressed on
+     * @param blockSize the size of the blocks, at least 32 KB
+     * @param level     the compression level, from 0 to 9 or {@link Deflater#DEFAULT_COMPRESSION}
+     * @throws IOException if the gzip header cannot be written
+     */
+    public ParallelGzipOutputStream(OutputStream out, ExecutorService pool, int blockSize, int level) throws IOException {
+        if (blockSize < DICTIONARY_SIZE) {
+            throw new IllegalArgumentException("Block size below " + DICTIONARY_SIZE + ": " + blockSize);
+        }
+        this.out = out;
+        this.pool = pool;
+        this.blockSize = blockSize;
+        this.level = level;
+        this.block = new byte[blockSize];
+        // Magic, deflate, no flags, no modification time, no extra flags, unknown operating system
+        byte[] header = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+        out.write(header);
+        bytesOut = header.length;
+    }
+
+    private static synchronized ExecutorService sharedPool() {
+        if (sharedPool == null) {
+            sharedPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "gzip-worker");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return sharedPool;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        checkNotFinished();
+        if (count == blockSize) {
+            submitBlock(false);
+        }
+        block[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        checkNotFinished();
+        while (len > 0) {
+            if (count == blockSize) {
+                submitBlock(false);
+            }
+            int n = Math.min(len, blockSize - count);
+            System.arraycopy(b, off, block, count, n);
+            count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Flushes the blocks compressed so far. The block being filled is not cut short, so the ratio does not suffer.
+     *
+     * @throws IOException if the underlying stream cannot be flushed
+     */
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Compresses the remaining data and writes the gzip trailer without closing the underlying stream.
+     *
+     * @throws IOException if the data cannot be written
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        submitBlock(true);
+        while (!pending.isEmpty()) {
+            writeNext();
+        }
+        byte[] trailer = new byte[8];
+        writeIntLE(trailer, 0, (int) crc.getValue());
+        writeIntLE(trailer, 4, (int) bytesIn);
+        out.write(trailer);
+        out.flush();
+        bytesOut += trailer.length;
+        elapsed = System.nanoTime() - started;
+        finished = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Gets the number of uncompressed bytes written so far.
+     *
+     * @return the number of bytes compressed, excluding the block being filled
+     */
+    public long getBytesIn() {
+        return bytesIn;
+    }
+
+    /**
+     * Gets the size of the gzip stream written so far.
+     *
+     * @return the number of compressed bytes written
+     */
+    public long getBytesOut() {
+        return bytesOut;
+    }
+
+    /**
+     * Gets the compression ratio, the uncompressed size divided by the compressed size.
+     *
+     * @return the compression ratio
+     */
+    public double getCompressionRatio() {
+        return bytesOut == 0 ? 0 : (double) bytesIn / bytesOut;
+    }
+
+    /**
+     * Gets the compression throughput from the creation of the stream until it was finished.
+     *
+     * @return the uncompressed megabytes per second
+     */
+    public double getMegabytesPerSecond() {
+        long nanos = finished ? elapsed : System.nanoTime() - started;
+        return nanos == 0 ? 0 : bytesIn / 1e6 / (nanos / 1e9);
+    }
+
+    /**
+     * Describes the sizes, ratio and throughput of the stream.
+     *
+     * @return a one-line summary
+     */
+    public String summary() {
+        return String.format("%.2f MB -> %.2f MB, ratio %.2f, %.1f MB/s", bytesIn / 1e6, bytesOut / 1e6,
+                getCompressionRatio(), getMegabytesPerSecond());
+    }
+
+    private void submitBlock(boolean last) throws IOException {
+        checkNotFinished();
+        crc.update(block, 0, count);
+        bytesIn += count;
+        byte[] data = block;
+        int length = count;
+        byte[] dictionary = previous;
+        int dictionaryLength = previousLength;
+        pending.add(pool.submit(() -> deflate(data, length, dictionary, dictionaryLength, last)));
+        previous = data;
+        previousLength = length;
+        block = last ? null : new byte[blockSize];
+        count = 0;
+        while (pending.size() > maxPending) {
+            writeNext();
+        }
+    }
+
+    private void writeNext() throws IOException {
+        try {
+            byte[] compressed = pending.removeFirst().get();
+            out.write(compressed);
+            bytesOut += compressed.length;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing");
+        } catch (ExecutionException e) {
+            throw new IOException("Compression failed", e.getCause());
+        }
+    }
+
+    /**
+     * Deflates one block, ending it with a sync flush, or finishing the deflate stream if it is the last one.
+     */
+    private byte[] deflate(byte[] data, int length, byte[] dictionary, int dictionaryLength, boolean last) {
+        Deflater deflater = DEFLATERS.get();
+        deflater.reset();
+        deflater.setLevel(level);
+        if (dictionaryLength > 0) {
+            int size = Math.min(DICTIONARY_SIZE, dictionaryLength);
+            deflater.setDictionary(dictionary, dictionaryLength - size, size);
+        }
+        deflater.setInput(data, 0, length);
+        byte[] buffer = new byte[length + length / 8 + 64];
+        int n = 0;
+        if (last) {
+            deflater.finish();
+            while (!deflater.finished()) {
+                if (n == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                n += deflater.deflate(buffer, n, buffer.length - n);
+            }
+        } else {
+            // A full output buffer means the flush may be incomplete, so deflate again with more room
+            while (true) {
+                n += deflater.deflate(buffer, n, buffer.length - n, Deflater.SYNC_FLUSH);
+                if (n < buffer.length) {
+                    break;
+                }
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+        }
+        return Arrays.copyOf(buffer, n);
+    }
+
+    private void checkNotFinished() throws IOException {
+        if (finished) {
+            throw new IOException("Stream already finished");
+        }
+    }
+
+    private static void writeIntLE(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) value;
+        bytes[offset + 1] = (byte) (value >> 8);
+        bytes[offset + 2] = (byte) (value >> 16);
+        bytes[offset + 3] = (byte) (value >> 24);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.project.filehandling;
+
+import java.io.IOException;
+
+/**
+ * Writes records in an {@link ExportFormat}, one field at a time, so that no row object is needed.
+ * <p>
+ * The values of a record are written in column order with {@link #writeString(String)} and {@link #writeInt(int)},
+ * followed by {@link #endRecord()}. {@link #finish()} writes whatever the format keeps until the end.
+ * </p>
+ */
+public interface RecordEncoder {
+    /**
+     * Writes the next field of the current record as text.
+     *
+     * @param value the value, or {@code null}
+     * @throws IOException if the output cannot be written
+     */
+    void writeString(String value) throws IOException;
+
+    /**
+     * Writes the next field of the current record as a number.
+     *
+     * @param value the value
+     * @throws IOException if the output cannot be written
+     */
+    void writeInt(int value) throws IOException;
+
+    /**
+     * Ends the current record.
+     *
+     * @throws IOException if the output cannot be written
+     */
+    void endRecord() throws IOException;
+
+    /**
+     * Writes any remaining output and flushes it to the stream, which stays open.
+     *
+     * @throws IOException if the output cannot be written
+     */
+    void finish() throws IOException;
+}
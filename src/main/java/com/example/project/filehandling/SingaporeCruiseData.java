@@ -1,10 +1,10 @@
 package com.example.project.filehandling;
 
 import com.example.project.DatabaseManager;
+import com.example.project.catalog.Sailing;
+import com.example.project.repository.Repositories;
 
-import java.io.PrintWriter;
-import java.sql.ResultSet;
-import java.sql.Statement;
+import java.sql.SQLException;
 
 /**
  * Concrete implementation of CruiseData for handling Singapore cruise data.
@@ -25,32 +25,34 @@ public class SingaporeCruiseData extends CruiseData {
         return "Singapore";
     }
 
+    @Override
+    protected String getFileName() {
+        return "singaporeDestination";
+    }
+
     @Override
     public void fetchData() {
+        if (getCatalogVersion() != null) {
+            for (Sailing sailing : getCatalogVersion().sailings(getDestination(), null)) {
+                formatSailing(sailing);
+            }
+            return;
+        }
         try {
-            Statement sgStatement = getDatabase().getConnection().createStatement();
-            ResultSet sgSet = sgStatement.executeQuery("SELECT country_from, duration, place, cruise_ship, route, price, date FROM cruise_destination WHERE country_from = 'Singapore';");
-
-            while (sgSet.next()) {
-                setCountryFrom(sgSet.getString("country_from"));
-                setDuration(sgSet.getString("duration"));
-                setPlace(sgSet.getString("place"));
-                setCruiseShip(sgSet.getString("cruise_ship"));
-                setRoute(sgSet.getString("route"));
-                setPrice(sgSet.getInt("price"));
-                setDate(sgSet.getString("date"));
-
-                formatData();
+            for (Sailing sailing : Repositories.getInstance().sailings().findAll()) {
+                if (sailing.matches(getDestination(), null)) {
+                    formatSailing(sailing);
+                }
             }
-        } catch (Exception e) {
+        } catch (SQLException e) {
             System.err.println(e.getMessage());
         }
     }
 
     @Override
     public void writeDataToFile() {
-        try (PrintWriter writer = new PrintWriter("singaporeDestination.txt")) {
-            writer.println(getDataList().toString());
+        try {
+            writeExport();
             System.out.println("Singapore data separated and written to file.");
         } catch (Exception e) {
             System.err.println("An error occurred: " + e.getMessage());
@@ -0,0 +1,159 @@
+package com.example.project.payment;
+
+import com.example.project.booking.BookingException;
+import com.example.project.booking.CabinType;
+import com.example.project.booking.Hold;
+import com.example.project.booking.HoldManager;
+import com.example.project.booking.Reservation;
+import com.example.project.donation.DonationLedger;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs the whole checkout of a cabin booking without blocking the caller: hold the cabins, charge the customer,
+ * then confirm the reservation, or release the cabins if the payment is declined or fails.
+ * <p>
+ * A customer may add a donation to a charity to the booking. It is charged together with the cabins and recorded in
+ * the {@link DonationLedger} once the reservation is confirmed. A donation that cannot be recorded then does not fail
+ * the checkout, whose cabins are already paid for; it is reported in the {@link CheckoutResult} instead.
+ * </p>
+ * <p>
+ * The database steps run on the given executor and the charge runs on the {@link PaymentPipeline}, so the JavaFX
+ * thread only ever receives the final future and no database connection is held while the gateway is working.
+ * </p>
+ */
+public class Checkout {
+    /** The currency prices in {@code cruise_destination} are in. */
+    public static final String CURRENCY = "MYR";
+
+    private final HoldManager holdManager;
+    private final PaymentPipeline paymentPipeline;
+    private final Executor databaseExecutor;
+    private final DonationLedger donationLedger;
+
+    /**
+     * Constructs a Checkout without donations.
+     *
+     * @param holdManager      the manager holding cabins during checkout
+     * @param paymentPipeline  the pipeline charging customers
+     * @param databaseExecutor the executor running the database steps
+     */
+    public Checkout(HoldManager holdManager, PaymentPipeline paymentPipeline, Executor databaseExecutor) {
+        this(holdManager, paymentPipeline, databaseExecutor, null);
+    }
+
+    /**
+     * Constructs a Checkout.
+     *
+     * @param holdManager      the manager holding cabins during checkout
+     * @param paymentPipeline  the pipeline charging customers
+     * @param databaseExecutor the executor running the database steps
+     * @param donationLedger   the ledger donations made with a booking are recorded in, or {@code null} for none
+     */
+    public Checkout(HoldManager holdManager, PaymentPipeline paymentPipeline, Executor databaseExecutor, DonationLedger donationLedger) {
+        this.holdManager = holdManager;
+        this.paymentPipeline = paymentPipeline;
+        this.databaseExecutor = databaseExecutor;
+        this.donationLedger = donationLedger;
+    }
+
+    /**
+     * Books and pays for cabins on a sailing.
+     *
+     * @param email          the email of the customer
+     * @param sailingId      the id of the sailing
+     * @param cabinType      the type of the cabins
+     * @param cabins         the number of cabins
+     * @param pricePerCabin  the price of one cabin in RM, as in {@code cruise_destination.price}
+     * @return a future completed with the confirmed reservation, or failed with a {@link BookingException} or the
+     * payment failure, in which case the cabins have been released
+     */
+    public CompletableFuture<Reservation> checkout(String email, long sailingId, CabinType cabinType, int cabins, int pricePerCabin) {
+        long amount = (long) pricePerCabin * cabins * 100;
+        return book(email, sailingId, cabinType, cabins, amount, cabins + " x " + cabinType + " on sailing #" + sailingId);
+    }
+
+    /**
+     * Books and pays for cabins on a sailing together with a donation to a charity.
+     *
+     * @param email          the email of the customer
+     * @param sailingId      the id of the sailing
+     * @param cabinType      the type of the cabins
+     * @param cabins         the number of cabins
+     * @param pricePerCabin  the price of one cabin in RM, as in {@code cruise_destination.price}
+     * @param charity        the name of the charity to donate to, or {@code null} for no donation
+     * @param donation       the amount to donate in RM
+     * @return a future completed with the confirmed reservation and the outcome of the donation once it is recorded or
+     * failed to be, or failed like {@link #checkout(String, long, CabinType, int, int)}, or with a
+     * {@link NoSuchElementException} before anything is held if the ledger does not accept the charity
+     * @throws IllegalStateException if a donation is made but this checkout has no donation ledger
+     */
+    public CompletableFuture<CheckoutResult> checkout(String email, long sailingId, CabinType cabinType, int cabins, int pricePerCabin,
+                                                      String charity, int donation) {
+        boolean donating = charity != null && donation > 0;
+        if (!donating) {
+            return checkout(email, sailingId, cabinType, cabins, pricePerCabin)
+                    .thenApply(confirmed -> new CheckoutResult(confirmed, null, null));
+        }
+        if (donationLedger == null) {
+            throw new IllegalStateException("Donations are not enabled for this checkout");
+        }
+        if (!donationLedger.accepts(charity)) {
+            return CompletableFuture.failedFuture(new NoSuchElementException("No charity named " + charity));
+        }
+        long amount = ((long) pricePerCabin * cabins + donation) * 100;
+        String description = cabins + " x " + cabinType + " on sailing #" + sailingId + " and RM" + donation + " to " + charity;
+
+        // The donation is paid for with the cabins, so failing to record it is reported rather than failing the booking
+        return book(email, sailingId, cabinType, cabins, amount, description).thenCompose(confirmed -> donationLedger
+                .donate(charity, email, donation * 100L, "reservation-" + confirmed.getId())
+                .handle((recorded, error) -> {
+                    if (error == null) {
+                        return new CheckoutResult(confirmed, recorded, null);
+                    }
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    System.err.println("Donation of RM" + donation + " to " + charity + " paid with reservation "
+                            + confirmed.getId() + " but not recorded: " + cause.getMessage());
+                    return new CheckoutResult(confirmed, null, cause);
+                }));
+    }
+
+    /**
+     * Holds the cabins, charges the amount and confirms the hold, or releases it if the charge fails.
+     */
+    private CompletableFuture<Reservation> book(String email, long sailingId, CabinType cabinType, int cabins, long amount,
+                                                String description) {
+        return CompletableFuture
+                .supplyAsync(() -> {
+                    try {
+                        return holdManager.hold(email, sailingId, cabinType, cabins);
+                    } catch (BookingException e) {
+                        throw new CompletionException(e);
+                    }
+                }, databaseExecutor)
+                .thenCompose(hold -> paymentPipeline
+                        .submit(new PaymentRequest("hold-" + hold.getId(), email, amount, CURRENCY, description))
+                        .handleAsync((result, error) -> complete(hold, result, error), databaseExecutor));
+    }
+
+    /**
+     * Confirms the hold if the charge was approved, and releases it otherwise.
+     */
+    private Reservation complete(Hold hold, PaymentResult result, Throwable error) {
+        try {
+            if (error == null && result.isApproved()) {
+                return holdManager.confirm(hold.getId());
+            }
+            holdManager.release(hold.getId());
+        } catch (BookingException e) {
+            throw new CompletionException(e);
+        }
+        if (error != null) {
+            throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(error);
+        }
+        throw new CompletionException(new PaymentException("Payment declined: " + result.getMessage(), false));
+    }
+}
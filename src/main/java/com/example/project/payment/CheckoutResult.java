@@ -0,0 +1,59 @@
+package com.example.project.payment;
+
+import com.example.project.booking.Reservation;
+import com.example.project.donation.Donation;
+
+/**
+ * The outcome of a {@link Checkout}: the confirmed reservation and, if a donation was made with it, whether the
+ * donation was recorded.
+ * <p>
+ * A donation is charged together with the cabins, so a donation that could not be recorded in the ledger afterwards
+ * does not undo the booking. It is reported here instead, so that the customer can be told and the donation recorded
+ * by hand.
+ * </p>
+ */
+public class CheckoutResult {
+    private final Reservation reservation;
+    private final Donation donation;
+    private final Throwable donationFailure;
+
+    /**
+     * Constructs a CheckoutResult.
+     *
+     * @param reservation     the confirmed reservation
+     * @param donation        the recorded donation, or {@code null} if none was made or it was not recorded
+     * @param donationFailure why the donation was not recorded, or {@code null}
+     */
+    public CheckoutResult(Reservation reservation, Donation donation, Throwable donationFailure) {
+        this.reservation = reservation;
+        this.donation = donation;
+        this.donationFailure = donationFailure;
+    }
+
+    /**
+     * Gets the confirmed reservation.
+     *
+     * @return the reservation
+     */
+    public Reservation getReservation() {
+        return reservation;
+    }
+
+    /**
+     * Gets the donation recorded with the booking.
+     *
+     * @return the donation, or {@code null} if none was made or it was not recorded
+     */
+    public Donation getDonation() {
+        return donation;
+    }
+
+    /**
+     * Gets why the donation made with the booking was charged but not recorded.
+     *
+     * @return the failure, or {@code null} if no donation was made or it was recorded
+     */
+    public Throwable getDonationFailure() {
+        return donationFailure;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.project.payment;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of latencies for reporting percentiles.
+ * <p>
+ * Latencies are counted in microseconds in log-linear buckets: every power of two is split into 16 equal buckets,
+ * so a reported percentile is within about 6% of the true value while the histogram stays a fixed 976 counters,
+ * however many latencies are recorded.
+ * </p>
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        counts.incrementAndGet(index(micros));
+        count.incrementAndGet();
+        max.accumulateAndGet(micros, Math::max);
+    }
+
+    /**
+     * Gets the number of recorded latencies.
+     *
+     * @return the count
+     */
+    public long count() {
+        return count.get();
+    }
+
+    /**
+     * Gets the latency below which a fraction of the recorded latencies fall.
+     *
+     * @param fraction the fraction, e.g. 0.99 for the 99th percentile
+     * @return the percentile in microseconds, or {@code 0} if nothing was recorded
+     */
+    public long percentileMicros(double fraction) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Gets the highest recorded latency.
+     *
+     * @return the maximum in microseconds
+     */
+    public long maxMicros() {
+        return max.get();
+    }
+
+    /**
+     * Summarises the histogram as count, median, 95th and 99th percentile and maximum in milliseconds.
+     *
+     * @return the summary
+     */
+    public String summary() {
+        return String.format("n=%d p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms", count(),
+                percentileMicros(0.50) / 1000.0, percentileMicros(0.95) / 1000.0,
+                percentileMicros(0.99) / 1000.0, maxMicros() / 1000.0);
+    }
+
+    /**
+     * Finds the bucket of a latency: values below 16 get a bucket each, larger values are bucketed by their
+     * highest set bit and the four bits below it.
+     */
+    private static int index(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int subBucket = (int) ((micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Gets the largest latency that falls into a bucket.
+     */
+    private static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = index % SUB_BUCKETS;
+        long lower = (1L << exponent) + (subBucket << (exponent - SUB_BUCKET_BITS));
+        return lower + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
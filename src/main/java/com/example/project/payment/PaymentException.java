@@ -0,0 +1,28 @@
+package com.example.project.payment;
+
+/**
+ * Thrown when a gateway cannot process a charge, as opposed to declining it.
+ */
+public class PaymentException extends Exception {
+    private final boolean retriable;
+
+    /**
+     * Constructs a PaymentException.
+     *
+     * @param message   the detail message
+     * @param retriable whether sending the same request again may succeed, e.g. after a network error
+     */
+    public PaymentException(String message, boolean retriable) {
+        super(message);
+        this.retriable = retriable;
+    }
+
+    /**
+     * Checks whether sending the same request again may succeed.
+     *
+     * @return {@code true} if the failure is temporary
+     */
+    public boolean isRetriable() {
+        return retriable;
+    }
+}
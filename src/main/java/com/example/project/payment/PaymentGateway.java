@@ -0,0 +1,28 @@
+package com.example.project.payment;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A payment provider that charges customers.
+ * <p>
+ * Implementations must not block the calling thread: {@link #charge(PaymentRequest)} returns at once and completes
+ * the future when the provider answers. A failed future should carry a {@link PaymentException} that says whether
+ * the charge may be retried. Implementations must honour the idempotency key, charging at most once per key.
+ * </p>
+ */
+public interface PaymentGateway {
+    /**
+     * Gets the name of the gateway, used to report its latency.
+     *
+     * @return the name
+     */
+    String getName();
+
+    /**
+     * Starts a charge.
+     *
+     * @param request the charge to make
+     * @return a future completed with the result, or failed if the charge could not be processed
+     */
+    CompletableFuture<PaymentResult> charge(PaymentRequest request);
+}
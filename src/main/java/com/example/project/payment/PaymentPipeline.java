@@ -0,0 +1,321 @@
+package com.example.project.payment;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Submits charges to {@link PaymentGateway}s asynchronously.
+ * <p>
+ * {@link #submit(PaymentRequest)} returns a future at once, so a slow gateway never blocks the JavaFX thread, and the
+ * pipeline never touches the database, so no connection is held while waiting for a gateway. Every charge is:
+ * </p>
+ * <ul>
+ *     <li>deduplicated by its idempotency key: submitting the same key again returns the same future;</li>
+ *     <li>limited in concurrency: at most {@code maxInFlight} calls are outstanding, the rest wait in a queue. A call
+ *     holds its place until the gateway answers, even after it timed out, so a slow gateway is never sent more than
+ *     {@code maxInFlight} calls at once;</li>
+ *     <li>timed out after {@code timeout} and retried, with the same key, after an exponential backoff with jitter,
+ *     up to {@code maxAttempts} times, when the gateway times out or reports a retriable error.</li>
+ * </ul>
+ * <p>
+ * A call that timed out may still succeed. It is retried only when the request has an idempotency key, so that the
+ * gateway charges at most once; without one the charge waits for the late answer instead. Whichever call succeeds
+ * first completes the charge.
+ * </p>
+ * <p>
+ * The latency of every call is recorded per gateway; see {@link #latencyReport()}.
+ * </p>
+ */
+public class PaymentPipeline implements AutoCloseable {
+    /** The default maximum number of calls outstanding at once. */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 32;
+
+    /** The default time a gateway is given to answer a call. */
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
+
+    /** The default maximum number of calls made for one charge. */
+    public static final int DEFAULT_MAX_ATTEMPTS = 4;
+
+    /** The default delay before the first retry; later retries double it. */
+    public static final Duration DEFAULT_BACKOFF = Duration.ofMillis(200);
+
+    /** The longest delay between two retries. */
+    private static final long MAX_BACKOFF_MILLIS = 10_000;
+
+    /** How many completed charges are remembered for deduplication. */
+    private static final int REMEMBERED_CHARGES = 10_000;
+
+    private final int maxInFlight;
+    private final Duration timeout;
+    private final int maxAttempts;
+    private final Duration backoff;
+
+    private final Map<String, PaymentGateway> gateways = new LinkedHashMap<>();
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CompletableFuture<PaymentResult>> charges = new ConcurrentHashMap<>();
+    private final Queue<String> completedKeys = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger remembered = new AtomicInteger();
+    private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ExecutorService dispatcher;
+    private final ScheduledExecutorService retries;
+
+    /**
+     * Constructs a PaymentPipeline with the default limits.
+     */
+    public PaymentPipeline() {
+        this(DEFAULT_MAX_IN_FLIGHT, DEFAULT_TIMEOUT, DEFAULT_MAX_ATTEMPTS, DEFAULT_BACKOFF);
+    }
+
+    /**
+     * Constructs a PaymentPipeline.
+     *
+     * @param maxInFlight the maximum number of calls outstanding at once
+     * @param timeout     the time a gateway is given to answer a call
+     * @param maxAttempts the maximum number of calls made for one charge
+     * @param backoff     the delay before the first retry
+     */
+    public PaymentPipeline(int maxInFlight, Duration timeout, int maxAttempts, Duration backoff) {
+        this.maxInFlight = maxInFlight;
+        this.timeout = timeout;
+        this.maxAttempts = maxAttempts;
+        this.backoff = backoff;
+        this.dispatcher = Executors.newCachedThreadPool(runnable -> daemon(runnable, "payment-dispatch"));
+        this.retries = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "payment-retry"));
+    }
+
+    /**
+     * Registers a gateway. The first gateway registered is used by {@link #submit(PaymentRequest)}.
+     *
+     * @param gateway the gateway
+     */
+    public synchronized void addGateway(PaymentGateway gateway) {
+        gateways.putIfAbsent(gateway.getName(), gateway);
+        latencies.putIfAbsent(gateway.getName(), new LatencyHistogram());
+    }
+
+    /**
+     * Submits a charge to the first registered gateway.
+     *
+     * @param request the charge
+     * @return a future completed with the result, or failed with a {@link PaymentException} or {@link TimeoutException}
+     * once every attempt failed
+     */
+    public CompletableFuture<PaymentResult> submit(PaymentRequest request) {
+        PaymentGateway gateway;
+        synchronized (this) {
+            if (gateways.isEmpty()) {
+                throw new IllegalStateException("No payment gateway registered");
+            }
+            gateway = gateways.values().iterator().next();
+        }
+        return submit(gateway.getName(), request);
+    }
+
+    /**
+     * Submits a charge to a gateway.
+     *
+     * @param gatewayName the name of a registered gateway
+     * @param request     the charge
+     * @return a future completed with the result, or failed with a {@link PaymentException} or {@link TimeoutException}
+     * once every attempt failed
+     */
+    public CompletableFuture<PaymentResult> submit(String gatewayName, PaymentRequest request) {
+        PaymentGateway gateway;
+        synchronized (this) {
+            gateway = gateways.get(gatewayName);
+        }
+        if (gateway == null) {
+            throw new IllegalArgumentException("Unknown payment gateway " + gatewayName);
+        }
+
+        CompletableFuture<PaymentResult> charge = new CompletableFuture<>();
+        if (hasIdempotencyKey(request)) {
+            CompletableFuture<PaymentResult> existing = charges.putIfAbsent(request.getIdempotencyKey(), charge);
+            if (existing != null) {
+                return existing;
+            }
+            charge.whenComplete((result, error) -> forgetLater(request.getIdempotencyKey(), error == null));
+        }
+        enqueue(() -> attempt(gateway, request, 1, charge));
+        return charge;
+    }
+
+    /**
+     * Summarises the latency of every gateway.
+     *
+     * @return one line per gateway with its call count and latency percentiles
+     */
+    public String latencyReport() {
+        StringBuilder report = new StringBuilder();
+        for (Map.Entry<String, LatencyHistogram> entry : latencies.entrySet()) {
+            report.append(entry.getKey()).append(": ").append(entry.getValue().summary()).append('\n');
+        }
+        return report.toString();
+    }
+
+    /**
+     * Gets the latency histogram of a gateway.
+     *
+     * @param gatewayName the name of a registered gateway
+     * @return the histogram, or {@code null} if the gateway is unknown
+     */
+    public LatencyHistogram latency(String gatewayName) {
+        return latencies.get(gatewayName);
+    }
+
+    /**
+     * Stops the pipeline. Charges still waiting or being retried are not completed.
+     */
+    @Override
+    public void close() {
+        retries.shutdownNow();
+        dispatcher.shutdownNow();
+    }
+
+    /**
+     * Makes one call to the gateway and, when it completes or times out, either completes the charge or schedules a
+     * retry. The call keeps its place in flight until the gateway answers, whether or not it timed out first.
+     */
+    private void attempt(PaymentGateway gateway, PaymentRequest request, int attempt, CompletableFuture<PaymentResult> charge) {
+        if (charge.isDone()) {
+            // An earlier call answered late while this retry was waiting
+            release();
+            return;
+        }
+        long started = System.nanoTime();
+        CompletableFuture<PaymentResult> call = call(gateway, request);
+        call.whenComplete((result, error) -> {
+            latencies.get(gateway.getName()).record(System.nanoTime() - started);
+            release();
+            if (error == null) {
+                // A call that timed out but succeeded after all still completes the charge, unless another did first
+                charge.complete(result);
+            }
+        });
+
+        boolean idempotent = hasIdempotencyKey(request);
+        call.copy().orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS).whenComplete((result, error) -> {
+            if (error == null || charge.isDone()) {
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof TimeoutException && !idempotent) {
+                // The call may still succeed, and without a key a retry could charge twice: wait for its answer
+                call.whenComplete((late, lateError) -> {
+                    if (lateError != null) {
+                        charge.completeExceptionally(lateError instanceof CompletionException
+                                && lateError.getCause() != null ? lateError.getCause() : lateError);
+                    }
+                });
+                return;
+            }
+            boolean retriable = cause instanceof TimeoutException
+                    || cause instanceof PaymentException && ((PaymentException) cause).isRetriable();
+            if (retriable && attempt < maxAttempts) {
+                retries.schedule(() -> enqueue(() -> attempt(gateway, request, attempt + 1, charge)),
+                        backoffMillis(attempt), TimeUnit.MILLISECONDS);
+            } else {
+                charge.completeExceptionally(cause);
+            }
+        });
+    }
+
+    private static CompletableFuture<PaymentResult> call(PaymentGateway gateway, PaymentRequest request) {
+        try {
+            return gateway.charge(request);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Computes the delay before a retry: the backoff doubled for every attempt so far, capped, of which a random
+     * half is waited so that many charges failing together do not retry together.
+     */
+    private long backoffMillis(int attempt) {
+        long delay = Math.min(MAX_BACKOFF_MILLIS, backoff.toMillis() << Math.min(attempt - 1, 20));
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    /**
+     * Gives back the place of a call that the gateway answered, and starts the next waiting call.
+     */
+    private void release() {
+        inFlight.decrementAndGet();
+        dispatch();
+    }
+
+    private static boolean hasIdempotencyKey(PaymentRequest request) {
+        return request.getIdempotencyKey() != null && !request.getIdempotencyKey().isBlank();
+    }
+
+    /**
+     * Queues a call and starts it if the concurrency limit allows.
+     */
+    private void enqueue(Runnable call) {
+        waiting.add(call);
+        dispatch();
+    }
+
+    /**
+     * Starts waiting calls while fewer than {@code maxInFlight} are outstanding. Called whenever a call is queued or
+     * completes, so a queued call is never left waiting while there is room.
+     */
+    private void dispatch() {
+        while (!waiting.isEmpty()) {
+            int current = inFlight.get();
+            if (current >= maxInFlight) {
+                return;
+            }
+            if (!inFlight.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            Runnable call = waiting.poll();
+            if (call == null) {
+                inFlight.decrementAndGet();
+                continue;
+            }
+            dispatcher.execute(call);
+        }
+    }
+
+    /**
+     * Remembers a completed charge for deduplication, evicting the oldest once too many are remembered.
+     * Charges that failed are forgotten at once so that the customer can try again with the same key.
+     */
+    private void forgetLater(String key, boolean succeeded) {
+        if (!succeeded) {
+            charges.remove(key);
+            return;
+        }
+        completedKeys.add(key);
+        if (remembered.incrementAndGet() > REMEMBERED_CHARGES) {
+            String oldest = completedKeys.poll();
+            if (oldest != null) {
+                remembered.decrementAndGet();
+                charges.remove(oldest);
+            }
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.project.payment;
+
+/**
+ * A charge to be made through a {@link PaymentGateway}.
+ * <p>
+ * The idempotency key identifies the charge: submitting or retrying a request with the same key never charges the
+ * customer twice.
+ * </p>
+ */
+public class PaymentRequest {
+    private final String idempotencyKey;
+    private final String email;
+    private final long amount;
+    private final String currency;
+    private final String description;
+
+    /**
+     * Constructs a PaymentRequest.
+     *
+     * @param idempotencyKey the key identifying the charge, e.g. the id of the hold being paid for
+     * @param email          the email of the customer
+     * @param amount         the amount to charge, in the smallest unit of the currency (sen for RM)
+     * @param currency       the ISO code of the currency, e.g. "MYR"
+     * @param description    what the charge is for
+     */
+    public PaymentRequest(String idempotencyKey, String email, long amount, String currency, String description) {
+        this.idempotencyKey = idempotencyKey;
+        this.email = email;
+        this.amount = amount;
+        this.currency = currency;
+        this.description = description;
+    }
+
+    /**
+     * Gets the key identifying the charge.
+     *
+     * @return the idempotency key
+     */
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    /**
+     * Gets the email of the customer.
+     *
+     * @return the email
+     */
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * Gets the amount to charge in the smallest unit of the currency.
+     *
+     * @return the amount
+     */
+    public long getAmount() {
+        return amount;
+    }
+
+    /**
+     * Gets the ISO code of the currency.
+     *
+     * @return the currency
+     */
+    public String getCurrency() {
+        return currency;
+    }
+
+    /**
+     * Gets what the charge is for.
+     *
+     * @return the description
+     */
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.project.payment;
+
+/**
+ * The outcome of a {@link PaymentRequest} that reached a gateway.
+ */
+public class PaymentResult {
+
+    /**
+     * Whether the charge went through.
+     */
+    public enum Status {
+        /** The customer was charged. */
+        APPROVED,
+        /** The gateway refused the charge, e.g. for insufficient funds; retrying will not help. */
+        DECLINED
+    }
+
+    private final String idempotencyKey;
+    private final Status status;
+    private final String transactionId;
+    private final String message;
+
+    /**
+     * Constructs a PaymentResult.
+     *
+     * @param idempotencyKey the key of the request
+     * @param status         whether the charge went through
+     * @param transactionId  the id given to the charge by the gateway, or {@code null} if declined
+     * @param message        a message from the gateway
+     */
+    public PaymentResult(String idempotencyKey, Status status, String transactionId, String message) {
+        this.idempotencyKey = idempotencyKey;
+        this.status = status;
+        this.transactionId = transactionId;
+        this.message = message;
+    }
+
+    /**
+     * Gets the key of the request.
+     *
+     * @return the idempotency key
+     */
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    /**
+     * Gets whether the charge went through.
+     *
+     * @return the status
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Checks whether the customer was charged.
+     *
+     * @return {@code true} if the charge was approved
+     */
+    public boolean isApproved() {
+        return status == Status.APPROVED;
+    }
+
+    /**
+     * Gets the id given to the charge by the gateway.
+     *
+     * @return the transaction id, or {@code null} if declined
+     */
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    /**
+     * Gets the message from the gateway.
+     *
+     * @return the message
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return status + " " + idempotencyKey + (transactionId == null ? "" : " (" + transactionId + ")") + ": " + message;
+    }
+}
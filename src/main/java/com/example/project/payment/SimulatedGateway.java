@@ -0,0 +1,79 @@
+package com.example.project.payment;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A local stand-in for a real payment provider, for development and tests.
+ * <p>
+ * Charges answer after a random latency, a configurable fraction of calls fail with a retriable error, and charges
+ * above a limit are declined. Like a real provider it remembers the result of every idempotency key, so a retried
+ * request returns the first result instead of charging again.
+ * </p>
+ */
+public class SimulatedGateway implements PaymentGateway {
+    private final String name;
+    private final long minLatencyMillis;
+    private final long maxLatencyMillis;
+    private final double failureRate;
+    private final long declineAbove;
+    private final Map<String, PaymentResult> processed = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "simulated-gateway");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructs a SimulatedGateway.
+     *
+     * @param name             the name of the gateway
+     * @param minLatencyMillis the shortest time a charge takes
+     * @param maxLatencyMillis the longest time a charge takes
+     * @param failureRate      the fraction of calls, between 0 and 1, that fail with a retriable error
+     * @param declineAbove     the amount above which charges are declined
+     */
+    public SimulatedGateway(String name, long minLatencyMillis, long maxLatencyMillis, double failureRate, long declineAbove) {
+        this.name = name;
+        this.minLatencyMillis = minLatencyMillis;
+        this.maxLatencyMillis = Math.max(minLatencyMillis, maxLatencyMillis);
+        this.failureRate = failureRate;
+        this.declineAbove = declineAbove;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public CompletableFuture<PaymentResult> charge(PaymentRequest request) {
+        CompletableFuture<PaymentResult> future = new CompletableFuture<>();
+        long latency = ThreadLocalRandom.current().nextLong(minLatencyMillis, maxLatencyMillis + 1);
+        scheduler.schedule(() -> {
+            if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+                future.completeExceptionally(new PaymentException("Simulated gateway error", true));
+                return;
+            }
+            future.complete(processed.computeIfAbsent(request.getIdempotencyKey(), key -> request.getAmount() > declineAbove
+                    ? new PaymentResult(key, PaymentResult.Status.DECLINED, null, "Amount exceeds limit")
+                    : new PaymentResult(key, PaymentResult.Status.APPROVED, UUID.randomUUID().toString(), "Approved")));
+        }, latency, TimeUnit.MILLISECONDS);
+        return future;
+    }
+
+    /**
+     * Gets the number of distinct charges processed, to check that retries did not charge twice.
+     *
+     * @return the number of idempotency keys seen
+     */
+    public int processedCharges() {
+        return processed.size();
+    }
+}
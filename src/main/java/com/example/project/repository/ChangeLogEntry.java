@@ -0,0 +1,74 @@
+package com.example.project.repository;
+
+/**
+ * One row of the change log: an entry of the catalog was added, updated or deleted. Which of the three is told by
+ * reading the entry again, so that many changes of one entry need only one read.
+ */
+public class ChangeLogEntry {
+    /** The kind of the entries of {@link SailingRepository}. */
+    public static final String SAILING = "sailing";
+
+    /** The kind of the entries of {@link CharityRepository}. */
+    public static final String CHARITY = "charity";
+
+    private final long seq;
+    private final String entity;
+    private final long entityId;
+    private final String origin;
+
+    /**
+     * Constructs a ChangeLogEntry.
+     *
+     * @param seq      the sequence number of the change
+     * @param entity   the kind of the changed entry
+     * @param entityId the id of the changed entry
+     * @param origin   the process that made the change
+     */
+    public ChangeLogEntry(long seq, String entity, long entityId, String origin) {
+        this.seq = seq;
+        this.entity = entity;
+        this.entityId = entityId;
+        this.origin = origin;
+    }
+
+    /**
+     * Gets the sequence number of the change.
+     *
+     * @return the sequence number, increasing with every change
+     */
+    public long getSeq() {
+        return seq;
+    }
+
+    /**
+     * Gets the kind of the changed entry.
+     *
+     * @return {@link #SAILING} or {@link #CHARITY}
+     */
+    public String getEntity() {
+        return entity;
+    }
+
+    /**
+     * Gets the id of the changed entry.
+     *
+     * @return the surrogate key of the entry
+     */
+    public long getEntityId() {
+        return entityId;
+    }
+
+    /**
+     * Checks whether the change was made by this process.
+     *
+     * @return {@code true} if this process appended the change
+     */
+    public boolean isLocal() {
+        return ChangeLogRepository.ORIGIN.equals(origin);
+    }
+
+    @Override
+    public String toString() {
+        return seq + " " + entity + " " + entityId;
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.project.repository;
+
+import com.example.project.ConnectionPool;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code catalog_change} table, to which every write of a catalog entry appends the id of the entry in the same
+ * transaction.
+ * <p>
+ * Every running instance of the application reads the rows appended since the last one it saw, by the sequence number
+ * that is the primary key of the table, and reloads only the entries they name. An instance with nothing new to read
+ * costs the database one lookup in the primary key, however big the catalog is.
+ * </p>
+ * <p>
+ * The sequence numbers of the rows this process appends are kept until their transaction commits, and
+ * {@link #lastCommitted()} then answers the highest one. A reader of the tables that read the last sequence number
+ * before the rows can tell from it whether the rows are older than a change this process already published.
+ * </p>
+ */
+public class ChangeLogRepository extends JdbcRepository {
+    /** Identifies the rows appended by this process, so it can skip the changes it already applied itself. */
+    public static final String ORIGIN = UUID.randomUUID().toString();
+
+    /** How many rows {@link #since(long)} reads at most. */
+    public static final int MAX_ENTRIES = 1000;
+
+    private static final String APPEND = "INSERT INTO catalog_change (entity, entity_id, origin) VALUES (?, ?, ?)";
+
+    /** The highest sequence number appended by the transaction running on this thread, until it ends. */
+    private static final ThreadLocal<Long> appended = new ThreadLocal<>();
+
+    /** The highest sequence number appended by a committed transaction of this process. */
+    private static final AtomicLong lastCommitted = new AtomicLong();
+
+    /**
+     * Constructs a ChangeLogRepository.
+     *
+     * @param pool     the connections to run the statements on
+     * @param executor the threads to run the asynchronous variants on
+     */
+    public ChangeLogRepository(ConnectionPool pool, Executor executor) {
+        super(pool, executor);
+    }
+
+    /**
+     * Appends the changes of entries, on the connection of the transaction that changed them.
+     *
+     * @param connection the connection
+     * @param entity     the kind of the entries, e.g. {@link ChangeLogEntry#SAILING}
+     * @param ids        the ids of the entries
+     * @throws SQLException if the changes cannot be appended
+     */
+    static void append(Connection connection, String entity, Collection<Long> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement preparedStatement = connection.prepareStatement(APPEND, Statement.RETURN_GENERATED_KEYS)) {
+            for (long id : ids) {
+                bind(preparedStatement, entity, id, ORIGIN);
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
+            long seq = appended.get() == null ? 0 : appended.get();
+            try (ResultSet keys = preparedStatement.getGeneratedKeys()) {
+                while (keys.next()) {
+                    seq = Math.max(seq, keys.getLong(1));
+                }
+            }
+            appended.set(seq);
+        }
+    }
+
+    /**
+     * Records the changes appended by the transaction of this thread as committed.
+     */
+    static void committed() {
+        Long seq = appended.get();
+        if (seq != null) {
+            appended.remove();
+            lastCommitted.accumulateAndGet(seq, Math::max);
+        }
+    }
+
+    /**
+     * Forgets the changes appended by the transaction of this thread, which was rolled back.
+     */
+    static void discarded() {
+        appended.remove();
+    }
+
+    /**
+     * Gets the sequence number of the last change this process committed.
+     *
+     * @return the sequence number, 0 if this process committed no change yet
+     */
+    public static long lastCommitted() {
+        return lastCommitted.get();
+    }
+
+    /**
+     * Gets the sequence number of the last change.
+     *
+     * @return the sequence number, 0 if nothing was changed yet
+     * @throws SQLException if the change log cannot be read
+     */
+    public long latest() throws SQLException {
+        return execute(connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT MAX(seq) FROM catalog_change")) {
+                return resultSet.next() ? resultSet.getLong(1) : 0;
+            }
+        });
+    }
+
+    /**
+     * Reads the changes after a sequence number, up to {@value #MAX_ENTRIES}.
+     *
+     * @param seq the sequence number of the last change already read
+     * @return the changes in the order they were appended
+     * @throws SQLException if the change log cannot be read
+     */
+    public List<ChangeLogEntry> since(long seq) throws SQLException {
+        return execute(connection -> {
+            List<ChangeLogEntry> entries = new ArrayList<>();
+            try (PreparedStatement preparedStatement = connection.prepareStatement(
+                    "SELECT seq, entity, entity_id, origin FROM catalog_change WHERE seq > ? ORDER BY seq LIMIT " + MAX_ENTRIES)) {
+                preparedStatement.setLong(1, seq);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    while (resultSet.next()) {
+                        entries.add(read(resultSet));
+                    }
+                }
+            }
+            return entries;
+        });
+    }
+
+    /**
+     * Reads the changes with given sequence numbers, e.g. those of transactions that were still running when the
+     * changes after them were read.
+     *
+     * @param seqs the sequence numbers, at most {@value #MAX_KEYS_PER_QUERY}
+     * @return the changes found, in the order they were appended; numbers without a change are left out
+     * @throws SQLException if the change log cannot be read
+     */
+    public List<ChangeLogEntry> find(Collection<Long> seqs) throws SQLException {
+        List<ChangeLogEntry> entries = new ArrayList<>();
+        if (seqs.isEmpty()) {
+            return entries;
+        }
+        return execute(connection -> {
+            try (PreparedStatement preparedStatement = connection.prepareStatement(
+                    "SELECT seq, entity, entity_id, origin FROM catalog_change WHERE seq IN (" + placeholders(seqs.size()) + ") ORDER BY seq")) {
+                bind(preparedStatement, seqs.toArray());
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    while (resultSet.next()) {
+                        entries.add(read(resultSet));
+                    }
+                }
+            }
+            return entries;
+        });
+    }
+
+    /**
+     * Deletes the changes appended before a time, which every running instance has read long since.
+     *
+     * @param before the time
+     * @return the number of changes deleted
+     * @throws SQLException if the changes cannot be deleted
+     */
+    public int prune(Instant before) throws SQLException {
+        return execute(connection -> {
+            try (PreparedStatement preparedStatement = connection.prepareStatement(
+                    "DELETE FROM catalog_change WHERE changed_at < ?")) {
+                preparedStatement.setTimestamp(1, Timestamp.from(before));
+                return preparedStatement.executeUpdate();
+            }
+        });
+    }
+
+    private static ChangeLogEntry read(ResultSet resultSet) throws SQLException {
+        return new ChangeLogEntry(resultSet.getLong("seq"), resultSet.getString("entity"),
+                resultSet.getLong("entity_id"), resultSet.getString("origin"));
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.project.repository;
+
+import com.example.project.ConnectionPool;
+import com.example.project.catalog.Charity;
+import com.example.project.validation.CatalogValidator;
+import com.example.project.validation.ValidationReport;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * The charities of the {@code charity_organisation} table.
+ */
+public class CharityRepository extends EntityRepository<Charity> {
+    private final CatalogValidator validator = new CatalogValidator();
+
+    /**
+     * Constructs a CharityRepository.
+     *
+     * @param pool     the connections to run the statements on
+     * @param executor the threads to run the asynchronous variants on
+     */
+    public CharityRepository(ConnectionPool pool, Executor executor) {
+        super(pool, executor, "charity_organisation", "name", "type", "country", "about", "website", "email", "location");
+    }
+
+    @Override
+    protected String entity() {
+        return ChangeLogEntry.CHARITY;
+    }
+
+    @Override
+    protected Charity read(ResultSet resultSet) throws SQLException {
+        return Charity.from(resultSet);
+    }
+
+    @Override
+    protected Object[] values(Charity charity) {
+        return new Object[] {charity.getName(), charity.getType(), charity.getCountry(), charity.getAbout(),
+                charity.getWebsite(), charity.getEmail(), charity.getLocation()};
+    }
+
+    @Override
+    protected long idOf(Charity charity) {
+        return charity.getId();
+    }
+
+    @Override
+    protected Charity withId(Charity charity, long id) {
+        return charity.withId(id);
+    }
+
+    @Override
+    protected ValidationReport validate(List<Charity> charities) {
+        return validator.validateCharities(charities);
+    }
+}
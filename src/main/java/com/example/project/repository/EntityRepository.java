@@ -0,0 +1,467 @@
+package com.example.project.repository;
+
+import com.example.project.ConnectionPool;
+import com.example.project.validation.ValidationException;
+import com.example.project.validation.ValidationReport;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * A repository of the entries of a catalog table, identified by the surrogate key in its {@code id} column and
+ * versioned by its {@code version} column.
+ * <p>
+ * Subclasses name the table and its other columns and convert between entries and rows; the statements are built
+ * once from those. Bulk reads fetch many entries per statement, and bulk writes send all of their statements in
+ * batches within one transaction, so loading or saving a whole catalog takes a few round trips instead of one per
+ * entry.
+ * </p>
+ * <p>
+ * Every write appends the ids of the entries it changed to the change log of {@link ChangeLogRepository} in the same
+ * transaction, so other instances of the application learn of the change exactly when it is committed.
+ * </p>
+ *
+ * @param <T> the type of the entries
+ */
+public abstract class EntityRepository<T> extends JdbcRepository {
+    private final String table;
+    private final String selectColumns;
+    private final String insert;
+    private final String insertWithId;
+    private final String update;
+    private final String delete;
+
+    /**
+     * Constructs an EntityRepository.
+     *
+     * @param pool     the connections to run the statements on
+     * @param executor the threads to run the asynchronous variants on
+     * @param table    the name of the table
+     * @param columns  the columns of the table other than {@code id} and {@code version}, in the order of
+     *                 {@link #values(Object)}
+     */
+    protected EntityRepository(ConnectionPool pool, Executor executor, String table, String... columns) {
+        super(pool, executor);
+        String columnList = String.join(", ", columns);
+        StringBuilder assignments = new StringBuilder();
+        for (String column : columns) {
+            assignments.append(column).append(" = ?, ");
+        }
+        this.table = table;
+        this.selectColumns = "id, " + columnList;
+        this.insert = "INSERT INTO " + table + " (" + columnList + ") VALUES (" + placeholders(columns.length) + ")";
+        this.insertWithId = "INSERT INTO " + table + " (id, " + columnList + ") VALUES (" + placeholders(columns.length + 1) + ")";
+        this.update = "UPDATE " + table + " SET " + assignments + "version = version + 1 WHERE id = ?";
+        this.delete = "DELETE FROM " + table + " WHERE id = ?";
+    }
+
+    /**
+     * Gets the kind the changes of the entries are appended to the change log as.
+     *
+     * @return the kind, e.g. {@link ChangeLogEntry#SAILING}
+     */
+    protected abstract String entity();
+
+    /**
+     * Reads an entry from the current row, which has the {@code id} column and the columns of the table.
+     *
+     * @param resultSet the result set, positioned on a row
+     * @return the entry with its id
+     * @throws SQLException if a column cannot be read
+     */
+    protected abstract T read(ResultSet resultSet) throws SQLException;
+
+    /**
+     * Gets the values of the columns of an entry.
+     *
+     * @param entry the entry
+     * @return the values as strings and integers, in the order of the columns
+     */
+    protected abstract Object[] values(T entry);
+
+    /**
+     * Gets the id of an entry.
+     *
+     * @param entry the entry
+     * @return its surrogate key, 0 if it was never saved
+     */
+    protected abstract long idOf(T entry);
+
+    /**
+     * Gets a copy of an entry with an id.
+     *
+     * @param entry the entry
+     * @param id    the id
+     * @return the entry with the id
+     */
+    protected abstract T withId(T entry, long id);
+
+    /**
+     * Checks entries against the rules of the catalog before they are saved in bulk.
+     *
+     * @param entries the entries
+     * @return the violations of the entries
+     */
+    protected abstract ValidationReport validate(List<T> entries);
+
+    /**
+     * Finds an entry by its id.
+     *
+     * @param id the id
+     * @return the entry, or {@code null} if there is none with the id
+     * @throws SQLException if the entry cannot be read
+     */
+    public T findById(long id) throws SQLException {
+        Versioned<T> versioned = findVersioned(id);
+        return versioned == null ? null : versioned.getValue();
+    }
+
+    /**
+     * Finds an entry by its id, with the version of its row.
+     *
+     * @param id the id
+     * @return the entry and its version, or {@code null} if there is none with the id
+     * @throws SQLException if the entry cannot be read
+     */
+    public Versioned<T> findVersioned(long id) throws SQLException {
+        return execute(connection -> {
+            try (PreparedStatement preparedStatement = connection.prepareStatement(
+                    "SELECT " + selectColumns + ", version FROM " + table + " WHERE id = ?")) {
+                preparedStatement.setLong(1, id);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    return resultSet.next() ? new Versioned<>(read(resultSet), resultSet.getInt("version")) : null;
+                }
+            }
+        });
+    }
+
+    /**
+     * Finds every entry of the table.
+     *
+     * @return the entries
+     * @throws SQLException if the entries cannot be read
+     */
+    public List<T> findAll() throws SQLException {
+        return execute(connection -> {
+            List<T> entries = new ArrayList<>();
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT " + selectColumns + " FROM " + table)) {
+                while (resultSet.next()) {
+                    entries.add(read(resultSet));
+                }
+            }
+            return entries;
+        });
+    }
+
+    /**
+     * Finds the entries with any of the given ids, up to {@value #MAX_KEYS_PER_QUERY} per statement.
+     *
+     * @param ids the ids
+     * @return the entries found by id, in the order of the ids; ids without an entry are left out
+     * @throws SQLException if the entries cannot be read
+     */
+    public Map<Long, T> findByIds(Collection<Long> ids) throws SQLException {
+        List<Long> keys = new ArrayList<>(ids);
+        Map<Long, T> found = new LinkedHashMap<>();
+        if (keys.isEmpty()) {
+            return found;
+        }
+        Map<Long, T> byId = execute(connection -> {
+            Map<Long, T> entries = new LinkedHashMap<>();
+            for (int from = 0; from < keys.size(); from += MAX_KEYS_PER_QUERY) {
+                List<Long> chunk = keys.subList(from, Math.min(keys.size(), from + MAX_KEYS_PER_QUERY));
+                try (PreparedStatement preparedStatement = connection.prepareStatement(
+                        "SELECT " + selectColumns + " FROM " + table + " WHERE id IN (" + placeholders(chunk.size()) + ")")) {
+                    bind(preparedStatement, chunk.toArray());
+                    try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                        while (resultSet.next()) {
+                            T entry = read(resultSet);
+                            entries.put(idOf(entry), entry);
+                        }
+                    }
+                }
+            }
+            return entries;
+        });
+        for (Long id : keys) {
+            T entry = byId.get(id);
+            if (entry != null) {
+                found.put(id, entry);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Inserts a new entry.
+     *
+     * @param entry the entry; its id is ignored
+     * @return the entry with the id the database generated for it
+     * @throws SQLException if the entry cannot be inserted
+     */
+    public T insert(T entry) throws SQLException {
+        return transaction(connection -> {
+            T saved;
+            try (PreparedStatement preparedStatement = connection.prepareStatement(insert, Statement.RETURN_GENERATED_KEYS)) {
+                bind(preparedStatement, values(entry));
+                preparedStatement.executeUpdate();
+                try (ResultSet keys = preparedStatement.getGeneratedKeys()) {
+                    saved = withId(entry, keys.next() ? keys.getLong(1) : 0);
+                }
+            }
+            ChangeLogRepository.append(connection, entity(), List.of(idOf(saved)));
+            return saved;
+        });
+    }
+
+    /**
+     * Saves the values of an entry, whatever the version of its row.
+     *
+     * @param entry the entry, with its id
+     * @return {@code true} if the entry was saved, {@code false} if there is no entry with its id
+     * @throws SQLException if the entry cannot be saved
+     */
+    public boolean update(T entry) throws SQLException {
+        return transaction(connection -> {
+            try (PreparedStatement preparedStatement = connection.prepareStatement(update)) {
+                bind(preparedStatement, withKey(entry));
+                return logged(connection, idOf(entry), preparedStatement.executeUpdate());
+            }
+        });
+    }
+
+    /**
+     * Saves the values of an entry if its row still has the version it was read at.
+     *
+     * @param entry   the entry, with its id
+     * @param version the version the entry was read at
+     * @return {@code true} if the entry was saved, {@code false} if it was changed or deleted since
+     * @throws SQLException if the entry cannot be saved
+     */
+    public boolean update(T entry, int version) throws SQLException {
+        return transaction(connection -> {
+            try (PreparedStatement preparedStatement = connection.prepareStatement(update + " AND version = ?")) {
+                Object[] parameters = withKey(entry);
+                bind(preparedStatement, parameters);
+                preparedStatement.setInt(parameters.length + 1, version);
+                return logged(connection, idOf(entry), preparedStatement.executeUpdate());
+            }
+        });
+    }
+
+    /**
+     * Deletes an entry.
+     *
+     * @param id the id of the entry
+     * @return {@code true} if the entry was deleted, {@code false} if there was none with the id
+     * @throws SQLException if the entry cannot be deleted
+     */
+    public boolean delete(long id) throws SQLException {
+        return transaction(connection -> {
+            try (PreparedStatement preparedStatement = connection.prepareStatement(delete)) {
+                preparedStatement.setLong(1, id);
+                return logged(connection, id, preparedStatement.executeUpdate());
+            }
+        });
+    }
+
+    /**
+     * Saves many entries in one transaction: entries without an id are inserted, entries with one are updated, or
+     * inserted with their id if the table has no row with it. Each kind of statement is sent as one batch.
+     * The entries are first checked in parallel against the rules of the catalog, and none is saved if any breaks a
+     * rule that is an error.
+     *
+     * @param entries the entries
+     * @return the entries in the same order, those inserted without an id now with the id generated for them
+     * @throws ValidationException if any entry breaks a rule that is an error, in which case none is saved
+     * @throws SQLException if any entry cannot be saved, in which case none is
+     */
+    public List<T> upsertAll(List<T> entries) throws SQLException {
+        ValidationReport report = validate(entries);
+        if (report.hasErrors()) {
+            throw new ValidationException(report);
+        }
+        return transaction(connection -> {
+            List<T> saved = new ArrayList<>(entries);
+            List<Integer> existing = new ArrayList<>();
+            List<Integer> missing = new ArrayList<>();
+            List<Integer> added = new ArrayList<>();
+            for (int i = 0; i < entries.size(); i++) {
+                (idOf(entries.get(i)) == 0 ? added : existing).add(i);
+            }
+
+            if (!existing.isEmpty()) {
+                try (PreparedStatement preparedStatement = connection.prepareStatement(update)) {
+                    for (int i : existing) {
+                        bind(preparedStatement, withKey(entries.get(i)));
+                        preparedStatement.addBatch();
+                    }
+                    int[] counts = preparedStatement.executeBatch();
+                    for (int j = 0; j < counts.length; j++) {
+                        if (!changed(counts[j])) {
+                            missing.add(existing.get(j));
+                        }
+                    }
+                }
+            }
+            if (!missing.isEmpty()) {
+                try (PreparedStatement preparedStatement = connection.prepareStatement(insertWithId)) {
+                    for (int i : missing) {
+                        Object[] values = values(entries.get(i));
+                        Object[] parameters = new Object[values.length + 1];
+                        parameters[0] = idOf(entries.get(i));
+                        System.arraycopy(values, 0, parameters, 1, values.length);
+                        bind(preparedStatement, parameters);
+                        preparedStatement.addBatch();
+                    }
+                    preparedStatement.executeBatch();
+                }
+            }
+            if (!added.isEmpty()) {
+                try (PreparedStatement preparedStatement = connection.prepareStatement(insert, Statement.RETURN_GENERATED_KEYS)) {
+                    for (int i : added) {
+                        bind(preparedStatement, values(entries.get(i)));
+                        preparedStatement.addBatch();
+                    }
+                    preparedStatement.executeBatch();
+                    try (ResultSet keys = preparedStatement.getGeneratedKeys()) {
+                        for (int i : added) {
+                            if (keys.next()) {
+                                saved.set(i, withId(entries.get(i), keys.getLong(1)));
+                            }
+                        }
+                    }
+                }
+            }
+            List<Long> ids = new ArrayList<>();
+            for (T entry : saved) {
+                ids.add(idOf(entry));
+            }
+            ChangeLogRepository.append(connection, entity(), ids);
+            return saved;
+        });
+    }
+
+    /**
+     * Finds an entry by its id on the executor.
+     *
+     * @param id the id
+     * @return the entry, or {@code null} if there is none with the id
+     * @see #findById(long)
+     */
+    public CompletableFuture<T> findByIdAsync(long id) {
+        return async(() -> findById(id));
+    }
+
+    /**
+     * Finds an entry by its id, with the version of its row, on the executor.
+     *
+     * @param id the id
+     * @return the entry and its version, or {@code null} if there is none with the id
+     * @see #findVersioned(long)
+     */
+    public CompletableFuture<Versioned<T>> findVersionedAsync(long id) {
+        return async(() -> findVersioned(id));
+    }
+
+    /**
+     * Finds every entry of the table on the executor.
+     *
+     * @return the entries
+     * @see #findAll()
+     */
+    public CompletableFuture<List<T>> findAllAsync() {
+        return async(() -> findAll());
+    }
+
+    /**
+     * Finds the entries with any of the given ids on the executor.
+     *
+     * @param ids the ids
+     * @return the entries found by id
+     * @see #findByIds(Collection)
+     */
+    public CompletableFuture<Map<Long, T>> findByIdsAsync(Collection<Long> ids) {
+        return async(() -> findByIds(ids));
+    }
+
+    /**
+     * Inserts a new entry on the executor.
+     *
+     * @param entry the entry
+     * @return the entry with its generated id
+     * @see #insert(Object)
+     */
+    public CompletableFuture<T> insertAsync(T entry) {
+        return async(() -> insert(entry));
+    }
+
+    /**
+     * Saves the values of an entry read at a version on the executor.
+     *
+     * @param entry   the entry, with its id
+     * @param version the version the entry was read at
+     * @return whether the entry was saved
+     * @see #update(Object, int)
+     */
+    public CompletableFuture<Boolean> updateAsync(T entry, int version) {
+        return async(() -> update(entry, version));
+    }
+
+    /**
+     * Deletes an entry on the executor.
+     *
+     * @param id the id of the entry
+     * @return whether the entry was deleted
+     * @see #delete(long)
+     */
+    public CompletableFuture<Boolean> deleteAsync(long id) {
+        return async(() -> delete(id));
+    }
+
+    /**
+     * Saves many entries in one transaction on the executor.
+     *
+     * @param entries the entries
+     * @return the saved entries with their ids
+     * @see #upsertAll(List)
+     */
+    public CompletableFuture<List<T>> upsertAllAsync(List<T> entries) {
+        return async(() -> upsertAll(entries));
+    }
+
+    /**
+     * Appends the change of an entry to the change log if a statement changed its row.
+     *
+     * @return whether the row was changed
+     */
+    private boolean logged(Connection connection, long id, int count) throws SQLException {
+        if (count == 0) {
+            return false;
+        }
+        ChangeLogRepository.append(connection, entity(), List.of(id));
+        return true;
+    }
+
+    /**
+     * Gets the values of an entry followed by its id, the parameters of the update statement.
+     */
+    private Object[] withKey(T entry) {
+        Object[] values = values(entry);
+        Object[] parameters = new Object[values.length + 1];
+        System.arraycopy(values, 0, parameters, 0, values.length);
+        parameters[values.length] = idOf(entry);
+        return parameters;
+    }
+}
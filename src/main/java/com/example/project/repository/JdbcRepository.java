@@ -0,0 +1,155 @@
+package com.example.project.repository;
+
+import com.example.project.ConnectionPool;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * The base of the repositories: runs their statements on connections of a {@link ConnectionPool}, on the calling
+ * thread or asynchronously on an executor.
+ * <p>
+ * Every statement of the application's tables goes through a repository, so the connections they use, the threads
+ * they run on and the time they take are decided here rather than in each page.
+ * </p>
+ */
+public abstract class JdbcRepository {
+    /**
+     * Work done with a connection of the pool.
+     *
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    protected interface Work<T> {
+        /**
+         * Does the work.
+         *
+         * @param connection a connection in auto-commit mode, given back to the pool afterwards
+         * @return the result
+         * @throws SQLException if a statement fails
+         */
+        T run(Connection connection) throws SQLException;
+    }
+
+    /** How many keys one {@code IN} list of a bulk read holds at most. */
+    protected static final int MAX_KEYS_PER_QUERY = 500;
+
+    private final ConnectionPool pool;
+    private final Executor executor;
+
+    /**
+     * Constructs a JdbcRepository.
+     *
+     * @param pool     the connections to run the statements on
+     * @param executor the threads to run the asynchronous variants on
+     */
+    protected JdbcRepository(ConnectionPool pool, Executor executor) {
+        this.pool = pool;
+        this.executor = executor;
+    }
+
+    /**
+     * Runs work on a connection of the pool, on the calling thread.
+     *
+     * @param work the work
+     * @param <T>  the type of the result
+     * @return the result of the work
+     * @throws SQLException if no connection is free in time or a statement fails
+     */
+    protected <T> T execute(Work<T> work) throws SQLException {
+        Connection connection = pool.acquire();
+        try {
+            return work.run(connection);
+        } finally {
+            pool.release(connection);
+        }
+    }
+
+    /**
+     * Runs work in one transaction on a connection of the pool, on the calling thread. The transaction is rolled back
+     * if the work fails.
+     *
+     * @param work the work
+     * @param <T>  the type of the result
+     * @return the result of the work
+     * @throws SQLException if no connection is free in time or a statement fails
+     */
+    protected <T> T transaction(Work<T> work) throws SQLException {
+        return execute(connection -> {
+            try {
+                connection.setAutoCommit(false);
+                T result = work.run(connection);
+                connection.commit();
+                ChangeLogRepository.committed();
+                return result;
+            } finally {
+                ChangeLogRepository.discarded();
+            }
+        });
+    }
+
+    /**
+     * Runs a synchronous operation of the repository on the executor.
+     *
+     * @param operation the operation
+     * @param <T>       the type of the result
+     * @return the result of the operation, completed exceptionally with the {@link SQLException} as cause if it fails
+     */
+    protected <T> CompletableFuture<T> async(Callable<T> operation) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return operation.call();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Sets the parameters of a statement from strings, integers and longs, starting at the first.
+     *
+     * @param preparedStatement the statement
+     * @param parameters        the values of its parameters, in order
+     * @throws SQLException if a parameter cannot be set
+     */
+    protected static void bind(PreparedStatement preparedStatement, Object... parameters) throws SQLException {
+        for (int i = 0; i < parameters.length; i++) {
+            if (parameters[i] instanceof Integer) {
+                preparedStatement.setInt(i + 1, (Integer) parameters[i]);
+            } else if (parameters[i] instanceof Long) {
+                preparedStatement.setLong(i + 1, (Long) parameters[i]);
+            } else {
+                preparedStatement.setString(i + 1, (String) parameters[i]);
+            }
+        }
+    }
+
+    /**
+     * Builds the placeholders of an {@code IN} list.
+     *
+     * @param count the number of values
+     * @return e.g. {@code "?, ?, ?"} for three
+     */
+    protected static String placeholders(int count) {
+        StringBuilder placeholders = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            placeholders.append(i == 0 ? "?" : ", ?");
+        }
+        return placeholders.toString();
+    }
+
+    /**
+     * Checks the update count of one statement of a batch.
+     *
+     * @param count the count reported by the driver
+     * @return {@code true} if the statement changed a row, or the driver does not report counts of batches
+     */
+    protected static boolean changed(int count) {
+        return count > 0 || count == PreparedStatement.SUCCESS_NO_INFO;
+    }
+}
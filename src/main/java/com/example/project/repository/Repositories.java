@@ -0,0 +1,95 @@
+package com.example.project.repository;
+
+import com.example.project.ConnectionPool;
+import com.example.project.DatabaseManager;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The repositories of the application, sharing one pool of connections and one executor for their asynchronous
+ * variants.
+ * <p>
+ * Like {@link DatabaseManager}, the shared instance is a singleton, used by the pages. The API server builds its own
+ * on the pool and the threads it already has.
+ * </p>
+ */
+public class Repositories {
+    /** The number of connections of the shared instance: a few pages and exports run statements at once at most. */
+    public static final int POOL_SIZE = 4;
+
+    private static Repositories instance;
+
+    private final SailingRepository sailings;
+    private final CharityRepository charities;
+    private final UserRepository users;
+    private final ChangeLogRepository changeLog;
+
+    /**
+     * Constructs the repositories.
+     *
+     * @param pool     the connections to run the statements on
+     * @param executor the threads to run the asynchronous variants on
+     */
+    public Repositories(ConnectionPool pool, Executor executor) {
+        this.sailings = new SailingRepository(pool, executor);
+        this.charities = new CharityRepository(pool, executor);
+        this.users = new UserRepository(pool, executor);
+        this.changeLog = new ChangeLogRepository(pool, executor);
+    }
+
+    /**
+     * Gets the repositories of the application, connecting to the database of the {@link DatabaseManager} on first
+     * use.
+     *
+     * @return the shared repositories
+     */
+    public static synchronized Repositories getInstance() {
+        if (instance == null) {
+            ExecutorService executor = Executors.newFixedThreadPool(POOL_SIZE, runnable -> {
+                Thread thread = new Thread(runnable, "repository");
+                thread.setDaemon(true);
+                return thread;
+            });
+            instance = new Repositories(new ConnectionPool(DatabaseManager.getInstance(), POOL_SIZE, 10_000), executor);
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the repository of sailings.
+     *
+     * @return the sailings
+     */
+    public SailingRepository sailings() {
+        return sailings;
+    }
+
+    /**
+     * Gets the repository of charities.
+     *
+     * @return the charities
+     */
+    public CharityRepository charities() {
+        return charities;
+    }
+
+    /**
+     * Gets the repository of registered users.
+     *
+     * @return the users
+     */
+    public UserRepository users() {
+        return users;
+    }
+
+    /**
+     * Gets the change log the writes of the other repositories append to.
+     *
+     * @return the change log
+     */
+    public ChangeLogRepository changeLog() {
+        return changeLog;
+    }
+}
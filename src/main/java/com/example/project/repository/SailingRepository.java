@@ -0,0 +1,58 @@
+package com.example.project.repository;
+
+import com.example.project.ConnectionPool;
+import com.example.project.catalog.Sailing;
+import com.example.project.validation.CatalogValidator;
+import com.example.project.validation.ValidationReport;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * The sailings of the {@code cruise_destination} table.
+ */
+public class SailingRepository extends EntityRepository<Sailing> {
+    /**
+     * Constructs a SailingRepository.
+     *
+     * @param pool     the connections to run the statements on
+     * @param executor the threads to run the asynchronous variants on
+     */
+    public SailingRepository(ConnectionPool pool, Executor executor) {
+        super(pool, executor, "cruise_destination", "country_from", "duration", "place", "cruise_ship", "route", "price", "date");
+    }
+
+    @Override
+    protected String entity() {
+        return ChangeLogEntry.SAILING;
+    }
+
+    @Override
+    protected Sailing read(ResultSet resultSet) throws SQLException {
+        return Sailing.from(resultSet);
+    }
+
+    @Override
+    protected Object[] values(Sailing sailing) {
+        return new Object[] {sailing.getCountryFrom(), sailing.getDuration(), sailing.getPlace(), sailing.getCruiseShip(),
+                sailing.getRoute(), sailing.getPrice(), sailing.getDate()};
+    }
+
+    @Override
+    protected long idOf(Sailing sailing) {
+        return sailing.getId();
+    }
+
+    @Override
+    protected Sailing withId(Sailing sailing, long id) {
+        return sailing.withId(id);
+    }
+
+    @Override
+    protected ValidationReport validate(List<Sailing> sailings) {
+        // Checked against the ports the sailings themselves start from, as a new import may add ports
+        return CatalogValidator.forSailings(sailings).validateSailings(sailings);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.project.repository;
+
+/**
+ * Immutable value object for one registered user, i.e. one row of the {@code REGISTRATION} table.
+ */
+public class User {
+    private final String username;
+    private final String email;
+    private final String password;
+
+    /**
+     * Constructs a User.
+     *
+     * @param username the name shown for the user
+     * @param email    the email the user logs in with, unique among users
+     * @param password the password of the user
+     */
+    public User(String username, String email, String password) {
+        this.username = username;
+        this.email = email;
+        this.password = password;
+    }
+
+    /**
+     * Gets the name of the user.
+     *
+     * @return the username
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Gets the email of the user.
+     *
+     * @return the email
+     */
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * Gets the password of the user.
+     *
+     * @return the password
+     */
+    public String getPassword() {
+        return password;
+    }
+
+    /**
+     * Checks a password against the one of the user.
+     *
+     * @param password the password entered
+     * @return {@code true} if it is the password of the user
+     */
+    public boolean hasPassword(String password) {
+        // You should use a proper password hashing library to compare hashes
+        return this.password != null && this.password.equals(password);
+    }
+
+    /**
+     * Checks whether the user is an admin, who may change the catalog.
+     *
+     * @return {@code true} for emails at {@code admin.com}
+     */
+    public boolean isAdmin() {
+        return email != null && email.endsWith("@admin.com");
+    }
+}
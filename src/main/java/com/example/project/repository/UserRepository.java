@@ -0,0 +1,177 @@
+package com.example.project.repository;
+
+import com.example.project.ConnectionPool;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * The registered users of the {@code REGISTRATION} table, identified by their email.
+ */
+public class UserRepository extends JdbcRepository {
+    private static final String SELECT = "SELECT username, email, password FROM REGISTRATION WHERE email";
+
+    /**
+     * Constructs a UserRepository.
+     *
+     * @param pool     the connections to run the statements on
+     * @param executor the threads to run the asynchronous variants on
+     */
+    public UserRepository(ConnectionPool pool, Executor executor) {
+        super(pool, executor);
+    }
+
+    /**
+     * Finds a user by email.
+     *
+     * @param email the email
+     * @return the user, or {@code null} if nobody registered with the email
+     * @throws SQLException if the user cannot be read
+     */
+    public User findByEmail(String email) throws SQLException {
+        return execute(connection -> {
+            try (PreparedStatement preparedStatement = connection.prepareStatement(SELECT + " = ?")) {
+                preparedStatement.setString(1, email);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    return resultSet.next() ? read(resultSet) : null;
+                }
+            }
+        });
+    }
+
+    /**
+     * Finds the users with any of the given emails, up to {@value #MAX_KEYS_PER_QUERY} per statement.
+     *
+     * @param emails the emails
+     * @return the users found by email; emails nobody registered with are left out
+     * @throws SQLException if the users cannot be read
+     */
+    public Map<String, User> findByEmails(Collection<String> emails) throws SQLException {
+        List<String> keys = new ArrayList<>(emails);
+        return execute(connection -> {
+            Map<String, User> users = new LinkedHashMap<>();
+            for (int from = 0; from < keys.size(); from += MAX_KEYS_PER_QUERY) {
+                List<String> chunk = keys.subList(from, Math.min(keys.size(), from + MAX_KEYS_PER_QUERY));
+                try (PreparedStatement preparedStatement = connection.prepareStatement(SELECT + " IN (" + placeholders(chunk.size()) + ")")) {
+                    bind(preparedStatement, chunk.toArray());
+                    try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                        while (resultSet.next()) {
+                            User user = read(resultSet);
+                            users.put(user.getEmail(), user);
+                        }
+                    }
+                }
+            }
+            return users;
+        });
+    }
+
+    /**
+     * Checks whether anybody registered with an email.
+     *
+     * @param email the email
+     * @return {@code true} if the email is taken
+     * @throws SQLException if the users cannot be read
+     */
+    public boolean exists(String email) throws SQLException {
+        return findByEmail(email) != null;
+    }
+
+    /**
+     * Registers a new user.
+     *
+     * @param user the user
+     * @return {@code true} if the user was registered, {@code false} if the email is already taken
+     * @throws SQLException if the user cannot be registered
+     */
+    public boolean register(User user) throws SQLException {
+        return execute(connection -> {
+            try (PreparedStatement preparedStatement = connection.prepareStatement("INSERT INTO REGISTRATION (username, email, password) VALUES (?, ?, ?)")) {
+                bind(preparedStatement, user.getUsername(), user.getEmail(), user.getPassword());
+                return preparedStatement.executeUpdate() > 0;
+            } catch (SQLIntegrityConstraintViolationException e) {
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Registers many users in one transaction with one batch of inserts.
+     *
+     * @param users the users
+     * @return the number of users registered
+     * @throws SQLException if any user cannot be registered, e.g. because the email is taken, in which case none is
+     */
+    public int registerAll(List<User> users) throws SQLException {
+        return transaction(connection -> {
+            try (PreparedStatement preparedStatement = connection.prepareStatement("INSERT INTO REGISTRATION (username, email, password) VALUES (?, ?, ?)")) {
+                for (User user : users) {
+                    bind(preparedStatement, user.getUsername(), user.getEmail(), user.getPassword());
+                    preparedStatement.addBatch();
+                }
+                int registered = 0;
+                for (int count : preparedStatement.executeBatch()) {
+                    registered += changed(count) ? 1 : 0;
+                }
+                return registered;
+            }
+        });
+    }
+
+    /**
+     * Finds a user by email on the executor.
+     *
+     * @param email the email
+     * @return the user, or {@code null} if nobody registered with the email
+     * @see #findByEmail(String)
+     */
+    public CompletableFuture<User> findByEmailAsync(String email) {
+        return async(() -> findByEmail(email));
+    }
+
+    /**
+     * Finds the users with any of the given emails on the executor.
+     *
+     * @param emails the emails
+     * @return the users found by email
+     * @see #findByEmails(Collection)
+     */
+    public CompletableFuture<Map<String, User>> findByEmailsAsync(Collection<String> emails) {
+        return async(() -> findByEmails(emails));
+    }
+
+    /**
+     * Registers a new user on the executor.
+     *
+     * @param user the user
+     * @return whether the user was registered
+     * @see #register(User)
+     */
+    public CompletableFuture<Boolean> registerAsync(User user) {
+        return async(() -> register(user));
+    }
+
+    /**
+     * Registers many users in one transaction on the executor.
+     *
+     * @param users the users
+     * @return the number of users registered
+     * @see #registerAll(List)
+     */
+    public CompletableFuture<Integer> registerAllAsync(List<User> users) {
+        return async(() -> registerAll(users));
+    }
+
+    private static User read(ResultSet resultSet) throws SQLException {
+        return new User(resultSet.getString("username"), resultSet.getString("email"), resultSet.getString("password"));
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.project.repository;
+
+/**
+ * An entry read together with the version of its row.
+ * <p>
+ * Saving a change with {@link EntityRepository#update(Object, int)} only succeeds while the row still has this
+ * version, so a change saved by someone else after the entry was read is detected instead of being overwritten.
+ * </p>
+ *
+ * @param <T> the type of the entry
+ */
+public class Versioned<T> {
+    private final T value;
+    private final int version;
+
+    /**
+     * Constructs a Versioned entry.
+     *
+     * @param value   the entry
+     * @param version the value of the {@code version} column when the row was read
+     */
+    public Versioned(T value, int version) {
+        this.value = value;
+        this.version = version;
+    }
+
+    /**
+     * Gets the entry.
+     *
+     * @return the entry as read
+     */
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * Gets the version of the row when it was read.
+     *
+     * @return the version
+     */
+    public int getVersion() {
+        return version;
+    }
+}
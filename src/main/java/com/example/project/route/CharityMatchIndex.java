@@ -0,0 +1,420 @@
+package com.example.project.route;
+
+import com.example.project.catalog.CatalogChange;
+import com.example.project.catalog.Charity;
+import com.example.project.catalog.Sailing;
+import com.example.project.catalog.VersionedCatalog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Precomputed join between the sailings in {@code cruise_destination} and the charities in
+ * {@code charity_organisation}, so a cruise card can list the charities along its route without querying or
+ * matching anything while it is drawn.
+ * <p>
+ * A sailing is described by its country of departure and every name of the ports on its route, a charity by its
+ * country and the parts of its address, e.g. "Kuala Lumpur" in "Jalan Ampang, 50450, Kuala Lumpur.". Both are
+ * normalised with {@link RouteParser#key(String)}, and a charity matches a sailing when they share a term. Each side
+ * keeps an inverted index from term to entries, so adding, updating or removing one sailing or charity only visits
+ * the entries sharing one of its terms rather than joining the two tables again. The results are kept per sailing id
+ * and per charity id as unmodifiable lists, which the read methods return as they are.
+ * </p>
+ * <p>
+ * Like {@link RouteIndex}, this class is a singleton built from the current version of the {@link VersionedCatalog}
+ * on first use, which then applies every change of a sailing or a charity the catalog publishes.
+ * </p>
+ */
+public class CharityMatchIndex {
+    private static CharityMatchIndex instance;
+
+    /** Guards all of the maps below: lookups share the read lock, changes take the write lock. */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Sailings by id. */
+    private final Map<Long, Sailing> sailingsById = new HashMap<>();
+
+    /** Charities by id. */
+    private final Map<Long, Charity> charitiesById = new HashMap<>();
+
+    /** Match term to the sailings described by it. */
+    private final Map<String, Set<Sailing>> sailingsByTerm = new HashMap<>();
+
+    /** Match term to the charities described by it. */
+    private final Map<String, Set<Charity>> charitiesByTerm = new HashMap<>();
+
+    /** The terms of every indexed sailing and charity, kept so that they can be unindexed after a change. */
+    private final Map<Object, Set<String>> termsOf = new IdentityHashMap<>();
+
+    /** Each sailing to the charities along its route. */
+    private final Map<Sailing, Set<Charity>> charitiesAlong = new IdentityHashMap<>();
+
+    /** Each charity to the sailings passing by it. */
+    private final Map<Charity, Set<Sailing>> sailingsPassing = new IdentityHashMap<>();
+
+    /** The published join by sailing id, rebuilt only for the sailings whose matches changed. */
+    private final Map<Long, List<Charity>> charitiesBySailing = new HashMap<>();
+
+    /** The published join by charity id, rebuilt only for the charities whose matches changed. */
+    private final Map<Long, List<Sailing>> sailingsByCharity = new HashMap<>();
+
+    /**
+     * Constructs an empty index. Use {@link #getInstance()} for the index shared by the application.
+     */
+    public CharityMatchIndex() {}
+
+    /**
+     * Gets the singleton instance of CharityMatchIndex, building it from the catalog on first use.
+     *
+     * @return the shared charity match index
+     */
+    public static synchronized CharityMatchIndex getInstance() {
+        if (instance == null) {
+            CharityMatchIndex index = new CharityMatchIndex();
+            VersionedCatalog.getInstance().subscribe(version -> index.load(version.getSailings(), version.getCharities()),
+                    index::applySailing, index::applyCharity);
+            instance = index;
+        }
+        return instance;
+    }
+
+    /**
+     * Rebuilds the join from the given sailings and charities.
+     *
+     * @param sailings  all of the sailings to match
+     * @param charities all of the charities to match
+     */
+    public void load(List<Sailing> sailings, List<Charity> charities) {
+        lock.writeLock().lock();
+        try {
+            sailingsById.clear();
+            charitiesById.clear();
+            sailingsByTerm.clear();
+            charitiesByTerm.clear();
+            termsOf.clear();
+            charitiesAlong.clear();
+            sailingsPassing.clear();
+            charitiesBySailing.clear();
+            sailingsByCharity.clear();
+
+            Set<Long> sailingIds = new LinkedHashSet<>();
+            Set<Long> charityIds = new LinkedHashSet<>();
+            for (Charity charity : charities) {
+                unindexCharity(charity.getId(), sailingIds, charityIds);
+                indexCharity(charity, sailingIds, charityIds);
+            }
+            for (Sailing sailing : sailings) {
+                unindexSailing(sailing.getId(), sailingIds, charityIds);
+                indexSailing(sailing, sailingIds, charityIds);
+            }
+            publish(sailingIds, charityIds);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a change of a sailing of the catalog to the join.
+     *
+     * @param change the change of a sailing
+     */
+    public void applySailing(CatalogChange<Sailing> change) {
+        if (change.getKind() == CatalogChange.Kind.REMOVED) {
+            removeSailing(change.getId());
+        } else {
+            updateSailing(change.getAfter());
+        }
+    }
+
+    /**
+     * Applies a change of a charity of the catalog to the join.
+     *
+     * @param change the change of a charity
+     */
+    public void applyCharity(CatalogChange<Charity> change) {
+        if (change.getKind() == CatalogChange.Kind.REMOVED) {
+            removeCharity(change.getId());
+        } else {
+            updateCharity(change.getAfter());
+        }
+    }
+
+    /**
+     * Adds a newly inserted sailing to the join.
+     *
+     * @param sailing the sailing that was added
+     */
+    public void addSailing(Sailing sailing) {
+        updateSailing(sailing);
+    }
+
+    /**
+     * Replaces the sailing with the id of an updated sailing, or adds it if it is not indexed.
+     *
+     * @param sailing the new values of the sailing
+     */
+    public void updateSailing(Sailing sailing) {
+        lock.writeLock().lock();
+        try {
+            Set<Long> sailingIds = new LinkedHashSet<>();
+            Set<Long> charityIds = new LinkedHashSet<>();
+            unindexSailing(sailing.getId(), sailingIds, charityIds);
+            indexSailing(sailing, sailingIds, charityIds);
+            publish(sailingIds, charityIds);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a sailing from the join.
+     *
+     * @param id the id of the deleted sailing
+     */
+    public void removeSailing(long id) {
+        lock.writeLock().lock();
+        try {
+            Set<Long> sailingIds = new LinkedHashSet<>();
+            Set<Long> charityIds = new LinkedHashSet<>();
+            unindexSailing(id, sailingIds, charityIds);
+            publish(sailingIds, charityIds);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a newly inserted charity to the join.
+     *
+     * @param charity the charity that was added
+     */
+    public void addCharity(Charity charity) {
+        updateCharity(charity);
+    }
+
+    /**
+     * Replaces the charity with the id of an updated charity, or adds it if it is not indexed.
+     *
+     * @param charity the new values of the charity
+     */
+    public void updateCharity(Charity charity) {
+        lock.writeLock().lock();
+        try {
+            Set<Long> sailingIds = new LinkedHashSet<>();
+            Set<Long> charityIds = new LinkedHashSet<>();
+            unindexCharity(charity.getId(), sailingIds, charityIds);
+            indexCharity(charity, sailingIds, charityIds);
+            publish(sailingIds, charityIds);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a charity from the join.
+     *
+     * @param id the id of the deleted charity
+     */
+    public void removeCharity(long id) {
+        lock.writeLock().lock();
+        try {
+            Set<Long> sailingIds = new LinkedHashSet<>();
+            Set<Long> charityIds = new LinkedHashSet<>();
+            unindexCharity(id, sailingIds, charityIds);
+            publish(sailingIds, charityIds);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the charities in the countries and ports along the route of a sailing.
+     *
+     * @param sailingId the id of the sailing
+     * @return the matching charities, unmodifiable and possibly empty
+     */
+    public List<Charity> charitiesAlong(long sailingId) {
+        lock.readLock().lock();
+        try {
+            return charitiesBySailing.getOrDefault(sailingId, Collections.emptyList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the sailings departing from the country of, or calling at the town of, a charity.
+     *
+     * @param charityId the id of the charity
+     * @return the matching sailings, unmodifiable and possibly empty
+     */
+    public List<Sailing> sailingsPassing(long charityId) {
+        lock.readLock().lock();
+        try {
+            return sailingsByCharity.getOrDefault(charityId, Collections.emptyList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the terms a sailing is matched by: its country of departure and every name of every port on its route.
+     *
+     * @param sailing the sailing
+     * @return the match terms of the sailing
+     */
+    static Set<String> termsOf(Sailing sailing) {
+        Set<String> terms = new LinkedHashSet<>();
+        addTerm(terms, sailing.getCountryFrom());
+        for (String port : RouteParser.parse(sailing.getRoute())) {
+            terms.addAll(RouteParser.aliases(port));
+        }
+        return terms;
+    }
+
+    /**
+     * Gets the terms a charity is matched by: its country and each comma separated part of its address, without
+     * postcodes and house numbers.
+     *
+     * @param charity the charity
+     * @return the match terms of the charity
+     */
+    static Set<String> termsOf(Charity charity) {
+        Set<String> terms = new LinkedHashSet<>();
+        addTerm(terms, charity.getCountry());
+        if (charity.getLocation() != null) {
+            for (String part : charity.getLocation().split(",")) {
+                addTerm(terms, part.replaceAll("\\b\\d[\\w.-]*", "").replaceAll("^[\\s.]+|[\\s.]+$", ""));
+            }
+        }
+        return terms;
+    }
+
+    private static void addTerm(Set<String> terms, String text) {
+        String term = RouteParser.key(text);
+        if (!term.isEmpty()) {
+            terms.add(term);
+        }
+    }
+
+    /**
+     * Adds a sailing and joins it with the charities sharing one of its terms. Must be called with the write lock
+     * held.
+     */
+    private void indexSailing(Sailing sailing, Set<Long> sailingIds, Set<Long> charityIds) {
+        Set<String> terms = termsOf(sailing);
+        Set<Charity> matches = new LinkedHashSet<>();
+        for (String term : terms) {
+            sailingsByTerm.computeIfAbsent(term, k -> new LinkedHashSet<>()).add(sailing);
+            matches.addAll(charitiesByTerm.getOrDefault(term, Collections.emptySet()));
+        }
+        sailingsById.put(sailing.getId(), sailing);
+        termsOf.put(sailing, terms);
+        charitiesAlong.put(sailing, matches);
+        for (Charity charity : matches) {
+            sailingsPassing.get(charity).add(sailing);
+            charityIds.add(charity.getId());
+        }
+        sailingIds.add(sailing.getId());
+    }
+
+    /**
+     * Adds a charity and joins it with the sailings sharing one of its terms. Must be called with the write lock
+     * held.
+     */
+    private void indexCharity(Charity charity, Set<Long> sailingIds, Set<Long> charityIds) {
+        Set<String> terms = termsOf(charity);
+        Set<Sailing> matches = new LinkedHashSet<>();
+        for (String term : terms) {
+            charitiesByTerm.computeIfAbsent(term, k -> new LinkedHashSet<>()).add(charity);
+            matches.addAll(sailingsByTerm.getOrDefault(term, Collections.emptySet()));
+        }
+        charitiesById.put(charity.getId(), charity);
+        termsOf.put(charity, terms);
+        sailingsPassing.put(charity, matches);
+        for (Sailing sailing : matches) {
+            charitiesAlong.get(sailing).add(charity);
+            sailingIds.add(sailing.getId());
+        }
+        charityIds.add(charity.getId());
+    }
+
+    /**
+     * Removes a sailing and its matches, if it is indexed. Must be called with the write lock held.
+     */
+    private void unindexSailing(long id, Set<Long> sailingIds, Set<Long> charityIds) {
+        Sailing removed = sailingsById.remove(id);
+        if (removed == null) {
+            return;
+        }
+        for (String term : termsOf.remove(removed)) {
+            removeFrom(sailingsByTerm, term, removed);
+        }
+        for (Charity charity : charitiesAlong.remove(removed)) {
+            sailingsPassing.get(charity).remove(removed);
+            charityIds.add(charity.getId());
+        }
+        sailingIds.add(id);
+    }
+
+    /**
+     * Removes a charity and its matches, if it is indexed. Must be called with the write lock held.
+     */
+    private void unindexCharity(long id, Set<Long> sailingIds, Set<Long> charityIds) {
+        Charity removed = charitiesById.remove(id);
+        if (removed == null) {
+            return;
+        }
+        for (String term : termsOf.remove(removed)) {
+            removeFrom(charitiesByTerm, term, removed);
+        }
+        for (Sailing sailing : sailingsPassing.remove(removed)) {
+            charitiesAlong.get(sailing).remove(removed);
+            sailingIds.add(sailing.getId());
+        }
+        charityIds.add(id);
+    }
+
+    /**
+     * Removes an entry from one bucket of an inverted index, dropping the bucket once it is empty.
+     */
+    private static <T> void removeFrom(Map<String, Set<T>> index, String term, T entry) {
+        Set<T> entries = index.get(term);
+        if (entries != null) {
+            entries.remove(entry);
+            if (entries.isEmpty()) {
+                index.remove(term);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the published lists of the given sailings and charities. Must be called with the write lock held.
+     */
+    private void publish(Set<Long> sailingIds, Set<Long> charityIds) {
+        for (long id : sailingIds) {
+            Sailing sailing = sailingsById.get(id);
+            if (sailing == null) {
+                charitiesBySailing.remove(id);
+            } else {
+                charitiesBySailing.put(id, List.copyOf(charitiesAlong.get(sailing)));
+            }
+        }
+        for (long id : charityIds) {
+            Charity charity = charitiesById.get(id);
+            if (charity == null) {
+                sailingsByCharity.remove(id);
+            } else {
+                sailingsByCharity.put(id, List.copyOf(sailingsPassing.get(charity)));
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.project.route;
+
+import com.example.project.catalog.Sailing;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A trip made of one or more sailings taken one after another, as found by {@link ItineraryPlanner}.
+ */
+public class Itinerary {
+
+    /**
+     * One sailing of an itinerary, boarded at its port of departure and left at a later port on its route.
+     */
+    public static class Leg {
+        private final Sailing sailing;
+        private final String from;
+        private final String to;
+        private final LocalDate departure;
+        private final LocalDate arrival;
+
+        /**
+         * Constructs a Leg.
+         *
+         * @param sailing   the sailing taken
+         * @param from      the port the sailing is boarded at
+         * @param to        the port the sailing is left at
+         * @param departure the date the sailing departs
+         * @param arrival   the date the sailing arrives
+         */
+        public Leg(Sailing sailing, String from, String to, LocalDate departure, LocalDate arrival) {
+            this.sailing = sailing;
+            this.from = from;
+            this.to = to;
+            this.departure = departure;
+            this.arrival = arrival;
+        }
+
+        /**
+         * Gets the sailing taken on this leg.
+         *
+         * @return the sailing
+         */
+        public Sailing getSailing() {
+            return sailing;
+        }
+
+        /**
+         * Gets the port the sailing is boarded at.
+         *
+         * @return the port of departure
+         */
+        public String getFrom() {
+            return from;
+        }
+
+        /**
+         * Gets the port the sailing is left at.
+         *
+         * @return the port of arrival
+         */
+        public String getTo() {
+            return to;
+        }
+
+        /**
+         * Gets the date the sailing departs.
+         *
+         * @return the departure date
+         */
+        public LocalDate getDeparture() {
+            return departure;
+        }
+
+        /**
+         * Gets the date the sailing arrives.
+         *
+         * @return the arrival date
+         */
+        public LocalDate getArrival() {
+            return arrival;
+        }
+
+        @Override
+        public String toString() {
+            return from + " -> " + to + " on " + sailing.getPlace() + " (" + departure + " - " + arrival + ", RM" + sailing.getPrice() + ")";
+        }
+    }
+
+    private final List<Leg> legs;
+
+    /**
+     * Constructs an Itinerary from its legs in travel order.
+     *
+     * @param legs the legs of the trip, at least one
+     */
+    public Itinerary(List<Leg> legs) {
+        this.legs = Collections.unmodifiableList(legs);
+    }
+
+    /**
+     * Gets the legs of the trip in travel order.
+     *
+     * @return the legs
+     */
+    public List<Leg> getLegs() {
+        return legs;
+    }
+
+    /**
+     * Gets the sum of the prices of every sailing of the trip.
+     *
+     * @return the total price
+     */
+    public int getTotalPrice() {
+        int total = 0;
+        for (Leg leg : legs) {
+            total += leg.getSailing().getPrice();
+        }
+        return total;
+    }
+
+    /**
+     * Gets the number of nights from the first departure to the final arrival, including nights spent in port between legs.
+     *
+     * @return the total number of nights
+     */
+    public long getTotalNights() {
+        return ChronoUnit.DAYS.between(getDeparture(), getArrival());
+    }
+
+    /**
+     * Gets the date the first sailing departs.
+     *
+     * @return the departure date
+     */
+    public LocalDate getDeparture() {
+        return legs.get(0).getDeparture();
+    }
+
+    /**
+     * Gets the date the last sailing arrives.
+     *
+     * @return the arrival date
+     */
+    public LocalDate getArrival() {
+        return legs.get(legs.size() - 1).getArrival();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Leg leg : legs) {
+            builder.append(leg).append('\n');
+        }
+        return builder.append("Total: RM").append(getTotalPrice()).append(", ").append(getTotalNights()).append(" nights").toString();
+    }
+}
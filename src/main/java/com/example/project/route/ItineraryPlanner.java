@@ -0,0 +1,337 @@
+package com.example.project.route;
+
+import com.example.project.catalog.Sailing;
+import com.example.project.catalog.SailingDates;
+import com.example.project.catalog.VersionedCatalog;
+import com.example.project.repository.Repositories;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+
+/**
+ * Plans multi-leg trips by chaining sailings whose ports and dates line up, for example
+ * "One Way Singapore To Port Klang (SUN)" followed by "One Way Port Klang To Singapore (THU)".
+ * <p>
+ * A sailing is boarded at the first port of its route and may be left at any later port on it. The planner runs a
+ * shortest-path search (Dijkstra) over the port graph of the {@link RouteIndex}, where a state is a port and the date
+ * the traveller arrives there, and the cost is either the total price or the total nights of the trip.
+ * To keep answers fast on large catalogs the search is pruned in three ways:
+ * </p>
+ * <ul>
+ *     <li>departures from each port are kept sorted by date, so only sailings leaving on or after the arrival date
+ *     and within the allowed layover are examined (binary search, then a bounded scan);</li>
+ *     <li>a state is dropped when the same port was already reached at least as cheaply, no later and with no more legs;</li>
+ *     <li>trips are limited to a maximum number of legs.</li>
+ * </ul>
+ * <p>
+ * The whole search runs under the read lock of the route index, so a trip never mixes sailings from before and after a
+ * change; a change waits for the search, which takes milliseconds. The planner has no UI dependencies, so it is used
+ * both by the admin page and headlessly through {@link #main(String[])}.
+ * </p>
+ */
+public class ItineraryPlanner {
+
+    /**
+     * What the planner minimises.
+     */
+    public enum Criterion {
+        /** The sum of the prices of the sailings. */
+        PRICE,
+        /** The number of nights from the first departure to the final arrival, including layovers. */
+        NIGHTS
+    }
+
+    /** The default maximum number of sailings in a trip. */
+    public static final int DEFAULT_MAX_LEGS = 4;
+
+    /** The default maximum number of days spent in port between two sailings. */
+    public static final int DEFAULT_MAX_LAYOVER_DAYS = 14;
+
+    /** How far after the earliest date the first sailing may depart, in days. */
+    public static final int DEFAULT_SEARCH_WINDOW_DAYS = 90;
+
+    /**
+     * A sailing that can be boarded at a port, with its departure date and the ports it can be left at, each with the
+     * date the sailing arrives there.
+     */
+    private static class Departure {
+        private final Sailing sailing;
+        private final LocalDate start;
+        private final List<String> destinations;
+        private final List<LocalDate> arrivals;
+
+        private Departure(Sailing sailing, LocalDate start, List<String> destinations, List<LocalDate> arrivals) {
+            this.sailing = sailing;
+            this.start = start;
+            this.destinations = destinations;
+            this.arrivals = arrivals;
+        }
+    }
+
+    /**
+     * A state of the search: a port reached on a date at some cost, and the leg that led there.
+     */
+    private static class Label {
+        private final String port;
+        private final LocalDate arrival;
+        private final long cost;
+        private final int legs;
+        private final Label previous;
+        private final Departure departure;
+
+        private Label(String port, LocalDate arrival, long cost, int legs, Label previous, Departure departure) {
+            this.port = port;
+            this.arrival = arrival;
+            this.cost = cost;
+            this.legs = legs;
+            this.previous = previous;
+            this.departure = departure;
+        }
+    }
+
+    private final RouteIndex routeIndex;
+    private int maxLegs = DEFAULT_MAX_LEGS;
+    private int maxLayoverDays = DEFAULT_MAX_LAYOVER_DAYS;
+    private int searchWindowDays = DEFAULT_SEARCH_WINDOW_DAYS;
+
+    /** Departures by port key, sorted by date. Rebuilt when the route index changes. */
+    private Map<String, List<Departure>> departures = new HashMap<>();
+    private long indexedVersion = -1;
+
+    /**
+     * Constructs an ItineraryPlanner over a route index.
+     *
+     * @param routeIndex the index of the sailings to plan with
+     */
+    public ItineraryPlanner(RouteIndex routeIndex) {
+        this.routeIndex = routeIndex;
+    }
+
+    /**
+     * Finds the best trip between two ports.
+     *
+     * @param from      the name of the port to start from
+     * @param to        the name of the port to end at
+     * @param earliest  the earliest date the trip may start, or {@code null} for any date
+     * @param criterion what to minimise
+     * @return the best trip, or an empty optional if the ports are not connected within the limits
+     */
+    public Optional<Itinerary> plan(String from, String to, LocalDate earliest, Criterion criterion) {
+        // Search one state of the index under its read lock: the departures, both ports and the names of the legs
+        // then agree with each other even while a sailing is being changed
+        return routeIndex.withGraph(graph -> search(routeIndex.resolve(from), routeIndex.resolve(to), earliest, criterion));
+    }
+
+    /**
+     * Runs the search between two port keys. Must be called with the read lock of the route index held.
+     */
+    private Optional<Itinerary> search(String fromKey, String toKey, LocalDate earliest, Criterion criterion) {
+        Map<String, List<Departure>> departures = departures();
+        PriorityQueue<Label> queue = new PriorityQueue<>(Comparator.<Label>comparingLong(label -> label.cost)
+                .thenComparing(label -> label.arrival, Comparator.nullsFirst(Comparator.naturalOrder())));
+        // Earliest arrival already settled per port and number of legs; any later, costlier label is dominated
+        Map<String, LocalDate[]> settled = new HashMap<>();
+        queue.add(new Label(fromKey, earliest, 0, 0, null, null));
+
+        while (!queue.isEmpty()) {
+            Label label = queue.poll();
+            if (label.legs > 0 && label.port.equals(toKey)) {
+                return Optional.of(toItinerary(label));
+            }
+            if (isDominated(settled, label)) {
+                continue;
+            }
+            settled.computeIfAbsent(label.port, k -> new LocalDate[maxLegs + 1])[label.legs] = label.arrival;
+            if (label.legs == maxLegs) {
+                continue;
+            }
+            expand(label, departures.get(label.port), criterion, queue);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Pushes a label for every port reachable by one more sailing from the port of a label.
+     */
+    private void expand(Label label, List<Departure> fromPort, Criterion criterion, PriorityQueue<Label> queue) {
+        if (fromPort == null) {
+            return;
+        }
+        LocalDate notBefore = label.arrival;
+        LocalDate notAfter = label.arrival == null ? null
+                : label.arrival.plusDays(label.legs == 0 ? searchWindowDays : maxLayoverDays);
+        for (int i = firstDepartingOnOrAfter(fromPort, notBefore); i < fromPort.size(); i++) {
+            Departure departure = fromPort.get(i);
+            if (notAfter != null && departure.start.isAfter(notAfter)) {
+                break;
+            }
+            for (int j = 0; j < departure.destinations.size(); j++) {
+                LocalDate arrival = departure.arrivals.get(j);
+                long cost = label.cost + (criterion == Criterion.PRICE
+                        ? departure.sailing.getPrice()
+                        : ChronoUnit.DAYS.between(label.legs == 0 ? departure.start : label.arrival, arrival));
+                queue.add(new Label(departure.destinations.get(j), arrival, cost, label.legs + 1, label, departure));
+            }
+        }
+    }
+
+    /**
+     * Checks whether a label's port was already settled no later, with no more legs. Labels are settled in order of
+     * cost, so a settled label at the same port is never more expensive.
+     */
+    private static boolean isDominated(Map<String, LocalDate[]> settled, Label label) {
+        LocalDate[] arrivals = settled.get(label.port);
+        if (arrivals == null) {
+            return false;
+        }
+        for (int legs = 0; legs <= label.legs; legs++) {
+            LocalDate arrival = arrivals[legs];
+            if (arrival != null && !arrival.isAfter(label.arrival)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the first departure on or after a date in a list sorted by date.
+     */
+    private static int firstDepartingOnOrAfter(List<Departure> departures, LocalDate date) {
+        if (date == null) {
+            return 0;
+        }
+        int low = 0;
+        int high = departures.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (departures.get(middle).start.isBefore(date)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Turns the chain of labels ending at a label into an itinerary.
+     */
+    private Itinerary toItinerary(Label last) {
+        LinkedList<Itinerary.Leg> legs = new LinkedList<>();
+        for (Label label = last; label.previous != null; label = label.previous) {
+            Departure departure = label.departure;
+            legs.addFirst(new Itinerary.Leg(departure.sailing, routeIndex.portName(label.previous.port),
+                    routeIndex.portName(label.port), departure.start, label.arrival));
+        }
+        return new Itinerary(new ArrayList<>(legs));
+    }
+
+    /**
+     * Gets the departures by port, rebuilding them if the route index changed since they were last built.
+     */
+    private synchronized Map<String, List<Departure>> departures() {
+        long version = routeIndex.version();
+        if (version == indexedVersion) {
+            return departures;
+        }
+        Map<String, List<Departure>> rebuilt = new HashMap<>();
+        for (Map.Entry<Sailing, List<String>> entry : routeIndex.portKeys().entrySet()) {
+            Sailing sailing = entry.getKey();
+            List<String> ports = entry.getValue();
+            LocalDate start = SailingDates.startDate(sailing);
+            if (ports.size() < 2 || start == null) {
+                continue;
+            }
+            // A port is left on the day the sailing first reaches it, never after the sailing ends
+            LocalDate end = SailingDates.endDate(sailing);
+            List<Integer> offsets = RouteParser.dayOffsets(sailing.getRoute(), (int) ChronoUnit.DAYS.between(start, end));
+            List<String> destinations = new ArrayList<>();
+            List<LocalDate> arrivals = new ArrayList<>();
+            for (int i = 1; i < ports.size(); i++) {
+                String port = ports.get(i);
+                if (!port.equals(ports.get(0)) && !destinations.contains(port)) {
+                    destinations.add(port);
+                    arrivals.add(i < offsets.size() && i < ports.size() - 1 ? min(start.plusDays(offsets.get(i)), end) : end);
+                }
+            }
+            if (ports.get(ports.size() - 1).equals(ports.get(0))) {
+                destinations.add(ports.get(0));
+                arrivals.add(end);
+            }
+            rebuilt.computeIfAbsent(ports.get(0), k -> new ArrayList<>())
+                    .add(new Departure(sailing, start, destinations, arrivals));
+        }
+        for (List<Departure> fromPort : rebuilt.values()) {
+            fromPort.sort(Comparator.comparing(departure -> departure.start));
+        }
+        departures = rebuilt;
+        indexedVersion = version;
+        return departures;
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? b : a;
+    }
+
+    /**
+     * Sets the maximum number of sailings in a trip.
+     *
+     * @param maxLegs the maximum number of legs, at least 1
+     */
+    public void setMaxLegs(int maxLegs) {
+        this.maxLegs = Math.max(1, maxLegs);
+    }
+
+    /**
+     * Sets the maximum number of days spent in port between two sailings.
+     *
+     * @param maxLayoverDays the maximum layover in days
+     */
+    public void setMaxLayoverDays(int maxLayoverDays) {
+        this.maxLayoverDays = Math.max(0, maxLayoverDays);
+    }
+
+    /**
+     * Sets how far after the earliest date the first sailing may depart.
+     *
+     * @param searchWindowDays the search window in days
+     */
+    public void setSearchWindowDays(int searchWindowDays) {
+        this.searchWindowDays = Math.max(0, searchWindowDays);
+    }
+
+    /**
+     * Plans a trip from the command line, without starting the JavaFX application.
+     * <p>
+     * Usage: {@code ItineraryPlanner <from> <to> [earliest yyyy-mm-dd] [price|nights]}
+     * </p>
+     *
+     * @param args the port to start from, the port to end at, and optionally the earliest date and the criterion
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: ItineraryPlanner <from> <to> [earliest yyyy-mm-dd] [price|nights]");
+            return;
+        }
+        LocalDate earliest = args.length > 2 ? LocalDate.parse(args[2]) : null;
+        Criterion criterion = args.length > 3 ? Criterion.valueOf(args[3].toUpperCase()) : Criterion.PRICE;
+        if (!VersionedCatalog.getInstance().load(Repositories.getInstance())) {
+            System.out.println("Database unreachable, planning on the catalog snapshot.");
+        }
+
+        long started = System.nanoTime();
+        Optional<Itinerary> itinerary = new ItineraryPlanner(RouteIndex.getInstance()).plan(args[0], args[1], earliest, criterion);
+        long elapsed = System.nanoTime() - started;
+
+        System.out.println(itinerary.map(Itinerary::toString).orElse("No itinerary found."));
+        System.out.printf("Planned in %.2f ms%n", elapsed / 1_000_000.0);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.project.route;
+
+import com.example.project.catalog.Sailing;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A directed graph of ports, where an edge from one port to the next exists for every sailing that
+ * travels directly between them.
+ * <p>
+ * Ports are identified by their key from {@link RouteParser#key(String)}. Each edge remembers the sailings
+ * that make up the leg, so the graph can be updated one sailing at a time as routes change.
+ * This class is not thread-safe; {@link RouteIndex} guards it with its own lock.
+ * </p>
+ */
+public class PortGraph {
+    /** Outgoing legs per port: port key to next port key to the sailings covering that leg. */
+    private final Map<String, Map<String, Set<Sailing>>> legs = new HashMap<>();
+
+    /**
+     * Adds the legs of a sailing to the graph.
+     *
+     * @param sailing  the sailing
+     * @param portKeys the keys of the ports of the sailing in order
+     */
+    public void addSailing(Sailing sailing, List<String> portKeys) {
+        for (int i = 0; i + 1 < portKeys.size(); i++) {
+            legs.computeIfAbsent(portKeys.get(i), k -> new HashMap<>())
+                    .computeIfAbsent(portKeys.get(i + 1), k -> new LinkedHashSet<>())
+                    .add(sailing);
+        }
+    }
+
+    /**
+     * Removes the legs of a sailing from the graph, dropping edges that no other sailing covers.
+     *
+     * @param sailing  the sailing
+     * @param portKeys the keys of the ports of the sailing in order, as given to {@link #addSailing}
+     */
+    public void removeSailing(Sailing sailing, List<String> portKeys) {
+        for (int i = 0; i + 1 < portKeys.size(); i++) {
+            Map<String, Set<Sailing>> next = legs.get(portKeys.get(i));
+            if (next == null) {
+                continue;
+            }
+            Set<Sailing> sailings = next.get(portKeys.get(i + 1));
+            if (sailings != null) {
+                sailings.remove(sailing);
+                if (sailings.isEmpty()) {
+                    next.remove(portKeys.get(i + 1));
+                }
+            }
+            if (next.isEmpty()) {
+                legs.remove(portKeys.get(i));
+            }
+        }
+    }
+
+    /**
+     * Gets the ports reachable directly from a port.
+     *
+     * @param portKey the key of the port
+     * @return the keys of the next ports, never {@code null}
+     */
+    public Set<String> neighbours(String portKey) {
+        Map<String, Set<Sailing>> next = legs.get(portKey);
+        return next == null ? Collections.emptySet() : Collections.unmodifiableSet(next.keySet());
+    }
+
+    /**
+     * Gets the sailings that travel directly from one port to another.
+     *
+     * @param fromKey the key of the port of departure
+     * @param toKey   the key of the port of arrival
+     * @return the sailings covering the leg, never {@code null}
+     */
+    public Set<Sailing> sailingsBetween(String fromKey, String toKey) {
+        Map<String, Set<Sailing>> next = legs.get(fromKey);
+        Set<Sailing> sailings = next == null ? null : next.get(toKey);
+        return sailings == null ? Collections.emptySet() : Collections.unmodifiableSet(sailings);
+    }
+
+    /**
+     * Gets every port that has at least one outgoing leg.
+     *
+     * @return the keys of the ports with departures
+     */
+    public Set<String> ports() {
+        return Collections.unmodifiableSet(legs.keySet());
+    }
+
+    /**
+     * Removes every port and leg from the graph.
+     */
+    public void clear() {
+        legs.clear();
+    }
+}
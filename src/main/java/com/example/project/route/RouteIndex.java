@@ -0,0 +1,444 @@
+package com.example.project.route;
+
+import com.example.project.catalog.CatalogChange;
+import com.example.project.catalog.Sailing;
+import com.example.project.catalog.VersionedCatalog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * In-memory index over the routes of all sailings in {@code cruise_destination}.
+ * <p>
+ * Every route is parsed once with {@link RouteParser} into a {@link PortGraph} and two inverted indexes:
+ * port to the sailings calling there, and port of departure to port visited to sailings. Questions such as
+ * "which sailings call at Penang" or "sailings from Singapore visiting Phuket" are then answered with hash
+ * lookups instead of scanning the table. The index is kept up to date incrementally by {@link #add(Sailing)},
+ * {@link #update(Sailing)} and {@link #remove(long)}, re-parsing only the route of the changed sailing. Sailings are
+ * identified by their surrogate key, as several rows may share a place.
+ * </p>
+ * <p>
+ * Like {@link VersionedCatalog}, this class is a singleton. It is built from the current version of the catalog on
+ * first use and then {@link #apply(CatalogChange) applies} every change the catalog publishes.
+ * </p>
+ */
+public class RouteIndex {
+    private static RouteIndex instance;
+
+    /** Guards all of the maps below: lookups share the read lock, changes take the write lock. */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Sailings by surrogate key, in the order they were indexed. */
+    private final Map<Long, Sailing> byId = new LinkedHashMap<>();
+
+    /** The parsed port keys of every indexed sailing, by surrogate key. */
+    private final Map<Long, List<String>> portsOf = new HashMap<>();
+
+    /** Port key to the sailings calling at that port. */
+    private final Map<String, Set<Sailing>> callingAt = new HashMap<>();
+
+    /** Port of departure key to port key to the sailings from the first port that later visit the second. */
+    private final Map<String, Map<String, Set<Sailing>>> fromVisiting = new HashMap<>();
+
+    /** Alternative names of ports to the key of the port, e.g. "port klang" to "kuala lumpur (port klang)". */
+    private final Map<String, String> aliases = new HashMap<>();
+
+    /** Port key to the port name as first written in a route, for every port some indexed sailing calls at. */
+    private final Map<String, String> portNames = new LinkedHashMap<>();
+
+    private final PortGraph graph = new PortGraph();
+
+    /** Incremented on every change, so that structures derived from the index know when to rebuild. */
+    private volatile long version;
+
+    /**
+     * Constructs an empty index. Use {@link #getInstance()} for the index shared by the application.
+     */
+    public RouteIndex() {}
+
+    /**
+     * Gets the singleton instance of RouteIndex, building it from the catalog on first use.
+     *
+     * @return the shared route index
+     */
+    public static synchronized RouteIndex getInstance() {
+        if (instance == null) {
+            RouteIndex index = new RouteIndex();
+            VersionedCatalog.getInstance().subscribe(version -> index.load(version.getSailings()), index::apply, null);
+            instance = index;
+        }
+        return instance;
+    }
+
+    /**
+     * Rebuilds the index from the given sailings.
+     *
+     * @param sailings all of the sailings to index
+     */
+    public void load(List<Sailing> sailings) {
+        lock.writeLock().lock();
+        try {
+            clear();
+            for (Sailing sailing : sailings) {
+                index(sailing);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a change of the catalog to the index.
+     *
+     * @param change the change of a sailing
+     */
+    public void apply(CatalogChange<Sailing> change) {
+        if (change.getKind() == CatalogChange.Kind.REMOVED) {
+            remove(change.getId());
+        } else {
+            update(change.getAfter());
+        }
+    }
+
+    /**
+     * Adds a newly inserted sailing to the index, replacing any sailing indexed with the same surrogate key.
+     *
+     * @param sailing the sailing that was added
+     */
+    public void add(Sailing sailing) {
+        lock.writeLock().lock();
+        try {
+            unindex(sailing.getId());
+            index(sailing);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the sailing with the same surrogate key by its updated values, re-indexing only its route.
+     *
+     * @param sailing the new values of the sailing
+     */
+    public void update(Sailing sailing) {
+        lock.writeLock().lock();
+        try {
+            unindex(sailing.getId());
+            index(sailing);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a sailing from the index.
+     *
+     * @param id the surrogate key of the deleted sailing
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            unindex(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the sailings that call at a port.
+     *
+     * @param port the name of the port, e.g. "Penang" or "Port Klang"
+     * @return the sailings calling at the port, in insertion order
+     */
+    public List<Sailing> sailingsCallingAt(String port) {
+        lock.readLock().lock();
+        try {
+            Set<Sailing> sailings = callingAt.get(resolveKey(port));
+            return sailings == null ? Collections.emptyList() : new ArrayList<>(sailings);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the sailings that depart from one port and later call at another.
+     *
+     * @param from  the name of the port of departure
+     * @param visit the name of the port to be visited
+     * @return the matching sailings, in insertion order
+     */
+    public List<Sailing> sailingsFromVisiting(String from, String visit) {
+        lock.readLock().lock();
+        try {
+            Map<String, Set<Sailing>> visiting = fromVisiting.get(resolveKey(from));
+            Set<Sailing> sailings = visiting == null ? null : visiting.get(resolveKey(visit));
+            return sailings == null ? Collections.emptyList() : new ArrayList<>(sailings);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the ports of a sailing as parsed from its route.
+     *
+     * @param sailing an indexed sailing
+     * @return the port names in sailing order, or an empty list if the sailing is not indexed
+     */
+    public List<String> portsOf(Sailing sailing) {
+        lock.readLock().lock();
+        try {
+            List<String> keys = portsOf.get(sailing.getId());
+            if (keys == null) {
+                return Collections.emptyList();
+            }
+            List<String> names = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                names.add(portNames.get(key));
+            }
+            return names;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copies the parsed port keys of every indexed sailing, taken atomically.
+     *
+     * @return each sailing with the keys of its ports in sailing order
+     */
+    Map<Sailing, List<String>> portKeys() {
+        lock.readLock().lock();
+        try {
+            Map<Sailing, List<String>> keys = new IdentityHashMap<>(byId.size());
+            for (Sailing sailing : byId.values()) {
+                keys.put(sailing, portsOf.get(sailing.getId()));
+            }
+            return keys;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the display name of a port.
+     *
+     * @param key the key of the port
+     * @return the port name as first written in a route, or the key if the port is unknown
+     */
+    public String portName(String key) {
+        lock.readLock().lock();
+        try {
+            return portNames.getOrDefault(key, key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the names of all ports in the index.
+     *
+     * @return the port names
+     */
+    public Set<String> ports() {
+        lock.readLock().lock();
+        try {
+            Set<String> names = new LinkedHashSet<>();
+            for (String key : callingAt.keySet()) {
+                names.add(portNames.get(key));
+            }
+            return names;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets all sailings in the index.
+     *
+     * @return every indexed sailing
+     */
+    public List<Sailing> sailings() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(byId.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the version of the index, which changes whenever a sailing is added, updated or removed.
+     *
+     * @return the current version
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Resolves a port name or alias into the key of the port in the index.
+     *
+     * @param port the name of the port
+     * @return the key of the port
+     */
+    public String resolve(String port) {
+        lock.readLock().lock();
+        try {
+            return resolveKey(port);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Resolves a port name or alias. Must be called with the read or write lock held.
+     */
+    private String resolveKey(String port) {
+        String key = RouteParser.key(port);
+        return aliases.getOrDefault(key, key);
+    }
+
+    /**
+     * Gives read access to the port graph while holding the read lock.
+     * The graph must not be kept or modified outside of the visitor.
+     *
+     * @param visitor the code to run against the graph
+     * @param <T>     the type of the result
+     * @return the result of the visitor
+     */
+    public <T> T withGraph(Function<PortGraph, T> visitor) {
+        lock.readLock().lock();
+        try {
+            return visitor.apply(graph);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a sailing to every structure. Must be called with the write lock held.
+     *
+     * @param sailing the sailing to index
+     */
+    private void index(Sailing sailing) {
+        List<String> keys = new ArrayList<>();
+        for (String port : RouteParser.parse(sailing.getRoute())) {
+            List<String> names = RouteParser.aliases(port);
+            String key = names.get(0);
+            portNames.putIfAbsent(key, port);
+            aliases.remove(key);
+            for (String alias : names.subList(1, names.size())) {
+                if (!portNames.containsKey(alias)) {
+                    aliases.putIfAbsent(alias, key);
+                }
+            }
+            keys.add(key);
+        }
+
+        byId.put(sailing.getId(), sailing);
+        portsOf.put(sailing.getId(), keys);
+        for (String key : keys) {
+            callingAt.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(sailing);
+        }
+        if (!keys.isEmpty()) {
+            Map<String, Set<Sailing>> visiting = fromVisiting.computeIfAbsent(keys.get(0), k -> new HashMap<>());
+            for (String key : keys.subList(1, keys.size())) {
+                visiting.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(sailing);
+            }
+        }
+        graph.addSailing(sailing, keys);
+        version++;
+    }
+
+    /**
+     * Removes a sailing from every structure, dropping the names and aliases of ports no other sailing calls at.
+     * Must be called with the write lock held.
+     *
+     * @param id the surrogate key of the sailing to remove
+     * @return the removed sailing, or {@code null} if it was not indexed
+     */
+    private Sailing unindex(long id) {
+        Sailing sailing = byId.remove(id);
+        if (sailing == null) {
+            return null;
+        }
+        List<String> keys = portsOf.remove(id);
+        boolean portsDropped = false;
+        for (String key : keys) {
+            removeFrom(callingAt, key, sailing);
+            if (!callingAt.containsKey(key) && portNames.remove(key) != null) {
+                portsDropped = true;
+            }
+        }
+        if (!keys.isEmpty()) {
+            Map<String, Set<Sailing>> visiting = fromVisiting.get(keys.get(0));
+            if (visiting != null) {
+                for (String key : keys.subList(1, keys.size())) {
+                    removeFrom(visiting, key, sailing);
+                }
+                if (visiting.isEmpty()) {
+                    fromVisiting.remove(keys.get(0));
+                }
+            }
+        }
+        graph.removeSailing(sailing, keys);
+        if (portsDropped) {
+            rebuildAliases();
+        }
+        version++;
+        return sailing;
+    }
+
+    /**
+     * Derives the aliases again from the ports still indexed, so that aliases of dropped ports disappear and aliases
+     * they shadowed come back. Must be called with the write lock held.
+     */
+    private void rebuildAliases() {
+        aliases.clear();
+        for (Map.Entry<String, String> port : portNames.entrySet()) {
+            List<String> names = RouteParser.aliases(port.getValue());
+            for (String alias : names.subList(1, names.size())) {
+                if (!portNames.containsKey(alias)) {
+                    aliases.putIfAbsent(alias, port.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes a sailing from one bucket of an inverted index, dropping the bucket once it is empty.
+     */
+    private static void removeFrom(Map<String, Set<Sailing>> index, String key, Sailing sailing) {
+        Set<Sailing> sailings = index.get(key);
+        if (sailings != null) {
+            sailings.remove(sailing);
+            if (sailings.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Empties every structure. Must be called with the write lock held.
+     */
+    private void clear() {
+        byId.clear();
+        portsOf.clear();
+        callingAt.clear();
+        fromVisiting.clear();
+        aliases.clear();
+        portNames.clear();
+        graph.clear();
+        version++;
+    }
+}
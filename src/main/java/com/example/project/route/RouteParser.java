@@ -0,0 +1,145 @@
+package com.example.project.route;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Parses the free-text {@code route} column of {@code cruise_destination} into an ordered list of ports.
+ * <p>
+ * Routes are stored as port names separated by dashes, e.g.
+ * "Singapore - Kuala Lumpur (Port Klang) - Penang - Singapore". Days spent "At Sea" are not ports and are
+ * skipped. A port written as "City (Harbour)" can also be looked up by either part alone, so
+ * "Kuala Lumpur (Port Klang)" answers to "Kuala Lumpur" and "Port Klang" as well.
+ * </p>
+ */
+public final class RouteParser {
+    /** The separator between the stops of a route. */
+    private static final String SEPARATOR = " - ";
+
+    /** The separator and runs of whitespace, compiled once as routes are parsed for every sailing indexed or validated. */
+    private static final Pattern STOPS = Pattern.compile(Pattern.quote(SEPARATOR));
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /** The lookup key of a day at sea, which is not a port of call. */
+    private static final String AT_SEA = "at sea";
+
+    private RouteParser() {}
+
+    /**
+     * Splits a route into its ports of call in sailing order.
+     * Blank stops and days at sea are dropped, and consecutive repeats of the same port are collapsed.
+     *
+     * @param route the route as stored in the database, may be {@code null}
+     * @return the ports of the route in the order they are visited, never {@code null}
+     */
+    public static List<String> parse(String route) {
+        if (route == null || route.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<String> ports = new ArrayList<>();
+        scan(route, ports, null);
+        return ports;
+    }
+
+    /**
+     * Estimates the day of a sailing on which each of its ports of call is reached.
+     * The stops of a route, days at sea included, are taken to be a day apart, spread over the nights of the sailing
+     * when the route lists more or fewer stops than the sailing has days.
+     *
+     * @param route  the route as stored in the database, may be {@code null}
+     * @param nights the number of nights of the sailing
+     * @return for each port returned by {@link #parse(String)}, in the same order, the number of days after departure
+     *         it is reached; a port at the last stop of the route is reached after {@code nights} days
+     */
+    public static List<Integer> dayOffsets(String route, int nights) {
+        if (route == null || route.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<Integer> stops = new ArrayList<>();
+        int lastStop = scan(route, new ArrayList<>(), stops);
+        List<Integer> offsets = new ArrayList<>(stops.size());
+        for (int stop : stops) {
+            offsets.add(lastStop == 0 ? 0 : Math.round((float) stop * nights / lastStop));
+        }
+        return offsets;
+    }
+
+    /**
+     * Collects the ports of a route, and optionally the index of the stop each port is first reached at.
+     *
+     * @return the index of the last non-blank stop of the route
+     */
+    private static int scan(String route, List<String> ports, List<Integer> stopIndexes) {
+        String previousKey = null;
+        int stop = -1;
+        for (String text : STOPS.split(route)) {
+            String port = collapse(text.trim());
+            if (port.isEmpty()) {
+                continue;
+            }
+            stop++;
+            String key = key(port);
+            if (key.equals(AT_SEA) || key.equals(previousKey)) {
+                continue;
+            }
+            ports.add(port);
+            if (stopIndexes != null) {
+                stopIndexes.add(stop);
+            }
+            previousKey = key;
+        }
+        return Math.max(stop, 0);
+    }
+
+    /**
+     * Normalises a port name into the key used by the indexes, ignoring case and extra whitespace.
+     *
+     * @param port the port name
+     * @return the lookup key for the port
+     */
+    public static String key(String port) {
+        return port == null ? "" : collapse(port.trim()).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Collapses runs of whitespace into single spaces, skipping the regular expression for the usual text that has none.
+     */
+    private static String collapse(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c) && (c != ' ' || (i + 1 < text.length() && Character.isWhitespace(text.charAt(i + 1))))) {
+                return WHITESPACE.matcher(text).replaceAll(" ");
+            }
+        }
+        return text;
+    }
+
+    /**
+     * Returns every key a port can be looked up by: its full name and, for names of the form
+     * "City (Harbour)", the city and the harbour on their own.
+     *
+     * @param port the port name as it appears in a route
+     * @return the lookup keys for the port, the full key first
+     */
+    public static List<String> aliases(String port) {
+        List<String> aliases = new ArrayList<>();
+        String key = key(port);
+        aliases.add(key);
+        int open = key.indexOf('(');
+        int close = key.lastIndexOf(')');
+        if (open > 0 && close > open) {
+            String city = key.substring(0, open).trim();
+            String harbour = key.substring(open + 1, close).trim();
+            if (!city.isEmpty()) {
+                aliases.add(city);
+            }
+            if (!harbour.isEmpty()) {
+                aliases.add(harbour);
+            }
+        }
+        return aliases;
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.project.schema;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The migrations of the cruise booking schema, applied at startup by the
+ * {@link com.example.project.DatabaseManager}.
+ * <p>
+ * The first migration creates the tables the application was originally deployed with, so a new database starts from
+ * the same schema as an existing one; on existing databases it changes nothing. Later migrations never assume what an
+ * earlier release added by other means, and check the schema before changing it.
+ * </p>
+ */
+public final class CatalogMigrations {
+    /** Every migration, in order of version. Append new migrations; never change released ones. */
+    public static final List<Migration> ALL = List.of(
+            Migration.of(1, "Create the catalog and registration tables",
+                    "CREATE TABLE IF NOT EXISTS cruise_destination ("
+                            + "country_from VARCHAR(64), "
+                            + "duration VARCHAR(32), "
+                            + "place VARCHAR(255), "
+                            + "cruise_ship VARCHAR(255), "
+                            + "route VARCHAR(512), "
+                            + "price INT, "
+                            + "date VARCHAR(64))",
+                    "CREATE TABLE IF NOT EXISTS charity_organisation ("
+                            + "name VARCHAR(255), "
+                            + "type VARCHAR(64), "
+                            + "country VARCHAR(64), "
+                            + "about TEXT, "
+                            + "website VARCHAR(255), "
+                            + "email VARCHAR(255), "
+                            + "location VARCHAR(512))",
+                    "CREATE TABLE IF NOT EXISTS REGISTRATION ("
+                            + "username VARCHAR(255), "
+                            + "email VARCHAR(255), "
+                            + "password VARCHAR(255))"),
+            new Migration(2, "Add row versions for optimistic concurrency control", connection -> {
+                Schema.addColumn(connection, "cruise_destination", "version", "INT NOT NULL DEFAULT 0");
+                Schema.addColumn(connection, "charity_organisation", "version", "INT NOT NULL DEFAULT 0");
+            }),
+            new Migration(3, "Add surrogate primary keys", connection -> {
+                addSurrogateKey(connection, "cruise_destination");
+                addSurrogateKey(connection, "charity_organisation");
+                addSurrogateKey(connection, "REGISTRATION");
+            }),
+            new Migration(4, "Index the columns rows are looked up and filtered by", connection -> {
+                archiveDuplicateRegistrations(connection);
+                Schema.createIndex(connection, "REGISTRATION", "registration_email", true, "email");
+                Schema.createIndex(connection, "cruise_destination", "cruise_destination_place", false, "place");
+                Schema.createIndex(connection, "cruise_destination", "cruise_destination_country_duration", false, "country_from", "duration");
+                Schema.createIndex(connection, "cruise_destination", "cruise_destination_duration", false, "duration");
+                Schema.createIndex(connection, "charity_organisation", "charity_organisation_name", false, "name");
+                Schema.createIndex(connection, "charity_organisation", "charity_organisation_country", false, "country");
+            }),
+            new Migration(5, "Create the change log the running instances read each other's changes from", connection -> {
+                Schema.execute(connection, "CREATE TABLE IF NOT EXISTS catalog_change ("
+                        + "seq BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+                        + "entity VARCHAR(16) NOT NULL, "
+                        + "entity_id BIGINT NOT NULL, "
+                        + "origin VARCHAR(36) NOT NULL, "
+                        + "changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+                Schema.createIndex(connection, "catalog_change", "catalog_change_changed_at", false, "changed_at");
+            }),
+            new Migration(6, "Key cabin inventory and reservations by sailing id", CatalogMigrations::keyBookingsBySailing),
+            new Migration(7, "Record cabin holds so that they expire after a restart", connection -> {
+                Schema.execute(connection, "CREATE TABLE IF NOT EXISTS cabin_hold ("
+                        + "id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+                        + "email VARCHAR(255) NOT NULL, "
+                        + "sailing_id BIGINT NOT NULL, "
+                        + "cabin_type VARCHAR(32) NOT NULL, "
+                        + "cabins INT NOT NULL, "
+                        + "expires_at TIMESTAMP NOT NULL, "
+                        + "FOREIGN KEY (sailing_id) REFERENCES cruise_destination (id) ON DELETE CASCADE)");
+                Schema.createIndex(connection, "cabin_hold", "cabin_hold_expires_at", false, "expires_at");
+            })
+    );
+
+    private CatalogMigrations() {}
+
+    /**
+     * Moves all but the earliest registration of every email registered more than once before emails were unique to
+     * the {@code registration_duplicate} table, so that the email can be given a unique index. Without this the index
+     * cannot be created and the migration, and every one after it, fails on such a database. The accounts moved are
+     * kept whole and their emails are printed, for an admin to review and merge or restore by hand.
+     */
+    private static void archiveDuplicateRegistrations(Connection connection) throws SQLException {
+        if (Schema.hasIndex(connection, "REGISTRATION", "registration_email")) {
+            return;
+        }
+        List<String> emails = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT email FROM REGISTRATION WHERE email IS NOT NULL GROUP BY email HAVING COUNT(*) > 1 ORDER BY email")) {
+            while (resultSet.next()) {
+                emails.add(resultSet.getString("email"));
+            }
+        }
+        if (emails.isEmpty()) {
+            return;
+        }
+
+        // The extra derived table lets MySQL read the table the statement deletes from
+        String duplicates = "email IS NOT NULL AND id NOT IN ("
+                + "SELECT id FROM (SELECT MIN(id) AS id FROM REGISTRATION GROUP BY email) AS first_registration)";
+        Schema.execute(connection, "CREATE TABLE IF NOT EXISTS registration_duplicate ("
+                + "id BIGINT NOT NULL PRIMARY KEY, "
+                + "username VARCHAR(255), "
+                + "email VARCHAR(255), "
+                + "password VARCHAR(255), "
+                + "archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+        Schema.execute(connection, "INSERT INTO registration_duplicate (id, username, email, password) "
+                + "SELECT id, username, email, password FROM REGISTRATION WHERE " + duplicates);
+        Schema.execute(connection, "DELETE FROM REGISTRATION WHERE " + duplicates);
+        System.err.println("Moved the later registrations of " + emails.size() + " emails registered more than once to "
+                + "registration_duplicate before making emails unique: " + String.join(", ", emails));
+    }
+
+    /**
+     * Creates the {@code cabin_inventory} and {@code reservation} tables keyed by the id of the sailing, since places are
+     * not unique. Tables of earlier releases, keyed by place, are renamed to {@code cabin_inventory_by_place} and
+     * {@code reservation_by_place}; their rows move to the new tables where the place names exactly one sailing, and
+     * the rest stay behind for an admin to assign, since they cannot be told apart automatically.
+     */
+    private static void keyBookingsBySailing(Connection connection) throws SQLException {
+        boolean byPlace = false;
+        for (String table : new String[] {"cabin_inventory", "reservation"}) {
+            if (Schema.hasTable(connection, table) && !Schema.hasColumn(connection, table, "sailing_id")) {
+                Schema.execute(connection, "ALTER TABLE " + table + " RENAME TO " + table + "_by_place");
+                byPlace = true;
+            }
+        }
+
+        // Inventory goes with its sailing; a sailing with reservations cannot be deleted
+        Schema.execute(connection, "CREATE TABLE IF NOT EXISTS cabin_inventory ("
+                + "sailing_id BIGINT NOT NULL, "
+                + "cabin_type VARCHAR(32) NOT NULL, "
+                + "total INT NOT NULL, "
+                + "available INT NOT NULL, "
+                + "PRIMARY KEY (sailing_id, cabin_type), "
+                + "FOREIGN KEY (sailing_id) REFERENCES cruise_destination (id) ON DELETE CASCADE)");
+        Schema.execute(connection, "CREATE TABLE IF NOT EXISTS reservation ("
+                + "id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+                + "email VARCHAR(255) NOT NULL, "
+                + "sailing_id BIGINT NOT NULL, "
+                + "cabin_type VARCHAR(32) NOT NULL, "
+                + "cabins INT NOT NULL, "
+                + "status VARCHAR(16) NOT NULL, "
+                + "created_at TIMESTAMP NOT NULL, "
+                + "FOREIGN KEY (sailing_id) REFERENCES cruise_destination (id))");
+        // Named apart from the indexes of the old table, as index names are unique per schema in H2
+        Schema.createIndex(connection, "reservation", "reservation_customer", false, "email");
+        Schema.createIndex(connection, "reservation", "reservation_sailing", false, "sailing_id");
+        if (!byPlace) {
+            return;
+        }
+
+        // The places that name exactly one sailing, whose rows can be moved without guessing
+        String uniquePlaces = "SELECT place FROM cruise_destination GROUP BY place HAVING COUNT(*) = 1";
+        int unassigned = 0;
+        if (Schema.hasTable(connection, "cabin_inventory_by_place")) {
+            Schema.execute(connection, "INSERT INTO cabin_inventory (sailing_id, cabin_type, total, available) "
+                    + "SELECT d.id, i.cabin_type, i.total, i.available FROM cabin_inventory_by_place i "
+                    + "JOIN cruise_destination d ON d.place = i.place WHERE i.place IN (" + uniquePlaces + ")");
+            Schema.execute(connection, "DELETE FROM cabin_inventory_by_place WHERE place IN (" + uniquePlaces + ")");
+            unassigned += dropIfEmpty(connection, "cabin_inventory_by_place");
+        }
+        if (Schema.hasTable(connection, "reservation_by_place")) {
+            Schema.execute(connection, "INSERT INTO reservation (id, email, sailing_id, cabin_type, cabins, status, created_at) "
+                    + "SELECT r.id, r.email, d.id, r.cabin_type, r.cabins, r.status, r.created_at FROM reservation_by_place r "
+                    + "JOIN cruise_destination d ON d.place = r.place WHERE r.place IN (" + uniquePlaces + ")");
+            Schema.execute(connection, "DELETE FROM reservation_by_place WHERE place IN (" + uniquePlaces + ")");
+            if (!Schema.isMySql(connection)) {
+                // MySQL moves the auto-increment past copied ids by itself; H2 has to be told
+                Schema.execute(connection, "ALTER TABLE reservation ALTER COLUMN id RESTART WITH " + (maxId(connection, "reservation") + 1));
+            }
+            unassigned += dropIfEmpty(connection, "reservation_by_place");
+        }
+        if (unassigned > 0) {
+            System.err.println(unassigned + " inventory rows and reservations of places shared by several sailings were kept in "
+                    + "cabin_inventory_by_place and reservation_by_place; assign them to a sailing by hand");
+        }
+    }
+
+    /**
+     * Gets the highest id of a table, or 0 if it is empty.
+     */
+    private static long maxId(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    /**
+     * Drops a table if it has no rows left.
+     *
+     * @return the number of rows left in the table
+     */
+    private static int dropIfEmpty(Connection connection, String table) throws SQLException {
+        int rows;
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            resultSet.next();
+            rows = resultSet.getInt(1);
+        }
+        if (rows == 0) {
+            Schema.execute(connection, "DROP TABLE " + table);
+        }
+        return rows;
+    }
+
+    /**
+     * Adds an auto-increment {@code id} column. It becomes the primary key, or a unique key if the table already has a
+     * primary key of its own.
+     */
+    private static void addSurrogateKey(Connection connection, String table) throws SQLException {
+        if (Schema.hasColumn(connection, table, "id")) {
+            return;
+        }
+        String key = Schema.hasPrimaryKey(connection, table) ? "UNIQUE" : "PRIMARY KEY";
+        Schema.execute(connection, "ALTER TABLE " + table + " ADD COLUMN id BIGINT NOT NULL AUTO_INCREMENT " + key);
+    }
+}
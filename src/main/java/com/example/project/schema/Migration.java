@@ -0,0 +1,100 @@
+package com.example.project.schema;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * One versioned change to the database schema, applied once by the {@link SchemaMigrator}.
+ * <p>
+ * A migration is never edited after it has been released; later changes are added as migrations with higher
+ * versions. Its step may inspect the schema first, so that a migration also brings databases that were changed by
+ * hand, or by earlier releases of the application, to the same state.
+ * </p>
+ */
+public class Migration {
+    /**
+     * The work of a migration.
+     */
+    @FunctionalInterface
+    public interface Step {
+        /**
+         * Applies the change.
+         *
+         * @param connection the connection to apply it on
+         * @throws SQLException if the change fails
+         */
+        void apply(Connection connection) throws SQLException;
+    }
+
+    private final int version;
+    private final String description;
+    private final Step step;
+
+    /**
+     * Constructs a Migration.
+     *
+     * @param version     the version of the schema after the migration, greater than 0
+     * @param description what the migration changes, recorded with the version
+     * @param step        the change
+     */
+    public Migration(int version, String description, Step step) {
+        if (version <= 0) {
+            throw new IllegalArgumentException("Migration versions start at 1: " + version);
+        }
+        this.version = version;
+        this.description = description;
+        this.step = step;
+    }
+
+    /**
+     * Creates a migration that runs SQL statements in order.
+     *
+     * @param version     the version of the schema after the migration
+     * @param description what the migration changes
+     * @param statements  the statements
+     * @return the migration
+     */
+    public static Migration of(int version, String description, String... statements) {
+        return new Migration(version, description, connection -> {
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : statements) {
+                    statement.executeUpdate(sql);
+                }
+            }
+        });
+    }
+
+    /**
+     * Gets the version of the schema after this migration.
+     *
+     * @return the version
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the description of this migration.
+     *
+     * @return what the migration changes
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Applies this migration.
+     *
+     * @param connection the connection to apply it on
+     * @throws SQLException if the migration fails
+     */
+    public void apply(Connection connection) throws SQLException {
+        step.apply(connection);
+    }
+
+    @Override
+    public String toString() {
+        return "V" + version + " " + description;
+    }
+}
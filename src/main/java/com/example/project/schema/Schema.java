@@ -0,0 +1,183 @@
+package com.example.project.schema;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+
+/**
+ * Checks and changes of the schema shared by the migrations, each a no-op if the schema already has what it adds.
+ * <p>
+ * Names are looked up as given and in upper and lower case, since databases differ in how they store unquoted names.
+ * </p>
+ */
+public final class Schema {
+    /** The length of the prefix indexed for text columns, the longest a unique index allows in utf8mb4. */
+    private static final int TEXT_PREFIX = 191;
+
+    private Schema() {}
+
+    /**
+     * Checks whether the connection is to MySQL.
+     *
+     * @param connection the connection
+     * @return {@code true} for MySQL
+     * @throws SQLException if the metadata cannot be read
+     */
+    public static boolean isMySql(Connection connection) throws SQLException {
+        return connection.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql");
+    }
+
+    /**
+     * Checks whether a table exists.
+     *
+     * @param connection the connection
+     * @param table      the name of the table
+     * @return {@code true} if it exists
+     * @throws SQLException if the metadata cannot be read
+     */
+    public static boolean hasTable(Connection connection, String table) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        for (String name : variants(table)) {
+            try (ResultSet tables = metaData.getTables(connection.getCatalog(), null, name, null)) {
+                if (tables.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a table has a column.
+     *
+     * @param connection the connection
+     * @param table      the name of the table
+     * @param column     the name of the column
+     * @return {@code true} if the column exists
+     * @throws SQLException if the metadata cannot be read
+     */
+    public static boolean hasColumn(Connection connection, String table, String column) throws SQLException {
+        return columnType(connection, table, column) != null;
+    }
+
+    /**
+     * Checks whether a table has an index.
+     *
+     * @param connection the connection
+     * @param table      the name of the table
+     * @param index      the name of the index
+     * @return {@code true} if the index exists
+     * @throws SQLException if the metadata cannot be read
+     */
+    public static boolean hasIndex(Connection connection, String table, String index) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        for (String name : variants(table)) {
+            try (ResultSet indexes = metaData.getIndexInfo(connection.getCatalog(), null, name, false, false)) {
+                while (indexes.next()) {
+                    if (index.equalsIgnoreCase(indexes.getString("INDEX_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a table has a primary key.
+     *
+     * @param connection the connection
+     * @param table      the name of the table
+     * @return {@code true} if it has one
+     * @throws SQLException if the metadata cannot be read
+     */
+    public static boolean hasPrimaryKey(Connection connection, String table) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        for (String name : variants(table)) {
+            try (ResultSet keys = metaData.getPrimaryKeys(connection.getCatalog(), null, name)) {
+                if (keys.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a column to a table unless it has it.
+     *
+     * @param connection the connection
+     * @param table      the name of the table
+     * @param column     the name of the column
+     * @param definition the type and constraints of the column, e.g. {@code "INT NOT NULL DEFAULT 0"}
+     * @throws SQLException if the column cannot be added
+     */
+    public static void addColumn(Connection connection, String table, String column, String definition) throws SQLException {
+        if (!hasColumn(connection, table, column)) {
+            execute(connection, "ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+        }
+    }
+
+    /**
+     * Creates an index unless the table has one of that name. Text columns are indexed by a prefix, since MySQL
+     * cannot index them whole.
+     *
+     * @param connection the connection
+     * @param table      the name of the table
+     * @param index      the name of the index
+     * @param unique     {@code true} for a unique index
+     * @param columns    the indexed columns, in order
+     * @throws SQLException if the index cannot be created, e.g. a unique index over duplicate values
+     */
+    public static void createIndex(Connection connection, String table, String index, boolean unique, String... columns) throws SQLException {
+        if (hasIndex(connection, table, index)) {
+            return;
+        }
+        StringBuilder keyParts = new StringBuilder();
+        for (String column : columns) {
+            if (keyParts.length() > 0) {
+                keyParts.append(", ");
+            }
+            keyParts.append(column);
+            Integer type = columnType(connection, table, column);
+            if (type != null && (type == Types.LONGVARCHAR || type == Types.LONGNVARCHAR || type == Types.CLOB)) {
+                keyParts.append('(').append(TEXT_PREFIX).append(')');
+            }
+        }
+        execute(connection, "CREATE " + (unique ? "UNIQUE " : "") + "INDEX " + index + " ON " + table + " (" + keyParts + ")");
+    }
+
+    /**
+     * Runs one statement.
+     *
+     * @param connection the connection
+     * @param sql        the statement
+     * @throws SQLException if the statement fails
+     */
+    public static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(sql);
+        }
+    }
+
+    private static Integer columnType(Connection connection, String table, String column) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        for (String tableName : variants(table)) {
+            for (String columnName : variants(column)) {
+                try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, tableName, columnName)) {
+                    if (columns.next()) {
+                        return columns.getInt("DATA_TYPE");
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String[] variants(String name) {
+        return new String[] {name, name.toUpperCase(), name.toLowerCase()};
+    }
+}
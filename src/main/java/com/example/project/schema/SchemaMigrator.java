@@ -0,0 +1,141 @@
+package com.example.project.schema;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Brings a database schema up to date by applying the {@link Migration}s it has not seen yet, in order of version.
+ * <p>
+ * The versions applied are recorded in the {@code schema_version} table, one row per migration with its description
+ * and the time it was applied, so every migration runs exactly once per database. MySQL commits every schema change
+ * implicitly, so migrations cannot be rolled back; a migration is recorded right after it succeeds, and migrations
+ * check the schema before changing it so that one interrupted half-way can simply run again. On MySQL, a named lock
+ * keeps two instances of the application that start together from migrating at the same time.
+ * </p>
+ */
+public class SchemaMigrator {
+    /** The name of the MySQL lock held while migrating. */
+    private static final String LOCK_NAME = "cruise_booking.schema";
+
+    /** How long to wait for another instance to finish migrating, in seconds. */
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+    private final Connection connection;
+    private final List<Migration> migrations;
+
+    /**
+     * Constructs a SchemaMigrator.
+     *
+     * @param connection the connection to migrate the schema of
+     * @param migrations the migrations, in order of strictly increasing version
+     * @throws IllegalArgumentException if the versions are not strictly increasing
+     */
+    public SchemaMigrator(Connection connection, List<Migration> migrations) {
+        int previous = 0;
+        for (Migration migration : migrations) {
+            if (migration.getVersion() <= previous) {
+                throw new IllegalArgumentException("Migration " + migration + " is out of order");
+            }
+            previous = migration.getVersion();
+        }
+        this.connection = connection;
+        this.migrations = List.copyOf(migrations);
+    }
+
+    /**
+     * Applies every migration newer than the current version of the schema.
+     *
+     * @return the migrations applied, empty if the schema was up to date
+     * @throws SQLException if a migration fails; the migrations before it stay applied
+     */
+    public List<Migration> migrate() throws SQLException {
+        boolean locked = lock();
+        try {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("CREATE TABLE IF NOT EXISTS schema_version ("
+                        + "version INT NOT NULL PRIMARY KEY, "
+                        + "description VARCHAR(255) NOT NULL, "
+                        + "applied_at TIMESTAMP NOT NULL)");
+            }
+            List<Migration> applied = new ArrayList<>();
+            for (Migration migration : pending()) {
+                migration.apply(connection);
+                try (PreparedStatement preparedStatement = connection.prepareStatement(
+                        "INSERT INTO schema_version (version, description, applied_at) VALUES (?, ?, ?)")) {
+                    preparedStatement.setInt(1, migration.getVersion());
+                    preparedStatement.setString(2, migration.getDescription());
+                    preparedStatement.setTimestamp(3, new Timestamp(System.currentTimeMillis()));
+                    preparedStatement.executeUpdate();
+                }
+                applied.add(migration);
+            }
+            return applied;
+        } finally {
+            if (locked) {
+                unlock();
+            }
+        }
+    }
+
+    /**
+     * Gets the migrations not applied to the schema yet.
+     *
+     * @return the pending migrations, in order of version
+     * @throws SQLException if the current version cannot be read
+     */
+    public List<Migration> pending() throws SQLException {
+        int current = currentVersion();
+        List<Migration> pending = new ArrayList<>();
+        for (Migration migration : migrations) {
+            if (migration.getVersion() > current) {
+                pending.add(migration);
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Gets the version of the schema.
+     *
+     * @return the highest version applied, or 0 if no migration was applied yet
+     * @throws SQLException if the version cannot be read
+     */
+    public int currentVersion() throws SQLException {
+        if (!Schema.hasTable(connection, "schema_version")) {
+            return 0;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT MAX(version) FROM schema_version")) {
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        }
+    }
+
+    private boolean lock() throws SQLException {
+        if (!Schema.isMySql(connection)) {
+            return false;
+        }
+        try (PreparedStatement preparedStatement = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            preparedStatement.setString(1, LOCK_NAME);
+            preparedStatement.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                if (!resultSet.next() || resultSet.getInt(1) != 1) {
+                    throw new SQLException("Timed out waiting for another instance to migrate the schema");
+                }
+            }
+        }
+        return true;
+    }
+
+    private void unlock() throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            preparedStatement.setString(1, LOCK_NAME);
+            preparedStatement.executeQuery().close();
+        }
+    }
+}
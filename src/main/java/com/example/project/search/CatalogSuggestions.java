@@ -0,0 +1,126 @@
+package com.example.project.search;
+
+import com.example.project.catalog.CatalogChange;
+import com.example.project.catalog.CatalogVersion;
+import com.example.project.catalog.Charity;
+import com.example.project.catalog.Sailing;
+import com.example.project.catalog.VersionedCatalog;
+import com.example.project.route.RouteParser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The search suggestions of the admin and charity pages, kept in memory and up to date with the catalog.
+ * <p>
+ * Destinations are suggested by place, cruise ship and the ports of their routes, and charities by name. Each term is
+ * counted once per sailing or charity it appears in, so a port many sailings call at is suggested before one only a
+ * single sailing visits. The tries are filled from the current {@link CatalogVersion} and then follow the changes of
+ * the {@link VersionedCatalog}, including those other instances make, so typing never queries the database.
+ * </p>
+ * <p>
+ * Like {@link VersionedCatalog}, this class is a singleton.
+ * </p>
+ */
+public class CatalogSuggestions {
+    private static CatalogSuggestions instance;
+
+    private final PrefixTrie destinations = new PrefixTrie();
+    private final PrefixTrie charities = new PrefixTrie();
+
+    /**
+     * Constructs empty suggestions. Use {@link #getInstance()} for the suggestions shared by the application.
+     */
+    public CatalogSuggestions() {}
+
+    /**
+     * Gets the singleton instance of CatalogSuggestions, filling it from the catalog on first use.
+     *
+     * @return the shared suggestions
+     */
+    public static synchronized CatalogSuggestions getInstance() {
+        if (instance == null) {
+            CatalogSuggestions suggestions = new CatalogSuggestions();
+            VersionedCatalog.getInstance().subscribe(suggestions::load, suggestions::sailingChanged, suggestions::charityChanged);
+            instance = suggestions;
+        }
+        return instance;
+    }
+
+    /**
+     * Adds the terms of every sailing and charity of a catalog version.
+     *
+     * @param version the version
+     */
+    public void load(CatalogVersion version) {
+        for (Sailing sailing : version.getSailings()) {
+            for (String term : terms(sailing)) {
+                destinations.add(term);
+            }
+        }
+        for (Charity charity : version.getCharities()) {
+            charities.add(charity.getName());
+        }
+    }
+
+    /**
+     * Gets the suggestions of the admin page: places, cruise ships and ports.
+     *
+     * @return the destination terms
+     */
+    public PrefixTrie destinations() {
+        return destinations;
+    }
+
+    /**
+     * Gets the suggestions of the charity page: charity names.
+     *
+     * @return the charity names
+     */
+    public PrefixTrie charities() {
+        return charities;
+    }
+
+    /**
+     * Gets the terms a sailing is suggested by: its place, its cruise ship and each port of its route once.
+     *
+     * @param sailing the sailing
+     * @return the terms
+     */
+    public static List<String> terms(Sailing sailing) {
+        List<String> terms = new ArrayList<>();
+        terms.add(sailing.getPlace());
+        terms.add(sailing.getCruiseShip());
+        List<String> keys = new ArrayList<>();
+        for (String port : RouteParser.parse(sailing.getRoute())) {
+            // A round trip starts and ends at the same port, which counts once
+            if (!keys.contains(RouteParser.key(port))) {
+                keys.add(RouteParser.key(port));
+                terms.add(port);
+            }
+        }
+        return terms;
+    }
+
+    private void sailingChanged(CatalogChange<Sailing> change) {
+        if (change.getBefore() != null) {
+            for (String term : terms(change.getBefore())) {
+                destinations.remove(term);
+            }
+        }
+        if (change.getAfter() != null) {
+            for (String term : terms(change.getAfter())) {
+                destinations.add(term);
+            }
+        }
+    }
+
+    private void charityChanged(CatalogChange<Charity> change) {
+        if (change.getBefore() != null) {
+            charities.remove(change.getBefore().getName());
+        }
+        if (change.getAfter() != null) {
+            charities.add(change.getAfter().getName());
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package com.example.project.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A compressed prefix trie of terms, each counted by how often it occurs, suggesting the most frequent terms starting
+ * with a prefix.
+ * <p>
+ * Chains of nodes with a single child are merged into one edge labelled with the whole chain, so the trie has fewer
+ * nodes than its terms have letters. Every node keeps its most frequent terms, up to the limit given at construction,
+ * so suggesting walks down the letters of the prefix and copies the list of the node it ends at: the time depends on
+ * the length of the prefix, not on the number of terms. Adding a term updates the lists on its path; removing one
+ * rebuilds the lists it was in from the lists of the children.
+ * </p>
+ * <p>
+ * Terms are matched ignoring case and suggested as first added. Terms chosen with {@link #pick(String)} rank higher
+ * from then on, so the terms an admin searches for most come first. Ties are broken alphabetically.
+ * </p>
+ * <p>
+ * This class is thread-safe: every method synchronizes on the trie, which a suggestion holds for microseconds.
+ * </p>
+ */
+public class PrefixTrie {
+    /** How many suggestions are kept per node when no limit is given. */
+    public static final int DEFAULT_LIMIT = 10;
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    /** Most frequent first, then alphabetically. */
+    private static final Comparator<Node> RANK = Comparator.comparingLong(Node::rank).reversed()
+            .thenComparing(node -> node.key);
+
+    private final int limit;
+    private final Node root = new Node("");
+    private int size;
+
+    /**
+     * Constructs an empty PrefixTrie suggesting up to {@value #DEFAULT_LIMIT} terms.
+     */
+    public PrefixTrie() {
+        this(DEFAULT_LIMIT);
+    }
+
+    /**
+     * Constructs an empty PrefixTrie.
+     *
+     * @param limit how many terms a suggestion returns at most
+     */
+    public PrefixTrie(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        this.limit = limit;
+    }
+
+    /**
+     * Counts one more occurrence of a term, adding it if it is new.
+     *
+     * @param term the term; blank terms are ignored
+     */
+    public synchronized void add(String term) {
+        String key = key(term);
+        if (key.isEmpty()) {
+            return;
+        }
+        List<Node> path = new ArrayList<>();
+        Node node = insert(key, path);
+        if (node.count == 0) {
+            node.term = term.strip();
+            size++;
+        }
+        node.count++;
+        for (Node ancestor : path) {
+            ancestor.promote(node, limit);
+        }
+    }
+
+    /**
+     * Counts one occurrence of a term less, removing it when it no longer occurs.
+     *
+     * @param term the term
+     */
+    public synchronized void remove(String term) {
+        String key = key(term);
+        List<Node> path = new ArrayList<>();
+        Node node = find(key, path);
+        if (node == null || node.count == 0) {
+            return;
+        }
+        node.count--;
+        if (node.count == 0) {
+            node.term = null;
+            node.picks = 0;
+            size--;
+        }
+        // Walk back up, dropping empty nodes, merging single children into their parent and rebuilding the lists the
+        // term was in; lists it was not in keep terms that still rank at least as high
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node current = path.get(i);
+            if (i > 0 && current.count == 0) {
+                Node parent = path.get(i - 1);
+                if (current.keys.length == 0) {
+                    parent.removeChild(current);
+                    continue;
+                }
+                if (current.keys.length == 1) {
+                    Node child = current.children[0];
+                    child.label = current.label + child.label;
+                    parent.replaceChild(current, child);
+                    continue;
+                }
+            }
+            if (Arrays.asList(current.top).contains(node)) {
+                current.rebuild(limit);
+            }
+        }
+    }
+
+    /**
+     * Ranks a term higher from now on, e.g. because it was chosen from the suggestions.
+     *
+     * @param term the term; ignored if it is not in the trie
+     */
+    public synchronized void pick(String term) {
+        List<Node> path = new ArrayList<>();
+        Node node = find(key(term), path);
+        if (node == null || node.count == 0) {
+            return;
+        }
+        node.picks++;
+        for (Node ancestor : path) {
+            ancestor.promote(node, limit);
+        }
+    }
+
+    /**
+     * Suggests the most frequent terms starting with a prefix.
+     *
+     * @param prefix the prefix, matched ignoring case
+     * @return up to the limit of the trie, most frequent first; empty if the prefix is blank or no term starts with it
+     */
+    public synchronized List<String> suggest(String prefix) {
+        String key = key(prefix);
+        List<String> suggestions = new ArrayList<>();
+        if (key.isEmpty()) {
+            return suggestions;
+        }
+        Node node = root;
+        int matched = 0;
+        while (matched < key.length()) {
+            Node child = node.child(key.charAt(matched));
+            if (child == null) {
+                return suggestions;
+            }
+            int common = commonPrefix(key, matched, child.label);
+            if (matched + common == key.length()) {
+                // The prefix ends on this edge: every term below the child starts with it
+                node = child;
+                break;
+            }
+            if (common < child.label.length()) {
+                return suggestions;
+            }
+            matched += common;
+            node = child;
+        }
+        for (Node top : node.top) {
+            suggestions.add(top.term);
+        }
+        return suggestions;
+    }
+
+    /**
+     * Gets how often a term occurs.
+     *
+     * @param term the term, matched ignoring case
+     * @return the count, 0 if it is not in the trie
+     */
+    public synchronized int count(String term) {
+        Node node = find(key(term), new ArrayList<>());
+        return node == null ? 0 : node.count;
+    }
+
+    /**
+     * Gets the number of distinct terms.
+     *
+     * @return the number of terms
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Finds the node of a key, creating it and splitting edges as needed, and collects the nodes on the way to it.
+     */
+    private Node insert(String key, List<Node> path) {
+        Node node = root;
+        int matched = 0;
+        path.add(node);
+        while (matched < key.length()) {
+            Node child = node.child(key.charAt(matched));
+            if (child == null) {
+                Node leaf = new Node(key.substring(matched));
+                leaf.key = key;
+                node.addChild(leaf);
+                path.add(leaf);
+                return leaf;
+            }
+            int common = commonPrefix(key, matched, child.label);
+            if (common < child.label.length()) {
+                // Split the edge where the key leaves it
+                Node middle = new Node(child.label.substring(0, common));
+                middle.key = key.substring(0, matched + common);
+                node.replaceChild(child, middle);
+                child.label = child.label.substring(common);
+                middle.addChild(child);
+                middle.top = child.top.clone();
+                child = middle;
+            }
+            matched += common;
+            node = child;
+            path.add(node);
+        }
+        return node;
+    }
+
+    /**
+     * Finds the node of a key without changing the trie, and collects the nodes on the way to it.
+     */
+    private Node find(String key, List<Node> path) {
+        if (key.isEmpty()) {
+            return null;
+        }
+        Node node = root;
+        int matched = 0;
+        path.add(node);
+        while (matched < key.length()) {
+            Node child = node.child(key.charAt(matched));
+            if (child == null || commonPrefix(key, matched, child.label) < child.label.length()) {
+                return null;
+            }
+            matched += child.label.length();
+            node = child;
+            path.add(node);
+        }
+        return node;
+    }
+
+    private static int commonPrefix(String key, int from, String label) {
+        int length = Math.min(key.length() - from, label.length());
+        int i = 0;
+        while (i < length && key.charAt(from + i) == label.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static String key(String term) {
+        return term == null ? "" : term.strip().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A node of the trie, reached over an edge labelled with one or more characters.
+     */
+    private static final class Node {
+        /** The characters of the edge from the parent. */
+        String label;
+
+        /** The whole key from the root to this node. */
+        String key;
+
+        /** The first characters of the edges to the children, sorted, and the children in the same order. */
+        char[] keys = NO_KEYS;
+        Node[] children = NO_CHILDREN;
+
+        /** The term ending here as first added, how often it occurs and how often it was picked; 0 if none ends here. */
+        String term;
+        int count;
+        int picks;
+
+        /** The terms ending here or below with the highest rank, best first. */
+        Node[] top = NO_CHILDREN;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        long rank() {
+            return (long) count + picks;
+        }
+
+        Node child(char first) {
+            int index = Arrays.binarySearch(keys, first);
+            return index < 0 ? null : children[index];
+        }
+
+        void addChild(Node child) {
+            int index = -Arrays.binarySearch(keys, child.label.charAt(0)) - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            newKeys[index] = child.label.charAt(0);
+            newChildren[index] = child;
+            System.arraycopy(keys, index, newKeys, index + 1, keys.length - index);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        void replaceChild(Node old, Node replacement) {
+            children[Arrays.binarySearch(keys, old.label.charAt(0))] = replacement;
+        }
+
+        void removeChild(Node child) {
+            int index = Arrays.binarySearch(keys, child.label.charAt(0));
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        /**
+         * Moves a term whose rank rose into the list, or up within it.
+         */
+        void promote(Node node, int limit) {
+            int index = Arrays.asList(top).indexOf(node);
+            if (index < 0) {
+                if (top.length == limit) {
+                    if (RANK.compare(node, top[limit - 1]) >= 0) {
+                        return;
+                    }
+                    top = Arrays.copyOf(top, limit);
+                    index = limit - 1;
+                } else {
+                    top = Arrays.copyOf(top, top.length + 1);
+                    index = top.length - 1;
+                }
+                top[index] = node;
+            }
+            while (index > 0 && RANK.compare(top[index], top[index - 1]) < 0) {
+                Node swap = top[index - 1];
+                top[index - 1] = top[index];
+                top[index] = swap;
+                index--;
+            }
+        }
+
+        /**
+         * Rebuilds the list from the term ending here and the lists of the children.
+         */
+        void rebuild(int limit) {
+            List<Node> candidates = new ArrayList<>();
+            if (count > 0) {
+                candidates.add(this);
+            }
+            for (Node child : children) {
+                candidates.addAll(Arrays.asList(child.top));
+            }
+            candidates.sort(RANK);
+            top = candidates.subList(0, Math.min(limit, candidates.size())).toArray(NO_CHILDREN);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.project.security;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles login attempts per email and per source, so that brute-force attempts are turned away in memory before
+ * they reach the {@code REGISTRATION} table.
+ * <p>
+ * By default an email may be tried 5 times a minute and a source (a kiosk or a client address of the API server)
+ * 30 times a minute, each allowing the whole allowance as a burst. Like {@link com.example.project.DatabaseManager},
+ * this class is a singleton so that the login page and the API server share the same counters.
+ * </p>
+ */
+public class LoginRateLimiter {
+    /** The source used for attempts made on the login page of this application. */
+    public static final String LOCAL_SOURCE = "local";
+
+    /** The default number of attempts allowed per email per minute. */
+    public static final int ATTEMPTS_PER_EMAIL = 5;
+
+    /** The default number of attempts allowed per source per minute. */
+    public static final int ATTEMPTS_PER_SOURCE = 30;
+
+    /** The maximum number of emails or sources tracked at once. */
+    private static final int MAX_KEYS = 100_000;
+
+    private static LoginRateLimiter instance;
+
+    private final RateLimiter byEmail;
+    private final RateLimiter bySource;
+
+    /**
+     * Constructs a LoginRateLimiter with the given allowances per minute.
+     *
+     * @param attemptsPerEmail  the number of attempts allowed per email per minute
+     * @param attemptsPerSource the number of attempts allowed per source per minute
+     */
+    public LoginRateLimiter(int attemptsPerEmail, int attemptsPerSource) {
+        this.byEmail = new RateLimiter(attemptsPerEmail, 1, TimeUnit.MINUTES, MAX_KEYS);
+        this.bySource = new RateLimiter(attemptsPerSource, 1, TimeUnit.MINUTES, MAX_KEYS);
+    }
+
+    /**
+     * Gets the singleton instance of LoginRateLimiter with the default allowances.
+     *
+     * @return the shared login rate limiter
+     */
+    public static synchronized LoginRateLimiter getInstance() {
+        if (instance == null) {
+            instance = new LoginRateLimiter(ATTEMPTS_PER_EMAIL, ATTEMPTS_PER_SOURCE);
+        }
+        return instance;
+    }
+
+    /**
+     * Records a login attempt if neither the email nor the source has used up its allowance.
+     * Must be called before the credentials are checked against the database.
+     *
+     * @param email  the email being logged in to
+     * @param source where the attempt comes from, e.g. {@link #LOCAL_SOURCE} or a client address
+     * @return {@code true} if the attempt may go ahead, {@code false} if it must be rejected
+     */
+    public boolean tryAttempt(String email, String source) {
+        return bySource.tryAcquire(source) && byEmail.tryAcquire(normalise(email));
+    }
+
+    /**
+     * Gives an email its full allowance back after a successful login.
+     *
+     * @param email the email that was logged in to
+     */
+    public void succeeded(String email) {
+        byEmail.reset(normalise(email));
+    }
+
+    private static String normalise(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
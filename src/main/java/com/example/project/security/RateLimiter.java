@@ -0,0 +1,142 @@
+package com.example.project.security;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free rate limiter allowing each key a number of events per period, with bursts.
+ * <p>
+ * Each key is a token bucket implemented with the generic cell rate algorithm (GCRA): instead of a token count and a
+ * refill time, the bucket is a single {@code long}, the "theoretical arrival time" at which the bucket would be full
+ * again. An event is allowed if that time is no more than the burst tolerance in the future, and then pushes it forward
+ * by one emission interval. Both steps are a read and a compare-and-set on one {@link AtomicLong}, so a check takes no
+ * lock and well under a microsecond.
+ * </p>
+ * <p>
+ * Memory is bounded: a key whose theoretical arrival time has passed behaves exactly like a key never seen, so such
+ * an idle key can be dropped at any time. Once the table holds {@code maxKeys}, a new key takes the place of an idle
+ * one found by a clock hand that moves round the table a few buckets per new key, so making room costs O(1) and never
+ * a scan of the whole table. If the hand finds no idle key within those few steps, the new key is charged to a single
+ * overflow bucket shared by every untracked key, limited like one key. Flooding the table with keys therefore makes
+ * new keys stricter, never unlimited: throttling cannot be switched off from outside.
+ * </p>
+ */
+public class RateLimiter {
+    /** How many buckets the clock hand looks at for an idle key before a new key is charged to the overflow bucket. */
+    private static final int EVICTION_STEPS = 16;
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final int maxKeys;
+    private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    /** The bucket shared by every key that finds the table full of active keys. */
+    private final AtomicLong overflow = new AtomicLong(System.nanoTime());
+
+    /** The clock hand over the buckets, guarded by this limiter. */
+    private Iterator<AtomicLong> hand;
+
+    /**
+     * Constructs a RateLimiter.
+     *
+     * @param events  the number of events allowed per period, at least 1
+     * @param period  the length of the period
+     * @param unit    the unit of the period
+     * @param maxKeys the maximum number of keys tracked at once
+     */
+    public RateLimiter(int events, long period, TimeUnit unit, int maxKeys) {
+        this.emissionIntervalNanos = unit.toNanos(period) / Math.max(1, events);
+        this.burstToleranceNanos = emissionIntervalNanos * (Math.max(1, events) - 1);
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Records an event for a key if its rate allows it.
+     *
+     * @param key the key, e.g. an email or a client address
+     * @return {@code true} if the event is allowed, {@code false} if it must be rejected
+     */
+    public boolean tryAcquire(String key) {
+        return tryAcquire(key, System.nanoTime());
+    }
+
+    /**
+     * Records an event for a key at a given time if its rate allows it.
+     *
+     * @param key      the key
+     * @param nowNanos the current time from {@link System#nanoTime()}
+     * @return {@code true} if the event is allowed
+     */
+    boolean tryAcquire(String key, long nowNanos) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys && !evictIdle(nowNanos)) {
+                return acquire(overflow, nowNanos);
+            }
+            AtomicLong created = new AtomicLong(nowNanos + emissionIntervalNanos);
+            bucket = buckets.putIfAbsent(key, created);
+            if (bucket == null) {
+                return true;
+            }
+        }
+        return acquire(bucket, nowNanos);
+    }
+
+    /**
+     * Records an event in a bucket if the bucket allows it.
+     */
+    private boolean acquire(AtomicLong bucket, long nowNanos) {
+        while (true) {
+            long arrival = bucket.get();
+            long start = arrival - nowNanos > 0 ? arrival : nowNanos;
+            if (start - nowNanos > burstToleranceNanos) {
+                return false;
+            }
+            if (bucket.compareAndSet(arrival, start + emissionIntervalNanos)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Forgets a key, giving it its full burst again, e.g. after a successful login.
+     *
+     * @param key the key
+     */
+    public void reset(String key) {
+        buckets.remove(key);
+    }
+
+    /**
+     * Gets the number of keys currently tracked.
+     *
+     * @return the number of keys
+     */
+    public int trackedKeys() {
+        return buckets.size();
+    }
+
+    /**
+     * Moves the clock hand a few buckets on, dropping the first idle one it finds.
+     *
+     * @return {@code true} if a key was dropped, or the table has room anyway
+     */
+    private synchronized boolean evictIdle(long nowNanos) {
+        for (int step = 0; step < EVICTION_STEPS; step++) {
+            if (hand == null || !hand.hasNext()) {
+                hand = buckets.values().iterator();
+                if (!hand.hasNext()) {
+                    return true;
+                }
+            }
+            if (hand.next().get() - nowNanos <= 0) {
+                hand.remove();
+                return true;
+            }
+        }
+        return buckets.size() < maxKeys;
+    }
+}
@@ -0,0 +1,901 @@
+package com.example.project.server;
+
+import com.example.project.ConnectionPool;
+import com.example.project.DatabaseManager;
+import com.example.project.analytics.CatalogAnalytics;
+import com.example.project.analytics.PriceSummary;
+import com.example.project.audit.AuditEvent;
+import com.example.project.audit.AuditLog;
+import com.example.project.booking.BookingException;
+import com.example.project.booking.BookingService;
+import com.example.project.booking.CabinType;
+import com.example.project.booking.HoldManager;
+import com.example.project.catalog.Charity;
+import com.example.project.catalog.Sailing;
+import com.example.project.catalog.VersionedCatalog;
+import com.example.project.donation.Donation;
+import com.example.project.donation.DonationLedger;
+import com.example.project.donation.DonationTotal;
+import com.example.project.payment.Checkout;
+import com.example.project.payment.CheckoutResult;
+import com.example.project.payment.PaymentException;
+import com.example.project.payment.PaymentPipeline;
+import com.example.project.payment.SimulatedGateway;
+import com.example.project.repository.Repositories;
+import com.example.project.repository.User;
+import com.example.project.repository.Versioned;
+import com.example.project.route.CharityMatchIndex;
+import com.example.project.route.Itinerary;
+import com.example.project.route.ItineraryPlanner;
+import com.example.project.route.RouteIndex;
+import com.example.project.security.LoginRateLimiter;
+import com.example.project.sync.ChangeFeed;
+import com.example.project.validation.CatalogValidator;
+import com.example.project.validation.ValidationReport;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A headless JSON API over the cruise catalog, so web and mobile front ends can use the same data and logic as the
+ * JavaFX {@code CruiseBookingSystem} application.
+ * <p>
+ * The server is built on the JDK HTTP server and handles every request on its own virtual thread, so thousands of
+ * concurrent connections cost little more than their sockets; blocking on the database parks the virtual thread rather
+ * than an OS thread. Database access goes through a {@link ConnectionPool}, which bounds the load put on MySQL
+ * independently of the number of connected clients. The browsing endpoints answer from the current version of the
+ * {@link VersionedCatalog} without touching the database, so they neither wait for admin writes nor fail while the
+ * database is unreachable.
+ * </p>
+ * <p>
+ * Endpoints, mirroring the pages of the application:
+ * </p>
+ * <ul>
+ *     <li>{@code GET /api/cruises?country=&duration=&port=&from=&visit=} lists sailings, optionally filtered like the
+ *     admin page or by port using the {@link RouteIndex};</li>
+ *     <li>{@code GET /api/itinerary?from=&to=&earliest=yyyy-mm-dd&criterion=price|nights} plans a multi-leg trip;</li>
+ *     <li>{@code GET /api/charities?country=} lists charity organisations, and {@code GET /api/charities?sailing=} the
+ *     charities along the route of the sailing with that id, from the {@link CharityMatchIndex};</li>
+ *     <li>{@code GET /api/analytics?country=|month=yyyy-mm|route=|ship=} returns the sailing counts and price
+ *     summaries of the {@link CatalogAnalytics}, either all of them or the one asked for;</li>
+ *     <li>{@code GET /api/donations?charity=} returns the donation totals of every charity or of one, and
+ *     {@code POST /api/donations} with {@code {"charity", "amount"}} in RM records a donation of the logged-in user in
+ *     the {@link DonationLedger}. The charity is given by its id or its name, and an unknown one is answered with
+ *     404;</li>
+ *     <li>{@code POST /api/bookings} with {@code {"sailing", "cabinType", "cabins"}} and optionally
+ *     {@code {"charity", "donation"}} in RM books and pays for cabins of the logged-in user through the
+ *     {@link Checkout}. A sold-out sailing is answered with 409 and a declined or failed payment with 402; a donation
+ *     charged but not recorded is reported in the answer without failing the booking;</li>
+ *     <li>{@code POST /api/login} with {@code {"email", "password"}} returns a session token, and
+ *     {@code POST /api/logout} with that token as {@code Authorization: Bearer} ends the session. A session also ends
+ *     after {@value #SESSION_IDLE_MINUTES} minutes without a request, and {@value #SESSION_MAX_HOURS} hours after the
+ *     login in any case;</li>
+ *     <li>{@code POST /api/admin/cruises}, {@code PUT} and {@code DELETE /api/admin/cruises/{id}} and the same
+ *     under {@code /api/admin/charities/{id}} add, update and delete entries with the same statements as the admin
+ *     and charity pages. They need the token of an admin ({@code @admin.com}) login as {@code Authorization: Bearer},
+ *     and are recorded in the {@link AuditLog} like changes made on the pages. {@code POST} returns the entry with its
+ *     new {@code id}, and {@code GET} returns the entry with the {@code version} of its row, also as its
+ *     {@code ETag}. A {@code PUT} must send that version, as {@code version} in its body or as {@code If-Match}, and
+ *     is answered with 428 without one; it is only applied if nobody saved the entry since, and is answered with 409
+ *     otherwise. Entries breaking an error rule of the
+ *     {@link CatalogValidator} are answered with 422 and the violations, and are not saved.</li>
+ * </ul>
+ */
+public class ApiServer {
+    /** The default port the server listens on. */
+    public static final int DEFAULT_PORT = 8080;
+
+    /** The default number of database connections shared by all requests. */
+    public static final int DEFAULT_POOL_SIZE = 32;
+
+    /** How long a session stays open without a request, in minutes. */
+    public static final int SESSION_IDLE_MINUTES = 30;
+
+    /** How long a session stays open after the login, however active, in hours. */
+    public static final int SESSION_MAX_HOURS = 12;
+
+    /** How many pending connections the operating system queues before refusing new ones. */
+    private static final int BACKLOG = 4096;
+
+    static {
+        // Send small JSON responses at once instead of waiting for the client to acknowledge the headers (Nagle)
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Repositories repositories;
+    private final RouteIndex routeIndex;
+    private final ItineraryPlanner itineraryPlanner;
+    private final LoginRateLimiter loginRateLimiter = LoginRateLimiter.getInstance();
+    private final VersionedCatalog versionedCatalog = VersionedCatalog.getInstance();
+    private final CatalogAnalytics catalogAnalytics = CatalogAnalytics.getInstance();
+    private final CharityMatchIndex charityMatchIndex = CharityMatchIndex.getInstance();
+    private final DonationLedger donationLedger = DonationLedger.getInstance();
+    private final AuditLog auditLog = AuditLog.getInstance();
+    private final CatalogValidator validator = new CatalogValidator();
+    private final HoldManager holdManager;
+    private final Checkout checkout;
+
+    /** Session token to the session of the logged-in user. */
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an ApiServer. The server does not accept requests until {@link #start()} is called.
+     *
+     * @param port            the port to listen on
+     * @param pool            the connections to the database
+     * @param routeIndex      the route index to search
+     * @param paymentPipeline the pipeline charging the bookings
+     * @throws IOException if the port cannot be bound
+     */
+    public ApiServer(int port, ConnectionPool pool, RouteIndex routeIndex, PaymentPipeline paymentPipeline) throws IOException {
+        this.routeIndex = routeIndex;
+        this.itineraryPlanner = new ItineraryPlanner(routeIndex);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.repositories = new Repositories(pool, executor);
+        this.holdManager = new HoldManager(new BookingService(pool));
+        this.checkout = new Checkout(holdManager, paymentPipeline, executor, donationLedger);
+        this.server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        this.server.setExecutor(executor);
+
+        server.createContext("/api/cruises", exchange -> handle(exchange, this::cruises));
+        server.createContext("/api/itinerary", exchange -> handle(exchange, this::itinerary));
+        server.createContext("/api/charities", exchange -> handle(exchange, this::charities));
+        server.createContext("/api/analytics", exchange -> handle(exchange, this::analytics));
+        server.createContext("/api/donations", exchange -> handle(exchange, this::donations));
+        server.createContext("/api/bookings", exchange -> handle(exchange, this::bookings));
+        server.createContext("/api/login", exchange -> handle(exchange, this::login));
+        server.createContext("/api/logout", exchange -> handle(exchange, this::logout));
+        server.createContext("/api/admin/cruises", exchange -> handle(exchange, this::adminCruises));
+        server.createContext("/api/admin/charities", exchange -> handle(exchange, this::adminCharities));
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests and waits up to a second for running requests to finish.
+     */
+    public void stop() {
+        server.stop(1);
+        holdManager.close();
+        executor.shutdown();
+    }
+
+    /**
+     * Gets the port the server listens on, which is useful when it was created with port 0.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Handles one endpoint: a request either produces a value to be sent as JSON or fails with an {@link ApiException}.
+     */
+    private interface Endpoint {
+        Object handle(HttpExchange exchange) throws ApiException, SQLException, IOException;
+    }
+
+    /**
+     * An error to be reported to the client with an HTTP status.
+     */
+    private static class ApiException extends Exception {
+        private final int status;
+
+        private ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * The logged-in user of a token, with the times the session expires at.
+     */
+    private static class Session {
+        private final String email;
+        private final long expiresAt;
+        private volatile long idleUntil;
+
+        private Session(String email, long now) {
+            this.email = email;
+            this.expiresAt = now + TimeUnit.HOURS.toMillis(SESSION_MAX_HOURS);
+            this.idleUntil = now + TimeUnit.MINUTES.toMillis(SESSION_IDLE_MINUTES);
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt || now >= idleUntil;
+        }
+
+        private void touch(long now) {
+            idleUntil = now + TimeUnit.MINUTES.toMillis(SESSION_IDLE_MINUTES);
+        }
+    }
+
+    /**
+     * Runs an endpoint and writes its result or error as JSON.
+     * <p>
+     * Malformed requests, such as a body that is not JSON or a parameter that is not a number or a date, are answered
+     * with 400. Anything else that goes wrong is a fault of the server, answered with 500, or 503 if the database
+     * cannot be reached, and printed, so that clients are not blamed for it and its details are not sent to them.
+     * </p>
+     */
+    private void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
+        int status = 200;
+        Object body;
+        try {
+            body = endpoint.handle(exchange);
+            if ("POST".equals(exchange.getRequestMethod()) && body instanceof Map && ((Map<?, ?>) body).containsKey("created")) {
+                status = 201;
+            }
+        } catch (ApiException e) {
+            status = e.status;
+            body = Map.of("error", e.getMessage());
+        } catch (SQLIntegrityConstraintViolationException e) {
+            status = 409;
+            body = Map.of("error", "Conflicts with other data, such as deleting a destination that has reservations");
+        } catch (SQLException e) {
+            logFailure(exchange, e);
+            status = 503;
+            body = Map.of("error", "Database unavailable");
+        } catch (IllegalArgumentException | DateTimeException e) {
+            status = 400;
+            body = Map.of("error", String.valueOf(e.getMessage()));
+        } catch (IOException | RuntimeException e) {
+            logFailure(exchange, e);
+            status = 500;
+            body = Map.of("error", "Internal server error");
+        }
+        byte[] bytes = Json.write(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * {@code GET /api/cruises}: lists sailings, filtered by departure country, duration and ports.
+     */
+    private Object cruises(HttpExchange exchange) throws ApiException {
+        requireMethod(exchange, "GET");
+        Map<String, String> query = query(exchange);
+        String country = query.get("country");
+        String duration = query.get("duration");
+
+        List<Sailing> sailings;
+        if (query.containsKey("port")) {
+            sailings = routeIndex.sailingsCallingAt(query.get("port"));
+        } else if (query.containsKey("from") && query.containsKey("visit")) {
+            sailings = routeIndex.sailingsFromVisiting(query.get("from"), query.get("visit"));
+        } else {
+            sailings = versionedCatalog.current().sailings(country, duration);
+        }
+
+        List<Object> result = new ArrayList<>();
+        for (Sailing sailing : sailings) {
+            if ((country == null || country.equals(sailing.getCountryFrom())) && (duration == null || duration.equals(sailing.getDuration()))) {
+                result.add(toJson(sailing));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@code GET /api/itinerary}: plans a multi-leg trip.
+     */
+    private Object itinerary(HttpExchange exchange) throws ApiException {
+        requireMethod(exchange, "GET");
+        Map<String, String> query = query(exchange);
+        String from = require(query, "from");
+        String to = require(query, "to");
+        LocalDate earliest = query.containsKey("earliest") ? LocalDate.parse(query.get("earliest")) : null;
+        ItineraryPlanner.Criterion criterion = ItineraryPlanner.Criterion.valueOf(query.getOrDefault("criterion", "price").toUpperCase());
+
+        Itinerary itinerary = itineraryPlanner.plan(from, to, earliest, criterion)
+                .orElseThrow(() -> new ApiException(404, "No itinerary found"));
+        List<Object> legs = new ArrayList<>();
+        for (Itinerary.Leg leg : itinerary.getLegs()) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("from", leg.getFrom());
+            json.put("to", leg.getTo());
+            json.put("departure", leg.getDeparture().toString());
+            json.put("arrival", leg.getArrival().toString());
+            json.put("sailing", toJson(leg.getSailing()));
+            legs.add(json);
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("legs", legs);
+        json.put("totalPrice", itinerary.getTotalPrice());
+        json.put("totalNights", itinerary.getTotalNights());
+        return json;
+    }
+
+    /**
+     * {@code GET /api/analytics}: returns the aggregates over all sailings. A {@code country}, {@code month},
+     * {@code route} or {@code ship} parameter returns only that one figure, read in constant time.
+     */
+    private Object analytics(HttpExchange exchange) throws ApiException {
+        requireMethod(exchange, "GET");
+        Map<String, String> query = query(exchange);
+        if (query.containsKey("country")) {
+            return Map.of("country", query.get("country"), "sailings", catalogAnalytics.countByCountry(query.get("country")));
+        }
+        if (query.containsKey("month")) {
+            YearMonth month = month(query.get("month"));
+            return Map.of("month", month.toString(), "sailings", catalogAnalytics.countByMonth(month));
+        }
+        if (query.containsKey("route")) {
+            return Map.of("route", query.get("route"), "price", toJson(catalogAnalytics.priceByRoute(query.get("route"))));
+        }
+        if (query.containsKey("ship")) {
+            return Map.of("ship", query.get("ship"), "price", toJson(catalogAnalytics.priceByShip(query.get("ship"))));
+        }
+
+        Map<String, Object> byMonth = new LinkedHashMap<>();
+        catalogAnalytics.countsByMonth().forEach((month, count) -> byMonth.put(month.toString(), count));
+        Map<String, Object> byRoute = new LinkedHashMap<>();
+        catalogAnalytics.pricesByRoute().forEach((route, price) -> byRoute.put(route, toJson(price)));
+        Map<String, Object> byShip = new LinkedHashMap<>();
+        catalogAnalytics.pricesByShip().forEach((ship, price) -> byShip.put(ship, toJson(price)));
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("sailings", catalogAnalytics.sailingCount());
+        json.put("byCountry", new LinkedHashMap<String, Object>(catalogAnalytics.countsByCountry()));
+        json.put("byMonth", byMonth);
+        json.put("priceByRoute", byRoute);
+        json.put("priceByShip", byShip);
+        return json;
+    }
+
+    /**
+     * Parses the {@code month} parameter of the analytics, which must be a month like {@code 2024-10}.
+     */
+    private static YearMonth month(String month) throws ApiException {
+        try {
+            return YearMonth.parse(month.trim());
+        } catch (DateTimeParseException e) {
+            throw new ApiException(400, "Invalid month '" + month + "'; expected yyyy-mm, e.g. 2024-10");
+        }
+    }
+
+    /**
+     * {@code GET /api/charities}: lists charity organisations, optionally of one country or along the route of a
+     * sailing.
+     */
+    private Object charities(HttpExchange exchange) throws ApiException {
+        requireMethod(exchange, "GET");
+        Map<String, String> query = query(exchange);
+        List<Object> result = new ArrayList<>();
+        if (query.containsKey("sailing")) {
+            for (Charity charity : charityMatchIndex.charitiesAlong(Long.parseLong(query.get("sailing")))) {
+                result.add(toJson(charity));
+            }
+            return result;
+        }
+        for (Charity charity : versionedCatalog.current().charities(query.get("country"))) {
+            result.add(toJson(charity));
+        }
+        return result;
+    }
+
+    /**
+     * {@code GET/POST /api/donations}: reads the running totals, or donates to a charity once logged in. A donation is
+     * answered after its group commit has made it durable.
+     */
+    private Object donations(HttpExchange exchange) throws ApiException, IOException {
+        if ("GET".equals(exchange.getRequestMethod())) {
+            String charity = query(exchange).get("charity");
+            if (charity != null) {
+                return toJson(donationLedger.getTotal(charity));
+            }
+            Map<String, Object> json = new LinkedHashMap<>();
+            donationLedger.getTotals().forEach((name, total) -> json.put(name, toJson(total)));
+            return json;
+        }
+        requireMethod(exchange, "POST");
+        String email = requireLogin(exchange);
+        Map<String, Object> body = body(exchange);
+        Object amount = body.get("amount");
+        long amountSen = Math.round((amount instanceof Number ? ((Number) amount).doubleValue() : Double.parseDouble(String.valueOf(amount))) * 100);
+        try {
+            Donation donation = donationLedger.donate(charityName(body.get("charity")), email, amountSen, null).join();
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("sequence", donation.getSequence());
+            json.put("charity", donation.getCharity());
+            json.put("amountSen", donation.getAmountSen());
+            json.put("total", toJson(donationLedger.getTotal(donation.getCharity())));
+            return Map.of("created", json);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof NoSuchElementException) {
+                throw new ApiException(404, e.getCause().getMessage());
+            }
+            if (e.getCause() instanceof IllegalArgumentException) {
+                throw new ApiException(400, e.getCause().getMessage());
+            }
+            logFailure(exchange, e.getCause());
+            throw new ApiException(503, "Donation not recorded");
+        }
+    }
+
+    /**
+     * {@code POST /api/bookings}: books and pays for cabins on a sailing once logged in, optionally with a donation.
+     * The reservation is answered once the payment is settled and the cabins are confirmed.
+     */
+    private Object bookings(HttpExchange exchange) throws ApiException, IOException {
+        requireMethod(exchange, "POST");
+        String email = requireLogin(exchange);
+        Map<String, Object> body = body(exchange);
+        long sailingId = Long.parseLong(string(body, "sailing"));
+        Sailing sailing = versionedCatalog.current().sailing(sailingId);
+        if (sailing == null) {
+            throw new ApiException(404, "No destination " + sailingId);
+        }
+        CabinType cabinType = CabinType.valueOf(string(body, "cabinType").toUpperCase());
+        int cabins = Integer.parseInt(string(body, "cabins"));
+        if (cabins < 1) {
+            throw new ApiException(400, "At least one cabin must be booked");
+        }
+        String charity = body.get("charity") == null ? null : charityName(body.get("charity"));
+        int donation = body.get("donation") == null ? 0 : (int) Math.round(Double.parseDouble(string(body, "donation")));
+
+        try {
+            CheckoutResult result = checkout.checkout(email, sailing.getId(), cabinType, cabins, sailing.getPrice(),
+                    charity, donation).join();
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("reservation", result.getReservation().getId());
+            json.put("sailing", result.getReservation().getSailingId());
+            json.put("place", sailing.getPlace());
+            json.put("cabinType", result.getReservation().getCabinType().name());
+            json.put("cabins", result.getReservation().getCabins());
+            if (result.getDonation() != null) {
+                json.put("donation", result.getDonation().getSequence());
+            } else if (result.getDonationFailure() != null) {
+                logFailure(exchange, result.getDonationFailure());
+                json.put("donationError", "Donation charged but not recorded");
+            }
+            return Map.of("created", json);
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof NoSuchElementException) {
+                throw new ApiException(404, cause.getMessage());
+            }
+            if (cause instanceof BookingException booking && booking.getReason() == BookingException.Reason.SOLD_OUT) {
+                throw new ApiException(409, cause.getMessage());
+            }
+            if (cause instanceof PaymentException) {
+                throw new ApiException(402, cause.getMessage());
+            }
+            logFailure(exchange, cause);
+            throw new ApiException(503, "Booking not completed");
+        }
+    }
+
+    /**
+     * Logs a failure the client is not to blame for. Its details stay in the log of the server; the client is only
+     * answered with a fixed message, which tells nothing of the database or the payment gateways.
+     */
+    private static void logFailure(HttpExchange exchange, Throwable failure) {
+        System.err.println(exchange.getRequestMethod() + " " + exchange.getRequestURI() + " failed: " + failure);
+    }
+
+    /**
+     * Gets the version a {@code PUT} expects the entry to still have, from {@code version} in its body or its
+     * {@code If-Match} header. Updates without one would overwrite whatever another admin saved meanwhile.
+     */
+    private static int expectedVersion(HttpExchange exchange, Map<String, Object> body) throws ApiException {
+        Object version = body.get("version");
+        if (version == null) {
+            String ifMatch = exchange.getRequestHeaders().getFirst("If-Match");
+            if (ifMatch == null || ifMatch.isBlank()) {
+                throw new ApiException(428, "The version read with GET is required, as \"version\" or If-Match");
+            }
+            version = ifMatch.trim().replaceFirst("^W/", "").replace("\"", "");
+        }
+        try {
+            return version instanceof Number number ? number.intValue() : Integer.parseInt(version.toString());
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "Invalid version '" + version + "'");
+        }
+    }
+
+    /**
+     * Gets the name of a charity given by its id or its name, which the donation ledger keys its totals by.
+     */
+    private String charityName(Object charity) throws ApiException {
+        if (charity == null) {
+            throw new IllegalArgumentException("Missing field charity");
+        }
+        if (charity instanceof Number id) {
+            Charity found = versionedCatalog.current().charity(id.longValue());
+            if (found == null) {
+                throw new ApiException(404, "No charity " + id.longValue());
+            }
+            return found.getName();
+        }
+        return charity.toString();
+    }
+
+    /**
+     * {@code POST /api/login}: checks credentials like the login page and opens a session.
+     * Attempts beyond the allowance of the email or the client address are refused with 429 before any query runs.
+     */
+    private Object login(HttpExchange exchange) throws ApiException, SQLException, IOException {
+        requireMethod(exchange, "POST");
+        Map<String, Object> body = body(exchange);
+        String email = String.valueOf(body.get("email"));
+        String password = String.valueOf(body.get("password"));
+        if (!loginRateLimiter.tryAttempt(email, exchange.getRemoteAddress().getAddress().getHostAddress())) {
+            throw new ApiException(429, "Too many login attempts");
+        }
+
+        User user = repositories.users().findByEmail(email);
+        if (user != null && user.hasPassword(password)) {
+            loginRateLimiter.succeeded(email);
+            long now = System.currentTimeMillis();
+            sessions.values().removeIf(session -> session.isExpired(now));
+            String token = UUID.randomUUID().toString();
+            sessions.put(token, new Session(user.getEmail(), now));
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("token", token);
+            json.put("username", user.getUsername());
+            json.put("email", user.getEmail());
+            json.put("admin", user.isAdmin());
+            return json;
+        }
+        throw new ApiException(401, "Invalid credentials");
+    }
+
+    /**
+     * {@code POST /api/logout}: ends the session of the token.
+     */
+    private Object logout(HttpExchange exchange) throws ApiException {
+        requireMethod(exchange, "POST");
+        requireLogin(exchange);
+        sessions.remove(token(exchange));
+        return Map.of("loggedOut", true);
+    }
+
+    /**
+     * {@code GET/POST/PUT/DELETE /api/admin/cruises}: manages sailings like the admin page.
+     */
+    private Object adminCruises(HttpExchange exchange) throws ApiException, SQLException, IOException {
+        String admin = requireAdmin(exchange);
+        String method = exchange.getRequestMethod();
+        Long id = pathId(exchange, "/api/admin/cruises");
+
+        if ("POST".equals(method)) {
+            Sailing sailing = repositories.sailings().insert(valid(sailingFrom(body(exchange), 0)));
+            versionedCatalog.addSailing(sailing);
+            auditLog.recordSailing(admin, AuditEvent.Action.ADD, sailing.getId(), null, sailing);
+            return Map.of("created", toJson(sailing));
+        }
+        if (id == null) {
+            throw new ApiException(404, "Missing id");
+        }
+        if ("GET".equals(method)) {
+            Versioned<Sailing> sailing = repositories.sailings().findVersioned(id);
+            if (sailing == null) {
+                throw new ApiException(404, "No destination " + id);
+            }
+            Map<String, Object> json = toJson(sailing.getValue());
+            json.put("version", sailing.getVersion());
+            exchange.getResponseHeaders().set("ETag", "\"" + sailing.getVersion() + "\"");
+            return json;
+        }
+        if ("PUT".equals(method)) {
+            Map<String, Object> body = body(exchange);
+            int version = expectedVersion(exchange, body);
+            Sailing sailing = valid(sailingFrom(body, id));
+            Sailing before = versionedCatalog.current().sailing(id);
+            if (!repositories.sailings().update(sailing, version)) {
+                if (repositories.sailings().findVersioned(id) != null) {
+                    throw new ApiException(409, "Destination " + id + " was changed by another admin; read it again and retry");
+                }
+                throw new ApiException(404, "No destination " + id);
+            }
+            versionedCatalog.updateSailing(sailing);
+            auditLog.recordSailing(admin, AuditEvent.Action.UPDATE, id, before, sailing);
+            return Map.of("updated", 1);
+        }
+        if ("DELETE".equals(method)) {
+            Sailing before = versionedCatalog.current().sailing(id);
+            if (!repositories.sailings().delete(id)) {
+                throw new ApiException(404, "No destination " + id);
+            }
+            versionedCatalog.removeSailing(id);
+            auditLog.recordSailing(admin, AuditEvent.Action.DELETE, id, before, null);
+            return Map.of("deleted", 1);
+        }
+        throw new ApiException(405, "Method not allowed");
+    }
+
+    /**
+     * {@code GET/POST/PUT/DELETE /api/admin/charities}: manages charity organisations like the charity page.
+     */
+    private Object adminCharities(HttpExchange exchange) throws ApiException, SQLException, IOException {
+        String admin = requireAdmin(exchange);
+        String method = exchange.getRequestMethod();
+        Long id = pathId(exchange, "/api/admin/charities");
+
+        if ("POST".equals(method)) {
+            Charity charity = repositories.charities().insert(valid(charityFrom(body(exchange), 0)));
+            versionedCatalog.addCharity(charity);
+            auditLog.recordCharity(admin, AuditEvent.Action.ADD, charity.getId(), null, charity);
+            return Map.of("created", toJson(charity));
+        }
+        if (id == null) {
+            throw new ApiException(404, "Missing id");
+        }
+        if ("GET".equals(method)) {
+            Versioned<Charity> charity = repositories.charities().findVersioned(id);
+            if (charity == null) {
+                throw new ApiException(404, "No charity " + id);
+            }
+            Map<String, Object> json = toJson(charity.getValue());
+            json.put("version", charity.getVersion());
+            exchange.getResponseHeaders().set("ETag", "\"" + charity.getVersion() + "\"");
+            return json;
+        }
+        if ("PUT".equals(method)) {
+            Map<String, Object> body = body(exchange);
+            int version = expectedVersion(exchange, body);
+            Charity charity = valid(charityFrom(body, id));
+            Charity before = versionedCatalog.current().charity(id);
+            if (!repositories.charities().update(charity, version)) {
+                if (repositories.charities().findVersioned(id) != null) {
+                    throw new ApiException(409, "Charity " + id + " was changed by another admin; read it again and retry");
+                }
+                throw new ApiException(404, "No charity " + id);
+            }
+            versionedCatalog.updateCharity(charity);
+            auditLog.recordCharity(admin, AuditEvent.Action.UPDATE, id, before, charity);
+            return Map.of("updated", 1);
+        }
+        if ("DELETE".equals(method)) {
+            Charity before = versionedCatalog.current().charity(id);
+            if (!repositories.charities().delete(id)) {
+                throw new ApiException(404, "No charity " + id);
+            }
+            versionedCatalog.removeCharity(id);
+            auditLog.recordCharity(admin, AuditEvent.Action.DELETE, id, before, null);
+            return Map.of("deleted", 1);
+        }
+        throw new ApiException(405, "Method not allowed");
+    }
+
+
+    /**
+     * Gets the email of the session named by the {@code Authorization: Bearer} header, and keeps the session open for
+     * another idle period. An expired session is closed and answered like a missing one.
+     */
+    private String requireLogin(HttpExchange exchange) throws ApiException {
+        String token = token(exchange);
+        Session session = token == null ? null : sessions.get(token);
+        long now = System.currentTimeMillis();
+        if (session != null && session.isExpired(now)) {
+            sessions.remove(token, session);
+            session = null;
+        }
+        if (session == null) {
+            throw new ApiException(401, "Login required");
+        }
+        session.touch(now);
+        return session.email;
+    }
+
+    private static String token(HttpExchange exchange) {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        return authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring("Bearer ".length()).trim()
+                : null;
+    }
+
+    /**
+     * Gets the email of the session, which must be an admin's.
+     */
+    private String requireAdmin(HttpExchange exchange) throws ApiException {
+        String email = requireLogin(exchange);
+        if (!isAdmin(email)) {
+            throw new ApiException(403, "Admin login required");
+        }
+        return email;
+    }
+
+    /**
+     * Admins are recognised by their email domain, as on the login page.
+     */
+    private static boolean isAdmin(String email) {
+        return email != null && email.endsWith("@admin.com");
+    }
+
+    private static void requireMethod(HttpExchange exchange, String method) throws ApiException {
+        if (!method.equals(exchange.getRequestMethod())) {
+            throw new ApiException(405, "Method not allowed");
+        }
+    }
+
+    private static String require(Map<String, String> query, String name) throws ApiException {
+        String value = query.get(name);
+        if (value == null || value.isBlank()) {
+            throw new ApiException(400, "Missing parameter " + name);
+        }
+        return value;
+    }
+
+    /**
+     * Gets the id in the part of the path after a context, e.g. in {@code /api/admin/cruises/{id}}.
+     *
+     * @return the id, or {@code null} if the path has none
+     * @throws ApiException if the part after the context is not a number
+     */
+    private static Long pathId(HttpExchange exchange, String context) throws ApiException {
+        String path = exchange.getRequestURI().getRawPath();
+        if (path.length() <= context.length() + 1) {
+            return null;
+        }
+        try {
+            return Long.parseLong(path.substring(context.length() + 1));
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "Invalid id " + path.substring(context.length() + 1));
+        }
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> query = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null) {
+            return query;
+        }
+        for (String pair : raw.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                query.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    private static Map<String, Object> body(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return Json.readObject(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static Sailing sailingFrom(Map<String, Object> json, long id) {
+        Object price = json.get("price");
+        return new Sailing(id, string(json, "countryFrom"), string(json, "duration"), string(json, "place"), string(json, "cruiseShip"),
+                string(json, "route"), price instanceof Number ? ((Number) price).intValue() : Integer.parseInt(String.valueOf(price)),
+                string(json, "date"));
+    }
+
+    /**
+     * Rejects a sailing breaking an error rule; warnings are left to the front end, like the admin page leaves them to the admin.
+     */
+    private Sailing valid(Sailing sailing) throws ApiException {
+        ValidationReport report = CatalogValidator.forCatalog(versionedCatalog.current()).validate(sailing);
+        if (report.hasErrors()) {
+            throw new ApiException(422, report.describe());
+        }
+        return sailing;
+    }
+
+    /**
+     * Rejects a charity breaking an error rule.
+     */
+    private Charity valid(Charity charity) throws ApiException {
+        ValidationReport report = validator.validate(charity);
+        if (report.hasErrors()) {
+            throw new ApiException(422, report.describe());
+        }
+        return charity;
+    }
+
+    private static Charity charityFrom(Map<String, Object> json, long id) {
+        return new Charity(id, string(json, "name"), string(json, "type"), string(json, "country"), string(json, "about"),
+                string(json, "website"), string(json, "email"), string(json, "location"));
+    }
+
+    private static String string(Map<String, Object> json, String key) {
+        Object value = json.get(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing field " + key);
+        }
+        return value.toString();
+    }
+
+    static Map<String, Object> toJson(Sailing sailing) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", sailing.getId());
+        json.put("countryFrom", sailing.getCountryFrom());
+        json.put("duration", sailing.getDuration());
+        json.put("place", sailing.getPlace());
+        json.put("cruiseShip", sailing.getCruiseShip());
+        json.put("route", sailing.getRoute());
+        json.put("price", sailing.getPrice());
+        json.put("date", sailing.getDate());
+        return json;
+    }
+
+    static Map<String, Object> toJson(PriceSummary price) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("count", price.getCount());
+        json.put("min", price.getMin());
+        json.put("max", price.getMax());
+        json.put("average", price.getAverage());
+        return json;
+    }
+
+    static Map<String, Object> toJson(DonationTotal total) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("amountSen", total.getAmountSen());
+        json.put("donations", total.getCount());
+        return json;
+    }
+
+    static Map<String, Object> toJson(Charity charity) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", charity.getId());
+        json.put("name", charity.getName());
+        json.put("type", charity.getType());
+        json.put("country", charity.getCountry());
+        json.put("about", charity.getAbout());
+        json.put("website", charity.getWebsite());
+        json.put("email", charity.getEmail());
+        json.put("location", charity.getLocation());
+        return json;
+    }
+
+    /**
+     * Starts the server without the JavaFX application.
+     * <p>
+     * Usage: {@code ApiServer [port] [pool size]}
+     * </p>
+     *
+     * @param args the port and the number of database connections
+     * @throws IOException if the port cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int poolSize = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_POOL_SIZE;
+        ConnectionPool pool = new ConnectionPool(DatabaseManager.getInstance(), poolSize, 10_000);
+        // No payment provider is integrated yet, so bookings are charged on the simulated gateway
+        PaymentPipeline paymentPipeline = new PaymentPipeline();
+        paymentPipeline.addGateway(new SimulatedGateway("simulated", 20, 200, 0, Long.MAX_VALUE));
+        ApiServer server = new ApiServer(port, pool, RouteIndex.getInstance(), paymentPipeline);
+        server.start();
+        ChangeFeed.getInstance();
+        System.out.println("API server listening on port " + server.getPort());
+    }
+}
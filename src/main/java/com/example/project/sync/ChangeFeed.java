@@ -0,0 +1,302 @@
+package com.example.project.sync;
+
+import com.example.project.catalog.CatalogCache;
+import com.example.project.catalog.CatalogSnapshot;
+import com.example.project.catalog.Charity;
+import com.example.project.catalog.Sailing;
+import com.example.project.catalog.VersionedCatalog;
+import com.example.project.repository.ChangeLogEntry;
+import com.example.project.repository.ChangeLogRepository;
+import com.example.project.repository.CharityRepository;
+import com.example.project.repository.Repositories;
+import com.example.project.repository.SailingRepository;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Brings the changes other running instances of the application make to the catalog into this one, within a second.
+ * <p>
+ * Every write of a sailing or a charity appends its id to the change log of {@link ChangeLogRepository}. The feed reads
+ * the rows appended since the last one it saw every {@value #POLL_MILLIS} milliseconds on a background thread, which
+ * costs one lookup in the primary key of the log while nothing changes. A burst of changes is coalesced by id: an entry
+ * changed many times since the last poll is read once, in one bulk read per table for all changed entries, and applied
+ * once to the {@link VersionedCatalog}, the same way the pages apply their own changes. The indexes and the cards of
+ * the pages then follow the changes the catalog publishes.
+ * </p>
+ * <p>
+ * Changes this process made itself are skipped, since they were applied when they were made. A transaction may commit
+ * after a later one; the sequence numbers skipped over are read again for {@value #GAP_MILLIS} milliseconds, so its
+ * change still arrives.
+ * </p>
+ * <p>
+ * The feed also publishes the tables the {@link CatalogCache} reads again, which bring any change it gave up waiting
+ * for. A refresh is ordered by the last sequence number of the change log read before its rows: it is ignored if it
+ * is older than a change the feed already applied or this process committed, which it would otherwise undo.
+ * </p>
+ * <p>
+ * Like {@link VersionedCatalog}, this class is a singleton, started by the application and the API server.
+ * </p>
+ */
+public class ChangeFeed implements AutoCloseable {
+    /** How often the change log is read. */
+    public static final int POLL_MILLIS = 250;
+
+    /** How long a sequence number skipped over is waited for, longer than any transaction of the application. */
+    public static final int GAP_MILLIS = 10_000;
+
+    /** How many sequence numbers skipped over at once are waited for at most; more are left to the cache refresh. */
+    private static final int MAX_GAPS = 100;
+
+    /** How long changes are kept in the log, for instances to read them. */
+    public static final Duration RETENTION = Duration.ofDays(7);
+
+    private static ChangeFeed instance;
+
+    private final ChangeLogRepository changeLog;
+    private final SailingRepository sailings;
+    private final CharityRepository charities;
+    private final VersionedCatalog versionedCatalog;
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "change-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** The sequence number of the last change read, -1 until it is known. Only used while holding the monitor. */
+    private long seq;
+
+    /** The sequence numbers skipped over, with the time to stop waiting for each. Only used while polling. */
+    private final Map<Long, Long> gaps = new LinkedHashMap<>();
+
+    private volatile boolean online = true;
+
+    /**
+     * Constructs a ChangeFeed applying changes to the given catalog. Use {@link #getInstance()} for the feed of the
+     * application.
+     *
+     * @param repositories     the repositories to read the change log and the changed entries from
+     * @param versionedCatalog the catalog to apply the changes to
+     * @param seq              the sequence number of the last change the catalog includes, or -1 to read the catalog
+     *                         again and start from the last change when the database is first reached
+     */
+    public ChangeFeed(Repositories repositories, VersionedCatalog versionedCatalog, long seq) {
+        this.changeLog = repositories.changeLog();
+        this.sailings = repositories.sailings();
+        this.charities = repositories.charities();
+        this.versionedCatalog = versionedCatalog;
+        this.seq = seq;
+    }
+
+    /**
+     * Gets the singleton instance of ChangeFeed, starting it on first use.
+     *
+     * @return the shared change feed
+     */
+    public static synchronized ChangeFeed getInstance() {
+        if (instance == null) {
+            // Start from the change log as it was when the catalog read its rows, which the indexes are built from,
+            // so that no change committed since is missed however long ago the catalog was loaded; if it started from
+            // the cache snapshot, the first poll reads the rows from the database in the background
+            VersionedCatalog versionedCatalog = VersionedCatalog.getInstance();
+            instance = new ChangeFeed(Repositories.getInstance(), versionedCatalog, versionedCatalog.loadedSeq());
+            CatalogCache.getInstance().onChange(instance::refreshed);
+            instance.start();
+        }
+        return instance;
+    }
+
+    /**
+     * Starts reading the change log in the background every {@value #POLL_MILLIS} milliseconds, and deleting the
+     * changes older than {@link #RETENTION} every hour.
+     */
+    public void start() {
+        poller.scheduleWithFixedDelay(this::poll, 0, POLL_MILLIS, TimeUnit.MILLISECONDS);
+        poller.scheduleWithFixedDelay(this::prune, 1, 60, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Reads the changes appended since the last poll and applies those made by other instances.
+     *
+     * @return the number of entries that changed, after coalescing
+     */
+    public synchronized int poll() {
+        int applied = 0;
+        try {
+            if (seq < 0) {
+                // The catalog was loaded without the database, so read it again after the sequence number
+                long latest = changeLog.latest();
+                versionedCatalog.load(sailings.findAll(), charities.findAll());
+                seq = latest;
+            }
+            List<ChangeLogEntry> appended;
+            do {
+                List<ChangeLogEntry> arrived = changeLog.find(waitingGaps());
+                appended = changeLog.since(seq);
+                List<ChangeLogEntry> entries = new ArrayList<>(arrived);
+                entries.addAll(appended);
+                applied += apply(entries);
+                for (ChangeLogEntry entry : arrived) {
+                    gaps.remove(entry.getSeq());
+                }
+                if (!appended.isEmpty()) {
+                    skipTo(appended);
+                }
+            } while (appended.size() == ChangeLogRepository.MAX_ENTRIES);
+        } catch (SQLException e) {
+            if (online) {
+                System.out.println("Change feed paused: " + e.getMessage());
+            }
+            online = false;
+            return applied;
+        }
+        online = true;
+        return applied;
+    }
+
+    /**
+     * Publishes the rows of a cache refresh to the catalog, unless they were read before a change the feed applied or
+     * this process committed.
+     *
+     * @param snapshot the refreshed rows
+     */
+    public synchronized void refreshed(CatalogSnapshot snapshot) {
+        if (snapshot.getSeq() < Math.max(seq, ChangeLogRepository.lastCommitted())) {
+            return;
+        }
+        versionedCatalog.load(snapshot.getSailings(), snapshot.getCharities());
+    }
+
+    /**
+     * Checks whether the last poll reached the database.
+     *
+     * @return {@code true} if changes are arriving
+     */
+    public boolean isOnline() {
+        return online;
+    }
+
+    /**
+     * Stops reading the change log.
+     */
+    @Override
+    public void close() {
+        poller.shutdownNow();
+    }
+
+    /**
+     * Applies the changes of other instances, reading each changed entry once.
+     */
+    private int apply(List<ChangeLogEntry> entries) throws SQLException {
+        Set<Long> sailingIds = new LinkedHashSet<>();
+        Set<Long> charityIds = new LinkedHashSet<>();
+        for (ChangeLogEntry entry : entries) {
+            if (entry.isLocal()) {
+                continue;
+            }
+            if (ChangeLogEntry.SAILING.equals(entry.getEntity())) {
+                sailingIds.add(entry.getEntityId());
+            } else if (ChangeLogEntry.CHARITY.equals(entry.getEntity())) {
+                charityIds.add(entry.getEntityId());
+            }
+        }
+
+        // Entries deleted since are missing from the reads
+        Map<Long, Sailing> changedSailings = sailings.findByIds(sailingIds);
+        Map<Long, Charity> changedCharities = charities.findByIds(charityIds);
+        int applied = 0;
+        for (long id : sailingIds) {
+            if (applySailing(id, changedSailings.get(id))) {
+                applied++;
+            }
+        }
+        for (long id : charityIds) {
+            if (applyCharity(id, changedCharities.get(id))) {
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    private boolean applySailing(long id, Sailing sailing) {
+        Sailing before = versionedCatalog.current().sailing(id);
+        if (Objects.equals(before, sailing)) {
+            return false;
+        }
+        if (before == null) {
+            versionedCatalog.addSailing(sailing);
+        } else if (sailing == null) {
+            versionedCatalog.removeSailing(id);
+        } else {
+            versionedCatalog.updateSailing(sailing);
+        }
+        return true;
+    }
+
+    private boolean applyCharity(long id, Charity charity) {
+        Charity before = versionedCatalog.current().charity(id);
+        if (Objects.equals(before, charity)) {
+            return false;
+        }
+        if (before == null) {
+            versionedCatalog.addCharity(charity);
+        } else if (charity == null) {
+            versionedCatalog.removeCharity(id);
+        } else {
+            versionedCatalog.updateCharity(charity);
+        }
+        return true;
+    }
+
+    /**
+     * Moves past the changes read, waiting for the sequence numbers skipped over between them.
+     */
+    private void skipTo(List<ChangeLogEntry> appended) {
+        long deadline = System.currentTimeMillis() + GAP_MILLIS;
+        long expected = seq + 1;
+        for (ChangeLogEntry entry : appended) {
+            for (long missing = expected; missing < entry.getSeq() && gaps.size() < MAX_GAPS; missing++) {
+                gaps.put(missing, deadline);
+            }
+            expected = entry.getSeq() + 1;
+        }
+        seq = appended.get(appended.size() - 1).getSeq();
+    }
+
+    /**
+     * Gets the sequence numbers still waited for, forgetting those waited for long enough.
+     */
+    private List<Long> waitingGaps() {
+        long now = System.currentTimeMillis();
+        List<Long> waiting = new ArrayList<>();
+        for (Iterator<Map.Entry<Long, Long>> iterator = gaps.entrySet().iterator(); iterator.hasNext(); ) {
+            Map.Entry<Long, Long> gap = iterator.next();
+            if (gap.getValue() < now) {
+                iterator.remove();
+            } else {
+                waiting.add(gap.getKey());
+            }
+        }
+        return waiting;
+    }
+
+    private void prune() {
+        try {
+            changeLog.prune(Instant.now().minus(RETENTION));
+        } catch (SQLException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+}
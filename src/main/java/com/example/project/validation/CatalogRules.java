@@ -0,0 +1,201 @@
+package com.example.project.validation;
+
+import com.example.project.catalog.Charity;
+import com.example.project.catalog.Sailing;
+import com.example.project.catalog.SailingDates;
+import com.example.project.route.RouteParser;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.example.project.validation.Violation.Severity.ERROR;
+import static com.example.project.validation.Violation.Severity.WARNING;
+
+/**
+ * The data-quality rules of the catalog, checked by the {@link CatalogValidator}.
+ * <p>
+ * Errors are values the application cannot use as written, such as a date range that ends before it starts, or a
+ * duration the filters of the pages will never match. Warnings are values that are probably mistyped but could be
+ * right, such as an unusual price or a port name one letter away from a known port.
+ * </p>
+ * <p>
+ * The route rules read the countries of the ports from a {@link PortDirectory}. {@link #SAILINGS} uses the usual ports
+ * of the region; {@link #sailings(PortDirectory)} builds the same rules over a directory learnt from a catalog.
+ * </p>
+ */
+public final class CatalogRules {
+    /** The lowest plausible price of one night, in RM. */
+    public static final int MIN_PRICE_PER_NIGHT = 100;
+
+    /** The highest plausible price of one night, in RM. */
+    public static final int MAX_PRICE_PER_NIGHT = 3_000;
+
+    /** The separator between the first and last date of a range. */
+    private static final String RANGE_SEPARATOR = " - ";
+
+    /** The durations the filters of the admin page offer: "1 Night", "2 Nights" and so on. */
+    private static final Pattern DURATION = Pattern.compile("(\\d{1,3}) (Nights?)");
+
+    private static final Pattern EMAIL = Pattern.compile("[^@\\s]+@[^@\\s]+\\.[^@\\s]+");
+
+    /** The rules of sailings over the {@link PortDirectory#KNOWN known ports}, in the order they are checked and reported. */
+    public static final List<Rule<Sailing>> SAILINGS = sailings(PortDirectory.KNOWN);
+
+    /** The rules of charities, in the order they are checked and reported. */
+    public static final List<Rule<Charity>> CHARITIES = List.of(
+            new Rule<>("required-fields", ERROR, charity -> missing(
+                    "name", charity.getName(), "type", charity.getType(), "country", charity.getCountry())),
+            new Rule<>("email-format", ERROR, charity -> {
+                String email = charity.getEmail();
+                if (isBlankOrDash(email) || EMAIL.matcher(email.trim()).matches()) {
+                    return null;
+                }
+                String compact = email.replaceAll("\\s+", "");
+                return "Email \"" + email + "\" is not an email address"
+                        + (EMAIL.matcher(compact).matches() ? "; did you mean \"" + compact + "\"?" : "");
+            }),
+            new Rule<>("website-format", ERROR, charity -> {
+                String website = charity.getWebsite();
+                if (isBlankOrDash(website)) {
+                    return null;
+                }
+                try {
+                    URI uri = new URI(website.trim());
+                    if (("http".equalsIgnoreCase(uri.getScheme()) || "https".equalsIgnoreCase(uri.getScheme())) && uri.getHost() != null) {
+                        return null;
+                    }
+                } catch (URISyntaxException e) {
+                    // Reported below like any other malformed address
+                }
+                return "Website \"" + website + "\" is not an http or https address";
+            })
+    );
+
+    private CatalogRules() {}
+
+    /**
+     * Builds the rules of sailings over a directory of ports.
+     *
+     * @param ports the ports the route rules know the countries of
+     * @return the rules, in the order they are checked and reported
+     */
+    public static List<Rule<Sailing>> sailings(PortDirectory ports) {
+        return List.of(
+                new Rule<>("required-fields", ERROR, sailing -> missing(
+                        "country from", sailing.getCountryFrom(), "duration", sailing.getDuration(), "place", sailing.getPlace(),
+                        "cruise ship", sailing.getCruiseShip(), "route", sailing.getRoute(), "date", sailing.getDate())),
+                new Rule<>("date-format", ERROR, sailing -> {
+                    if (isBlank(sailing.getDate())) {
+                        return null;
+                    }
+                    boolean range = sailing.getDate().contains(RANGE_SEPARATOR);
+                    if (SailingDates.startDate(sailing) == null || (range && SailingDates.writtenEndDate(sailing) == null)) {
+                        return "Date \"" + sailing.getDate() + "\" is not written like \"15 Oct, 2024 - 17 Oct, 2024\"";
+                    }
+                    return null;
+                }),
+                new Rule<>("date-order", ERROR, sailing -> {
+                    LocalDate start = SailingDates.startDate(sailing);
+                    LocalDate end = SailingDates.writtenEndDate(sailing);
+                    if (start != null && end != null && sailing.getDate().contains(RANGE_SEPARATOR) && !end.isAfter(start)) {
+                        return "Ends on " + end.format(SailingDates.FORMAT) + ", not after it starts on " + start.format(SailingDates.FORMAT);
+                    }
+                    return null;
+                }),
+                new Rule<>("duration-format", ERROR, sailing -> {
+                    if (isBlank(sailing.getDuration())) {
+                        return null;
+                    }
+                    Matcher matcher = DURATION.matcher(sailing.getDuration().trim());
+                    if (!matcher.matches() || Integer.parseInt(matcher.group(1)) < 1
+                            || (Integer.parseInt(matcher.group(1)) == 1) != "Night".equals(matcher.group(2))) {
+                        int nights = SailingDates.nights(sailing);
+                        String expected = nights == 1 ? "1 Night" : nights > 1 ? nights + " Nights" : "2 Nights";
+                        return "Duration \"" + sailing.getDuration() + "\" is not written like \"" + expected + "\"";
+                    }
+                    return null;
+                }),
+                new Rule<>("duration-dates", ERROR, sailing -> {
+                    LocalDate start = SailingDates.startDate(sailing);
+                    LocalDate end = SailingDates.writtenEndDate(sailing);
+                    int nights = SailingDates.nights(sailing);
+                    if (start == null || end == null || nights < 1) {
+                        return null;
+                    }
+                    if (!sailing.getDate().contains(RANGE_SEPARATOR)) {
+                        return nights == 1 ? null : "A single date is only written for one-night sailings, but this one is " + nights + " nights";
+                    }
+                    long days = ChronoUnit.DAYS.between(start, end);
+                    if (days > 0 && days != nights) {
+                        return "Runs " + days + " nights from " + start.format(SailingDates.FORMAT) + " to "
+                                + end.format(SailingDates.FORMAT) + ", but the duration is " + nights;
+                    }
+                    return null;
+                }),
+                new Rule<>("price-positive", ERROR, sailing ->
+                        sailing.getPrice() > 0 ? null : "Price RM" + sailing.getPrice() + " is not positive"),
+                new Rule<>("price-bounds", WARNING, sailing -> {
+                    int nights = Math.max(1, SailingDates.nights(sailing));
+                    long perNight = sailing.getPrice() / nights;
+                    if (sailing.getPrice() > 0 && (perNight < MIN_PRICE_PER_NIGHT || perNight > MAX_PRICE_PER_NIGHT)) {
+                        return "Price RM" + sailing.getPrice() + " is RM" + perNight + " a night, outside RM"
+                                + MIN_PRICE_PER_NIGHT + " to RM" + MAX_PRICE_PER_NIGHT;
+                    }
+                    return null;
+                }),
+                new Rule<>("route-start", ERROR, sailing -> {
+                    List<String> route = RouteParser.parse(sailing.getRoute());
+                    if (route.isEmpty() || isBlank(sailing.getCountryFrom())) {
+                        return null;
+                    }
+                    String country = ports.countryOf(route.get(0));
+                    if (country != null && !country.equalsIgnoreCase(sailing.getCountryFrom().trim())) {
+                        return "Route starts at " + ports.nameOf(route.get(0)) + " in " + country + ", not in " + sailing.getCountryFrom().trim();
+                    }
+                    return null;
+                }),
+                new Rule<>("route-start-port", WARNING, sailing -> {
+                    List<String> route = RouteParser.parse(sailing.getRoute());
+                    if (route.isEmpty() || ports.contains(route.get(0)) || ports.misspelling(route.get(0)) != null) {
+                        return null;
+                    }
+                    return "Route starts at \"" + route.get(0) + "\", a port of unknown country, so the country from cannot be checked";
+                }),
+                new Rule<>("route-ports", WARNING, sailing -> {
+                    for (String port : RouteParser.parse(sailing.getRoute())) {
+                        String known = ports.misspelling(port);
+                        if (known != null) {
+                            return "Port \"" + port + "\" looks like a misspelling of \"" + known + "\"";
+                        }
+                    }
+                    return null;
+                })
+        );
+    }
+
+    /**
+     * Lists the names of the blank fields among pairs of names and values.
+     */
+    private static String missing(String... namesAndValues) {
+        StringBuilder missing = new StringBuilder();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            if (isBlank(namesAndValues[i + 1])) {
+                missing.append(missing.length() == 0 ? "" : ", ").append(namesAndValues[i]);
+            }
+        }
+        return missing.length() == 0 ? null : "Missing " + missing;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static boolean isBlankOrDash(String value) {
+        return isBlank(value) || value.trim().equals("-");
+    }
+}
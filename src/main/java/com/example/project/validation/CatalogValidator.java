@@ -0,0 +1,232 @@
+package com.example.project.validation;
+
+import com.example.project.catalog.CatalogVersion;
+import com.example.project.catalog.Charity;
+import com.example.project.catalog.Sailing;
+import com.example.project.catalog.VersionedCatalog;
+import com.example.project.repository.Repositories;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Checks entries of the catalog against the {@link CatalogRules}.
+ * <p>
+ * Single entries are checked inline, before the admin page or the API saves them. Whole lists, such as the catalog or
+ * a bulk import, are split in chunks of {@value #THRESHOLD} entries checked in parallel on the common fork-join pool;
+ * the rules share no state, and the violations are joined back in the order of the entries.
+ * </p>
+ * <p>
+ * {@link #forCatalog(CatalogVersion)} and {@link #forSailings(List)} check the routes against the ports the catalog
+ * itself starts from, learnt in a {@link PortDirectory}, rather than only the usual ports of the region.
+ * </p>
+ */
+public class CatalogValidator {
+    /** The number of entries below which a list is checked on one thread rather than split further. */
+    public static final int THRESHOLD = 512;
+
+    /** The validator of the last catalog version asked for, kept until the catalog changes. */
+    private static volatile Learnt latest;
+
+    private final List<Rule<Sailing>> sailingRules;
+    private final List<Rule<Charity>> charityRules;
+
+    /**
+     * Constructs a CatalogValidator checking the rules of {@link CatalogRules}.
+     */
+    public CatalogValidator() {
+        this(CatalogRules.SAILINGS, CatalogRules.CHARITIES);
+    }
+
+    /**
+     * Constructs a CatalogValidator checking the rules of {@link CatalogRules} over a directory of ports.
+     *
+     * @param ports the ports the route rules know the countries of
+     */
+    public CatalogValidator(PortDirectory ports) {
+        this(CatalogRules.sailings(ports), CatalogRules.CHARITIES);
+    }
+
+    /**
+     * Constructs a CatalogValidator checking the given rules.
+     *
+     * @param sailingRules the rules of sailings
+     * @param charityRules the rules of charities
+     */
+    public CatalogValidator(List<Rule<Sailing>> sailingRules, List<Rule<Charity>> charityRules) {
+        this.sailingRules = List.copyOf(sailingRules);
+        this.charityRules = List.copyOf(charityRules);
+    }
+
+    /**
+     * Checks one sailing, on the calling thread.
+     *
+     * @param sailing the sailing
+     * @return the violations of the sailing
+     */
+    public ValidationReport validate(Sailing sailing) {
+        List<Violation> violations = new ArrayList<>();
+        check(sailing, sailingRules, Sailing::getId, Sailing::getPlace, violations);
+        return new ValidationReport(1, violations, names(sailingRules));
+    }
+
+    /**
+     * Checks one charity, on the calling thread.
+     *
+     * @param charity the charity
+     * @return the violations of the charity
+     */
+    public ValidationReport validate(Charity charity) {
+        List<Violation> violations = new ArrayList<>();
+        check(charity, charityRules, Charity::getId, Charity::getName, violations);
+        return new ValidationReport(1, violations, names(charityRules));
+    }
+
+    /**
+     * Checks many sailings in parallel.
+     *
+     * @param sailings the sailings
+     * @return the violations, in the order of the sailings
+     */
+    public ValidationReport validateSailings(List<Sailing> sailings) {
+        List<Violation> violations = ForkJoinPool.commonPool().invoke(
+                new CheckTask<>(sailings, 0, sailings.size(), sailingRules, Sailing::getId, Sailing::getPlace));
+        return new ValidationReport(sailings.size(), violations, names(sailingRules));
+    }
+
+    /**
+     * Checks many charities in parallel.
+     *
+     * @param charities the charities
+     * @return the violations, in the order of the charities
+     */
+    public ValidationReport validateCharities(List<Charity> charities) {
+        List<Violation> violations = ForkJoinPool.commonPool().invoke(
+                new CheckTask<>(charities, 0, charities.size(), charityRules, Charity::getId, Charity::getName));
+        return new ValidationReport(charities.size(), violations, names(charityRules));
+    }
+
+    /**
+     * Gets a validator knowing the ports a catalog version starts from. The validator is built once per version.
+     *
+     * @param catalog the catalog version
+     * @return the validator
+     */
+    public static CatalogValidator forCatalog(CatalogVersion catalog) {
+        Learnt learnt = latest;
+        if (learnt == null || learnt.catalog != catalog) {
+            learnt = new Learnt(catalog, forSailings(catalog.getSailings()));
+            latest = learnt;
+        }
+        return learnt.validator;
+    }
+
+    /**
+     * Builds a validator knowing the ports some sailings start from, such as those of a bulk import.
+     *
+     * @param sailings the sailings
+     * @return the validator
+     */
+    public static CatalogValidator forSailings(List<Sailing> sailings) {
+        return new CatalogValidator(PortDirectory.learn(sailings));
+    }
+
+    /**
+     * A catalog version and the validator knowing its ports.
+     */
+    private static class Learnt {
+        private final CatalogVersion catalog;
+        private final CatalogValidator validator;
+
+        Learnt(CatalogVersion catalog, CatalogValidator validator) {
+            this.catalog = catalog;
+            this.validator = validator;
+        }
+    }
+
+    private static <T> void check(T entry, List<Rule<T>> rules, ToLongFunction<T> id, Function<T, String> subject,
+                                  List<Violation> violations) {
+        for (Rule<T> rule : rules) {
+            Violation violation = rule.apply(entry, id.applyAsLong(entry), subject.apply(entry));
+            if (violation != null) {
+                violations.add(violation);
+            }
+        }
+    }
+
+    private static List<String> names(List<? extends Rule<?>> rules) {
+        List<String> names = new ArrayList<>(rules.size());
+        for (Rule<?> rule : rules) {
+            names.add(rule.getName());
+        }
+        return names;
+    }
+
+    /**
+     * Checks a range of a list, splitting it in halves until the halves are small enough to check directly.
+     */
+    private static class CheckTask<T> extends RecursiveTask<List<Violation>> {
+        private final List<T> entries;
+        private final int from;
+        private final int to;
+        private final List<Rule<T>> rules;
+        private final ToLongFunction<T> id;
+        private final Function<T, String> subject;
+
+        CheckTask(List<T> entries, int from, int to, List<Rule<T>> rules, ToLongFunction<T> id, Function<T, String> subject) {
+            this.entries = entries;
+            this.from = from;
+            this.to = to;
+            this.rules = rules;
+            this.id = id;
+            this.subject = subject;
+        }
+
+        @Override
+        protected List<Violation> compute() {
+            if (to - from <= THRESHOLD) {
+                List<Violation> violations = new ArrayList<>();
+                for (int i = from; i < to; i++) {
+                    check(entries.get(i), rules, id, subject, violations);
+                }
+                return violations;
+            }
+            int middle = (from + to) >>> 1;
+            CheckTask<T> left = new CheckTask<>(entries, from, middle, rules, id, subject);
+            left.fork();
+            List<Violation> violations = new CheckTask<>(entries, middle, to, rules, id, subject).compute();
+            List<Violation> joined = left.join();
+            joined.addAll(violations);
+            return joined;
+        }
+    }
+
+    /**
+     * Checks the whole catalog and prints the violations, by rule.
+     *
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        VersionedCatalog versionedCatalog = VersionedCatalog.getInstance();
+        if (!versionedCatalog.load(Repositories.getInstance())) {
+            System.out.println("Database unreachable, validating the catalog snapshot.");
+        }
+        CatalogVersion catalog = versionedCatalog.current();
+        CatalogValidator validator = forCatalog(catalog);
+
+        long started = System.nanoTime();
+        ValidationReport sailings = validator.validateSailings(catalog.getSailings());
+        ValidationReport charities = validator.validateCharities(catalog.getCharities());
+        long elapsed = System.nanoTime() - started;
+
+        System.out.println("Sailings: " + sailings);
+        sailings.getViolations().forEach(violation -> System.out.println("  " + violation));
+        System.out.println("Charities: " + charities);
+        charities.getViolations().forEach(violation -> System.out.println("  " + violation));
+        System.out.printf("Validated in %.2f ms%n", elapsed / 1_000_000.0);
+    }
+}
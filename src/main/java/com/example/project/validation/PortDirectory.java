@@ -0,0 +1,168 @@
+package com.example.project.validation;
+
+import com.example.project.catalog.Sailing;
+import com.example.project.route.RouteParser;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ports cruises call at, with the country of each, read by the route rules of {@link CatalogRules}.
+ * <p>
+ * The {@link #KNOWN} directory holds the usual ports of the region. {@link #learn(List)} adds the ports a catalog
+ * starts from that it does not hold, each in the country most of the sailings starting there are listed under, so a
+ * new port is checked like the others once the catalog uses it. A port one or two letters away from a known port is
+ * taken for a misspelling of it and is never learned. A directory does not change once built, so the rules can read
+ * it from many threads.
+ * </p>
+ */
+public final class PortDirectory {
+    /** How many letters a port name may differ from a known port to be taken for a misspelling of it. */
+    private static final int MAX_TYPO_DISTANCE = 2;
+
+    /** The usual ports of the region, without any learnt from a catalog. */
+    public static final PortDirectory KNOWN = new PortDirectory(knownPorts());
+
+    /** The ports, by lookup key, with their display name and their country. */
+    private final Map<String, String[]> ports;
+
+    private PortDirectory(Map<String, String[]> ports) {
+        this.ports = Collections.unmodifiableMap(ports);
+    }
+
+    private static Map<String, String[]> knownPorts() {
+        Map<String, String[]> ports = new HashMap<>();
+        port(ports, "Singapore", "Singapore");
+        port(ports, "Kuala Lumpur (Port Klang)", "Malaysia");
+        port(ports, "Kuala Lumpur", "Malaysia");
+        port(ports, "Port Klang", "Malaysia");
+        port(ports, "Penang", "Malaysia");
+        port(ports, "Langkawi", "Malaysia");
+        port(ports, "Malacca", "Malaysia");
+        port(ports, "Kota Kinabalu", "Malaysia");
+        port(ports, "Phuket", "Thailand");
+        port(ports, "Krabi", "Thailand");
+        port(ports, "Koh Samui", "Thailand");
+        port(ports, "Bangkok (Laem Chabang)", "Thailand");
+        port(ports, "Batam", "Indonesia");
+        port(ports, "Bintan", "Indonesia");
+        port(ports, "Jakarta", "Indonesia");
+        port(ports, "Bali", "Indonesia");
+        return ports;
+    }
+
+    private static void port(Map<String, String[]> ports, String name, String country) {
+        ports.put(RouteParser.key(name), new String[] {name, country});
+    }
+
+    /**
+     * Builds a directory of the known ports and the ports the given sailings start from.
+     *
+     * @param sailings the sailings, such as the catalog or a bulk import
+     * @return the directory
+     */
+    public static PortDirectory learn(List<Sailing> sailings) {
+        // The countries the sailings starting at each unknown port are listed under, with how many are
+        Map<String, String> names = new HashMap<>();
+        Map<String, Map<String, Integer>> countries = new HashMap<>();
+        for (Sailing sailing : sailings) {
+            List<String> route = RouteParser.parse(sailing.getRoute());
+            String country = sailing.getCountryFrom();
+            if (route.isEmpty() || country == null || country.isBlank()) {
+                continue;
+            }
+            String key = RouteParser.key(route.get(0));
+            if (KNOWN.ports.containsKey(key) || KNOWN.misspelling(route.get(0)) != null) {
+                continue;
+            }
+            names.putIfAbsent(key, route.get(0));
+            countries.computeIfAbsent(key, k -> new LinkedHashMap<>()).merge(country.trim(), 1, Integer::sum);
+        }
+
+        Map<String, String[]> ports = new HashMap<>(KNOWN.ports);
+        for (Map.Entry<String, Map<String, Integer>> port : countries.entrySet()) {
+            String country = Collections.max(port.getValue().entrySet(), Map.Entry.comparingByValue()).getKey();
+            ports.put(port.getKey(), new String[] {names.get(port.getKey()), country});
+        }
+        return new PortDirectory(ports);
+    }
+
+    /**
+     * Checks whether a port is in the directory.
+     *
+     * @param port the name of the port, as written in a route
+     * @return {@code true} if the country of the port is known
+     */
+    public boolean contains(String port) {
+        return ports.containsKey(RouteParser.key(port));
+    }
+
+    /**
+     * Gets the display name of a port.
+     *
+     * @param port the name of the port, as written in a route
+     * @return the display name, or {@code null} if the port is not in the directory
+     */
+    public String nameOf(String port) {
+        String[] entry = ports.get(RouteParser.key(port));
+        return entry == null ? null : entry[0];
+    }
+
+    /**
+     * Gets the country of a port.
+     *
+     * @param port the name of the port, as written in a route
+     * @return the country, or {@code null} if the port is not in the directory
+     */
+    public String countryOf(String port) {
+        String[] entry = ports.get(RouteParser.key(port));
+        return entry == null ? null : entry[1];
+    }
+
+    /**
+     * Finds the port of the directory a port name is a misspelling of.
+     *
+     * @param port the name of the port, as written in a route
+     * @return the name of the port in the directory, or {@code null} if the name is in it or close to none
+     */
+    public String misspelling(String port) {
+        String key = RouteParser.key(port);
+        if (ports.containsKey(key) || key.length() <= MAX_TYPO_DISTANCE * 2) {
+            return null;
+        }
+        for (Map.Entry<String, String[]> known : ports.entrySet()) {
+            if (distance(key, known.getKey()) <= MAX_TYPO_DISTANCE) {
+                return known.getValue()[0];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Counts the letters to insert, delete or replace to turn one text into another, giving up past the typo distance.
+     */
+    private static int distance(String a, String b) {
+        if (Math.abs(a.length() - b.length()) > MAX_TYPO_DISTANCE) {
+            return MAX_TYPO_DISTANCE + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int replace = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(replace, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+}
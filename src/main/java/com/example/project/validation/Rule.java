@@ -0,0 +1,82 @@
+package com.example.project.validation;
+
+/**
+ * A named check of one entry of the catalog.
+ * <p>
+ * A rule looks at the entry alone, so the {@link CatalogValidator} can check many entries at once on different
+ * threads. It must not change the entry or keep state between checks.
+ * </p>
+ *
+ * @param <T> the type of the entries, {@link com.example.project.catalog.Sailing} or
+ *            {@link com.example.project.catalog.Charity}
+ */
+public class Rule<T> {
+    /**
+     * The check of a rule.
+     *
+     * @param <T> the type of the entries
+     */
+    @FunctionalInterface
+    public interface Check<T> {
+        /**
+         * Checks an entry.
+         *
+         * @param entry the entry
+         * @return what is wrong with the entry, or {@code null} if it keeps the rule
+         */
+        String check(T entry);
+    }
+
+    private final String name;
+    private final Violation.Severity severity;
+    private final Check<T> check;
+
+    /**
+     * Constructs a Rule.
+     *
+     * @param name     the name the violations are reported under
+     * @param severity how serious breaking the rule is
+     * @param check    the check
+     */
+    public Rule(String name, Violation.Severity severity, Check<T> check) {
+        this.name = name;
+        this.severity = severity;
+        this.check = check;
+    }
+
+    /**
+     * Checks an entry.
+     *
+     * @param entry   the entry
+     * @param id      the id of the entry
+     * @param subject the place of the sailing or the name of the charity
+     * @return the violation, or {@code null} if the entry keeps the rule
+     */
+    public Violation apply(T entry, long id, String subject) {
+        String message = check.check(entry);
+        return message == null ? null : new Violation(name, severity, id, subject, message);
+    }
+
+    /**
+     * Gets the name of the rule.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets how serious breaking the rule is.
+     *
+     * @return the severity
+     */
+    public Violation.Severity getSeverity() {
+        return severity;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + severity + ")";
+    }
+}
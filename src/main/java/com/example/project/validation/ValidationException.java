@@ -0,0 +1,27 @@
+package com.example.project.validation;
+
+/**
+ * Thrown when entries of the catalog break a rule that is an error, so none of them is saved.
+ */
+public class ValidationException extends IllegalArgumentException {
+    private final ValidationReport report;
+
+    /**
+     * Constructs a ValidationException.
+     *
+     * @param report the violations of the entries
+     */
+    public ValidationException(ValidationReport report) {
+        super(report.describe());
+        this.report = report;
+    }
+
+    /**
+     * Gets the violations of the entries.
+     *
+     * @return the report
+     */
+    public ValidationReport getReport() {
+        return report;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.project.validation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable result of validating entries of the catalog: how many were checked and the violations found, by rule.
+ */
+public class ValidationReport {
+    private final int checked;
+    private final List<Violation> violations;
+    private final List<String> rules;
+
+    /**
+     * Constructs a ValidationReport.
+     *
+     * @param checked    the number of entries checked
+     * @param violations the violations, in the order of the entries
+     * @param rules      the names of the rules checked, in the order they are reported
+     */
+    public ValidationReport(int checked, List<Violation> violations, List<String> rules) {
+        this.checked = checked;
+        this.violations = Collections.unmodifiableList(violations);
+        this.rules = List.copyOf(rules);
+    }
+
+    /**
+     * Gets the number of entries checked.
+     *
+     * @return the number of entries
+     */
+    public int getChecked() {
+        return checked;
+    }
+
+    /**
+     * Gets the violations, in the order of the entries.
+     *
+     * @return the violations
+     */
+    public List<Violation> getViolations() {
+        return violations;
+    }
+
+    /**
+     * Groups the violations by the rule broken.
+     *
+     * @return the violations of every rule checked, in the order of the rules, with an empty list for rules kept
+     */
+    public Map<String, List<Violation>> byRule() {
+        Map<String, List<Violation>> byRule = new LinkedHashMap<>();
+        for (String rule : rules) {
+            byRule.put(rule, new ArrayList<>());
+        }
+        for (Violation violation : violations) {
+            byRule.computeIfAbsent(violation.getRule(), rule -> new ArrayList<>()).add(violation);
+        }
+        return byRule;
+    }
+
+    /**
+     * Counts the violations of a rule.
+     *
+     * @param rule the name of the rule
+     * @return the number of violations
+     */
+    public int count(String rule) {
+        int count = 0;
+        for (Violation violation : violations) {
+            if (violation.getRule().equals(rule)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks whether an entry broke a rule that stops it from being saved.
+     *
+     * @return {@code true} if any violation is an {@link Violation.Severity#ERROR}
+     */
+    public boolean hasErrors() {
+        return violations.stream().anyMatch(violation -> violation.getSeverity() == Violation.Severity.ERROR);
+    }
+
+    /**
+     * Checks whether nothing was found.
+     *
+     * @return {@code true} if there are no violations
+     */
+    public boolean isClean() {
+        return violations.isEmpty();
+    }
+
+    /**
+     * Describes the violations for a dialog or an error response, one per line.
+     *
+     * @return the messages of the violations, prefixed by their severity
+     */
+    public String describe() {
+        StringBuilder description = new StringBuilder();
+        for (Violation violation : violations) {
+            if (description.length() > 0) {
+                description.append('\n');
+            }
+            description.append(violation.getSeverity() == Violation.Severity.ERROR ? "Error: " : "Warning: ")
+                    .append(violation.getMessage());
+        }
+        return description.toString();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder summary = new StringBuilder()
+                .append(checked).append(" checked, ").append(violations.size()).append(" violations");
+        for (Map.Entry<String, List<Violation>> rule : byRule().entrySet()) {
+            summary.append('\n').append(String.format("  %-16s %d", rule.getKey(), rule.getValue().size()));
+        }
+        return summary.toString();
+    }
+}
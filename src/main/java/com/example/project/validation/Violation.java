@@ -0,0 +1,89 @@
+package com.example.project.validation;
+
+/**
+ * Immutable record of one entry of the catalog breaking one {@link Rule}.
+ */
+public class Violation {
+    /**
+     * How serious a violation is.
+     */
+    public enum Severity {
+        /** The entry is wrong and is not saved. */
+        ERROR,
+        /** The entry looks wrong; the admin decides whether to save it. */
+        WARNING
+    }
+
+    private final String rule;
+    private final Severity severity;
+    private final long id;
+    private final String subject;
+    private final String message;
+
+    /**
+     * Constructs a Violation.
+     *
+     * @param rule     the name of the rule broken
+     * @param severity how serious it is
+     * @param id       the id of the entry, 0 if it was never saved
+     * @param subject  the place of the sailing or the name of the charity, to tell the entry by
+     * @param message  what is wrong
+     */
+    public Violation(String rule, Severity severity, long id, String subject, String message) {
+        this.rule = rule;
+        this.severity = severity;
+        this.id = id;
+        this.subject = subject;
+        this.message = message;
+    }
+
+    /**
+     * Gets the name of the rule broken.
+     *
+     * @return the rule
+     */
+    public String getRule() {
+        return rule;
+    }
+
+    /**
+     * Gets how serious the violation is.
+     *
+     * @return the severity
+     */
+    public Severity getSeverity() {
+        return severity;
+    }
+
+    /**
+     * Gets the id of the entry.
+     *
+     * @return the surrogate key, 0 if the entry was never saved
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Gets the place of the sailing or the name of the charity.
+     *
+     * @return the subject
+     */
+    public String getSubject() {
+        return subject;
+    }
+
+    /**
+     * Gets what is wrong.
+     *
+     * @return the message
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return severity + " " + rule + " [" + (id == 0 ? "new" : id) + " " + subject + "]: " + message;
+    }
+}
@@ -3,7 +3,7 @@
  * <p>
  * This module defines the dependencies and visibility for the project's packages.
  * It requires JavaFX modules for UI controls and FXML, Java SQL for database interactions,
- * and MySQL connector for database connectivity.
+ * and the MySQL connector and embedded H2 database for database connectivity.
  * <p>
  * It also opens specific packages to JavaFX for FXML loading and exports them for use
  * by other modules or applications.
@@ -13,10 +13,27 @@ module com.example.project {
     requires javafx.fxml;
     requires java.sql;
     requires java.desktop;
+    requires java.net.http;
+    requires jdk.httpserver;
     requires mysql.connector.java;
+    requires com.h2database;
 
     opens com.example.project to javafx.fxml;
     exports com.example.project;
     exports com.example.project.filehandling;
     opens com.example.project.filehandling to javafx.fxml;
+    exports com.example.project.catalog;
+    exports com.example.project.route;
+    exports com.example.project.booking;
+    exports com.example.project.payment;
+    exports com.example.project.server;
+    exports com.example.project.security;
+    exports com.example.project.analytics;
+    exports com.example.project.donation;
+    exports com.example.project.audit;
+    exports com.example.project.schema;
+    exports com.example.project.repository;
+    exports com.example.project.sync;
+    exports com.example.project.search;
+    exports com.example.project.validation;
 }
\ No newline at end of file
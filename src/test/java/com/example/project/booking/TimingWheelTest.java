@@ -0,0 +1,77 @@
+package com.example.project.booking;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    @Test
+    void expiresEveryTimeoutOnItsTickAfterCascadingDownTheLevels() {
+        TimingWheel<Long> wheel = new TimingWheel<>(1, 0);
+        // Deadlines in level 0, on and across the first revolutions of levels 1 and 2, and in level 3
+        long[] deadlines = {1, 63, 64, 65, 127, 128, 4095, 4096, 4097, 5000, 262_143, 262_144, 300_000};
+        for (long deadline : deadlines) {
+            wheel.schedule(deadline, deadline);
+        }
+
+        Map<Long, Long> expiredAt = new HashMap<>();
+        for (long now = 1; now <= 300_000; now++) {
+            for (long deadline : wheel.advance(now)) {
+                expiredAt.put(deadline, now);
+            }
+        }
+
+        for (long deadline : deadlines) {
+            assertEquals(deadline, expiredAt.get(deadline), "expired at");
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void expiresEverythingDueWhenTheClockJumpsManyTicks() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 1_000);
+        wheel.schedule("soon", 1_100);
+        wheel.schedule("later", 60_000);
+        wheel.schedule("much later", 5_000_000);
+
+        assertEquals(Set.of("soon", "later"), new HashSet<>(wheel.advance(61_000)));
+        assertEquals(1, wheel.size());
+        assertTrue(wheel.advance(4_999_999).isEmpty());
+        assertEquals(List.of("much later"), wheel.advance(5_000_000));
+    }
+
+    @Test
+    void cancelledTimeoutNeverExpiresEvenAfterItCascaded() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+        TimingWheel.Timeout<String> cancelled = wheel.schedule("cancelled", 5_000);
+        wheel.schedule("kept", 5_001);
+
+        // Tick 4096 moves both from level 2 into level 1
+        assertTrue(wheel.advance(4_096).isEmpty());
+        assertTrue(cancelled.isScheduled());
+        assertTrue(wheel.cancel(cancelled));
+        assertFalse(wheel.cancel(cancelled));
+        assertFalse(cancelled.isScheduled());
+
+        assertEquals(List.of("kept"), wheel.advance(6_000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void deadlineAlreadyPassedExpiresOnTheNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+        wheel.advance(100);
+        wheel.schedule("overdue", 50);
+
+        assertEquals(List.of("overdue"), wheel.advance(101));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.project.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EditMergeTest {
+    private static final String[] FIELDS = {"Place", "Price", "Date"};
+    private static final String[] BASE = {"Penang", "500", "1 Jan, 2025"};
+
+    @Test
+    void combinesEditsOfDifferentFields() {
+        EditMerge merge = new EditMerge(FIELDS, BASE,
+                new String[] {"Penang", "450", "1 Jan, 2025"},
+                new String[] {"Langkawi", "500", "1 Jan, 2025"});
+
+        assertTrue(merge.isClean());
+        assertArrayEquals(new String[] {"Langkawi", "450", "1 Jan, 2025"}, merge.getMerged());
+        assertEquals(List.of(), merge.getConflicts());
+        assertTrue(merge.describe().contains("combined with yours"));
+    }
+
+    @Test
+    void sameChangeOnBothSidesIsNoConflict() {
+        EditMerge merge = new EditMerge(FIELDS, BASE,
+                new String[] {"Penang", "450", "1 Jan, 2025"},
+                new String[] {"Penang", "450", "2 Jan, 2025"});
+
+        assertTrue(merge.isClean());
+        assertArrayEquals(new String[] {"Penang", "450", "2 Jan, 2025"}, merge.getMerged());
+    }
+
+    @Test
+    void conflictingFieldKeepsThisEditsValueAndReportsTheirs() {
+        EditMerge merge = new EditMerge(FIELDS, BASE,
+                new String[] {"Penang", "450", "3 Jan, 2025"},
+                new String[] {"Langkawi", "550", "1 Jan, 2025"});
+
+        assertFalse(merge.isClean());
+        assertEquals(List.of("Price"), merge.getConflicts());
+        assertArrayEquals(new String[] {"Langkawi", "450", "3 Jan, 2025"}, merge.getMerged());
+        assertTrue(merge.describe().contains("Price (theirs: 550)"));
+    }
+
+    @Test
+    void treatsNullsAsValues() {
+        EditMerge merge = new EditMerge(FIELDS, new String[] {"Penang", null, null},
+                new String[] {"Penang", "500", null},
+                new String[] {null, null, null});
+
+        assertTrue(merge.isClean());
+        assertArrayEquals(new String[] {null, "500", null}, merge.getMerged());
+    }
+
+    @Test
+    void mergedValuesAreACopy() {
+        EditMerge merge = new EditMerge(FIELDS, BASE, BASE.clone(), BASE.clone());
+        merge.getMerged()[0] = "Changed";
+
+        assertArrayEquals(BASE, merge.getMerged());
+    }
+}
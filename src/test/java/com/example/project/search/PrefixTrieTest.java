@@ -0,0 +1,103 @@
+package com.example.project.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PrefixTrieTest {
+
+    @Test
+    void splitsAnEdgeWhereTwoTermsPartWays() {
+        PrefixTrie trie = new PrefixTrie();
+        trie.add("Penang");
+        trie.add("Perak");
+
+        assertEquals(List.of("Penang", "Perak"), trie.suggest("pe"));
+        assertEquals(List.of("Penang"), trie.suggest("pen"));
+        assertEquals(List.of("Perak"), trie.suggest("PER"));
+        assertEquals(List.of(), trie.suggest("pet"));
+        assertEquals(2, trie.size());
+    }
+
+    @Test
+    void splitsAnEdgeForATermEndingInsideIt() {
+        PrefixTrie trie = new PrefixTrie();
+        trie.add("Singapore");
+        trie.add("Sing");
+
+        assertEquals(1, trie.count("sing"));
+        assertEquals(1, trie.count("singapore"));
+        assertEquals(List.of("Sing", "Singapore"), trie.suggest("sin"));
+        assertEquals(List.of("Singapore"), trie.suggest("singa"));
+    }
+
+    @Test
+    void mergesTheRemainingChildIntoItsParentWhenATermIsRemoved() {
+        PrefixTrie trie = new PrefixTrie();
+        trie.add("Penang");
+        trie.add("Perak");
+        trie.remove("Perak");
+
+        assertEquals(List.of("Penang"), trie.suggest("pe"));
+        assertEquals(List.of("Penang"), trie.suggest("pena"));
+        assertEquals(List.of(), trie.suggest("per"));
+        assertEquals(0, trie.count("perak"));
+        assertEquals(1, trie.size());
+
+        // The merged edge splits again like any other
+        trie.add("Perak");
+        trie.add("Pemangkat");
+        assertEquals(List.of("Pemangkat", "Penang", "Perak"), trie.suggest("pe"));
+        assertEquals(List.of("Penang"), trie.suggest("pen"));
+    }
+
+    @Test
+    void mergesAPrefixTermsNodeIntoItsOnlyChildWhenTheTermIsRemoved() {
+        PrefixTrie trie = new PrefixTrie();
+        trie.add("Sing");
+        trie.add("Singapore");
+        trie.remove("Sing");
+
+        assertEquals(0, trie.count("sing"));
+        assertEquals(List.of("Singapore"), trie.suggest("sin"));
+        assertEquals(List.of("Singapore"), trie.suggest("singa"));
+        assertEquals(1, trie.size());
+    }
+
+    @Test
+    void removingAnOccurrenceKeepsTheTermUntilTheLastOneAndReranksIt() {
+        PrefixTrie trie = new PrefixTrie();
+        trie.add("Malacca");
+        trie.add("Malacca");
+        trie.add("Male");
+        trie.add("Male");
+        trie.add("Male");
+
+        assertEquals(List.of("Male", "Malacca"), trie.suggest("mal"));
+        trie.remove("Male");
+        trie.remove("Male");
+        assertEquals(List.of("Malacca", "Male"), trie.suggest("mal"));
+        trie.remove("Male");
+        assertEquals(List.of("Malacca"), trie.suggest("mal"));
+        assertEquals(List.of(), trie.suggest("male"));
+    }
+
+    @Test
+    void keepsOnlyTheMostFrequentTermsUpToTheLimitAfterARemoval() {
+        PrefixTrie trie = new PrefixTrie(2);
+        trie.add("Bali");
+        trie.add("Bali");
+        trie.add("Bali");
+        trie.add("Bangkok");
+        trie.add("Bangkok");
+        trie.add("Batam");
+
+        assertEquals(List.of("Bali", "Bangkok"), trie.suggest("ba"));
+        trie.remove("Bali");
+        trie.remove("Bali");
+        trie.remove("Bali");
+        assertEquals(List.of("Bangkok", "Batam"), trie.suggest("ba"));
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.project.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /** The limiter works on System.nanoTime(), which may be any value, so the tests start from the current one. */
+    private final long start = System.nanoTime();
+
+    @Test
+    void allowsTheWholeBurstThenOneEventPerEmissionInterval() {
+        RateLimiter limiter = new RateLimiter(5, 1, TimeUnit.MINUTES, 100);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire("a@example.com", start), "event " + i + " of the burst");
+        }
+        assertFalse(limiter.tryAcquire("a@example.com", start));
+
+        // One event is allowed again every 12 seconds, not sooner
+        assertFalse(limiter.tryAcquire("a@example.com", start + 11 * SECOND));
+        assertTrue(limiter.tryAcquire("a@example.com", start + 12 * SECOND));
+        assertFalse(limiter.tryAcquire("a@example.com", start + 12 * SECOND));
+
+        // After a whole period without events the burst is full again
+        long later = start + 72 * SECOND;
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire("a@example.com", later));
+        }
+        assertFalse(limiter.tryAcquire("a@example.com", later));
+    }
+
+    @Test
+    void limitsKeysIndependentlyAndResetGivesTheBurstBack() {
+        RateLimiter limiter = new RateLimiter(2, 1, TimeUnit.MINUTES, 100);
+        assertTrue(limiter.tryAcquire("a", start));
+        assertTrue(limiter.tryAcquire("a", start));
+        assertFalse(limiter.tryAcquire("a", start));
+
+        assertTrue(limiter.tryAcquire("b", start));
+        assertEquals(2, limiter.trackedKeys());
+
+        limiter.reset("a");
+        assertTrue(limiter.tryAcquire("a", start));
+    }
+
+    @Test
+    void chargesNewKeysToTheSharedOverflowBucketWhenTheTableIsFullOfActiveKeys() {
+        RateLimiter limiter = new RateLimiter(3, 1, TimeUnit.MINUTES, 10);
+        // The overflow bucket is full from the time the limiter is constructed
+        long now = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire("active" + i, now));
+        }
+
+        // Unseen keys share one bucket limited like a single key: never allowed without limit
+        int allowed = 0;
+        for (int i = 0; i < 1_000; i++) {
+            if (limiter.tryAcquire("flood" + i, now)) {
+                allowed++;
+            }
+        }
+        assertEquals(3, allowed);
+        assertEquals(10, limiter.trackedKeys());
+
+        // Tracked keys keep their own buckets
+        assertTrue(limiter.tryAcquire("active0", now));
+    }
+
+    @Test
+    void evictsAnIdleKeyToMakeRoomForANewOne() {
+        RateLimiter limiter = new RateLimiter(3, 1, TimeUnit.MINUTES, 10);
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire("idle" + i, start);
+        }
+
+        // Every bucket is full again a minute later, so a new key takes the place of one and gets its whole burst
+        long later = start + 61 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("new", later));
+        }
+        assertFalse(limiter.tryAcquire("new", later));
+        assertEquals(10, limiter.trackedKeys());
+    }
+}